@@ -0,0 +1,427 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bitácora binaria de los movimientos de las hormigas, para auditar y reproducir una ejecución.
+ * <p>
+ * Cada evento (movimiento aceptado, movimiento rechazado y por qué, nacimiento, muerte, obstáculo,
+ * comida) es un registro de {@link #BYTES_REGISTRO} bytes en little endian:
+ * {@code long tick, int numero, int x, int y, byte evento, byte dato, short 0}. El tick son los
+ * milisegundos desde que se abrió la bitácora; numero es el de la hormiga (en los eventos del
+ * mapa, el de la colonia o la cantidad de comida, o 0); x e y la celda de destino; dato el tipo de
+ * hormiga.
+ * <p>
+ * Las hormigas no escriben en el fichero: dejan el registro en un anillo en memoria y un único
+ * hilo escritor los vacía en segmentos del fichero mapeados en memoria ({@code base.0},
+ * {@code base.1}, ...) de {@link #BYTES_SEGMENTO} bytes. Los anillos no son uno por hilo (con hilos
+ * virtuales habría uno por hormiga) sino uno por cada grupo de numeros de hormiga, así que todos
+ * los eventos de una hormiga van al mismo anillo y salen en el fichero en el orden en que
+ * ocurrieron. Apuntar un evento es reservar un hueco con un getAndIncrement, escribir tres long y
+ * publicarlo: no hay cerrojos ni se crea ningún objeto. Si un anillo se llena la hormiga espera a
+ * que el escritor lo vacíe, así que nunca se pierde un evento.
+ * <p>
+ * Cada segmento empieza con una cabecera de {@link #BYTES_CABECERA} bytes: firma, versión, ancho
+ * y alto del mapa, numero de segmento y numero de registros escritos (que el escritor actualiza
+ * tras cada vaciado). Lo lee {@link ReproductorBitacora}.
+ */
+public class BitacoraMovimientos {
+    /** Firma al principio de cada segmento ("BITA"). */
+    public static final int MAGIA = 0x41544942;
+    /** Versión del formato. */
+    public static final int VERSION = 1;
+    /** Bytes de la cabecera de cada segmento. */
+    public static final int BYTES_CABECERA = 32;
+    /** Bytes de cada registro. */
+    public static final int BYTES_REGISTRO = 24;
+    /** Bytes de cada segmento (cabecera incluida). */
+    public static final int BYTES_SEGMENTO = 64 << 20;
+    /** Posición en la cabecera del numero de registros del segmento. */
+    static final int POSICION_REGISTROS = 20;
+
+    /** La hormiga se ha movido a (x, y). */
+    public static final byte MOVIDA = 1;
+    /** Rechazado: (x, y) está fuera del mapa. */
+    public static final byte FUERA = 2;
+    /** Rechazado: (x, y) es un hormiguero. */
+    public static final byte HORMIGUERO = 3;
+    /** Rechazado: (x, y) está ocupada por otra hormiga o un obstáculo. */
+    public static final byte OCUPADA = 4;
+    /** La hormiga ha nacido (o se ha restaurado) en (x, y). */
+    public static final byte NACIDA = 5;
+    /** La hormiga ha muerto en (x, y). */
+    public static final byte MUERTA = 6;
+    /** La hormiga ha tomado una unidad de comida de (x, y). */
+    public static final byte COMIDA_TOMADA = 7;
+    /** Se ha colocado un obstáculo en (x, y). */
+    public static final byte OBSTACULO_PUESTO = 8;
+    /** Se ha quitado el obstáculo de (x, y). */
+    public static final byte OBSTACULO_QUITADO = 9;
+    /** Hay numero unidades de comida en (x, y). */
+    public static final byte COMIDA_PUESTA = 10;
+    /** La colonia numero tiene su hormiguero en (x, y). */
+    public static final byte COLONIA = 11;
+    /** Nombre de cada evento, por su código. */
+    private static final String[] NOMBRES = {"", "movida", "fuera", "hormiguero", "ocupada", "nacida",
+            "muerta", "comida_tomada", "obstaculo_puesto", "obstaculo_quitado", "comida_puesta", "colonia"};
+
+    /** Long de cada registro. */
+    private static final int LARGOS_REGISTRO = BYTES_REGISTRO / Long.BYTES;
+    /** Huecos de cada anillo (potencia de 2). */
+    private static final int CAPACIDAD_ANILLO = 4096;
+    /** Espera del escritor cuando no hay nada que vaciar. */
+    private static final long ESPERA_ESCRITOR = TimeUnit.MILLISECONDS.toNanos(1);
+    /** Vueltas que espera una hormiga con el anillo lleno antes de ceder el procesador. */
+    private static final int VUELTAS_ESPERA = 64;
+
+    /** Base del nombre de los segmentos. */
+    private final Path base;
+    /** Ancho del mapa, para la cabecera. */
+    private final int ancho;
+    /** Alto del mapa, para la cabecera. */
+    private final int alto;
+    /** Anillos, por numero de hormiga. */
+    private final Anillo[] anillos;
+    /** Máscara para elegir el anillo de un numero. */
+    private final int mascara;
+    /** Momento (System.nanoTime()) en el que se abrió la bitácora. */
+    private final long inicio;
+    /** Hilo escritor. */
+    private final Thread escritor;
+
+    /** Tick actual; lo avanza el escritor en cada vuelta para que apuntar no tenga que leer el reloj. */
+    private volatile long tick;
+    /** Se pone a false para cerrar la bitácora; los eventos posteriores se descartan. */
+    private volatile boolean abierta;
+
+    /** Canal del segmento actual (solo lo toca el escritor). */
+    private FileChannel canal;
+    /** Segmento actual mapeado en memoria (solo lo toca el escritor). */
+    private MappedByteBuffer segmento;
+    /** Registros del segmento actual, a partir de la cabecera (solo lo toca el escritor). */
+    private LongBuffer largos;
+    /** Numero del segmento actual. */
+    private int numeroSegmento;
+    /** Registros en el segmento actual (-1 si no hay segmento abierto). */
+    private int registrosSegmento;
+    /** Registros escritos en total. */
+    private long escritos;
+
+    /**
+     * Constructor de la clase BitacoraMovimientos: crea el primer segmento y arranca el escritor.
+     *
+     * @param base  Base del nombre de los segmentos.
+     * @param ancho Ancho del mapa.
+     * @param alto  Alto del mapa.
+     * @throws IOException si no se puede crear el primer segmento.
+     */
+    // 0(a) -> a = anillos
+    public BitacoraMovimientos(Path base, int ancho, int alto) throws IOException {
+        this.base = base;
+        this.ancho = ancho;
+        this.alto = alto;
+        int numeroAnillos = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        this.anillos = new Anillo[numeroAnillos];
+        for (int i = 0; i < numeroAnillos; i++) {
+            anillos[i] = new Anillo();
+        }
+        this.mascara = numeroAnillos - 1;
+        this.inicio = System.nanoTime();
+        this.tick = 0;
+        this.abierta = true;
+        this.numeroSegmento = -1;
+        abrirSegmento();
+        this.escritor = Thread.ofPlatform().name("bitacora").daemon(true).start(this::escribir);
+    }
+
+    /**
+     * Obtiene el fichero de un segmento de una bitácora.
+     *
+     * @param base   Base del nombre de los segmentos.
+     * @param numero Numero del segmento.
+     * @return El fichero del segmento.
+     */
+    public static Path segmento(Path base, int numero) {
+        return base.resolveSibling(base.getFileName() + "." + numero);
+    }
+
+    /**
+     * Obtiene el nombre de un evento.
+     *
+     * @param evento Código del evento.
+     * @return Su nombre, o "desconocido".
+     */
+    public static String nombreEvento(int evento) {
+        return evento > 0 && evento < NOMBRES.length ? NOMBRES[evento] : "desconocido";
+    }
+
+    /**
+     * Apunta un evento.
+     * <p>
+     * Se puede llamar desde cualquier hilo; los eventos de una misma hormiga deben apuntarse desde
+     * un solo hilo a la vez (el que la mueve) para que salgan en orden.
+     *
+     * @param numero Numero de la hormiga.
+     * @param x      Coordenada horizontal.
+     * @param y      Coordenada vertical.
+     * @param evento Código del evento.
+     * @param tipo   Tipo de la hormiga.
+     */
+    // 0(1) (espera si el anillo está lleno)
+    public void apuntar(int numero, int x, int y, byte evento, TipoHormiga tipo) {
+        if (!abierta) {
+            return;
+        }
+        anillos[numero & mascara].apuntar(tick,
+                ((long) x << 32) | (numero & 0xFFFFFFFFL),
+                ((long) tipo.ordinal() << 40) | ((long) (evento & 0xFF) << 32) | (y & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Apunta un evento del mapa (obstáculo, comida o colonia).
+     * <p>
+     * Van todos al mismo anillo, así que salen en el fichero en el orden en que se apuntaron.
+     *
+     * @param x      Coordenada horizontal.
+     * @param y      Coordenada vertical.
+     * @param evento Código del evento.
+     * @param valor  Numero de la colonia o cantidad de comida, según el evento (0 si no hace falta).
+     */
+    // 0(1) (espera si el anillo está lleno)
+    public void apuntarMapa(int x, int y, byte evento, int valor) {
+        if (!abierta) {
+            return;
+        }
+        anillos[0].apuntar(tick,
+                ((long) x << 32) | (valor & 0xFFFFFFFFL),
+                ((long) (evento & 0xFF) << 32) | (y & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Obtiene los registros escritos en el fichero (el total exacto una vez cerrada).
+     *
+     * @return Los registros escritos.
+     */
+    public long getEscritos() {
+        return escritos;
+    }
+
+    /**
+     * Obtiene los segmentos creados.
+     *
+     * @return El numero de segmentos.
+     */
+    public int getSegmentos() {
+        return numeroSegmento + 1;
+    }
+
+    /**
+     * Cierra la bitácora: espera a que el escritor vacíe los anillos y vuelca el último segmento.
+     * <p>
+     * Hay que llamarlo con las hormigas ya detenidas; los eventos que lleguen después se descartan.
+     */
+    // 0(e) -> e = eventos pendientes
+    public void cerrar() {
+        if (!abierta) {
+            return;
+        }
+        abierta = false;
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Bucle del hilo escritor: avanza el tick, vacía los anillos en el segmento y espera un poco si
+     * no había nada.
+     */
+    // 0(e) -> e = eventos
+    private void escribir() {
+        boolean ultimaVuelta = false;
+        while (true) {
+            tick = (System.nanoTime() - inicio) / 1_000_000;
+            int vaciados = 0;
+            for (Anillo anillo : anillos) {
+                vaciados += anillo.vaciar(this);
+            }
+            if (vaciados > 0 && segmento != null) {
+                segmento.putInt(POSICION_REGISTROS, registrosSegmento);
+            }
+            if (vaciados == 0) {
+                if (ultimaVuelta) {
+                    break;
+                }
+                if (!abierta) {
+                    // Una vuelta más por si alguna hormiga apuntaba mientras se cerraba
+                    ultimaVuelta = true;
+                    continue;
+                }
+                LockSupport.parkNanos(ESPERA_ESCRITOR);
+            }
+        }
+        cerrarSegmento();
+    }
+
+    /**
+     * Copia registros seguidos de un anillo al segmento, abriendo otro si el actual se llena.
+     * <p>
+     * Cada registro son tres long que ya tienen los bytes del fichero, así que se copian de una
+     * vez con {@link LongBuffer#put(long[], int, int)}. Si falla el fichero, los registros se
+     * descartan (los anillos se siguen vaciando para no bloquear a las hormigas).
+     *
+     * @param datos     Registros del anillo, tres long cada uno.
+     * @param primero   Primer registro a copiar.
+     * @param registros Registros a copiar.
+     */
+    // 0(r) -> r = registros
+    private void escribirRegistros(long[] datos, int primero, int registros) {
+        while (registros > 0 && registrosSegmento >= 0) {
+            if (largos.remaining() < LARGOS_REGISTRO) {
+                cerrarSegmento();
+                try {
+                    abrirSegmento();
+                } catch (IOException e) {
+                    System.err.println("Error al abrir el segmento de la bitacora: " + e.getMessage());
+                    return;
+                }
+            }
+            int copiados = Math.min(registros, largos.remaining() / LARGOS_REGISTRO);
+            largos.put(datos, primero * LARGOS_REGISTRO, copiados * LARGOS_REGISTRO);
+            registrosSegmento += copiados;
+            escritos += copiados;
+            primero += copiados;
+            registros -= copiados;
+        }
+    }
+
+    /**
+     * Crea y mapea el siguiente segmento y escribe su cabecera.
+     */
+    // 0(1)
+    private void abrirSegmento() throws IOException {
+        numeroSegmento++;
+        canal = FileChannel.open(segmento(base, numeroSegmento), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, BYTES_SEGMENTO);
+        segmento.order(ByteOrder.LITTLE_ENDIAN);
+        segmento.putInt(MAGIA).putInt(VERSION).putInt(ancho).putInt(alto)
+                .putInt(numeroSegmento).putInt(0).putLong(0);
+        largos = segmento.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        registrosSegmento = 0;
+    }
+
+    /**
+     * Vuelca el segmento actual al disco y recorta el fichero a lo escrito.
+     */
+    // 0(tamaño del segmento)
+    private void cerrarSegmento() {
+        if (segmento == null) {
+            return;
+        }
+        try {
+            segmento.putInt(POSICION_REGISTROS, registrosSegmento);
+            segmento.force();
+            canal.truncate(BYTES_CABECERA + (long) registrosSegmento * BYTES_REGISTRO);
+            canal.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el segmento de la bitacora: " + e.getMessage());
+        }
+        segmento = null;
+        largos = null;
+        canal = null;
+        registrosSegmento = -1;
+    }
+
+    /**
+     * Anillo de eventos con varios productores (las hormigas) y un consumidor (el escritor).
+     * <p>
+     * Cada hueco tiene una secuencia: vale la posición que espera el productor cuando el hueco está
+     * libre y la posición + 1 cuando ya tiene un evento para el escritor, que al leerlo la pone a
+     * la posición de la siguiente vuelta del anillo.
+     */
+    private static final class Anillo {
+        /** Siguiente posición que reserva un productor. */
+        private final AtomicLong reservadas;
+        /** Secuencia de cada hueco. */
+        private final AtomicLongArray secuencias;
+        /** Tres long por hueco, con los mismos bytes que el registro en el fichero (en little endian). */
+        private final long[] datos;
+        /** Siguiente posición que lee el escritor (solo la toca él). */
+        private long leidas;
+
+        /**
+         * Constructor de la clase Anillo.
+         */
+        // 0(CAPACIDAD_ANILLO)
+        Anillo() {
+            this.reservadas = new AtomicLong();
+            this.secuencias = new AtomicLongArray(CAPACIDAD_ANILLO);
+            for (int i = 0; i < CAPACIDAD_ANILLO; i++) {
+                secuencias.set(i, i);
+            }
+            this.datos = new long[CAPACIDAD_ANILLO * LARGOS_REGISTRO];
+            this.leidas = 0;
+        }
+
+        /**
+         * Reserva un hueco (esperando si el anillo está lleno), copia el evento y lo publica.
+         */
+        // 0(1)
+        void apuntar(long tick, long numeroX, long yEvento) {
+            long posicion = reservadas.getAndIncrement();
+            int hueco = (int) posicion & (CAPACIDAD_ANILLO - 1);
+            int vueltas = 0;
+            while (secuencias.getAcquire(hueco) != posicion) {
+                if (++vueltas < VUELTAS_ESPERA) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            datos[hueco * LARGOS_REGISTRO] = tick;
+            datos[hueco * LARGOS_REGISTRO + 1] = numeroX;
+            datos[hueco * LARGOS_REGISTRO + 2] = yEvento;
+            secuencias.setRelease(hueco, posicion + 1);
+        }
+
+        /**
+         * Pasa al segmento los eventos publicados, en orden, hasta el primer hueco sin publicar.
+         * <p>
+         * Primero cuenta los huecos publicados seguidos, después los copia de una vez (en dos
+         * trozos si dan la vuelta al anillo) y al final los deja libres para los productores.
+         *
+         * @return Los eventos vaciados.
+         */
+        // 0(e) -> e = eventos publicados (como mucho CAPACIDAD_ANILLO)
+        int vaciar(BitacoraMovimientos bitacora) {
+            int publicados = 0;
+            while (publicados < CAPACIDAD_ANILLO
+                    && secuencias.getAcquire((int) (leidas + publicados) & (CAPACIDAD_ANILLO - 1)) == leidas + publicados + 1) {
+                publicados++;
+            }
+            if (publicados == 0) {
+                return 0;
+            }
+            int primero = (int) leidas & (CAPACIDAD_ANILLO - 1);
+            int hastaElFinal = Math.min(publicados, CAPACIDAD_ANILLO - primero);
+            bitacora.escribirRegistros(datos, primero, hastaElFinal);
+            bitacora.escribirRegistros(datos, 0, publicados - hastaElFinal);
+            for (int i = 0; i < publicados; i++) {
+                secuencias.setRelease((int) (leidas + i) & (CAPACIDAD_ANILLO - 1), leidas + i + CAPACIDAD_ANILLO);
+            }
+            leidas += publicados;
+            return publicados;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+/**
+ * Campo de direcciones hacia un destino (normalmente un hormiguero).
+ * <p>
+ * Para cada celda del mapa guarda en un byte el indice en {@link Hormiga#DIRECCIONES} del paso
+ * que la acerca al destino por el camino más corto, esquivando los obstáculos. Se calcula una vez
+ * con una búsqueda en anchura desde el destino, así que volver a casa le cuesta a cada hormiga
+ * una lectura del arreglo, haya las hormigas que haya.
+ * <p>
+ * Cuando se pone o se quita un obstáculo no se recalcula todo el campo: solo se corrigen las
+ * celdas cuya distancia cambia. Al poner un obstáculo se invalidan las celdas cuyo camino pasaba
+ * por él y se vuelven a relajar desde sus vecinas; al quitarlo se propagan las distancias que
+ * mejoran desde la celda liberada.
+ * <p>
+ * El campo es denso (unos 10 bytes por celda), así que solo se crea en mapas de hasta
+ * {@link #MAX_CELDAS} celdas. Lo modifica un solo hilo a la vez (los métodos que cambian el campo
+ * son synchronized); las hormigas lo leen sin cerrojo y como mucho ven durante un momento una
+ * dirección antigua, que solo les hace dar un paso peor.
+ */
+public class CampoDirecciones {
+    /** Numero máximo de celdas del campo. */
+    public static final int MAX_CELDAS = 1 << 22;
+    /** Dirección de una celda sin camino al destino (o de un obstáculo). */
+    public static final byte SIN_CAMINO = -1;
+    /** Distancia de una celda sin camino al destino. */
+    private static final int INFINITO = Integer.MAX_VALUE;
+    /** Distancia que marca un obstáculo. */
+    private static final int BLOQUEADA = -1;
+    /** Indice en DIRECCIONES de la dirección contraria a cada dirección. */
+    private static final byte[] OPUESTA = calcularOpuestas();
+
+    /** Ancho del campo (igual que el del mapa). */
+    private final int ancho;
+    /** Alto del campo (igual que el del mapa). */
+    private final int alto;
+    /** Indice de la celda de destino. */
+    private final int destino;
+    /** Dirección hacia el destino de cada celda (indice en DIRECCIONES o SIN_CAMINO). */
+    private final byte[] direcciones;
+    /** Distancia al destino de cada celda (INFINITO sin camino, BLOQUEADA si es un obstáculo). */
+    private final int[] distancias;
+    /** Cola circular de celdas pendientes, reutilizada en cada cálculo. */
+    private final int[] cola;
+    /** Indica qué celdas están en la cola, para no meter ninguna dos veces. */
+    private final boolean[] enCola;
+    /** Posición de la siguiente celda a sacar de la cola circular. */
+    private int cabezaCola;
+    /** Posición donde se mete la siguiente celda en la cola circular. */
+    private int finCola;
+    /** Numero de celdas en la cola circular. */
+    private int pendientes;
+
+    /**
+     * Constructor de la clase CampoDirecciones.
+     * <p>
+     * Calcula el campo completo con una búsqueda en anchura desde el destino.
+     *
+     * @param ancho    Ancho del mapa.
+     * @param alto     Alto del mapa.
+     * @param xDestino Coordenada horizontal del destino.
+     * @param yDestino Coordenada vertical del destino.
+     * @throws IllegalArgumentException si el mapa tiene más de {@link #MAX_CELDAS} celdas.
+     */
+    // 0(ancho * alto)
+    public CampoDirecciones(int ancho, int alto, int xDestino, int yDestino) {
+        if ((long) ancho * alto > MAX_CELDAS) {
+            throw new IllegalArgumentException("El campo de direcciones admite como mucho " + MAX_CELDAS
+                    + " celdas y el mapa tiene " + (long) ancho * alto);
+        }
+        this.ancho = ancho;
+        this.alto = alto;
+        this.destino = yDestino * ancho + xDestino;
+        int celdas = ancho * alto;
+        this.direcciones = new byte[celdas];
+        this.distancias = new int[celdas];
+        this.cola = new int[celdas];
+        this.enCola = new boolean[celdas];
+        calcularCompleto();
+    }
+
+    /**
+     * Obtiene la dirección hacia el destino desde una celda.
+     *
+     * @param x Coordenada horizontal (dentro del mapa).
+     * @param y Coordenada vertical (dentro del mapa).
+     * @return El indice en DIRECCIONES, o SIN_CAMINO si no hay camino (o es el propio destino).
+     */
+    // 0(1)
+    public byte direccion(int x, int y) {
+        return direcciones[y * ancho + x];
+    }
+
+    /**
+     * Obtiene la distancia al destino desde una celda, en pasos.
+     *
+     * @param x Coordenada horizontal (dentro del mapa).
+     * @param y Coordenada vertical (dentro del mapa).
+     * @return La distancia, o -1 si no hay camino o es un obstáculo.
+     */
+    // 0(1)
+    public int distancia(int x, int y) {
+        int d = distancias[y * ancho + x];
+        return d == INFINITO ? -1 : d;
+    }
+
+    /**
+     * Calcula el campo completo con una búsqueda en anchura desde el destino, respetando los
+     * obstáculos ya marcados.
+     */
+    // 0(ancho * alto)
+    public synchronized void calcular() {
+        calcularCompleto();
+    }
+
+    /**
+     * Hace el cálculo completo de {@link #calcular()} (también desde el constructor).
+     */
+    // 0(ancho * alto)
+    private void calcularCompleto() {
+        for (int i = 0; i < distancias.length; i++) {
+            if (distancias[i] != BLOQUEADA) {
+                distancias[i] = INFINITO;
+            }
+            direcciones[i] = SIN_CAMINO;
+        }
+        distancias[destino] = 0;
+        vaciarCola();
+        encolar(destino);
+        propagar();
+    }
+
+    /**
+     * Marca una celda como obstáculo y corrige las celdas cuyo camino pasaba por ella.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     */
+    // 0(celdas afectadas)
+    public synchronized void bloquear(int x, int y) {
+        int celda = y * ancho + x;
+        if (distancias[celda] == BLOQUEADA || celda == destino) {
+            return;
+        }
+
+        // 1. Invalidar la celda y, en anchura, todas las que llegaban al destino a través de ella
+        int cabeza = 0;
+        int fin = 0;
+        distancias[celda] = BLOQUEADA;
+        direcciones[celda] = SIN_CAMINO;
+        cola[fin++] = celda;
+        while (cabeza < fin) {
+            int actual = cola[cabeza++];
+            int ax = actual % ancho;
+            int ay = actual / ancho;
+            for (int d = 0; d < Hormiga.DIRECCIONES.length; d++) {
+                int vx = ax + Hormiga.DIRECCIONES[d][0];
+                int vy = ay + Hormiga.DIRECCIONES[d][1];
+                if (vx < 0 || vx >= ancho || vy < 0 || vy >= alto) {
+                    continue;
+                }
+                int vecina = vy * ancho + vx;
+                byte suya = direcciones[vecina];
+                // La vecina dependía de actual si su dirección apunta hacia actual
+                if (suya != SIN_CAMINO && vx + Hormiga.DIRECCIONES[suya][0] == ax
+                        && vy + Hormiga.DIRECCIONES[suya][1] == ay) {
+                    distancias[vecina] = INFINITO;
+                    direcciones[vecina] = SIN_CAMINO;
+                    cola[fin++] = vecina;
+                }
+            }
+        }
+
+        // 2. Cada celda invalidada toma la mejor de sus vecinas que siguen bien, y se propaga.
+        // La cola circular escribe desde la posición 0 y nunca alcanza a la lista de invalidadas
+        // que se está leyendo (mete como mucho una celda por cada una leída).
+        for (int i = 1; i < fin; i++) {
+            int afectada = cola[i];
+            relajarDesdeVecinas(afectada);
+        }
+        vaciarCola();
+        for (int i = 1; i < fin; i++) {
+            int afectada = cola[i];
+            if (distancias[afectada] != INFINITO) {
+                encolar(afectada);
+            }
+        }
+        propagar();
+    }
+
+    /**
+     * Quita un obstáculo de una celda y propaga las distancias que mejoran gracias a ella.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     */
+    // 0(celdas afectadas)
+    public synchronized void desbloquear(int x, int y) {
+        int celda = y * ancho + x;
+        if (distancias[celda] != BLOQUEADA) {
+            return;
+        }
+        distancias[celda] = INFINITO;
+        relajarDesdeVecinas(celda);
+        if (distancias[celda] != INFINITO) {
+            vaciarCola();
+            encolar(celda);
+            propagar();
+        }
+    }
+
+    /**
+     * Indica si una celda está marcada como obstáculo en el campo.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return `true` si es un obstáculo.
+     */
+    // 0(1)
+    public boolean bloqueada(int x, int y) {
+        return distancias[y * ancho + x] == BLOQUEADA;
+    }
+
+    /**
+     * Da a una celda la mejor distancia que le ofrecen sus vecinas (más uno), apuntando hacia esa vecina.
+     */
+    // 0(1)
+    private void relajarDesdeVecinas(int celda) {
+        int cx = celda % ancho;
+        int cy = celda / ancho;
+        for (int d = 0; d < Hormiga.DIRECCIONES.length; d++) {
+            int vx = cx + Hormiga.DIRECCIONES[d][0];
+            int vy = cy + Hormiga.DIRECCIONES[d][1];
+            if (vx < 0 || vx >= ancho || vy < 0 || vy >= alto) {
+                continue;
+            }
+            int dv = distancias[vy * ancho + vx];
+            if (dv != BLOQUEADA && dv != INFINITO && dv + 1 < distancias[celda]) {
+                distancias[celda] = dv + 1;
+                direcciones[celda] = (byte) d;
+            }
+        }
+    }
+
+    /**
+     * Deja la cola circular vacía empezando en la posición 0 (entre cálculo y cálculo ya está vacía).
+     */
+    // 0(1)
+    private void vaciarCola() {
+        cabezaCola = 0;
+        finCola = 0;
+        pendientes = 0;
+    }
+
+    /**
+     * Mete una celda en la cola circular si no está ya.
+     */
+    // 0(1)
+    private void encolar(int celda) {
+        if (!enCola[celda]) {
+            enCola[celda] = true;
+            cola[finCola] = celda;
+            finCola = (finCola + 1) % cola.length;
+            pendientes++;
+        }
+    }
+
+    /**
+     * Saca celdas de la cola y mejora la distancia de sus vecinas hasta que no cambia ninguna.
+     * <p>
+     * Es una búsqueda en anchura que admite varias celdas de partida con distancias distintas:
+     * una celda puede volver a entrar en la cola si más tarde se le encuentra un camino más corto.
+     */
+    // 0(celdas que cambian)
+    private void propagar() {
+        while (pendientes > 0) {
+            int actual = cola[cabezaCola];
+            cabezaCola = (cabezaCola + 1) % cola.length;
+            pendientes--;
+            enCola[actual] = false;
+
+            int ax = actual % ancho;
+            int ay = actual / ancho;
+            int siguiente = distancias[actual] + 1;
+            for (int d = 0; d < Hormiga.DIRECCIONES.length; d++) {
+                int vx = ax + Hormiga.DIRECCIONES[d][0];
+                int vy = ay + Hormiga.DIRECCIONES[d][1];
+                if (vx < 0 || vx >= ancho || vy < 0 || vy >= alto) {
+                    continue;
+                }
+                int vecina = vy * ancho + vx;
+                int dv = distancias[vecina];
+                if (dv != BLOQUEADA && siguiente < dv) {
+                    distancias[vecina] = siguiente;
+                    // La vecina va hacia actual: la dirección contraria a d
+                    direcciones[vecina] = OPUESTA[d];
+                    encolar(vecina);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calcula la dirección contraria a cada una de DIRECCIONES.
+     *
+     * @return El arreglo de opuestas.
+     */
+    private static byte[] calcularOpuestas() {
+        byte[] opuestas = new byte[Hormiga.DIRECCIONES.length];
+        for (int d = 0; d < opuestas.length; d++) {
+            for (int o = 0; o < opuestas.length; o++) {
+                if (Hormiga.DIRECCIONES[o][0] == -Hormiga.DIRECCIONES[d][0]
+                        && Hormiga.DIRECCIONES[o][1] == -Hormiga.DIRECCIONES[d][1]) {
+                    opuestas[d] = (byte) o;
+                }
+            }
+        }
+        return opuestas;
+    }
+}
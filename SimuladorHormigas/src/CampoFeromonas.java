@@ -0,0 +1,292 @@
+import java.nio.FloatBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Capa de feromonas sobre el {@link Mapa}.
+ * <p>
+ * Guarda la concentración de feromona de cada celda en un float[] denso (fila a fila, la celda
+ * (x, y) está en {@code y * ancho + x}). Las hormigas depositan feromona al moverse y la leen al
+ * elegir dirección. En cada paso se aplica a todo el campo la difusión (cada celda reparte parte
+ * de su feromona con sus cuatro vecinas) y la evaporación (todo se multiplica por un factor).
+ * <p>
+ * El paso lee de un buffer y escribe en otro, que después se intercambian, así que cada celda se
+ * calcula solo con valores del paso anterior. La cuenta la hace un {@link NucleoFeromonas}: el
+ * escalar, con bucles sobre arreglos primitivos que el JIT puede vectorizar, o el vectorial, con
+ * la Vector API. Con la opción paralela las filas se reparten en franjas que calculan a la vez
+ * los hilos del ForkJoinPool común.
+ * <p>
+ * Los depósitos llegan desde los hilos de las hormigas sin cerrojo: si dos hormigas depositan a
+ * la vez en la misma celda, o una deposita mientras se calcula el paso, se puede perder algún
+ * depósito. Para un rastro de feromonas eso no importa y evita frenar a las hormigas.
+ */
+public class CampoFeromonas {
+    /** Numero máximo de celdas del campo (dos buffers de 256 MB como mucho). */
+    public static final int MAX_CELDAS = 1 << 26;
+    /** Fracción de feromona que se evapora en cada paso. */
+    public static final float EVAPORACION = 0.05f;
+    /** Fracción de feromona de cada celda que se reparte entre sus cuatro vecinas en cada paso. */
+    public static final float DIFUSION = 0.2f;
+    /** Por debajo de esta concentración la feromona se pone a 0 (evita números subnormales, que son lentos). */
+    public static final float MINIMO = 1e-4f;
+    /** Numero mínimo de celdas de cada franja en el modo paralelo. */
+    private static final int CELDAS_POR_FRANJA = 1 << 16;
+    /** Franjas por hilo del ForkJoinPool, para repartir mejor si algun hilo va más lento. */
+    private static final int FRANJAS_POR_HILO = 4;
+
+    /**
+     * Ancho del campo (igual que el del mapa).
+     */
+    private final int ancho;
+    /**
+     * Alto del campo (igual que el del mapa).
+     */
+    private final int alto;
+    /**
+     * Concentraciones actuales: las que leen y modifican las hormigas.
+     */
+    private volatile float[] actual;
+    /**
+     * Buffer donde se escribe el siguiente paso.
+     */
+    private float[] siguiente;
+    /**
+     * Núcleo que calcula cada paso (escalar o vectorial).
+     */
+    private final NucleoFeromonas nucleo;
+    /**
+     * Franjas de filas en que se reparte cada paso (null si el paso no es paralelo).
+     */
+    private final TareaFranja[] franjas;
+    /**
+     * Tarea raíz del paso paralelo (null si el paso no es paralelo).
+     */
+    private final TareaPaso tareaPaso;
+    /**
+     * Buffer de origen del paso en curso, para las franjas.
+     */
+    private float[] origenPaso;
+    /**
+     * Buffer de destino del paso en curso, para las franjas.
+     */
+    private float[] destinoPaso;
+    /**
+     * Pasos aplicados desde el principio.
+     */
+    private volatile long pasos;
+
+    /**
+     * Constructor de la clase CampoFeromonas.
+     *
+     * @param ancho     Ancho del mapa.
+     * @param alto      Alto del mapa.
+     * @param paralelo  `true` para repartir cada paso entre varios hilos.
+     * @param vectorial `true` para usar la Vector API si está disponible.
+     * @throws IllegalArgumentException si el mapa tiene más de {@link #MAX_CELDAS} celdas.
+     */
+    // 0(ancho * alto) -> se reservan los dos buffers
+    public CampoFeromonas(int ancho, int alto, boolean paralelo, boolean vectorial) {
+        if ((long) ancho * alto > MAX_CELDAS) {
+            throw new IllegalArgumentException("El campo de feromonas admite como mucho " + MAX_CELDAS
+                    + " celdas y el mapa tiene " + (long) ancho * alto);
+        }
+        this.ancho = ancho;
+        this.alto = alto;
+        this.actual = new float[ancho * alto];
+        this.siguiente = new float[ancho * alto];
+        this.nucleo = NucleoFeromonas.crear(vectorial);
+        this.pasos = 0;
+
+        // Franjas de filas seguidas: tantas como hilos por FRANJAS_POR_HILO, sin bajar de CELDAS_POR_FRANJA
+        int filasMinimas = Math.max(1, CELDAS_POR_FRANJA / ancho);
+        int numeroFranjas = Math.min(ForkJoinPool.getCommonPoolParallelism() * FRANJAS_POR_HILO,
+                (alto + filasMinimas - 1) / filasMinimas);
+        if (paralelo && numeroFranjas > 1) {
+            this.franjas = new TareaFranja[numeroFranjas];
+            for (int i = 0; i < numeroFranjas; i++) {
+                franjas[i] = new TareaFranja((int) ((long) alto * i / numeroFranjas),
+                        (int) ((long) alto * (i + 1) / numeroFranjas));
+            }
+            this.tareaPaso = new TareaPaso();
+        } else {
+            this.franjas = null;
+            this.tareaPaso = null;
+        }
+    }
+
+    /**
+     * Añade feromona a una celda.
+     *
+     * @param x        Coordenada horizontal (dentro del mapa).
+     * @param y        Coordenada vertical (dentro del mapa).
+     * @param cantidad Cantidad de feromona a añadir.
+     */
+    // 0(1)
+    public void depositar(int x, int y, float cantidad) {
+        float[] campo = actual;
+        campo[y * ancho + x] += cantidad;
+    }
+
+    /**
+     * Obtiene la concentración de feromona de una celda.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return La concentración, o 0 si la celda está fuera del mapa.
+     */
+    // 0(1)
+    public float leer(int x, int y) {
+        if (x < 0 || x >= ancho || y < 0 || y >= alto) {
+            return 0f;
+        }
+        return actual[y * ancho + x];
+    }
+
+    /**
+     * Aplica un paso de difusión y evaporación a todo el campo.
+     * <p>
+     * Solo debe llamarlo un hilo a la vez (el que lleva el ritmo de la simulación).
+     */
+    // 0(ancho * alto), repartido entre los hilos del ForkJoinPool en el modo paralelo
+    public void paso() {
+        float[] origen = actual;
+        float[] destino = siguiente;
+        if (tareaPaso != null) {
+            origenPaso = origen;
+            destinoPaso = destino;
+            tareaPaso.reinitialize();
+            ForkJoinPool.commonPool().invoke(tareaPaso);
+        } else {
+            nucleo.actualizarFilas(origen, destino, ancho, alto, 0, alto);
+        }
+        siguiente = origen;
+        actual = destino;
+        pasos++;
+    }
+
+    /**
+     * Suma la feromona de todo el campo (para las estadísticas).
+     *
+     * @return La feromona total.
+     */
+    // 0(ancho * alto)
+    public double total() {
+        float[] campo = actual;
+        double suma = 0;
+        for (float valor : campo) {
+            suma += valor;
+        }
+        return suma;
+    }
+
+    /**
+     * Copia en un buffer la concentración de las celdas a partir de una, fila a fila (para los
+     * puntos de control), hasta llenar el buffer o acabar el campo.
+     * <p>
+     * No debe haber ningun paso en curso.
+     *
+     * @param desde   Indice (y * ancho + x) de la primera celda a copiar.
+     * @param destino Buffer donde se copian.
+     * @return El numero de celdas copiadas.
+     */
+    // 0(celdas copiadas)
+    public int exportar(int desde, FloatBuffer destino) {
+        float[] campo = actual;
+        int n = Math.min(destino.remaining(), campo.length - desde);
+        destino.put(campo, desde, n);
+        return n;
+    }
+
+    /**
+     * Obtiene el numero de celdas del campo (ancho * alto).
+     *
+     * @return Las celdas.
+     */
+    public int getNumeroCeldas() {
+        return ancho * alto;
+    }
+
+    /**
+     * Sustituye la concentración de todas las celdas por la leida de un buffer, fila a fila.
+     * <p>
+     * No debe haber ningun paso en curso.
+     *
+     * @param origen Buffer con ancho * alto valores.
+     */
+    // 0(ancho * alto)
+    public void importar(FloatBuffer origen) {
+        float[] campo = actual;
+        origen.get(campo);
+        actual = campo; // escritura volatile: publica los valores leidos a los demás hilos
+    }
+
+    /**
+     * Obtiene el numero de pasos aplicados desde el principio.
+     *
+     * @return Los pasos aplicados.
+     */
+    public long getPasos() {
+        return pasos;
+    }
+
+    /**
+     * Indica si cada paso se reparte entre varios hilos.
+     *
+     * @return `true` en el modo paralelo (con más de una franja).
+     */
+    public boolean isParalelo() {
+        return franjas != null;
+    }
+
+    /**
+     * Obtiene el núcleo que calcula cada paso.
+     *
+     * @return El núcleo (escalar o vectorial).
+     */
+    public NucleoFeromonas getNucleo() {
+        return nucleo;
+    }
+
+    /**
+     * Tarea de fork/join que calcula una franja de filas del paso en curso.
+     * <p>
+     * Cada franja necesita la fila anterior y la siguiente a sus límites (el halo). Como todas
+     * leen del mismo buffer de origen, que nadie reescribe durante el paso (salvo los depósitos
+     * de las hormigas), el halo se lee directamente de ahí sin copiarlo y las franjas no necesitan
+     * sincronizarse entre sí. Las tareas se crean una vez y se reutilizan en cada paso.
+     */
+    private final class TareaFranja extends RecursiveAction {
+        /** Version de serialización (las tareas no se serializan nunca). */
+        private static final long serialVersionUID = 1L;
+        /** Primera fila de la franja. */
+        private final int desde;
+        /** Fila siguiente a la última de la franja. */
+        private final int hasta;
+
+        TareaFranja(int desde, int hasta) {
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            nucleo.actualizarFilas(origenPaso, destinoPaso, ancho, alto, desde, hasta);
+        }
+    }
+
+    /**
+     * Tarea de fork/join raíz de un paso: lanza todas las franjas y espera a que acaben.
+     */
+    private final class TareaPaso extends RecursiveAction {
+        /** Version de serialización (las tareas no se serializan nunca). */
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+            for (TareaFranja franja : franjas) {
+                franja.reinitialize();
+            }
+            invokeAll(franjas);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Clase que representa una colonia de hormigas: su hormiguero, sus miembros de cada tipo, el
+ * estado de sus obreras y la comida que han recogido y entregado.
+ * <p>
+ * Los miembros no se guardan como objetos sino por tipo ({@link TipoHormiga}) en arreglos de
+ * enteros con el numero de cada hormiga, así que "todas las guerreras de la colonia 3" es recorrer
+ * un int[] seguido sin mirar el resto de hormigas de la simulación. Cada hormiga tiene una ranura
+ * fija en el arreglo de su tipo; cuando muere su ranura se queda a 0 (LIBRE) y, cuando su hilo
+ * termina, vuelve a una pila de ranuras libres de su tipo para el siguiente nacimiento (así la
+ * colonia no crece con las muertes y nacer y morir son 0(1)).
+ * <p>
+ * El estado de cada obrera (buscando, cargando o volviendo, ver {@link HormigaObrera}) tampoco se
+ * guarda en la hormiga sino en un byte[] de la colonia, un byte por ranura de obrera. Así una
+ * colonia grande ocupa poco y contar cuántas obreras hay en cada estado es recorrer un arreglo
+ * seguido. Cada obrera solo escribe su propio byte.
+ * <p>
+ * Añadir y quitar miembros (nacimientos y muertes, que son raros) es synchronized; las consultas no
+ * toman el cerrojo y desde otro hilo dan un resultado aproximado. Los contadores de comida son
+ * LongAdder porque los incrementan los hilos de todas las obreras.
+ */
+public class Colonia {
+    /**
+     * Numero de la colonia (empezando en 1).
+     */
+    private final int numero;
+    /**
+     * Hormiguero al que vuelven las obreras con comida.
+     */
+    private final Posicion hormiguero;
+    /**
+     * Camino más corto al hormiguero desde cada celda (null si el mapa es demasiado grande).
+     */
+    private final CampoDirecciones campoHormiguero;
+    /**
+     * Numero de cada miembro por tipo (ordinal de TipoHormiga) y ranura; LIBRE si la ranura está vacía.
+     */
+    private final int[][] miembros;
+    /**
+     * Ranuras usadas de cada tipo (las siguientes están sin estrenar).
+     */
+    private final int[] ranurasUsadas;
+    /**
+     * Pila de ranuras libres de cada tipo, para reutilizarlas antes de estrenar otras.
+     */
+    private final int[][] ranurasLibres;
+    /**
+     * Ranuras en la pila de libres de cada tipo.
+     */
+    private final int[] numeroLibres;
+    /**
+     * Miembros vivos de cada tipo.
+     */
+    private final int[] vivos;
+    /**
+     * Estado de cada obrera, por su ranura.
+     */
+    private final byte[] estados;
+    /**
+     * Unidades de comida recogidas por las obreras.
+     */
+    private final LongAdder comidaRecogida;
+    /**
+     * Unidades de comida entregadas en el hormiguero.
+     */
+    private final LongAdder comidaEntregada;
+    /**
+     * Miembros de la colonia que han muerto.
+     */
+    private final LongAdder bajas;
+
+    /**
+     * Constructor de la clase Colonia.
+     *
+     * @param numero          Numero de la colonia.
+     * @param hormiguero      Posición del hormiguero.
+     * @param campoHormiguero Campo de direcciones hacia el hormiguero, o null para volver sin él.
+     * @param capacidades     Numero máximo de miembros de cada tipo, por el ordinal de TipoHormiga.
+     */
+    // 0(capacidad total)
+    public Colonia(int numero, Posicion hormiguero, CampoDirecciones campoHormiguero, int[] capacidades) {
+        if (capacidades.length != TipoHormiga.values().length) {
+            throw new IllegalArgumentException("Hace falta una capacidad por tipo de hormiga y hay " + capacidades.length);
+        }
+        this.numero = numero;
+        this.hormiguero = hormiguero;
+        this.campoHormiguero = campoHormiguero;
+        this.miembros = new int[capacidades.length][];
+        for (int t = 0; t < capacidades.length; t++) {
+            miembros[t] = new int[capacidades[t]];
+        }
+        this.ranurasUsadas = new int[capacidades.length];
+        this.ranurasLibres = new int[capacidades.length][];
+        for (int t = 0; t < capacidades.length; t++) {
+            ranurasLibres[t] = new int[capacidades[t]];
+        }
+        this.numeroLibres = new int[capacidades.length];
+        this.vivos = new int[capacidades.length];
+        this.estados = new byte[capacidades[TipoHormiga.OBRERA.ordinal()]];
+        this.comidaRecogida = new LongAdder();
+        this.comidaEntregada = new LongAdder();
+        this.bajas = new LongAdder();
+    }
+
+    /**
+     * Obtiene el numero de la colonia.
+     *
+     * @return El numero.
+     */
+    public int getNumero() {
+        return numero;
+    }
+
+    /**
+     * Obtiene la posición del hormiguero de la colonia.
+     *
+     * @return El hormiguero.
+     */
+    public Posicion getHormiguero() {
+        return hormiguero;
+    }
+
+    /**
+     * Obtiene el campo de direcciones hacia el hormiguero.
+     *
+     * @return El campo, o null si el mapa es demasiado grande para tenerlo.
+     */
+    public CampoDirecciones getCampoHormiguero() {
+        return campoHormiguero;
+    }
+
+    /**
+     * Obtiene el numero máximo de miembros de un tipo.
+     *
+     * @param tipo Tipo de hormiga.
+     * @return La capacidad.
+     */
+    public int getCapacidad(TipoHormiga tipo) {
+        return miembros[tipo.ordinal()].length;
+    }
+
+    /**
+     * Añade un miembro a la colonia en una ranura libre de su tipo, o si no hay en la primera sin estrenar.
+     *
+     * @param tipo          Tipo de la hormiga.
+     * @param numeroHormiga Numero de la hormiga (mayor que 0).
+     * @return La ranura de la hormiga, o -1 si no caben más hormigas de ese tipo.
+     */
+    // 0(1)
+    public synchronized int agregar(TipoHormiga tipo, int numeroHormiga) {
+        int t = tipo.ordinal();
+        int ranura;
+        if (numeroLibres[t] > 0) {
+            ranura = ranurasLibres[t][--numeroLibres[t]];
+        } else if (ranurasUsadas[t] < miembros[t].length) {
+            ranura = ranurasUsadas[t]++;
+        } else {
+            return -1;
+        }
+        miembros[t][ranura] = numeroHormiga;
+        vivos[t]++;
+        return ranura;
+    }
+
+    /**
+     * Quita de la colonia un miembro que ha muerto, dejando su ranura a LIBRE.
+     *
+     * @param tipo   Tipo de la hormiga.
+     * @param ranura Ranura de la hormiga.
+     */
+    // 0(1)
+    public synchronized void quitar(TipoHormiga tipo, int ranura) {
+        int t = tipo.ordinal();
+        if (miembros[t][ranura] != RejillaOcupacion.LIBRE) {
+            miembros[t][ranura] = RejillaOcupacion.LIBRE;
+            vivos[t]--;
+            bajas.increment();
+        }
+    }
+
+    /**
+     * Deja disponible para otro miembro la ranura de uno que ha muerto.
+     * <p>
+     * Se llama cuando el hilo de la hormiga muerta ha terminado, para que no escriba su estado en
+     * la ranura de la siguiente.
+     *
+     * @param tipo   Tipo de la hormiga.
+     * @param ranura Ranura de la hormiga (ya quitada con quitar()).
+     */
+    // 0(1)
+    public synchronized void liberarRanura(TipoHormiga tipo, int ranura) {
+        int t = tipo.ordinal();
+        ranurasLibres[t][numeroLibres[t]++] = ranura;
+    }
+
+    /**
+     * Copia los números de los miembros vivos de un tipo, sin crear objetos.
+     *
+     * @param tipo    Tipo de hormiga.
+     * @param destino Arreglo donde se copian (de al menos getCapacidad(tipo) enteros).
+     * @return El numero de miembros copiados.
+     */
+    // 0(r) -> r = ranuras usadas del tipo
+    public int miembros(TipoHormiga tipo, int[] destino) {
+        int[] numeros = miembros[tipo.ordinal()];
+        int hasta = ranurasUsadas[tipo.ordinal()];
+        int total = 0;
+        for (int i = 0; i < hasta; i++) {
+            int miembro = numeros[i];
+            if (miembro != RejillaOcupacion.LIBRE) {
+                destino[total++] = miembro;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Obtiene el numero de miembros vivos de un tipo.
+     *
+     * @param tipo Tipo de hormiga.
+     * @return Los miembros vivos.
+     */
+    // 0(1)
+    public int getVivos(TipoHormiga tipo) {
+        return vivos[tipo.ordinal()];
+    }
+
+    /**
+     * Obtiene el estado de una obrera.
+     *
+     * @param ranura Ranura de la obrera en la colonia.
+     * @return Su estado.
+     */
+    // 0(1)
+    public byte getEstado(int ranura) {
+        return estados[ranura];
+    }
+
+    /**
+     * Cambia el estado de una obrera.
+     *
+     * @param ranura Ranura de la obrera en la colonia.
+     * @param estado Su nuevo estado.
+     */
+    // 0(1)
+    public void setEstado(int ranura, byte estado) {
+        estados[ranura] = estado;
+    }
+
+    /**
+     * Cuenta las obreras vivas que están en un estado.
+     * <p>
+     * Se llama desde otro hilo para las estadísticas, así que el resultado es aproximado.
+     *
+     * @param estado Estado a contar.
+     * @return El numero de obreras en ese estado.
+     */
+    // 0(r) -> r = ranuras usadas de obrera
+    public int contarEstado(byte estado) {
+        int[] obreras = miembros[TipoHormiga.OBRERA.ordinal()];
+        int hasta = ranurasUsadas[TipoHormiga.OBRERA.ordinal()];
+        int total = 0;
+        for (int i = 0; i < hasta; i++) {
+            if (estados[i] == estado && obreras[i] != RejillaOcupacion.LIBRE) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Apunta una unidad de comida recogida.
+     */
+    // 0(1)
+    public void comidaRecogida() {
+        comidaRecogida.increment();
+    }
+
+    /**
+     * Apunta una unidad de comida entregada en el hormiguero.
+     */
+    // 0(1)
+    public void comidaEntregada() {
+        comidaEntregada.increment();
+    }
+
+    /**
+     * Suma a los contadores de la colonia los de un punto de control (la colonia empieza a 0).
+     *
+     * @param recogida  Comida recogida.
+     * @param entregada Comida entregada.
+     * @param bajas     Miembros muertos.
+     */
+    // 0(1)
+    void restaurarContadores(long recogida, long entregada, long bajas) {
+        comidaRecogida.add(recogida);
+        comidaEntregada.add(entregada);
+        this.bajas.add(bajas);
+    }
+
+    /**
+     * Obtiene las unidades de comida recogidas.
+     *
+     * @return La comida recogida.
+     */
+    public long getComidaRecogida() {
+        return comidaRecogida.sum();
+    }
+
+    /**
+     * Obtiene las unidades de comida entregadas en el hormiguero.
+     *
+     * @return La comida entregada.
+     */
+    public long getComidaEntregada() {
+        return comidaEntregada.sum();
+    }
+
+    /**
+     * Obtiene el numero de miembros de la colonia que han muerto.
+     *
+     * @return Las bajas.
+     */
+    public long getBajas() {
+        return bajas.sum();
+    }
+}
@@ -0,0 +1,1069 @@
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Clase que guarda la configuración de arranque del simulador.
+ * <p>
+ * Se puede crear con los valores por defecto o a partir de los argumentos de la linea de
+ * comandos, con el formato {@code --opcion=valor}.
+ * <p>
+ * Opciones disponibles:
+ * - {@code --hormigas=N}: numero de hormigas obreras de cada colonia al empezar.
+ * - {@code --colonias=N}: numero de colonias, cada una con su hormiguero.
+ * - {@code --guerreras=N}: numero de hormigas guerreras de cada colonia (0 para ninguna).
+ * - {@code --crias=N}: obreras que pone la reina de cada colonia a lo largo de la simulación
+ *   (0 para no tener reina).
+ * - {@code --ancho=N} y {@code --alto=N}: tamaño del mapa.
+ * - {@code --modo=plataforma|virtual|ejecutor|regiones|rueda|generaciones}: como se ejecutan las hormigas.
+ * - {@code --regiones=N}: regiones por lado del mapa en el modo regiones (un hilo por región).
+ * - {@code --trabajadores=N}: hilos que mueven las hormigas en los modos rueda y generaciones (por defecto uno por procesador).
+ * - {@code --plazo-detencion=MS}: milisegundos que se espera como mucho, en total, a que terminen
+ *   las hormigas al detener la simulación; las que no terminan se avisan.
+ * - {@code --interfaz=consola|ninguna}: con visualización e interactivo, o sin interfaz por lotes.
+ * - {@code --duracion=S}: segundos que dura la simulación sin interfaz.
+ * - {@code --fps=N}: frames por segundo de la visualización.
+ * - {@code --render=completo|incremental}: redibujar todo el mapa o solo las celdas que cambian
+ *   (el modo generaciones solo admite completo).
+ * - {@code --motor=hilos|turnos}: hilos por hormiga (interactivo) o {@link MotorPorTurnos} (por lotes).
+ * - {@code --turnos=N}: numero de turnos a simular con el motor por turnos.
+ * - {@code --semilla=N}: semilla del motor por turnos (si no se indica se elige una al azar).
+ * - {@code --feromonas=no|si|paralelo}: capa de feromonas sobre el mapa, con el paso en un hilo o repartido entre varios.
+ * - {@code --comida=N}: numero de fuentes de comida que se colocan al azar en el mapa (0 para ninguna).
+ * - {@code --obstaculos=N}: numero de muros que se colocan al azar en el mapa (0 para ninguno).
+ * - {@code --guardar=FICHERO}: guardar un punto de control al detener la simulación (ver {@link PuntoControl}).
+ * - {@code --restaurar=FICHERO}: empezar desde un punto de control en lugar de generar las
+ *   hormigas; el tamaño del mapa, las colonias y las hormigas de cada tipo se toman del fichero.
+ * - {@code --bitacora=FICHERO}: apuntar los movimientos (aceptados y rechazados) y los cambios del
+ *   mapa en una bitácora binaria (ver {@link BitacoraMovimientos}); se escribe en FICHERO.0, FICHERO.1...
+ * - {@code --reproducir=FICHERO}: en lugar de simular, reconstruir el mapa de una bitácora (ver
+ *   {@link ReproductorBitacora}).
+ * - {@code --tick=N}: milisegundo de la bitácora hasta el que se reproduce (por defecto hasta el final).
+ * - {@code --metricas=FICHERO}: escribir las métricas periódicamente en FICHERO (JSON Lines si
+ *   acaba en ".json", CSV si no; ver {@link ExportadorMetricas}).
+ * - {@code --periodo-metricas=MS}: milisegundos entre dos líneas del fichero de métricas.
+ * - {@code --jfr=FICHERO}: grabar con Java Flight Recorder, con los eventos propios del simulador
+ *   (ver {@link RegistroVuelo}), y escribir la grabación en FICHERO al detener la simulación.
+ * - {@code --indice-id=si|no}: mantener un indice de las hormigas por su ID (ver
+ *   {@link SimuladorColoniasHormigas#getHormigaPorId(String)}); sin él los nacimientos no crean objetos.
+ * - {@code --simd=si|no}: calcular el paso de las feromonas con la Vector API (necesita
+ *   {@code --add-modules jdk.incubator.vector} al arrancar la máquina virtual) o en Java escalar.
+ */
+public class Configuracion {
+    /** Numero de hormigas obreras de cada colonia por defecto. */
+    public static final int NUMERO_HORMIGAS_POR_DEFECTO = 5;
+    /** Numero de colonias por defecto. */
+    public static final int COLONIAS_POR_DEFECTO = 1;
+    /** Frames por segundo por defecto de la visualización (un frame por segundo). */
+    public static final int FPS_POR_DEFECTO = 1;
+    /** Duración por defecto de la simulación sin interfaz, en milisegundos. */
+    public static final long DURACION_POR_DEFECTO = 10_000;
+    /** Numero de turnos por defecto del motor por turnos. */
+    public static final long TURNOS_POR_DEFECTO = 1000;
+    /** Numero de fuentes de comida por defecto. */
+    public static final int FUENTES_COMIDA_POR_DEFECTO = 2;
+    /** Numero de muros por defecto. */
+    public static final int MUROS_POR_DEFECTO = 0;
+    /** Regiones por lado del mapa por defecto en el modo regiones. */
+    public static final int REGIONES_POR_DEFECTO = 2;
+    /** Milisegundos que se espera por defecto a que terminen las hormigas al detener la simulación. */
+    public static final int PLAZO_DETENCION_POR_DEFECTO = 2000;
+    /** Milisegundos por defecto entre dos líneas del fichero de métricas. */
+    public static final int PERIODO_METRICAS_POR_DEFECTO = 1000;
+
+    /**
+     * Numero de hormigas obreras de cada colonia al empezar.
+     */
+    private int numeroHormigas;
+    /**
+     * Numero de colonias.
+     */
+    private int colonias;
+    /**
+     * Numero de hormigas guerreras de cada colonia.
+     */
+    private int guerreras;
+    /**
+     * Obreras que pone la reina de cada colonia (0 si las colonias no tienen reina).
+     */
+    private int crias;
+    /**
+     * Ancho del mapa.
+     */
+    private int ancho;
+    /**
+     * Alto del mapa.
+     */
+    private int alto;
+    /**
+     * Modo de ejecución de las hormigas.
+     */
+    private ModoEjecucion modo;
+    /**
+     * Ejecutor a usar en el modo EJECUTOR (si es null se crea uno por defecto).
+     */
+    private ExecutorService ejecutor;
+    /**
+     * Si es false la simulación se ejecuta sin visualización ni preguntas.
+     */
+    private boolean conInterfaz;
+    /**
+     * Duración de la simulación sin interfaz, en milisegundos.
+     */
+    private long duracion;
+    /**
+     * Frames por segundo de la visualización.
+     */
+    private int fps;
+    /**
+     * Si es true solo se redibujan las celdas que cambian (ver {@link RenderizadorIncremental}).
+     */
+    private boolean renderIncremental;
+    /**
+     * Si es true se usa el motor por turnos en lugar de un hilo por hormiga.
+     */
+    private boolean motorPorTurnos;
+    /**
+     * Numero de turnos a simular con el motor por turnos.
+     */
+    private long turnos;
+    /**
+     * Semilla del motor por turnos.
+     */
+    private long semilla;
+    /**
+     * Si es true el mapa tiene una capa de feromonas (ver {@link CampoFeromonas}).
+     */
+    private boolean feromonas;
+    /**
+     * Si es true cada paso del campo de feromonas se reparte entre varios hilos.
+     */
+    private boolean feromonasParalelo;
+    /**
+     * Si es true el paso del campo de feromonas usa la Vector API cuando está disponible.
+     */
+    private boolean feromonasVectorial;
+    /**
+     * Numero de fuentes de comida que se colocan en el mapa.
+     */
+    private int fuentesComida;
+    /**
+     * Numero de muros de obstáculos que se colocan en el mapa.
+     */
+    private int muros;
+    /**
+     * Regiones por lado del mapa en el modo regiones.
+     */
+    private int regiones;
+    /**
+     * Hilos que mueven las hormigas en los modos rueda y generaciones.
+     */
+    private int trabajadores;
+    /**
+     * Milisegundos que se espera como mucho a que terminen las hormigas al detener la simulación.
+     */
+    private int plazoDetencion;
+    /**
+     * Fichero donde se guarda un punto de control al detener la simulación (null para no guardar).
+     */
+    private String ficheroGuardar;
+    /**
+     * Fichero del punto de control desde el que se empieza (null para generar las hormigas).
+     */
+    private String ficheroRestaurar;
+    /**
+     * Base de los ficheros de la bitácora de movimientos (null para no apuntar nada).
+     */
+    private String ficheroBitacora;
+    /**
+     * Base de los ficheros de la bitácora a reproducir (null para simular).
+     */
+    private String ficheroReproducir;
+    /**
+     * Milisegundo de la bitácora hasta el que se reproduce.
+     */
+    private long tickReproducir;
+    /**
+     * Fichero donde se escriben las métricas (null para no escribirlas).
+     */
+    private String ficheroMetricas;
+    /**
+     * Milisegundos entre dos líneas del fichero de métricas.
+     */
+    private int periodoMetricas;
+    /**
+     * Fichero donde se escribe la grabación de Java Flight Recorder (null para no grabar).
+     */
+    private String ficheroJfr;
+    /**
+     * Si es true se mantiene un indice de las hormigas por su ID.
+     */
+    private boolean indicePorId;
+
+    /**
+     * Constructor de la clase Configuracion con los valores por defecto.
+     */
+    // 0(1)
+    public Configuracion() {
+        this.numeroHormigas = NUMERO_HORMIGAS_POR_DEFECTO;
+        this.colonias = COLONIAS_POR_DEFECTO;
+        this.guerreras = 0;
+        this.crias = 0;
+        this.ancho = Mapa.ANCHO;
+        this.alto = Mapa.ALTO;
+        this.modo = ModoEjecucion.PLATAFORMA;
+        this.ejecutor = null;
+        this.renderIncremental = false;
+        this.conInterfaz = true;
+        this.duracion = DURACION_POR_DEFECTO;
+        this.fps = FPS_POR_DEFECTO;
+        this.motorPorTurnos = false;
+        this.turnos = TURNOS_POR_DEFECTO;
+        this.semilla = new Random().nextLong();
+        this.feromonas = false;
+        this.feromonasParalelo = false;
+        this.feromonasVectorial = true;
+        this.fuentesComida = FUENTES_COMIDA_POR_DEFECTO;
+        this.muros = MUROS_POR_DEFECTO;
+        this.regiones = REGIONES_POR_DEFECTO;
+        this.trabajadores = Runtime.getRuntime().availableProcessors();
+        this.plazoDetencion = PLAZO_DETENCION_POR_DEFECTO;
+        this.ficheroGuardar = null;
+        this.ficheroRestaurar = null;
+        this.ficheroBitacora = null;
+        this.ficheroReproducir = null;
+        this.tickReproducir = Long.MAX_VALUE;
+        this.ficheroMetricas = null;
+        this.periodoMetricas = PERIODO_METRICAS_POR_DEFECTO;
+        this.ficheroJfr = null;
+        this.indicePorId = false;
+    }
+
+    /**
+     * Crea una configuración a partir de los argumentos de la linea de comandos.
+     *
+     * @param args Argumentos con el formato {@code --opcion=valor}.
+     * @return La configuración leida.
+     * @throws IllegalArgumentException si algun argumento no es valido.
+     */
+    // 0(n) -> n = numero de argumentos
+    public static Configuracion desdeArgumentos(String[] args) {
+        Configuracion configuracion = new Configuracion();
+        for (String argumento : args) {
+            int igual = argumento.indexOf('=');
+            if (!argumento.startsWith("--") || igual < 0) {
+                throw new IllegalArgumentException("Argumento no valido: " + argumento);
+            }
+            String opcion = argumento.substring(2, igual);
+            String valor = argumento.substring(igual + 1);
+
+            switch (opcion) {
+                case "hormigas":
+                    configuracion.setNumeroHormigas(leerEntero(opcion, valor));
+                    break;
+                case "colonias":
+                    configuracion.setColonias(leerEntero(opcion, valor));
+                    break;
+                case "guerreras":
+                    configuracion.setGuerreras(leerEnteroNoNegativo(opcion, valor));
+                    break;
+                case "crias":
+                    configuracion.setCrias(leerEnteroNoNegativo(opcion, valor));
+                    break;
+                case "ancho":
+                    configuracion.setAncho(leerEntero(opcion, valor));
+                    break;
+                case "alto":
+                    configuracion.setAlto(leerEntero(opcion, valor));
+                    break;
+                case "modo":
+                    configuracion.setModo(ModoEjecucion.desdeNombre(valor));
+                    break;
+                case "regiones":
+                    configuracion.setRegiones(leerEntero(opcion, valor));
+                    break;
+                case "trabajadores":
+                    configuracion.setTrabajadores(leerEntero(opcion, valor));
+                    break;
+                case "plazo-detencion":
+                    configuracion.setPlazoDetencion(leerEntero(opcion, valor));
+                    break;
+                case "interfaz":
+                    if (valor.equalsIgnoreCase("consola")) {
+                        configuracion.setConInterfaz(true);
+                    } else if (valor.equalsIgnoreCase("ninguna")) {
+                        configuracion.setConInterfaz(false);
+                    } else {
+                        throw new IllegalArgumentException("Interfaz desconocida: " + valor);
+                    }
+                    break;
+                case "duracion":
+                    configuracion.setDuracion(leerEntero(opcion, valor) * 1000L);
+                    break;
+                case "fps":
+                    int fps = leerEntero(opcion, valor);
+                    if (fps > 1000) {
+                        throw new IllegalArgumentException("La opcion fps no puede ser mayor que 1000");
+                    }
+                    configuracion.setFps(fps);
+                    break;
+                case "render":
+                    if (valor.equalsIgnoreCase("incremental")) {
+                        configuracion.setRenderIncremental(true);
+                    } else if (valor.equalsIgnoreCase("completo")) {
+                        configuracion.setRenderIncremental(false);
+                    } else {
+                        throw new IllegalArgumentException("Render desconocido: " + valor);
+                    }
+                    break;
+                case "motor":
+                    if (valor.equalsIgnoreCase("turnos")) {
+                        configuracion.setMotorPorTurnos(true);
+                    } else if (valor.equalsIgnoreCase("hilos")) {
+                        configuracion.setMotorPorTurnos(false);
+                    } else {
+                        throw new IllegalArgumentException("Motor desconocido: " + valor);
+                    }
+                    break;
+                case "turnos":
+                    configuracion.setTurnos(leerEntero(opcion, valor));
+                    break;
+                case "semilla":
+                    try {
+                        configuracion.setSemilla(Long.parseLong(valor));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("La opcion semilla debe ser un numero: " + valor);
+                    }
+                    break;
+                case "feromonas":
+                    if (valor.equalsIgnoreCase("no")) {
+                        configuracion.setFeromonas(false);
+                        configuracion.setFeromonasParalelo(false);
+                    } else if (valor.equalsIgnoreCase("si")) {
+                        configuracion.setFeromonas(true);
+                        configuracion.setFeromonasParalelo(false);
+                    } else if (valor.equalsIgnoreCase("paralelo")) {
+                        configuracion.setFeromonas(true);
+                        configuracion.setFeromonasParalelo(true);
+                    } else {
+                        throw new IllegalArgumentException("Valor de feromonas desconocido: " + valor);
+                    }
+                    break;
+                case "comida":
+                    configuracion.setFuentesComida(leerEnteroNoNegativo(opcion, valor));
+                    break;
+                case "obstaculos":
+                    configuracion.setMuros(leerEnteroNoNegativo(opcion, valor));
+                    break;
+                case "guardar":
+                    configuracion.setFicheroGuardar(leerFichero(opcion, valor));
+                    break;
+                case "restaurar":
+                    configuracion.setFicheroRestaurar(leerFichero(opcion, valor));
+                    break;
+                case "bitacora":
+                    configuracion.setFicheroBitacora(leerFichero(opcion, valor));
+                    break;
+                case "reproducir":
+                    configuracion.setFicheroReproducir(leerFichero(opcion, valor));
+                    break;
+                case "metricas":
+                    configuracion.setFicheroMetricas(leerFichero(opcion, valor));
+                    break;
+                case "periodo-metricas":
+                    configuracion.setPeriodoMetricas(leerEntero(opcion, valor));
+                    break;
+                case "jfr":
+                    configuracion.setFicheroJfr(leerFichero(opcion, valor));
+                    break;
+                case "tick":
+                    configuracion.setTickReproducir(leerLargoNoNegativo(opcion, valor));
+                    break;
+                case "indice-id":
+                    if (valor.equalsIgnoreCase("si")) {
+                        configuracion.setIndicePorId(true);
+                    } else if (valor.equalsIgnoreCase("no")) {
+                        configuracion.setIndicePorId(false);
+                    } else {
+                        throw new IllegalArgumentException("Valor de indice-id desconocido: " + valor);
+                    }
+                    break;
+                case "simd":
+                    if (valor.equalsIgnoreCase("si")) {
+                        configuracion.setFeromonasVectorial(true);
+                    } else if (valor.equalsIgnoreCase("no")) {
+                        configuracion.setFeromonasVectorial(false);
+                    } else {
+                        throw new IllegalArgumentException("Valor de simd desconocido: " + valor);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Opcion desconocida: " + opcion);
+            }
+        }
+        if (configuracion.getModo() == ModoEjecucion.GENERACIONES && configuracion.isRenderIncremental()) {
+            // Cada frame se dibuja entero desde la instantánea de la última generación
+            throw new IllegalArgumentException(
+                    "El modo generaciones dibuja siempre el mapa completo: no se puede usar --render=incremental");
+        }
+        return configuracion;
+    }
+
+    /**
+     * Lee un entero positivo de un argumento.
+     *
+     * @param opcion Nombre de la opcion (para el mensaje de error).
+     * @param valor  Texto a convertir.
+     * @return El entero leido.
+     * @throws IllegalArgumentException si el valor no es un entero positivo.
+     */
+    private static int leerEntero(String opcion, String valor) {
+        try {
+            int numero = Integer.parseInt(valor);
+            if (numero <= 0) {
+                throw new IllegalArgumentException("La opcion " + opcion + " debe ser mayor que 0");
+            }
+            return numero;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("La opcion " + opcion + " debe ser un numero: " + valor);
+        }
+    }
+
+    /**
+     * Lee un entero de un argumento que puede ser 0.
+     *
+     * @param opcion Nombre de la opcion (para el mensaje de error).
+     * @param valor  Texto a convertir.
+     * @return El entero leido.
+     * @throws IllegalArgumentException si el valor no es un entero mayor o igual que 0.
+     */
+    private static int leerEnteroNoNegativo(String opcion, String valor) {
+        try {
+            int numero = Integer.parseInt(valor);
+            if (numero < 0) {
+                throw new IllegalArgumentException("La opcion " + opcion + " no puede ser negativa");
+            }
+            return numero;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("La opcion " + opcion + " debe ser un numero: " + valor);
+        }
+    }
+
+    /**
+     * Lee un entero largo de un argumento que puede ser 0 (por ejemplo, un milisegundo de la bitácora).
+     *
+     * @param opcion Nombre de la opcion (para el mensaje de error).
+     * @param valor  Texto a convertir.
+     * @return El entero leido.
+     * @throws IllegalArgumentException si el valor no es un entero mayor o igual que 0.
+     */
+    private static long leerLargoNoNegativo(String opcion, String valor) {
+        try {
+            long numero = Long.parseLong(valor);
+            if (numero < 0) {
+                throw new IllegalArgumentException("La opcion " + opcion + " no puede ser negativa");
+            }
+            return numero;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("La opcion " + opcion + " debe ser un numero: " + valor);
+        }
+    }
+
+    /**
+     * Lee el nombre de un fichero de una opción.
+     *
+     * @param opcion Nombre de la opción (para el mensaje de error).
+     * @param valor  Valor leido.
+     * @return El nombre del fichero.
+     * @throws IllegalArgumentException si está vacío.
+     */
+    private static String leerFichero(String opcion, String valor) {
+        if (valor.isBlank()) {
+            throw new IllegalArgumentException("La opcion " + opcion + " necesita un fichero");
+        }
+        return valor;
+    }
+
+    /**
+     * Obtiene el numero de hormigas obreras de cada colonia al empezar.
+     *
+     * @return El numero de hormigas.
+     */
+    public int getNumeroHormigas() {
+        return numeroHormigas;
+    }
+
+    /**
+     * Establece el numero de hormigas obreras a generar.
+     *
+     * @param numeroHormigas El numero de hormigas.
+     */
+    public void setNumeroHormigas(int numeroHormigas) {
+        this.numeroHormigas = numeroHormigas;
+    }
+
+    /**
+     * Obtiene el ancho del mapa.
+     *
+     * @return El ancho.
+     */
+    public int getAncho() {
+        return ancho;
+    }
+
+    /**
+     * Establece el ancho del mapa.
+     *
+     * @param ancho El ancho.
+     */
+    public void setAncho(int ancho) {
+        this.ancho = ancho;
+    }
+
+    /**
+     * Obtiene el alto del mapa.
+     *
+     * @return El alto.
+     */
+    public int getAlto() {
+        return alto;
+    }
+
+    /**
+     * Establece el alto del mapa.
+     *
+     * @param alto El alto.
+     */
+    public void setAlto(int alto) {
+        this.alto = alto;
+    }
+
+    /**
+     * Obtiene el modo de ejecución de las hormigas.
+     *
+     * @return El modo de ejecución.
+     */
+    public ModoEjecucion getModo() {
+        return modo;
+    }
+
+    /**
+     * Establece el modo de ejecución de las hormigas.
+     *
+     * @param modo El modo de ejecución.
+     */
+    public void setModo(ModoEjecucion modo) {
+        this.modo = modo;
+    }
+
+    /**
+     * Obtiene el ejecutor a usar en el modo EJECUTOR.
+     *
+     * @return El ejecutor, o null si se usa el de por defecto.
+     */
+    public ExecutorService getEjecutor() {
+        return ejecutor;
+    }
+
+    /**
+     * Establece el ejecutor a usar en el modo EJECUTOR.
+     *
+     * @param ejecutor El ejecutor donde se enviaran las hormigas.
+     */
+    public void setEjecutor(ExecutorService ejecutor) {
+        this.ejecutor = ejecutor;
+    }
+
+    /**
+     * Indica si la simulación tiene visualización.
+     *
+     * @return `true` con visualización, `false` sin interfaz.
+     */
+    public boolean isConInterfaz() {
+        return conInterfaz;
+    }
+
+    /**
+     * Establece si la simulación tiene visualización.
+     *
+     * @param conInterfaz `false` para ejecutar sin interfaz.
+     */
+    public void setConInterfaz(boolean conInterfaz) {
+        this.conInterfaz = conInterfaz;
+    }
+
+    /**
+     * Obtiene la duración de la simulación sin interfaz.
+     *
+     * @return La duración en milisegundos.
+     */
+    public long getDuracion() {
+        return duracion;
+    }
+
+    /**
+     * Establece la duración de la simulación sin interfaz.
+     *
+     * @param duracion La duración en milisegundos.
+     */
+    public void setDuracion(long duracion) {
+        this.duracion = duracion;
+    }
+
+    /**
+     * Obtiene los frames por segundo de la visualización.
+     *
+     * @return Los frames por segundo.
+     */
+    public int getFps() {
+        return fps;
+    }
+
+    /**
+     * Establece los frames por segundo de la visualización.
+     *
+     * @param fps Los frames por segundo (entre 1 y 1000).
+     */
+    public void setFps(int fps) {
+        this.fps = fps;
+    }
+
+    /**
+     * Indica si se usa el renderizador incremental.
+     *
+     * @return `true` si solo se redibujan las celdas que cambian.
+     */
+    public boolean isRenderIncremental() {
+        return renderIncremental;
+    }
+
+    /**
+     * Establece si se usa el renderizador incremental.
+     *
+     * @param renderIncremental `true` para redibujar solo las celdas que cambian.
+     */
+    public void setRenderIncremental(boolean renderIncremental) {
+        this.renderIncremental = renderIncremental;
+    }
+
+    /**
+     * Indica si se usa el motor por turnos.
+     *
+     * @return `true` si se usa el motor por turnos, `false` si se usa un hilo por hormiga.
+     */
+    public boolean isMotorPorTurnos() {
+        return motorPorTurnos;
+    }
+
+    /**
+     * Establece si se usa el motor por turnos.
+     *
+     * @param motorPorTurnos `true` para usar el motor por turnos.
+     */
+    public void setMotorPorTurnos(boolean motorPorTurnos) {
+        this.motorPorTurnos = motorPorTurnos;
+    }
+
+    /**
+     * Obtiene el numero de turnos a simular con el motor por turnos.
+     *
+     * @return El numero de turnos.
+     */
+    public long getTurnos() {
+        return turnos;
+    }
+
+    /**
+     * Establece el numero de turnos a simular con el motor por turnos.
+     *
+     * @param turnos El numero de turnos.
+     */
+    public void setTurnos(long turnos) {
+        this.turnos = turnos;
+    }
+
+    /**
+     * Obtiene la semilla del motor por turnos.
+     *
+     * @return La semilla.
+     */
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /**
+     * Establece la semilla del motor por turnos.
+     *
+     * @param semilla La semilla.
+     */
+    public void setSemilla(long semilla) {
+        this.semilla = semilla;
+    }
+
+    /**
+     * Indica si el mapa tiene capa de feromonas.
+     *
+     * @return `true` si se usan feromonas.
+     */
+    public boolean isFeromonas() {
+        return feromonas;
+    }
+
+    /**
+     * Establece si el mapa tiene capa de feromonas.
+     *
+     * @param feromonas `true` para usar feromonas.
+     */
+    public void setFeromonas(boolean feromonas) {
+        this.feromonas = feromonas;
+    }
+
+    /**
+     * Indica si cada paso del campo de feromonas se reparte entre varios hilos.
+     *
+     * @return `true` si el paso es paralelo.
+     */
+    public boolean isFeromonasParalelo() {
+        return feromonasParalelo;
+    }
+
+    /**
+     * Establece si cada paso del campo de feromonas se reparte entre varios hilos.
+     *
+     * @param feromonasParalelo `true` para usar el ForkJoinPool común.
+     */
+    public void setFeromonasParalelo(boolean feromonasParalelo) {
+        this.feromonasParalelo = feromonasParalelo;
+    }
+
+    /**
+     * Indica si el paso del campo de feromonas usa la Vector API cuando está disponible.
+     *
+     * @return `true` para el núcleo vectorial.
+     */
+    public boolean isFeromonasVectorial() {
+        return feromonasVectorial;
+    }
+
+    /**
+     * Establece si el paso del campo de feromonas usa la Vector API cuando está disponible.
+     *
+     * @param feromonasVectorial `false` para usar siempre el núcleo escalar.
+     */
+    public void setFeromonasVectorial(boolean feromonasVectorial) {
+        this.feromonasVectorial = feromonasVectorial;
+    }
+
+    /**
+     * Obtiene el numero de fuentes de comida que se colocan en el mapa.
+     *
+     * @return El numero de fuentes.
+     */
+    public int getFuentesComida() {
+        return fuentesComida;
+    }
+
+    /**
+     * Establece el numero de fuentes de comida que se colocan en el mapa.
+     *
+     * @param fuentesComida El numero de fuentes (0 para ninguna).
+     */
+    public void setFuentesComida(int fuentesComida) {
+        this.fuentesComida = fuentesComida;
+    }
+
+    /**
+     * Obtiene el numero de muros de obstáculos que se colocan en el mapa.
+     *
+     * @return El numero de muros.
+     */
+    public int getMuros() {
+        return muros;
+    }
+
+    /**
+     * Establece el numero de muros de obstáculos que se colocan en el mapa.
+     *
+     * @param muros El numero de muros (0 para ninguno).
+     */
+    public void setMuros(int muros) {
+        this.muros = muros;
+    }
+
+    /**
+     * Obtiene el numero de colonias.
+     *
+     * @return El numero de colonias.
+     */
+    public int getColonias() {
+        return colonias;
+    }
+
+    /**
+     * Establece el numero de colonias.
+     *
+     * @param colonias El numero de colonias (mayor que 0).
+     */
+    public void setColonias(int colonias) {
+        this.colonias = colonias;
+    }
+
+    /**
+     * Obtiene el numero de hormigas guerreras de cada colonia.
+     *
+     * @return El numero de guerreras.
+     */
+    public int getGuerreras() {
+        return guerreras;
+    }
+
+    /**
+     * Establece el numero de hormigas guerreras de cada colonia.
+     *
+     * @param guerreras El numero de guerreras (0 para ninguna).
+     */
+    public void setGuerreras(int guerreras) {
+        this.guerreras = guerreras;
+    }
+
+    /**
+     * Obtiene el numero de obreras que pone la reina de cada colonia.
+     *
+     * @return Las crías de cada reina (0 si no hay reinas).
+     */
+    public int getCrias() {
+        return crias;
+    }
+
+    /**
+     * Establece el numero de obreras que pone la reina de cada colonia.
+     *
+     * @param crias Las crías de cada reina (0 para no tener reinas).
+     */
+    public void setCrias(int crias) {
+        this.crias = crias;
+    }
+
+    /**
+     * Obtiene las regiones por lado del mapa en el modo regiones.
+     *
+     * @return Las regiones por lado.
+     */
+    public int getRegiones() {
+        return regiones;
+    }
+
+    /**
+     * Establece las regiones por lado del mapa en el modo regiones.
+     *
+     * @param regiones Las regiones por lado (mayor que 0).
+     */
+    public void setRegiones(int regiones) {
+        this.regiones = regiones;
+    }
+
+    /**
+     * Obtiene los hilos que mueven las hormigas en los modos rueda y generaciones.
+     *
+     * @return Los trabajadores.
+     */
+    public int getTrabajadores() {
+        return trabajadores;
+    }
+
+    /**
+     * Establece los hilos que mueven las hormigas en los modos rueda y generaciones.
+     *
+     * @param trabajadores Los trabajadores (mayor que 0).
+     */
+    public void setTrabajadores(int trabajadores) {
+        this.trabajadores = trabajadores;
+    }
+
+    /**
+     * Obtiene los milisegundos que se espera a que terminen las hormigas al detener la simulación.
+     *
+     * @return El plazo.
+     */
+    public int getPlazoDetencion() {
+        return plazoDetencion;
+    }
+
+    /**
+     * Establece los milisegundos que se espera a que terminen las hormigas al detener la simulación.
+     *
+     * @param plazoDetencion El plazo (mayor que 0).
+     * @throws IllegalArgumentException si no es mayor que 0.
+     */
+    public void setPlazoDetencion(int plazoDetencion) {
+        if (plazoDetencion <= 0) {
+            throw new IllegalArgumentException("El plazo de detencion debe ser mayor que 0");
+        }
+        this.plazoDetencion = plazoDetencion;
+    }
+
+    /**
+     * Obtiene el fichero donde se guarda un punto de control al detener la simulación.
+     *
+     * @return El fichero, o null si no se guarda.
+     */
+    public String getFicheroGuardar() {
+        return ficheroGuardar;
+    }
+
+    /**
+     * Establece el fichero donde se guarda un punto de control al detener la simulación.
+     *
+     * @param ficheroGuardar El fichero, o null para no guardar.
+     */
+    public void setFicheroGuardar(String ficheroGuardar) {
+        this.ficheroGuardar = ficheroGuardar;
+    }
+
+    /**
+     * Obtiene el fichero del punto de control desde el que se empieza.
+     *
+     * @return El fichero, o null si se generan las hormigas.
+     */
+    public String getFicheroRestaurar() {
+        return ficheroRestaurar;
+    }
+
+    /**
+     * Establece el fichero del punto de control desde el que se empieza.
+     *
+     * @param ficheroRestaurar El fichero, o null para generar las hormigas.
+     */
+    public void setFicheroRestaurar(String ficheroRestaurar) {
+        this.ficheroRestaurar = ficheroRestaurar;
+    }
+
+    /**
+     * Obtiene la base de los ficheros de la bitácora de movimientos.
+     *
+     * @return La base, o null si no se apunta nada.
+     */
+    public String getFicheroBitacora() {
+        return ficheroBitacora;
+    }
+
+    /**
+     * Establece la base de los ficheros de la bitácora de movimientos.
+     *
+     * @param ficheroBitacora La base, o null para no apuntar nada.
+     */
+    public void setFicheroBitacora(String ficheroBitacora) {
+        this.ficheroBitacora = ficheroBitacora;
+    }
+
+    /**
+     * Obtiene la base de los ficheros de la bitácora a reproducir.
+     *
+     * @return La base, o null si se simula.
+     */
+    public String getFicheroReproducir() {
+        return ficheroReproducir;
+    }
+
+    /**
+     * Establece la base de los ficheros de la bitácora a reproducir.
+     *
+     * @param ficheroReproducir La base, o null para simular.
+     */
+    public void setFicheroReproducir(String ficheroReproducir) {
+        this.ficheroReproducir = ficheroReproducir;
+    }
+
+    /**
+     * Obtiene el milisegundo de la bitácora hasta el que se reproduce.
+     *
+     * @return El tick (Long.MAX_VALUE para reproducirla entera).
+     */
+    public long getTickReproducir() {
+        return tickReproducir;
+    }
+
+    /**
+     * Establece el milisegundo de la bitácora hasta el que se reproduce.
+     *
+     * @param tickReproducir El tick (0 o más).
+     */
+    public void setTickReproducir(long tickReproducir) {
+        this.tickReproducir = tickReproducir;
+    }
+
+    /**
+     * Obtiene el fichero donde se escriben las métricas.
+     *
+     * @return El fichero, o null si no se escriben.
+     */
+    public String getFicheroMetricas() {
+        return ficheroMetricas;
+    }
+
+    /**
+     * Establece el fichero donde se escriben las métricas.
+     *
+     * @param ficheroMetricas El fichero, o null para no escribirlas.
+     */
+    public void setFicheroMetricas(String ficheroMetricas) {
+        this.ficheroMetricas = ficheroMetricas;
+    }
+
+    /**
+     * Obtiene los milisegundos entre dos líneas del fichero de métricas.
+     *
+     * @return El periodo.
+     */
+    public int getPeriodoMetricas() {
+        return periodoMetricas;
+    }
+
+    /**
+     * Establece los milisegundos entre dos líneas del fichero de métricas.
+     *
+     * @param periodoMetricas El periodo (mayor que 0).
+     * @throws IllegalArgumentException si no es mayor que 0.
+     */
+    public void setPeriodoMetricas(int periodoMetricas) {
+        if (periodoMetricas <= 0) {
+            throw new IllegalArgumentException("El periodo de las metricas debe ser mayor que 0");
+        }
+        this.periodoMetricas = periodoMetricas;
+    }
+
+    /**
+     * Obtiene el fichero de la grabación de Java Flight Recorder.
+     *
+     * @return El fichero, o null si no se graba.
+     */
+    public String getFicheroJfr() {
+        return ficheroJfr;
+    }
+
+    /**
+     * Establece el fichero de la grabación de Java Flight Recorder.
+     *
+     * @param ficheroJfr El fichero, o null para no grabar.
+     */
+    public void setFicheroJfr(String ficheroJfr) {
+        this.ficheroJfr = ficheroJfr;
+    }
+
+    /**
+     * Indica si se mantiene un indice de las hormigas por su ID.
+     *
+     * @return `true` si hay indice por ID.
+     */
+    public boolean isIndicePorId() {
+        return indicePorId;
+    }
+
+    /**
+     * Establece si se mantiene un indice de las hormigas por su ID.
+     *
+     * @param indicePorId `true` para mantener el indice.
+     */
+    public void setIndicePorId(boolean indicePorId) {
+        this.indicePorId = indicePorId;
+    }
+}
@@ -0,0 +1,182 @@
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Escritor que compone un frame completo de la consola en memoria y lo vuelca de una vez.
+ * <p>
+ * En lugar de hacer un System.out.print por cada celda (que crea un String y toma el cerrojo
+ * del PrintStream cada vez), el mapa, las estadísticas y los separadores se escriben en un
+ * byte[] que se reutiliza entre frames y se vuelcan con una sola escritura en un canal. Una vez
+ * que el buffer ha crecido hasta el tamaño del frame, dibujar no crea ningún objeto.
+ */
+public class EscritorFrame {
+    /** Capacidad inicial del buffer en bytes. */
+    private static final int CAPACIDAD_INICIAL = 4096;
+    /** Canal de la salida estándar, compartido por todos los escritores. */
+    private static final FileChannel SALIDA_ESTANDAR = new FileOutputStream(FileDescriptor.out).getChannel();
+
+    /**
+     * Canal donde se vuelca el frame.
+     */
+    private final WritableByteChannel canal;
+    /**
+     * Bytes del frame en construcción.
+     */
+    private byte[] buffer;
+    /**
+     * Vista del buffer para escribir en el canal (se recrea solo si el buffer crece).
+     */
+    private ByteBuffer vista;
+    /**
+     * Numero de bytes usados del buffer.
+     */
+    private int longitud;
+    /**
+     * Dígitos de un número mientras se escribe (para no crear Strings).
+     */
+    private final byte[] digitos;
+
+    /**
+     * Constructor de la clase EscritorFrame que escribe en la salida estándar.
+     */
+    // 0(1)
+    public EscritorFrame() {
+        this(SALIDA_ESTANDAR);
+    }
+
+    /**
+     * Constructor de la clase EscritorFrame.
+     *
+     * @param canal Canal donde se vuelca cada frame.
+     */
+    // 0(1)
+    public EscritorFrame(WritableByteChannel canal) {
+        this.canal = canal;
+        this.buffer = new byte[CAPACIDAD_INICIAL];
+        this.vista = ByteBuffer.wrap(buffer);
+        this.longitud = 0;
+        this.digitos = new byte[20];
+    }
+
+    /**
+     * Se asegura de que caben n bytes más en el buffer, agrandandolo si hace falta.
+     *
+     * @param n Numero de bytes que se van a añadir.
+     */
+    // 0(1) amortizado
+    private void asegurar(int n) {
+        if (longitud + n > buffer.length) {
+            byte[] mayor = new byte[Math.max(buffer.length * 2, longitud + n)];
+            System.arraycopy(buffer, 0, mayor, 0, longitud);
+            buffer = mayor;
+            vista = ByteBuffer.wrap(buffer);
+        }
+    }
+
+    /**
+     * Añade un carácter codificado en UTF-8.
+     *
+     * @param c El carácter.
+     * @return Este mismo escritor, para encadenar llamadas.
+     */
+    // 0(1)
+    public EscritorFrame escribir(char c) {
+        asegurar(3);
+        if (c < 0x80) {
+            buffer[longitud++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[longitud++] = (byte) (0xC0 | (c >> 6));
+            buffer[longitud++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            buffer[longitud++] = '?'; // los pares sustitutos no se usan en la consola del simulador
+        } else {
+            buffer[longitud++] = (byte) (0xE0 | (c >> 12));
+            buffer[longitud++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[longitud++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return this;
+    }
+
+    /**
+     * Añade un texto codificado en UTF-8.
+     *
+     * @param texto El texto.
+     * @return Este mismo escritor, para encadenar llamadas.
+     */
+    // 0(n) -> n = longitud del texto
+    public EscritorFrame escribir(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            escribir(texto.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Añade un número entero en decimal sin crear ningún String.
+     *
+     * @param numero El número.
+     * @return Este mismo escritor, para encadenar llamadas.
+     */
+    // 0(1) -> como mucho 20 dígitos
+    public EscritorFrame escribir(long numero) {
+        if (numero == Long.MIN_VALUE) {
+            return escribir(Long.toString(numero));
+        }
+        asegurar(21);
+        if (numero < 0) {
+            buffer[longitud++] = '-';
+            numero = -numero;
+        }
+        int n = 0;
+        do {
+            digitos[n++] = (byte) ('0' + numero % 10);
+            numero /= 10;
+        } while (numero > 0);
+        while (n > 0) {
+            buffer[longitud++] = digitos[--n];
+        }
+        return this;
+    }
+
+    /**
+     * Añade un salto de línea.
+     *
+     * @return Este mismo escritor, para encadenar llamadas.
+     */
+    // 0(1)
+    public EscritorFrame nuevaLinea() {
+        return escribir('\n');
+    }
+
+    /**
+     * Vuelca el frame al canal con una sola escritura y vacía el buffer para el siguiente.
+     * <p>
+     * Antes vacía System.out para que lo que se haya impreso por ahí salga en orden.
+     */
+    // 0(n) -> n = bytes del frame
+    public void volcar() {
+        System.out.flush();
+        vista.clear().limit(longitud);
+        try {
+            while (vista.hasRemaining()) {
+                canal.write(vista);
+            }
+        } catch (IOException e) {
+            System.err.println("Error al escribir el frame: " + e.getMessage());
+        }
+        longitud = 0;
+    }
+
+    /**
+     * Obtiene el numero de bytes pendientes de volcar.
+     *
+     * @return Los bytes del frame en construcción.
+     */
+    public int getLongitud() {
+        return longitud;
+    }
+}
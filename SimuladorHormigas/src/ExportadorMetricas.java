@@ -0,0 +1,225 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escribe periódicamente las métricas de la simulación en un fichero local.
+ * <p>
+ * Cada periodo añade una línea con el estado en ese momento: contadores acumulados desde el
+ * principio, movimientos por segundo del último periodo y percentiles de las latencias del último
+ * periodo (restando a la copia de cada histograma la del periodo anterior); los máximos son desde
+ * el principio. Si el fichero acaba
+ * en ".json" cada línea es un objeto JSON (JSON Lines); si no, es CSV con una cabecera.
+ * <p>
+ * Lo hace un solo hilo programado con un {@link ScheduledExecutorService}, como el paso de las
+ * feromonas, así que leer las métricas nunca frena a las hormigas: solo suma los LongAdder y copia
+ * los histogramas.
+ */
+public class ExportadorMetricas {
+    /** Columnas de cada línea, en orden. */
+    private static final String[] COLUMNAS = {"tiempo_ms", "hormigas", "aceptados", "aceptados_s",
+            "rechazados_fuera", "rechazados_hormiguero", "rechazados_ocupada", "rechazados_s",
+            "colision_muestras", "colision_p50_ns", "colision_p99_ns", "colision_max_ns",
+            "frames", "frame_p50_ns", "frame_p99_ns", "frame_max_ns"};
+
+    /** Simulador del que se leen las métricas. */
+    private final SimuladorColoniasHormigas simulador;
+    /** Métricas del simulador. */
+    private final MetricasSimulacion metricas;
+    /** Fichero de salida. */
+    private final Path fichero;
+    /** `true` para JSON Lines, `false` para CSV. */
+    private final boolean json;
+    /** Escritor del fichero. */
+    private final BufferedWriter salida;
+    /** Hilo que escribe cada periodo. */
+    private final ScheduledExecutorService reloj;
+    /** Momento (System.nanoTime()) en el que se empezó. */
+    private final long inicio;
+
+    /** Momento de la línea anterior. */
+    private long anterior;
+    /** Aceptados en la línea anterior. */
+    private long aceptadosAnteriores;
+    /** Rechazados en la línea anterior. */
+    private long rechazadosAnteriores;
+    /** Cuentas del histograma de colisiones en la línea anterior. */
+    private long[] colisionesAnteriores;
+    /** Cuentas del histograma de colisiones ahora. */
+    private long[] colisiones;
+    /** Cuentas del histograma de frames en la línea anterior. */
+    private long[] framesAnteriores;
+    /** Cuentas del histograma de frames ahora. */
+    private long[] frames;
+    /** Cuentas de un histograma en el último periodo (se reutiliza). */
+    private final long[] periodo;
+    /** Líneas escritas. */
+    private int lineas;
+    /** `true` una vez cerrado el fichero. */
+    private boolean cerrado;
+
+    /**
+     * Constructor de la clase ExportadorMetricas: crea el fichero (si existe se sobrescribe) y
+     * empieza a escribir una línea cada periodo.
+     *
+     * @param simulador Simulador del que se leen las métricas.
+     * @param fichero   Fichero de salida (".json" para JSON Lines, otro para CSV).
+     * @param periodo   Milisegundos entre dos líneas.
+     * @throws IOException si no se puede crear el fichero.
+     */
+    // 0(1)
+    public ExportadorMetricas(SimuladorColoniasHormigas simulador, Path fichero, long periodo) throws IOException {
+        this.simulador = simulador;
+        this.metricas = simulador.getMetricas();
+        this.fichero = fichero;
+        this.json = fichero.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json");
+        this.salida = Files.newBufferedWriter(fichero, StandardCharsets.UTF_8);
+        if (!json) {
+            salida.write(String.join(",", COLUMNAS));
+            salida.newLine();
+        }
+        this.inicio = System.nanoTime();
+        this.anterior = inicio;
+        this.aceptadosAnteriores = metricas.getAceptados();
+        this.rechazadosAnteriores = metricas.getRechazados();
+        this.colisionesAnteriores = metricas.getColisiones().copiar(null);
+        this.colisiones = new long[HistogramaLatencias.CUBETAS];
+        this.framesAnteriores = metricas.getFrames().copiar(null);
+        this.frames = new long[HistogramaLatencias.CUBETAS];
+        this.periodo = new long[HistogramaLatencias.CUBETAS];
+        this.lineas = 0;
+        this.cerrado = false;
+        this.reloj = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "metricas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        reloj.scheduleAtFixedRate(this::escribirLinea, periodo, periodo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Obtiene el fichero de salida.
+     *
+     * @return El fichero.
+     */
+    public Path getFichero() {
+        return fichero;
+    }
+
+    /**
+     * Obtiene las líneas de métricas escritas.
+     *
+     * @return Las líneas (sin contar la cabecera del CSV).
+     */
+    public synchronized int getLineas() {
+        return lineas;
+    }
+
+    /**
+     * Deja de escribir: para el hilo, escribe una última línea y cierra el fichero.
+     */
+    // 0(CUBETAS)
+    public void cerrar() {
+        reloj.shutdownNow();
+        try {
+            reloj.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (cerrado) {
+                return;
+            }
+            escribirLinea();
+            cerrado = true;
+            try {
+                salida.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar el fichero de metricas: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Escribe una línea con el estado actual y lo que ha pasado desde la anterior.
+     */
+    // 0(CUBETAS)
+    private synchronized void escribirLinea() {
+        if (cerrado) {
+            return;
+        }
+        long ahora = System.nanoTime();
+        double segundos = Math.max(1e-9, (ahora - anterior) / 1e9);
+        long aceptados = metricas.getAceptados();
+        long rechazados = metricas.getRechazados();
+
+        // Histogramas del periodo: copia actual menos la anterior
+        colisiones = metricas.getColisiones().copiar(colisiones);
+        frames = metricas.getFrames().copiar(frames);
+        long[] valores = {
+                (ahora - inicio) / 1_000_000,
+                simulador.getHormigas().getVivas(),
+                aceptados,
+                Math.round((aceptados - aceptadosAnteriores) / segundos),
+                metricas.getRechazados(BitacoraMovimientos.FUERA),
+                metricas.getRechazados(BitacoraMovimientos.HORMIGUERO),
+                metricas.getRechazados(BitacoraMovimientos.OCUPADA),
+                Math.round((rechazados - rechazadosAnteriores) / segundos),
+                0, 0, 0, metricas.getColisiones().getMaximo(),
+                0, 0, 0, metricas.getFrames().getMaximo()};
+        resumirPeriodo(colisiones, colisionesAnteriores, valores, 8);
+        resumirPeriodo(frames, framesAnteriores, valores, 12);
+
+        StringBuilder linea = new StringBuilder(json ? "{" : "");
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                linea.append(',');
+            }
+            if (json) {
+                linea.append('"').append(COLUMNAS[i]).append("\":");
+            }
+            linea.append(valores[i]);
+        }
+        if (json) {
+            linea.append('}');
+        }
+        try {
+            salida.write(linea.toString());
+            salida.newLine();
+            salida.flush();
+            lineas++;
+        } catch (IOException e) {
+            System.err.println("Error al escribir las metricas: " + e.getMessage());
+        }
+
+        // La copia actual pasa a ser la anterior (intercambiando los arreglos para no crear otros)
+        long[] libre = colisionesAnteriores;
+        colisionesAnteriores = colisiones;
+        colisiones = libre;
+        libre = framesAnteriores;
+        framesAnteriores = frames;
+        frames = libre;
+        anterior = ahora;
+        aceptadosAnteriores = aceptados;
+        rechazadosAnteriores = rechazados;
+    }
+
+    /**
+     * Calcula las cuentas de un histograma en el periodo y pone en valores, desde la posición
+     * indicada, cuántas hay y sus percentiles 50 y 99 (el máximo ya está en la posición desde + 3).
+     */
+    // 0(CUBETAS)
+    private void resumirPeriodo(long[] actuales, long[] anteriores, long[] valores, int desde) {
+        System.arraycopy(actuales, 0, periodo, 0, HistogramaLatencias.CUBETAS);
+        HistogramaLatencias.restar(periodo, anteriores);
+        valores[desde] = HistogramaLatencias.total(periodo);
+        valores[desde + 1] = HistogramaLatencias.percentil(periodo, 50, valores[desde + 3]);
+        valores[desde + 2] = HistogramaLatencias.percentil(periodo, 99, valores[desde + 3]);
+    }
+}
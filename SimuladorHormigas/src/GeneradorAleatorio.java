@@ -0,0 +1,101 @@
+/**
+ * Generador de números aleatorios con semilla y estado accesibles.
+ * <p>
+ * Implementa el algoritmo SplitMix64: todo su estado es un único long, así que con la misma
+ * semilla produce siempre la misma secuencia (resultados reproducibles bit a bit) y su estado se
+ * puede consultar y restaurar. No está sincronizado: cada hilo debe usar su propio generador.
+ */
+public class GeneradorAleatorio {
+    /** Incremento de la secuencia de Weyl de SplitMix64. */
+    private static final long INCREMENTO = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Estado interno del generador.
+     */
+    private long estado;
+
+    /**
+     * Constructor de la clase GeneradorAleatorio.
+     *
+     * @param semilla Semilla inicial.
+     */
+    // 0(1)
+    public GeneradorAleatorio(long semilla) {
+        this.estado = semilla;
+    }
+
+    /**
+     * Genera el siguiente long aleatorio.
+     *
+     * @return Un long uniforme.
+     */
+    // 0(1)
+    public long siguienteLong() {
+        long z = (estado += INCREMENTO);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Genera un entero aleatorio en el rango [0, limite).
+     * <p>
+     * Usa multiplicar y desplazar en lugar del modulo, que es mas rapido; el sesgo es
+     * despreciable para los limites pequeños del simulador.
+     *
+     * @param limite Limite superior (exclusivo), mayor que 0.
+     * @return Un entero entre 0 y limite - 1.
+     */
+    // 0(1)
+    public int siguienteEntero(int limite) {
+        return (int) (((siguienteLong() >>> 32) * limite) >>> 32);
+    }
+
+    /**
+     * Genera un float aleatorio en el rango [0, 1).
+     *
+     * @return Un float uniforme.
+     */
+    // 0(1)
+    public float siguienteFloat() {
+        return (siguienteLong() >>> 40) * 0x1.0p-24f;
+    }
+
+    /**
+     * Genera un double aleatorio en el rango [0, 1).
+     *
+     * @return Un double uniforme.
+     */
+    // 0(1)
+    public double siguienteDouble() {
+        return (siguienteLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Genera un booleano aleatorio.
+     *
+     * @return `true` o `false` con la misma probabilidad.
+     */
+    // 0(1)
+    public boolean siguienteBooleano() {
+        return siguienteLong() < 0;
+    }
+
+    /**
+     * Obtiene el estado interno del generador.
+     *
+     * @return El estado actual.
+     */
+    public long getEstado() {
+        return estado;
+    }
+
+    /**
+     * Restaura el estado interno del generador.
+     *
+     * @param estado El estado a restaurar.
+     */
+    public void setEstado(long estado) {
+        this.estado = estado;
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Histograma de latencias en nanosegundos, con cubetas log-lineales como las de HdrHistogram.
+ * <p>
+ * Los valores por debajo de {@link #SUBCUBETAS} tienen una cubeta cada uno; a partir de ahí cada
+ * potencia de dos se parte en SUBCUBETAS cubetas iguales, así que el error relativo de cualquier
+ * valor es como mucho 1 / SUBCUBETAS (un 6%) y bastan {@link #CUBETAS} contadores para todo el
+ * rango de un long. Registrar un valor es calcular su cubeta con operaciones de bits y sumar 1 en
+ * un {@link AtomicLongArray}: no hay cerrojos ni se crea ningún objeto, así que lo pueden llamar
+ * a la vez los hilos de todas las hormigas.
+ * <p>
+ * Para leerlo se copian las cuentas en un long[] ({@link #copiar(long[])}); restando dos copias se
+ * obtiene el histograma de un intervalo, y de una copia se sacan los percentiles con
+ * {@link #percentil(long[], double, long)}.
+ */
+public class HistogramaLatencias {
+    /** Bits de subcubeta en cada potencia de dos. */
+    private static final int BITS_SUBCUBETA = 4;
+    /** Subcubetas de cada potencia de dos. */
+    public static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    /** Cubetas del histograma (hasta Long.MAX_VALUE). */
+    public static final int CUBETAS = (64 - BITS_SUBCUBETA) * SUBCUBETAS;
+
+    /** Valores registrados en cada cubeta. */
+    private final AtomicLongArray cuentas;
+    /** Valor más alto registrado. */
+    private final LongAccumulator maximo;
+
+    /**
+     * Constructor de la clase HistogramaLatencias: crea un histograma vacío.
+     */
+    // 0(CUBETAS)
+    public HistogramaLatencias() {
+        this.cuentas = new AtomicLongArray(CUBETAS);
+        this.maximo = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Registra un valor.
+     *
+     * @param nanos Latencia en nanosegundos (los negativos cuentan como 0).
+     */
+    // 0(1)
+    public void registrar(long nanos) {
+        long valor = Math.max(0, nanos);
+        cuentas.incrementAndGet(cubeta(valor));
+        maximo.accumulate(valor);
+    }
+
+    /**
+     * Calcula la cubeta de un valor.
+     *
+     * @param valor Valor (0 o más).
+     * @return Su cubeta.
+     */
+    // 0(1)
+    static int cubeta(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int subcubeta = (int) (valor >>> (exponente - BITS_SUBCUBETA)) & (SUBCUBETAS - 1);
+        return (exponente - BITS_SUBCUBETA + 1) * SUBCUBETAS + subcubeta;
+    }
+
+    /**
+     * Obtiene el valor más alto que cae en una cubeta.
+     *
+     * @param cubeta Cubeta.
+     * @return Su límite superior.
+     */
+    // 0(1)
+    static long limiteSuperior(int cubeta) {
+        if (cubeta < SUBCUBETAS) {
+            return cubeta;
+        }
+        int exponente = cubeta / SUBCUBETAS + BITS_SUBCUBETA - 1;
+        long inicio = (long) (SUBCUBETAS + cubeta % SUBCUBETAS) << (exponente - BITS_SUBCUBETA);
+        return inicio + (1L << (exponente - BITS_SUBCUBETA)) - 1;
+    }
+
+    /**
+     * Copia las cuentas de cada cubeta.
+     * <p>
+     * Cada cuenta se lee de una en una, así que los valores que se registran mientras se copia
+     * pueden salir o no, pero ninguna cuenta sale a medias.
+     *
+     * @param destino Arreglo de {@link #CUBETAS} long (o null para crear uno).
+     * @return El arreglo con las cuentas.
+     */
+    // 0(CUBETAS)
+    public long[] copiar(long[] destino) {
+        long[] copia = destino != null ? destino : new long[CUBETAS];
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = cuentas.get(i);
+        }
+        return copia;
+    }
+
+    /**
+     * Obtiene el valor más alto registrado.
+     *
+     * @return El máximo en nanosegundos (0 si está vacío).
+     */
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Resta a unas cuentas otras anteriores, para quedarse con las del intervalo entre las dos.
+     *
+     * @param cuentas   Cuentas actuales; se sobrescriben con la diferencia.
+     * @param anteriores Cuentas anteriores.
+     */
+    // 0(CUBETAS)
+    public static void restar(long[] cuentas, long[] anteriores) {
+        for (int i = 0; i < CUBETAS; i++) {
+            cuentas[i] -= anteriores[i];
+        }
+    }
+
+    /**
+     * Suma las cuentas de un histograma copiado.
+     *
+     * @param cuentas Cuentas copiadas.
+     * @return El numero de valores.
+     */
+    // 0(CUBETAS)
+    public static long total(long[] cuentas) {
+        long total = 0;
+        for (long cuenta : cuentas) {
+            total += cuenta;
+        }
+        return total;
+    }
+
+    /**
+     * Calcula un percentil de un histograma copiado.
+     *
+     * @param cuentas    Cuentas copiadas.
+     * @param porcentaje Percentil entre 0 y 100.
+     * @param maximo     Valor más alto registrado ({@link #getMaximo()}), para no pasarse de él
+     *                   con el límite de la última cubeta.
+     * @return El límite superior de la cubeta donde cae el percentil (como mucho el máximo), o 0
+     * si no hay valores.
+     */
+    // 0(CUBETAS)
+    public static long percentil(long[] cuentas, double porcentaje, long maximo) {
+        long total = total(cuentas);
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(total * porcentaje / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += cuentas[i];
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo);
+            }
+        }
+        return maximo;
+    }
+}
@@ -1,36 +1,47 @@
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Clase abstracta que representa una hormiga en el simulador.
  * <p>
  * Esta clase define las propiedades y comportamientos básicos de una hormiga,
- * incluyendo su identificación, tipo, posición y estado. Extiende Thread para
- * permitir la ejecución concurrente y sirve como base para tipos específicos
+ * incluyendo su identificación, tipo, posición y estado. Implementa Runnable para
+ * permitir la ejecución concurrente (en un hilo de plataforma, en un hilo virtual o en un
+ * ejecutor, segun el {@link ModoEjecucion}) y sirve como base para tipos específicos
  * de hormigas (OBRERA, GUERRERA, REINA).
  */
-public abstract class Hormiga extends Thread {
+public abstract class Hormiga implements Runnable {
     // Creamos los atributos
     /**
      * Identificador único de la hormiga.
      */
     protected final String id; // identificador unico de la hormiga
+    /**
+     * Numero entero de la hormiga (mayor que 0), usado en la rejilla de ocupacion.
+     */
+    protected final int numero; // numero de la hormiga en la rejilla de ocupacion
     /**
      * Tipo de hormiga (OBRERA, GUERRERA, REINA).
      */
     protected final TipoHormiga tipo; // Tipo de hormiga (OBRERA,GUERRERA,REINA)
     /**
-     * Posición actual de la hormiga en el mapa, modificable de forma segura.
+     * Posición actual de la hormiga en el mapa, empaquetada en un long con {@link Posicion#empaquetar(int, int)}.
+     * <p>
+     * Se guarda como un valor y no como un objeto Posicion para que moverse no cree objetos.
      */
-    protected volatile Posicion posicion; // Posicion actual de la hormiga en el mapa
+    protected volatile long coordenadas; // Posicion actual de la hormiga en el mapa (x e y juntas)
     /**
      * Estado activo/inactivo de la hormiga, controlado con modificadores volátiles.
      */
     protected volatile boolean activa; // estado activo/inactivo de la hormiga
     /**
      * Generador aleatorio para comportamientos de la hormiga.
+     * <p>
+     * Solo lo usa el hilo que mueve a la hormiga; su estado se guarda en los puntos de control.
      */
-    protected final Random random; // generador aleatorio para comportamientos
+    protected final GeneradorAleatorio random; // generador aleatorio para comportamientos
     /**
      * Referencia al mapa para verificar límites y hormiguero.
      */
@@ -39,6 +50,23 @@ public abstract class Hormiga extends Thread {
      * Referenciamos al simulador para verificar colisiones
      */
     protected SimuladorColoniasHormigas simulador;
+    /**
+     * Colonia de la hormiga (null si no pertenece a ninguna).
+     */
+    protected Colonia colonia;
+    /**
+     * Ranura de la hormiga en su colonia, entre las de su tipo (-1 sin colonia).
+     */
+    protected int indiceColonia;
+    /**
+     * Indica si la hormiga ha muerto (a diferencia de detener(), que solo la para).
+     */
+    private volatile boolean muerta;
+    /**
+     * Intentos de movimiento, para medir la comprobación de colisiones solo en uno de cada
+     * {@link MetricasSimulacion#MUESTREO_COLISIONES} (solo lo toca el hilo que la mueve).
+     */
+    private int intentos;
 
     // Creamos las direcciones posibles de movimiento
     /**
@@ -58,19 +86,25 @@ public abstract class Hormiga extends Thread {
      * posición inicial y configura el estado activo y el generador aleatorio.
      *
      * @param id              Identificador único de la hormiga.
+     * @param numero          Numero entero de la hormiga (mayor que 0).
      * @param tipo            Tipo de hormiga (OBRERA, GUERRERA, REINA).
      * @param posicionInicial Posición inicial de la hormiga en el mapa.
      */
     // Creamos el constructor Hormiga
     // 0(1)
-    public Hormiga(String id, TipoHormiga tipo, Posicion posicionInicial) {
+    public Hormiga(String id, int numero, TipoHormiga tipo, Posicion posicionInicial) {
         this.id = id;
+        this.numero = numero;
         this.tipo = tipo;
-        this.posicion = posicionInicial;
-        this.random = new Random();
+        this.coordenadas = Posicion.empaquetar(posicionInicial.getX(), posicionInicial.getY());
+        this.random = new GeneradorAleatorio(ThreadLocalRandom.current().nextLong());
         this.activa = true;
         this.mapa = null; // se asiganara desde el simulador
         this.simulador = null;
+        this.colonia = null;
+        this.indiceColonia = -1;
+        this.muerta = false;
+        this.intentos = numero; // cada hormiga mide en un intento distinto, aunque se mueva poco
     }
 
     /**
@@ -92,6 +126,36 @@ public abstract class Hormiga extends Thread {
         this.simulador = simulador;
     }
 
+    /**
+     * Asigna la hormiga a una colonia.
+     *
+     * @param colonia Colonia de la hormiga.
+     * @param indice  Ranura de la hormiga en la colonia, entre las de su tipo.
+     */
+    // 0(1)
+    public void setColonia(Colonia colonia, int indice) {
+        this.colonia = colonia;
+        this.indiceColonia = indice;
+    }
+
+    /**
+     * Obtiene la colonia de la hormiga.
+     *
+     * @return La colonia, o null si no tiene.
+     */
+    public Colonia getColonia() {
+        return colonia;
+    }
+
+    /**
+     * Obtiene la ranura de la hormiga en su colonia.
+     *
+     * @return La ranura, o -1 si no tiene colonia.
+     */
+    public int getIndiceColonia() {
+        return indiceColonia;
+    }
+
     /**
      * Obtiene el identificador único de la hormiga.
      * <p>
@@ -116,15 +180,37 @@ public abstract class Hormiga extends Thread {
         return tipo;
     }
 
+    /**
+     * Obtiene el numero entero de la hormiga.
+     * <p>
+     * Es el valor que se guarda en la rejilla de ocupacion para marcar su celda.
+     *
+     * @return El numero de la hormiga.
+     */
+    public int getNumero() {
+        return numero;
+    }
+
     /**
      * Obtiene la posición actual de la hormiga.
      * <p>
-     * Devuelve la posición actual en el mapa.
+     * Crea una Posicion con las coordenadas actuales; para recorridos frecuentes es mejor
+     * {@link #getCoordenadas()}, que no crea objetos.
      *
      * @return La posición actual.
      */
     public Posicion getPosicion() {
-        return posicion;
+        return Posicion.desempaquetar(coordenadas);
+    }
+
+    /**
+     * Obtiene la posición actual de la hormiga empaquetada en un long.
+     *
+     * @return Las coordenadas empaquetadas (ver {@link Posicion#xDe(long)} y {@link Posicion#yDe(long)}).
+     */
+    // 0(1)
+    public long getCoordenadas() {
+        return coordenadas;
     }
 
     /**
@@ -137,7 +223,7 @@ public abstract class Hormiga extends Thread {
     // creamos el setters solo de la posicion
     // 0(1)
     public void setPosicion(Posicion nuevaPosicion) {
-        this.posicion = nuevaPosicion;
+        this.coordenadas = Posicion.empaquetar(nuevaPosicion.getX(), nuevaPosicion.getY());
     }
 
     /**
@@ -164,12 +250,76 @@ public abstract class Hormiga extends Thread {
         activa = false;
     }
 
+    /**
+     * Mata a la hormiga: la detiene y la marca como muerta.
+     * <p>
+     * Solo tiene efecto la primera vez, aunque varias hormigas la ataquen a la vez. Al acabar su
+     * hilo, la hormiga muerta deja libre su celda (ver {@link #run()}).
+     *
+     * @return `true` si estaba viva y ahora está muerta.
+     */
+    // 0(1)
+    public synchronized boolean morir() {
+        if (muerta) {
+            return false;
+        }
+        muerta = true;
+        activa = false;
+        return true;
+    }
+
+    /**
+     * Devuelve a la vida una hormiga muerta para reutilizarla en otra celda.
+     * <p>
+     * La usa el {@link PoolHormigas} cuando nace una hormiga del mismo tipo, en lugar de crear
+     * otra. Solo se puede llamar cuando el hilo anterior de la hormiga ha terminado.
+     *
+     * @param x Coordenada horizontal de su nueva celda.
+     * @param y Coordenada vertical de su nueva celda.
+     */
+    // 0(1)
+    synchronized void renacer(int x, int y) {
+        this.coordenadas = Posicion.empaquetar(x, y);
+        this.muerta = false;
+        this.activa = true;
+    }
+
+    /**
+     * Obtiene el estado del generador aleatorio de la hormiga (para los puntos de control).
+     *
+     * @return El estado del generador.
+     */
+    long getEstadoAleatorio() {
+        return random.getEstado();
+    }
+
+    /**
+     * Restaura el estado del generador aleatorio de la hormiga desde un punto de control.
+     *
+     * @param estado El estado del generador.
+     */
+    void setEstadoAleatorio(long estado) {
+        random.setEstado(estado);
+    }
+
+    /**
+     * Indica si la hormiga ha muerto.
+     *
+     * @return `true` si ha muerto.
+     */
+    // 0(1)
+    public boolean isMuerta() {
+        return muerta;
+    }
+
     /**
      * Método run para la ejecución del hilo de la hormiga.
      * <p>
+     * Lo ejecuta el {@link LanzadorHormigas} en el tipo de hilo elegido al arrancar (salvo en el
+     * modo por regiones, donde el {@link PlanificadorRegiones} hace los turnos sin este bucle).
      * Implementacion con hilos:
      * -Cada hormiga se mueve de forma independiente
-     * -duerme entre 0 y 5 segundos entre movimiento
+     * -duerme entre 0 y 5 segundos entre movimiento (aparcando el hilo, ver {@link #dormir(int)})
      * -Verifica limites del mapa y evita el hormiguero
      * -se ejecuta mientras la hormiga este activa
      */
@@ -182,67 +332,223 @@ public abstract class Hormiga extends Thread {
             System.err.println("Error: " + id + " no tiene referencia al mapa");
             return;
         }
+        arrancar();
 
         //Bucle principal: mientras la hormiga este activa
         while(activa){
-            try{
-                // 1. Dormir entre 0 y 5 segundos (de 0-5000 milisegundos)
-                int tiempoSleep = random.nextInt(5001);
-                Thread.sleep(tiempoSleep);
+            // 1. Dormir entre 0 y 5 segundos (de 0-5000 milisegundos)
+            if (!dormir(pausa())) {
+                break; // detenida o muerta mientras dormia
+            }
 
-                // 2. Mover la hormiga aleatoriamente
-                moverAleatoriamente();
+            // 2. Mover la hormiga aleatoriamente
+            moverAleatoriamente();
+        }
 
-            }catch (InterruptedException e){
-                //Si el hilo es interrumpido
-                System.out.println(id + " fue interrumpido");
+        terminar();
+    }
+
+    /**
+     * Duerme el hilo de la hormiga mientras siga activa.
+     * <p>
+     * Aparca el hilo con {@link LockSupport#parkNanos(Object, long)} en lugar de Thread.sleep(),
+     * así que para despertarla al detenerla basta con un unpark y no se crea ninguna excepción
+     * (con miles de hormigas paradas a la vez se nota). Si interrumpen el hilo también se despierta
+     * y la hormiga deja de estar activa.
+     *
+     * @param milisegundos Pausa.
+     * @return `true` si sigue activa al acabar la pausa.
+     */
+    // 0(1)
+    private boolean dormir(int milisegundos) {
+        long fin = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(milisegundos);
+        long restante;
+        while (activa && (restante = fin - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, restante);
+            if (Thread.interrupted()) {
+                //Si el hilo es interrumpido desde fuera deja de moverse
+                if (activa && simulador.isConInterfaz()){
+                    System.out.println(id + " fue interrumpido");
+                }
                 activa = false;
-                break;
             }
         }
+        return activa;
+    }
+
+    /**
+     * Elige la pausa antes del siguiente movimiento: entre 0 y 5 segundos.
+     *
+     * @return La pausa en milisegundos.
+     */
+    // 0(1)
+    int pausa() {
+        return random.siguienteEntero(5001);
+    }
+
+    /**
+     * Empieza la ejecución de la hormiga, antes de su primer turno (para el {@link RegistroVuelo}).
+     */
+    // 0(1)
+    void arrancar() {
+        if (simulador.isRegistroVuelo()) {
+            RegistroVuelo.hormigaArrancada(this);
+        }
+    }
+
+    /**
+     * Termina la ejecución de la hormiga, cuando ya no va a dar más turnos.
+     * <p>
+     * Lo hace el hilo que la ejecutaba (el suyo o el de su región) como último paso con ella.
+     */
+    // 0(1)
+    void terminar() {
+        if (simulador.isRegistroVuelo()) {
+            RegistroVuelo.hormigaTerminada(this);
+        }
+        if (simulador.isConInterfaz()){
+            System.out.println(id + (muerta ? " ha muerto" : " ha terminado su ejecucion"));
+        }
 
-        System.out.println(id + " ha terminado su ejecucion");
+        // Si ha muerto, su cuerpo deja de ocupar la celda y la hormiga vuelve al pool para otro
+        // nacimiento (lo ultimo que hace este hilo con ella)
+        if (muerta) {
+            simulador.retirarCuerpo(this);
+            simulador.reciclar(this);
+        }
     }
 
 
+    /**
+     * Elige la dirección del siguiente intento de movimiento.
+     * <p>
+     * Por defecto todas las direcciones tienen la misma probabilidad. Los tipos de hormiga con
+     * otro comportamiento (por ejemplo seguir feromonas) lo sobrescriben.
+     *
+     * @param x Coordenada horizontal actual.
+     * @param y Coordenada vertical actual.
+     * @return Indice en {@link #DIRECCIONES}.
+     */
+    // 0(1)
+    protected int elegirDireccion(int x, int y) {
+        return random.siguienteEntero(DIRECCIONES.length);
+    }
+
+    /**
+     * Se llama cuando la hormiga intenta moverse a una celda que ocupa otra hormiga.
+     * <p>
+     * Por defecto no hace nada (la hormiga se queda donde está). Las guerreras lo sobrescriben
+     * para atacar a las hormigas de otras colonias.
+     *
+     * @param x        Coordenada horizontal de la celda ocupada.
+     * @param y        Coordenada vertical de la celda ocupada.
+     * @param ocupante Numero de la hormiga que la ocupa (o {@link RejillaOcupacion#OBSTACULO}).
+     */
+    // 0(1)
+    protected void encuentro(int x, int y, int ocupante) {
+    }
+
     /**
      * Mueve la hormiga aleatoriamente verificando limites
      * <p>
-     * MEtodo privado que implementa la logica de movimiento:
-     * -Elige una direccion aleatoria
+     * Metodo que implementa la logica de movimiento:
+     * -Elige una direccion (aleatoria salvo que el tipo de hormiga diga otra cosa)
      * -Calcula nueva posicion
      * -Verifica limites del mapa
      * -verifica que no sea el hormiguero
+     * -Ocupa la nueva celda en la rejilla de ocupacion y libera la anterior en un solo paso
+     *  (si está ocupada avisa a {@link #encuentro(int, int, int)})
      * -Actualiiza posicion si es valida
+     * -Avisa al simulador del movimiento, o del motivo si no se ha podido mover (para la bitácora)
+     * Trabaja solo con enteros para no crear ningun objeto por intento de movimiento (salvo el
+     * evento del {@link RegistroVuelo}, si se está grabando).
+     */
+    //Metodo para mover la hormiga aleatoriamente (visible en el paquete para los benchmarks)
+    //0(1)
+    void moverAleatoriamente(){
+        if (!simulador.isRegistroVuelo()) {
+            intentarMovimiento();
+            return;
+        }
+        RegistroVuelo.IntentoMovimiento evento = new RegistroVuelo.IntentoMovimiento();
+        long actual = coordenadas;
+        evento.begin();
+        byte resultado = intentarMovimiento();
+        evento.end();
+        evento.numero = numero;
+        evento.tipo = tipo.getNombre();
+        evento.x = Posicion.xDe(actual);
+        evento.y = Posicion.yDe(actual);
+        evento.resultado = BitacoraMovimientos.nombreEvento(resultado);
+        evento.commit();
+    }
+
+    /**
+     * Hace un intento de movimiento (ver {@link #moverAleatoriamente()}).
+     *
+     * @return {@link BitacoraMovimientos#MOVIDA}, o el motivo por el que no se ha movido.
      */
-    //Metodo para mover la hormiga aleatoriamente
     //0(1)
-    private void moverAleatoriamente(){
-        //1 . elegir direccion aleatoria
-        int indice = random.nextInt(DIRECCIONES.length);
-        int[] direccion  = DIRECCIONES[indice];
+    private byte intentarMovimiento(){
+        //1 . elegir direccion
+        long actual = coordenadas;
+        int x = Posicion.xDe(actual);
+        int y = Posicion.yDe(actual);
+        int[] direccion  = DIRECCIONES[elegirDireccion(x, y)];
 
         // 2. Calcular nueva posicion
-        Posicion nuevaPosicion = posicion.mover(direccion[0], direccion[1]);
+        int nuevaX = x + direccion[0];
+        int nuevaY = y + direccion[1];
 
         // 3. Verificar que esta dentro de limites
-        if (!mapa.dentroLimites(nuevaPosicion)){
-            return; // fuera de limites no se mueve
+        if (!mapa.dentroLimites(nuevaX, nuevaY)){
+            simulador.movimientoRechazado(this, nuevaX, nuevaY, BitacoraMovimientos.FUERA);
+            return BitacoraMovimientos.FUERA; // fuera de limites no se mueve
         }
 
         // 4. verificamos que no es el hormiguero
-        Posicion hormiguero = mapa.getHormiguero();
-        if (nuevaPosicion.getX() == hormiguero.getX() && nuevaPosicion.getY() == hormiguero.getY()){
-            return;
+        if (mapa.esHormiguero(nuevaX, nuevaY)){
+            simulador.movimientoRechazado(this, nuevaX, nuevaY, BitacoraMovimientos.HORMIGUERO);
+            return BitacoraMovimientos.HORMIGUERO;
         }
 
-            // 5. Verificar que no hay otra hormiga en esa posicion
-        if (simulador.posicionOcupada(nuevaPosicion, this.id)){
-            return; // Posicion ocupada no se mueve
+        // 5. Reclamar la celda con compareAndSet (sin cerrojo global); si otra hormiga la tiene no se mueve
+        //    (midiendo lo que tarda en uno de cada MUESTREO_COLISIONES intentos, y en todos si se graba)
+        RejillaOcupacion ocupacion = simulador.getOcupacion();
+        boolean medir = (++intentos & (MetricasSimulacion.MUESTREO_COLISIONES - 1)) == 0;
+        RegistroVuelo.ComprobacionColision comprobacion = null;
+        if (simulador.isRegistroVuelo()) {
+            comprobacion = new RegistroVuelo.ComprobacionColision();
+            comprobacion.begin();
+        }
+        long inicio = medir ? System.nanoTime() : 0;
+        boolean movida = ocupacion.mover(x, y, nuevaX, nuevaY, numero);
+        if (medir) {
+            simulador.getMetricas().colisionMedida(System.nanoTime() - inicio);
         }
+        if (comprobacion != null) {
+            comprobacion.end();
+            comprobacion.numero = numero;
+            comprobacion.x = nuevaX;
+            comprobacion.y = nuevaY;
+            comprobacion.libre = movida;
+            comprobacion.commit();
+        }
+        if (!movida){
+            int ocupante = ocupacion.propietario(nuevaX, nuevaY);
+            simulador.movimientoRechazado(this, nuevaX, nuevaY, BitacoraMovimientos.OCUPADA);
+            if (ocupante != RejillaOcupacion.LIBRE) {
+                encuentro(nuevaX, nuevaY, ocupante);
+            }
+            return BitacoraMovimientos.OCUPADA; // Posicion ocupada no se mueve
+        }
+
+        // 6. Mover(La posicion esta libre y ya es nuestra)
+        this.coordenadas = Posicion.empaquetar(nuevaX, nuevaY);
 
-        // 6. Mover(La posicion esta libre)
-        this.posicion = nuevaPosicion;
+        // 7. Avisar del movimiento (por ejemplo al renderizador incremental)
+        simulador.movimientoRealizado(this, x, y, nuevaX, nuevaY);
+        return BitacoraMovimientos.MOVIDA;
     }
 
     /**
@@ -258,6 +564,6 @@ public abstract class Hormiga extends Thread {
         return "Hormigas ID: " + id +
                 " | Tipo: " + tipo.getNombre() +
                 " | Simbolo: " + tipo.getSimbolo() +
-                " | Posicion: (" + posicion.getX() + ", " + posicion.getY() + ")";
+                " | Posicion: (" + Posicion.xDe(coordenadas) + ", " + Posicion.yDe(coordenadas) + ")";
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+/**
+ * Clase que representa una hormiga guerrera en el simulador.
+ * <p>
+ * La guerrera pasea al azar como cualquier hormiga, pero cuando intenta entrar en una celda que
+ * ocupa una hormiga de otra colonia la ataca (ver {@link #encuentro(int, int, int)}): a las
+ * obreras y a las reinas las mata siempre, y contra otra guerrera gana la mitad de las veces (si
+ * pierde, muere ella). Una hormiga sin colonia no ataca ni es atacada.
+ */
+public class HormigaGuerrera extends Hormiga {
+    /** Probabilidad de ganar una pelea contra una guerrera de otra colonia. */
+    public static final double VICTORIA_CONTRA_GUERRERA = 0.5;
+
+    /**
+     * Constructor de la clase HormigaGuerrera.
+     *
+     * @param id              Identificador único de la hormiga guerrera.
+     * @param numero          Numero entero de la hormiga guerrera (mayor que 0).
+     * @param posicionInicial Posición inicial de la hormiga guerrera en el mapa.
+     */
+    // 0(1)
+    public HormigaGuerrera(String id, int numero, Posicion posicionInicial) {
+        super(id, numero, TipoHormiga.GUERRERA, posicionInicial);
+    }
+
+    /**
+     * Ataca a la hormiga que le corta el paso si es de otra colonia.
+     * <p>
+     * El ocupante se busca por su numero en el simulador, sin recorrer las hormigas. La pelea
+     * ocupa el intento de movimiento: la guerrera no entra en la celda aunque gane (la celda se
+     * queda libre para el siguiente intento).
+     *
+     * @param x        Coordenada horizontal de la celda ocupada.
+     * @param y        Coordenada vertical de la celda ocupada.
+     * @param ocupante Numero de la hormiga que la ocupa.
+     */
+    // 0(1)
+    @Override
+    protected void encuentro(int x, int y, int ocupante) {
+        if (colonia == null || ocupante == RejillaOcupacion.OBSTACULO) {
+            return;
+        }
+        Hormiga rival = simulador.getHormiga(ocupante);
+        if (rival == null || rival.getColonia() == null || rival.getColonia() == colonia || rival.isMuerta()) {
+            return;
+        }
+        if (rival.getTipo() == TipoHormiga.GUERRERA && random.siguienteDouble() >= VICTORIA_CONTRA_GUERRERA) {
+            simulador.matarHormiga(this);
+        } else {
+            simulador.matarHormiga(rival);
+        }
+    }
+}
@@ -4,8 +4,37 @@
  * Esta clase extiende Hormiga y define específicamente el comportamiento de una hormiga obrera,
  * inicializándola con un identificador y una posición inicial. Utiliza la herencia para
  * aprovechar los atributos y métodos de la clase base Hormiga.
+ * <p>
+ * Si pertenece a una {@link Colonia}, la obrera busca comida siguiendo una máquina de estados:
+ * - BUSCANDO: se mueve siguiendo las feromonas (o al azar) hasta pisar una celda con comida.
+ * - CARGANDO: toma una unidad de comida y pasa un intento de movimiento cargándola.
+ * - VOLVIENDO: va hacia el hormiguero dejando feromona; al llegar al lado entrega la comida y
+ *   vuelve a BUSCANDO.
+ * El estado se guarda como un byte en la colonia, no en la hormiga, y cambiar de estado no crea objetos.
  */
 public class HormigaObrera extends Hormiga {
+    /** Estado de la obrera que busca comida. */
+    public static final byte BUSCANDO = 0;
+    /** Estado de la obrera que acaba de tomar comida y la está cargando. */
+    public static final byte CARGANDO = 1;
+    /** Estado de la obrera que lleva comida al hormiguero. */
+    public static final byte VOLVIENDO = 2;
+    /** Nombres de los estados, por su valor. */
+    private static final String[] NOMBRES_ESTADOS = {"buscando", "cargando", "volviendo"};
+    /**
+     * Al volver, uno de cada DESVIO_AL_VOLVER intentos se hace al azar para rodear a las hormigas
+     * que cortan el camino.
+     */
+    private static final int DESVIO_AL_VOLVER = 8;
+
+    /** Feromona que deja la obrera en cada celda a la que se mueve (con colonia, solo al volver con comida). */
+    public static final float DEPOSITO = 1f;
+    /**
+     * Peso que tiene una dirección sin feromona al elegir hacia dónde moverse. Cuanto más pequeño,
+     * más fielmente siguen las obreras los rastros.
+     */
+    public static final float PESO_BASE = 0.1f;
+
     /**
      * Constructor de la clase HormigaObrera.
      * <p>
@@ -13,12 +42,203 @@ public class HormigaObrera extends Hormiga {
      * llamando al constructor de la clase padre Hormiga con el tipo OBRERA.
      *
      * @param id              Identificador único de la hormiga obrera.
+     * @param numero          Numero entero de la hormiga obrera (mayor que 0).
      * @param posicionInicial Posición inicial de la hormiga obrera en el mapa.
      */
     // Creamos el constructor, que recibe el id y la posición donde nace la obrera
     // 0(1)
-    public HormigaObrera(String id, Posicion posicionInicial) {
-        super(id, TipoHormiga.OBRERA, posicionInicial); // de esta manera hacemos la llamada al constructor padre
+    public HormigaObrera(String id, int numero, Posicion posicionInicial) {
+        super(id, numero, TipoHormiga.OBRERA, posicionInicial); // de esta manera hacemos la llamada al constructor padre
+    }
+
+    /**
+     * Asigna la obrera a una colonia, empezando a buscar comida.
+     *
+     * @param colonia Colonia de la obrera.
+     * @param indice  Ranura de la obrera en la colonia (entre 0 y la capacidad de obreras - 1).
+     */
+    // 0(1)
+    @Override
+    public void setColonia(Colonia colonia, int indice) {
+        super.setColonia(colonia, indice);
+        colonia.setEstado(indice, BUSCANDO);
+    }
+
+    /**
+     * Obtiene el estado de la obrera en su colonia.
+     *
+     * @return BUSCANDO, CARGANDO o VOLVIENDO (BUSCANDO si no tiene colonia).
+     */
+    // 0(1)
+    public byte getEstado() {
+        return colonia == null ? BUSCANDO : colonia.getEstado(indiceColonia);
+    }
+
+    /**
+     * Obtiene el nombre de un estado de obrera.
+     *
+     * @param estado El estado.
+     * @return Su nombre.
+     */
+    public static String nombreEstado(byte estado) {
+        return NOMBRES_ESTADOS[estado];
+    }
+
+    /**
+     * Elige la dirección según el estado de la obrera.
+     * <p>
+     * Volviendo con comida va hacia el hormiguero. Buscando sigue las feromonas del mapa: cada
+     * dirección dentro del mapa pesa PESO_BASE más la feromona de la celda de destino, y se
+     * elige una al azar en proporción a su peso (ruleta). Sin capa de feromonas se mueve al azar
+     * como cualquier hormiga. No crea ningún objeto: los pesos se recalculan en la segunda vuelta.
+     *
+     * @param x Coordenada horizontal actual.
+     * @param y Coordenada vertical actual.
+     * @return Indice en DIRECCIONES.
+     */
+    // 0(1) -> cuatro direcciones
+    @Override
+    protected int elegirDireccion(int x, int y) {
+        if (colonia != null && colonia.getEstado(indiceColonia) == VOLVIENDO) {
+            return direccionHormiguero(x, y);
+        }
+
+        CampoFeromonas feromonas = mapa.getFeromonas();
+        if (feromonas == null) {
+            return super.elegirDireccion(x, y);
+        }
+
+        // 1. Peso total de las direcciones
+        float total = 0f;
+        for (int i = 0; i < DIRECCIONES.length; i++) {
+            total += peso(feromonas, x + DIRECCIONES[i][0], y + DIRECCIONES[i][1]);
+        }
+
+        // 2. Ruleta: avanzamos restando pesos hasta pasar el valor elegido
+        float elegido = random.siguienteFloat() * total;
+        int ultimaValida = 0;
+        for (int i = 0; i < DIRECCIONES.length; i++) {
+            float p = peso(feromonas, x + DIRECCIONES[i][0], y + DIRECCIONES[i][1]);
+            if (p > 0f) {
+                ultimaValida = i;
+                elegido -= p;
+                if (elegido < 0f) {
+                    return i;
+                }
+            }
+        }
+        return ultimaValida; // por redondeo puede sobrar un poco al final
+    }
+
+    /**
+     * Peso de moverse a una celda: 0 fuera del mapa y PESO_BASE más su feromona dentro.
+     */
+    // 0(1)
+    private float peso(CampoFeromonas feromonas, int x, int y) {
+        if (!mapa.dentroLimites(x, y)) {
+            return 0f;
+        }
+        return PESO_BASE + feromonas.leer(x, y);
+    }
+
+    /**
+     * Elige una dirección que acerque a la obrera al hormiguero de su colonia.
+     * <p>
+     * Con el campo de direcciones de la colonia es una sola lectura, y el camino rodea los
+     * obstáculos. Sin él (mapas muy grandes) va en línea recta: si se puede acercar en horizontal
+     * y en vertical elige una de las dos al azar. En los dos casos, de vez en cuando (uno de cada
+     * DESVIO_AL_VOLVER intentos) se mueve al azar para rodear a las hormigas que cortan el paso.
+     */
+    // 0(1)
+    private int direccionHormiguero(int x, int y) {
+        CampoDirecciones campo = colonia.getCampoHormiguero();
+        if (campo != null) {
+            byte direccion = campo.direccion(x, y);
+            if (direccion == CampoDirecciones.SIN_CAMINO || random.siguienteEntero(DESVIO_AL_VOLVER) == 0) {
+                return super.elegirDireccion(x, y);
+            }
+            return direccion;
+        }
+
+        Posicion hormiguero = colonia.getHormiguero();
+        int dx = Integer.signum(hormiguero.getX() - x);
+        int dy = Integer.signum(hormiguero.getY() - y);
+        if ((dx == 0 && dy == 0) || random.siguienteEntero(DESVIO_AL_VOLVER) == 0) {
+            return super.elegirDireccion(x, y);
+        }
+        if (dx != 0 && (dy == 0 || random.siguienteBooleano())) {
+            return indiceDireccion(dx, 0);
+        }
+        return indiceDireccion(0, dy);
+    }
+
+    /**
+     * Busca el indice de un desplazamiento en DIRECCIONES.
+     */
+    // 0(1) -> cuatro direcciones
+    private static int indiceDireccion(int dx, int dy) {
+        for (int i = 0; i < DIRECCIONES.length; i++) {
+            if (DIRECCIONES[i][0] == dx && DIRECCIONES[i][1] == dy) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Desplazamiento no valido: " + dx + ", " + dy);
+    }
+
+    /**
+     * Hace un paso de la obrera: se mueve y actualiza su estado.
+     * <p>
+     * Sin colonia se mueve y deja feromona en cada celda nueva. Con colonia sigue la máquina de
+     * estados: al pisar comida buscando la toma, tras un intento cargándola vuelve al hormiguero
+     * dejando feromona y, al llegar al lado del hormiguero, la entrega.
+     */
+    // 0(1)
+    @Override
+    void moverAleatoriamente() {
+        if (colonia == null) {
+            long antes = coordenadas;
+            super.moverAleatoriamente();
+            long despues = coordenadas;
+            CampoFeromonas feromonas = mapa.getFeromonas();
+            if (despues != antes && feromonas != null) {
+                feromonas.depositar(Posicion.xDe(despues), Posicion.yDe(despues), DEPOSITO);
+            }
+            return;
+        }
+
+        byte estado = colonia.getEstado(indiceColonia);
+        if (estado == CARGANDO) {
+            // Cargar la comida ocupa este intento: no se mueve
+            colonia.setEstado(indiceColonia, VOLVIENDO);
+            return;
+        }
+
+        long antes = coordenadas;
+        super.moverAleatoriamente();
+        long despues = coordenadas;
+        int x = Posicion.xDe(despues);
+        int y = Posicion.yDe(despues);
+
+        if (estado == BUSCANDO) {
+            // Buscando: si ha llegado a una celda con comida, toma una unidad
+            if (despues != antes && mapa.getComida().tomar(x, y)) {
+                colonia.comidaRecogida();
+                simulador.comidaTomada(this, x, y);
+                colonia.setEstado(indiceColonia, CARGANDO);
+            }
+            return;
+        }
+
+        // Volviendo: marca el camino y entrega la comida al llegar al lado del hormiguero
+        CampoFeromonas feromonas = mapa.getFeromonas();
+        if (despues != antes && feromonas != null) {
+            feromonas.depositar(x, y, DEPOSITO);
+        }
+        Posicion hormiguero = colonia.getHormiguero();
+        if (Math.abs(hormiguero.getX() - x) + Math.abs(hormiguero.getY() - y) <= 1) {
+            colonia.comidaEntregada();
+            colonia.setEstado(indiceColonia, BUSCANDO);
+        }
     }
 
     /**
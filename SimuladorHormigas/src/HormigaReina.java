@@ -0,0 +1,57 @@
+/**
+ * Clase que representa la hormiga reina de una colonia.
+ * <p>
+ * La reina no se mueve del lado de su hormiguero: en cada uno de sus turnos (con la misma espera
+ * aleatoria que el resto de hormigas) pone una obrera nueva en una celda libre cerca del
+ * hormiguero, hasta agotar las crías que le quedan. Si no encuentra sitio lo vuelve a intentar en
+ * su siguiente turno.
+ */
+public class HormigaReina extends Hormiga {
+    /**
+     * Obreras que le quedan por poner (solo la cambia el hilo de la reina).
+     */
+    private volatile int crias;
+
+    /**
+     * Constructor de la clase HormigaReina.
+     *
+     * @param id              Identificador único de la reina.
+     * @param numero          Numero entero de la reina (mayor que 0).
+     * @param posicionInicial Posición inicial de la reina, al lado de su hormiguero.
+     * @param crias           Numero de obreras que pondrá.
+     */
+    // 0(1)
+    public HormigaReina(String id, int numero, Posicion posicionInicial, int crias) {
+        super(id, numero, TipoHormiga.REINA, posicionInicial);
+        this.crias = crias;
+    }
+
+    /**
+     * Obtiene el numero de obreras que le quedan por poner.
+     *
+     * @return Las crías restantes.
+     */
+    public int getCrias() {
+        return crias;
+    }
+
+    /**
+     * Cambia el numero de obreras que le quedan por poner (al reutilizar la reina desde el pool).
+     *
+     * @param crias Las crías restantes.
+     */
+    void setCrias(int crias) {
+        this.crias = crias;
+    }
+
+    /**
+     * Hace un turno de la reina: en lugar de moverse pone una obrera si le quedan crías.
+     */
+    // 0(1)
+    @Override
+    void moverAleatoriamente() {
+        if (crias > 0 && colonia != null && simulador.nacerObrera(colonia) != null) {
+            crias--;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clase que lanza y detiene la ejecución de las hormigas.
+ * <p>
+ * Según el {@link ModoEjecucion} elegido al arrancar, ejecuta el run() de cada hormiga en un hilo
+ * de plataforma, en un hilo virtual o en un ExecutorService, reparte las hormigas entre los hilos
+ * de las regiones del mapa, las programa en una rueda de tiempos o las mueve por generaciones.
+ * Guarda lo necesario para poder detenerlas todas al final de la simulación.
+ * <p>
+ * Para detenerlas no espera a los hilos uno detrás de otro: cuenta las hormigas lanzadas que no
+ * han terminado y la última en terminar abre un {@link CountDownLatch}, así que se espera una sola
+ * vez con un plazo para todas. Las que no terminan a tiempo se avisan por la salida de errores.
+ */
+public class LanzadorHormigas {
+    /** Hilos a partir de los que se despiertan en paralelo (en el pool comun). */
+    private static final long DESPERTAR_EN_PARALELO = 10_000;
+    /** Hormigas sin terminar que se nombran en el aviso. */
+    private static final int REZAGADAS_NOMBRADAS = 10;
+
+    /**
+     * Modo de ejecución de las hormigas.
+     */
+    private final ModoEjecucion modo;
+    /**
+     * Ejecutor donde se envian las hormigas en el modo EJECUTOR (null en el resto de modos).
+     */
+    private final ExecutorService ejecutor;
+    /**
+     * Hilo en el que se está ejecutando cada hormiga, en los modos PLATAFORMA, VIRTUAL y EJECUTOR
+     * (cada hormiga se quita al terminar, así que no crece con los nacimientos).
+     */
+    private final ConcurrentHashMap<Thread, Hormiga> enMarcha;
+    /**
+     * Hormigas lanzadas que no han terminado todavía (aunque su hilo no haya empezado).
+     */
+    private final AtomicInteger pendientes;
+    /**
+     * Se abre cuando, al detener, no queda ninguna hormiga pendiente.
+     */
+    private final CountDownLatch terminadas;
+    /**
+     * `true` desde que se empiezan a detener las hormigas.
+     */
+    private volatile boolean deteniendo;
+    /**
+     * Planificador con los hilos de las regiones en el modo REGIONES (null en el resto de modos).
+     */
+    private final PlanificadorRegiones regiones;
+    /**
+     * Rueda de tiempos con su pool de trabajadores en el modo RUEDA (null en el resto de modos).
+     */
+    private final PlanificadorRueda rueda;
+    /**
+     * Planificador con los trabajadores que mueven las generaciones en el modo GENERACIONES (null
+     * en el resto de modos).
+     */
+    private final PlanificadorGeneraciones generaciones;
+
+    /**
+     * Constructor de la clase LanzadorHormigas.
+     *
+     * @param modo         Modo de ejecución de las hormigas.
+     * @param ejecutor     Ejecutor a usar en el modo EJECUTOR; si es null se usa un pool de hilos
+     *                     que crece según haga falta.
+     * @param regiones     Planificador a usar en el modo REGIONES (obligatorio en ese modo).
+     * @param rueda        Planificador a usar en el modo RUEDA (obligatorio en ese modo).
+     * @param generaciones Planificador a usar en el modo GENERACIONES (obligatorio en ese modo).
+     * @throws IllegalArgumentException si el modo es REGIONES, RUEDA o GENERACIONES y no hay planificador.
+     */
+    // 0(1)
+    public LanzadorHormigas(ModoEjecucion modo, ExecutorService ejecutor, PlanificadorRegiones regiones,
+                            PlanificadorRueda rueda, PlanificadorGeneraciones generaciones) {
+        if (modo == ModoEjecucion.REGIONES && regiones == null) {
+            throw new IllegalArgumentException("El modo regiones necesita un planificador de regiones");
+        }
+        if (modo == ModoEjecucion.RUEDA && rueda == null) {
+            throw new IllegalArgumentException("El modo rueda necesita un planificador de rueda");
+        }
+        if (modo == ModoEjecucion.GENERACIONES && generaciones == null) {
+            throw new IllegalArgumentException("El modo generaciones necesita un planificador de generaciones");
+        }
+        this.modo = modo;
+        if (modo == ModoEjecucion.EJECUTOR && ejecutor == null) {
+            ejecutor = Executors.newCachedThreadPool();
+        }
+        this.ejecutor = ejecutor;
+        this.enMarcha = new ConcurrentHashMap<>();
+        this.pendientes = new AtomicInteger();
+        this.terminadas = new CountDownLatch(1);
+        this.deteniendo = false;
+        this.regiones = regiones;
+        this.rueda = rueda;
+        this.generaciones = generaciones;
+    }
+
+    /**
+     * Obtiene el modo de ejecución.
+     *
+     * @return El modo de ejecución.
+     */
+    public ModoEjecucion getModo() {
+        return modo;
+    }
+
+    /**
+     * Obtiene la rueda de tiempos del modo RUEDA.
+     *
+     * @return La rueda, o null en el resto de modos.
+     */
+    public PlanificadorRueda getRueda() {
+        return rueda;
+    }
+
+    /**
+     * Obtiene el planificador del modo GENERACIONES.
+     *
+     * @return El planificador, o null en el resto de modos.
+     */
+    public PlanificadorGeneraciones getGeneraciones() {
+        return generaciones;
+    }
+
+    /**
+     * Lanza la ejecución de una hormiga (llama a su run() en el hilo que corresponda).
+     *
+     * @param hormiga La hormiga a lanzar.
+     */
+    // 0(1)
+    public synchronized void lanzar(Hormiga hormiga) {
+        switch (modo) {
+            case PLATAFORMA:
+                pendientes.incrementAndGet();
+                Thread.ofPlatform().name(hormiga.getIdHormiga()).start(ejecutarHormiga(hormiga));
+                break;
+            case VIRTUAL:
+                pendientes.incrementAndGet();
+                Thread.ofVirtual().name(hormiga.getIdHormiga()).start(ejecutarHormiga(hormiga));
+                break;
+            case EJECUTOR:
+                pendientes.incrementAndGet();
+                ejecutor.execute(ejecutarHormiga(hormiga));
+                break;
+            case REGIONES:
+                regiones.agregar(hormiga);
+                break;
+            case RUEDA:
+                rueda.agregar(hormiga);
+                break;
+            case GENERACIONES:
+                generaciones.agregar(hormiga);
+                break;
+        }
+    }
+
+    /**
+     * Envuelve el run() de una hormiga para saber en qué hilo está mientras se ejecuta y avisar
+     * cuando termina.
+     */
+    // 0(1)
+    private Runnable ejecutarHormiga(Hormiga hormiga) {
+        return () -> {
+            Thread hilo = Thread.currentThread();
+            enMarcha.put(hilo, hormiga);
+            try {
+                hormiga.run();
+            } finally {
+                enMarcha.remove(hilo);
+                if (pendientes.decrementAndGet() == 0 && deteniendo) {
+                    terminadas.countDown();
+                }
+            }
+        };
+    }
+
+    /**
+     * Detiene todas las hormigas lanzadas y espera a que terminen, con un solo plazo para todas.
+     * <p>
+     * Primero marca todas las hormigas como inactivas, despues despierta a la vez todos sus hilos
+     * con unpark para que no terminen de dormir (en paralelo si son muchos; ver
+     * {@link Hormiga#run()}) y por ultimo espera a que la última abra el cerrojo de cuenta atrás.
+     * Las que no han terminado en el plazo se avisan por la salida de errores.
+     *
+     * @param hormigas Las hormigas a detener.
+     * @param plazo    Milisegundos que se espera como mucho, en total.
+     * @return Las hormigas (o hilos de región, de la rueda o de las generaciones) que no han
+     *         terminado en el plazo.
+     */
+    // 0(n)
+    public synchronized int detenerTodas(Iterable<Hormiga> hormigas, long plazo) {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(plazo);
+
+        // Detener todas las hormigas
+        for (Hormiga hormiga : hormigas) {
+            hormiga.detener();
+        }
+
+        if (modo == ModoEjecucion.REGIONES) {
+            // Cada hilo de región termina las hormigas que le quedan
+            return avisarRezagados(regiones.detener(limite), plazo);
+        }
+        if (modo == ModoEjecucion.RUEDA) {
+            // El hilo de la rueda termina las hormigas que le quedan
+            return avisarRezagados(rueda.detener(limite), plazo);
+        }
+        if (modo == ModoEjecucion.GENERACIONES) {
+            // Cada trabajador acaba la generación en curso y termina las hormigas que le quedan
+            return avisarRezagados(generaciones.detener(limite), plazo);
+        }
+
+        // Despertar a la vez los hilos para que no terminen de dormir (y cerrar el ejecutor)
+        deteniendo = true;
+        if (pendientes.get() == 0) {
+            terminadas.countDown();
+        }
+        enMarcha.forEachKey(DESPERTAR_EN_PARALELO, LockSupport::unpark);
+        if (modo == ModoEjecucion.EJECUTOR) {
+            // Las tareas que no han llegado a empezar ya no se ejecutan
+            int sinEmpezar = ejecutor.shutdownNow().size();
+            if (sinEmpezar > 0 && pendientes.addAndGet(-sinEmpezar) == 0) {
+                terminadas.countDown();
+            }
+        }
+
+        // Esperar una sola vez a que terminen todas
+        try {
+            terminadas.await(limite - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        int rezagadas = pendientes.get();
+        if (rezagadas > 0) {
+            List<String> nombres = new ArrayList<>();
+            for (Map.Entry<Thread, Hormiga> entrada : enMarcha.entrySet()) {
+                if (nombres.size() == REZAGADAS_NOMBRADAS) {
+                    break;
+                }
+                nombres.add(entrada.getValue().getIdHormiga() + " (" + entrada.getKey().getState() + ")");
+            }
+            System.err.println("Aviso: " + rezagadas + " hormigas no han terminado en " + plazo
+                    + " ms" + (nombres.isEmpty() ? "" : ": " + String.join(", ", nombres)
+                    + (rezagadas > nombres.size() ? "..." : "")));
+        }
+        return rezagadas;
+    }
+
+    /**
+     * Avisa de los hilos de región, de la rueda o de las generaciones que no han terminado en el plazo.
+     *
+     * @param rezagados Nombres de los hilos.
+     * @param plazo     Milisegundos que se han esperado.
+     * @return Cuántos son.
+     */
+    // 0(r) -> r = hilos rezagados
+    private static int avisarRezagados(List<String> rezagados, long plazo) {
+        if (!rezagados.isEmpty()) {
+            System.err.println("Aviso: " + rezagados.size() + " hilos no han terminado en " + plazo
+                    + " ms: " + String.join(", ", rezagados));
+        }
+        return rezagados.size();
+    }
+
+    /**
+     * Espera a que termine un hilo, como mucho hasta un momento dado.
+     *
+     * @param hilo   El hilo.
+     * @param limite Momento (System.nanoTime()) hasta el que se espera.
+     * @return `true` si ha terminado.
+     */
+    // 0(1)
+    static boolean esperarHasta(Thread hilo, long limite) {
+        long restante = limite - System.nanoTime();
+        try {
+            return restante > 0 ? hilo.join(Duration.ofNanos(restante)) : !hilo.isAlive();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return !hilo.isAlive();
+        }
+    }
+}
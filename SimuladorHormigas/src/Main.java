@@ -1,3 +1,4 @@
+import java.nio.file.Path;
 import java.util.Scanner;
 
 /**
@@ -19,15 +20,39 @@ public class Main {
     /**
      * Método principal que inicia la simulación de colonias de hormigas.
      * <p>
-     * Crea el simulador y ejecuta la simulación completa.
-     * Captura excepciones para manejar errores durante la ejecución.
+     * Crea el simulador con la configuración leida de la linea de comandos y ejecuta la
+     * simulación completa. Captura excepciones para manejar errores durante la ejecución.
      *
-     * @param args Argumentos de la línea de comandos (no utilizados en este caso).
+     * @param args Argumentos de la línea de comandos (ver {@link Configuracion}), por ejemplo
+     *             {@code --modo=virtual --hormigas=50}.
      */
     public static void main(String[] args) {
         Scanner scanner =new Scanner(System.in);
 
         try {
+            // Leemos la configuracion antes de nada para avisar pronto de argumentos no validos
+            Configuracion configuracion = Configuracion.desdeArgumentos(args);
+
+            // Reproducir una bitacora no simula nada: reconstruye el mapa y lo muestra
+            if (configuracion.getFicheroReproducir() != null) {
+                ReproductorBitacora reproductor = new ReproductorBitacora(Path.of(configuracion.getFicheroReproducir()));
+                reproductor.reproducir(configuracion.getTickReproducir());
+                reproductor.mostrar(configuracion.getTickReproducir());
+                return;
+            }
+
+            // Con el motor por turnos se ejecuta por lotes, sin preguntas
+            if (configuracion.isMotorPorTurnos()) {
+                SimuladorColoniasHormigas.crear(configuracion).ejecutarPorTurnos();
+                return;
+            }
+
+            // Sin interfaz tampoco hay preguntas: se ejecuta la duracion indicada y se informa al final
+            if (!configuracion.isConInterfaz()) {
+                SimuladorColoniasHormigas.crear(configuracion).ejecutarSinInterfaz();
+                return;
+            }
+
             // Banner de bienvenida
             System.out.println("\n-----SIMULADOR DE COLONIA DE HORMIGAS-----\n");
 
@@ -35,8 +60,8 @@ public class Main {
             System.out.println("¿Quieres iniciar la simulacion?(presiona enter para continuar)");
             scanner.nextLine();
 
-            // Crear el simulador
-            SimuladorColoniasHormigas simulador = new SimuladorColoniasHormigas();
+            // Crear el simulador con la configuracion de la linea de comandos
+            SimuladorColoniasHormigas simulador = SimuladorColoniasHormigas.crear(configuracion);
 
             // Ejecutar la simulación completa
             // Esto incluye: generar hormigas, moverlas y mostrar el mapa
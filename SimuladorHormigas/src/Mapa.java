@@ -1,58 +1,440 @@
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 /**
  * Clase que representa el mapa del simulador donde se mueven las hormigas.
  * <p>
- * Esta clase gestiona un mapa de tamaño fijo con un hormiguero en el centro, terrenos vacíos
+ * Esta clase gestiona un mapa con un hormiguero en el centro (y los de las demás colonias, si
+ * hay más de una), fuentes de comida, obstáculos, terrenos vacíos
  * y posiciones para hormigas. Proporciona métodos para inicializar, preparar y mostrar el mapa,
  * verificando límites y sincronizando accesos para hilos.
+ * <p>
+ * El tamaño se elige al crear el mapa. Los símbolos no se guardan para todo el mapa sino solo
+ * para la ventana que se muestra en consola (como mucho {@link #VENTANA_MAXIMA} x
+ * {@link #VENTANA_MAXIMA} celdas), en un arreglo que se reutiliza en cada frame; así un mapa de
+ * 100.000 x 100.000 celdas no ocupa más memoria al dibujarlo que uno pequeño.
  */
 
 // clase que representa el mapa donde se mueven las hormigas
 public class Mapa {
     // Creamos los atributos
-    // creamos el tamaño del mapa que se mantendra en todo el proceso
-    /** Ancho fijo del mapa (10 unidades). */
+    // creamos el tamaño por defecto del mapa
+    /** Ancho por defecto del mapa (10 unidades). */
     public static final int ANCHO = 10;
-    /** Alto fijo del mapa (10 unidades). */
+    /** Alto por defecto del mapa (10 unidades). */
     public static final int ALTO = 10;
+    /** Numero maximo de columnas y filas que se muestran en consola. */
+    public static final int VENTANA_MAXIMA = 40;
 
     // Creamos los simbolos que representaran la visualizacion del mapa
     /** Símbolo para representar terreno vacío en el mapa. */
     private static final char VACIO = '.'; // Simbolo para representar terreno vacio
     /** Símbolo para representar el hormiguero en el mapa. */
     private static final char HORMIGUERO = 'H'; // Simbolo para representar el hormiguero
+    /** Símbolo para representar una celda con comida en el mapa. */
+    private static final char COMIDA = '*'; // Simbolo para representar la comida
+    /** Símbolo para representar un obstáculo en el mapa. */
+    private static final char OBSTACULO = '#'; // Simbolo para representar los obstaculos
+
+    /** Lado del cuadrado de celdas que forma cada fuente de comida. */
+    public static final int LADO_FUENTE = 3;
+    /** Unidades de comida de cada celda de una fuente. */
+    public static final int COMIDA_POR_CELDA = 10;
+
+    /** Ancho del mapa, elegido al crearlo. */
+    private final int ancho;
+    /** Alto del mapa, elegido al crearlo. */
+    private final int alto;
 
     // Creamos la posicion del Hormiguero representado con "H"
     /** Posición fija del hormiguero en el centro del mapa. */
     private final Posicion hormiguero;
+    /**
+     * Hormigueros de las demás colonias, empaquetados con {@link Posicion#empaquetar(int, int)}.
+     * <p>
+     * Son pocos, así que un arreglo que se recorre entero es más rápido que un conjunto y no crea
+     * objetos al consultarlo. Se sustituye por una copia al añadir uno, por eso es volatile.
+     */
+    private volatile long[] otrosHormigueros;
 
-    // Creamos la matriz que representara el mapa de una forma visual
-    /** Matriz bidimensional que representa visualmente el mapa con símbolos. */
-    private final char[][] mapa;
+    // Creamos la ventana que representara el mapa de una forma visual
+    /** Símbolos de la ventana que se muestra, fila por fila (se reutiliza en cada frame). */
+    private final char[] ventana;
+    /** Instantánea de las hormigas que reutiliza prepararMapa() en cada frame. */
+    private final RegistroHormigas.Instantanea instantanea;
+    /** Escritor usado por mostrarMapa() (se crea la primera vez que se muestra). */
+    private EscritorFrame escritor;
+    /** Comida que hay en cada celda del mapa. */
+    private final RejillaComida comida;
+    /**
+     * Celdas con obstáculo, empaquetadas con {@link Posicion#empaquetar(int, int)}. Solo se usa
+     * para recorrerlas; para consultar una celda está {@link #celdasObstaculo}.
+     */
+    private final Set<Long> obstaculos;
+    /** Trozos con un 1 en cada celda con obstáculo, para consultarlas sin crear objetos Long. */
+    private final TablaTrozos celdasObstaculo;
+    /** Campos de direcciones del mapa, que se corrigen cuando cambian los obstáculos. */
+    private final CopyOnWriteArrayList<CampoDirecciones> campos;
+    /** Campo de direcciones hacia el hormiguero (null si el mapa es demasiado grande para tenerlo). */
+    private final CampoDirecciones campoHormiguero;
+    /** Capa de feromonas sobre el mapa (null si la simulación no usa feromonas). */
+    private volatile CampoFeromonas feromonas;
+
+    /**
+     * Constructor de la clase Mapa con el tamaño por defecto (ANCHO x ALTO).
+     */
+    // 0(1)
+    public Mapa() {
+        this(ANCHO, ALTO);
+    }
 
     /**
      * Constructor de la clase Mapa.
      * <p>
-     * Inicializa la matriz del mapa con terrenos vacíos y coloca el hormiguero en el centro.
+     * Crea un mapa vacío del tamaño indicado y coloca el hormiguero en el centro (se dibuja en el
+     * primer prepararMapa()).
+     *
+     * @param ancho Ancho del mapa (mayor que 0).
+     * @param alto  Alto del mapa (mayor que 0).
      */
     // Creamos el constructor Mapa() que inicializa el mapa
-    // 0(n^2) -> inicializa la matriz ALTO X ANCHO
-    public Mapa() {
-        this.mapa = new char[ALTO][ANCHO];
-        this.hormiguero = new Posicion(ANCHO / 2, ALTO / 2); // para asignar al centro
+    // 0(v) -> v = celdas de la ventana
+    public Mapa(int ancho, int alto) {
+        if (ancho <= 0 || alto <= 0 || (long) ancho * alto < 2) {
+            throw new IllegalArgumentException("Tamaño de mapa no valido: " + ancho + " x " + alto);
+        }
+        this.ancho = ancho;
+        this.alto = alto;
+        this.ventana = new char[Math.min(ancho, VENTANA_MAXIMA) * Math.min(alto, VENTANA_MAXIMA)];
+        Arrays.fill(ventana, VACIO);
+        this.instantanea = new RegistroHormigas.Instantanea();
+        this.comida = new RejillaComida(ancho, alto);
+        this.obstaculos = ConcurrentHashMap.newKeySet();
+        this.celdasObstaculo = new TablaTrozos();
+        this.campos = new CopyOnWriteArrayList<>();
+        this.hormiguero = new Posicion(ancho / 2, alto / 2); // para asignar al centro
+        this.otrosHormigueros = new long[0];
+
+        // Camino más corto al hormiguero desde cada celda (solo si el campo cabe en memoria)
+        if ((long) ancho * alto <= CampoDirecciones.MAX_CELDAS) {
+            this.campoHormiguero = new CampoDirecciones(ancho, alto, hormiguero.getX(), hormiguero.getY());
+            campos.add(campoHormiguero);
+        } else {
+            this.campoHormiguero = null;
+        }
+    }
+
+    // METODOS
 
-        // Iniciamos el mapa vacio
-        for (int y = 0; y < ALTO; y++) {
-            for (int x = 0; x < ANCHO; x++) {
-                mapa[y][x] = VACIO;
+    /**
+     * Obtiene el ancho del mapa.
+     *
+     * @return El ancho.
+     */
+    public int getAncho() {
+        return ancho;
+    }
+
+    /**
+     * Obtiene el alto del mapa.
+     *
+     * @return El alto.
+     */
+    public int getAlto() {
+        return alto;
+    }
+
+    /**
+     * Obtiene el numero de celdas del mapa.
+     *
+     * @return ancho x alto.
+     */
+    public long getNumeroCeldas() {
+        return (long) ancho * alto;
+    }
+
+    /**
+     * Coloca una fuente de comida: un cuadrado de LADO_FUENTE x LADO_FUENTE celdas centrado en
+     * (x, y), con COMIDA_POR_CELDA unidades en cada una.
+     * <p>
+     * Las celdas que quedan fuera del mapa, coinciden con el hormiguero o tienen obstáculo se saltan.
+     *
+     * @param x Coordenada horizontal del centro de la fuente.
+     * @param y Coordenada vertical del centro de la fuente.
+     */
+    // 0(LADO_FUENTE^2)
+    public void colocarFuenteComida(int x, int y) {
+        int radio = LADO_FUENTE / 2;
+        for (int cy = y - radio; cy <= y + radio; cy++) {
+            for (int cx = x - radio; cx <= x + radio; cx++) {
+                if (dentroLimites(cx, cy) && !esHormiguero(cx, cy) && !esObstaculo(cx, cy)) {
+                    comida.colocar(cx, cy, COMIDA_POR_CELDA);
+                }
             }
         }
+    }
 
-        // Colocamos el hormiguero en el centro
-        mapa[hormiguero.getY()][hormiguero.getX()] = HORMIGUERO;
+    /**
+     * Añade el hormiguero de otra colonia.
+     * <p>
+     * Las hormigas no pueden entrar en él, así que los campos de direcciones ya creados lo tratan
+     * como un obstáculo.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return La posición del hormiguero.
+     * @throws IllegalArgumentException si la celda está fuera del mapa o ya es un hormiguero u obstáculo.
+     */
+    // 0(h) -> h = hormigueros (más lo que cueste corregir los campos de direcciones)
+    public synchronized Posicion agregarHormiguero(int x, int y) {
+        if (!dentroLimites(x, y) || esHormiguero(x, y) || esObstaculo(x, y)) {
+            throw new IllegalArgumentException("No se puede poner un hormiguero en (" + x + ", " + y + ")");
+        }
+        long[] nuevos = Arrays.copyOf(otrosHormigueros, otrosHormigueros.length + 1);
+        nuevos[nuevos.length - 1] = Posicion.empaquetar(x, y);
+        otrosHormigueros = nuevos;
+        for (CampoDirecciones campo : campos) {
+            campo.bloquear(x, y);
+        }
+        return new Posicion(x, y);
     }
 
-    // METODOS
+    /**
+     * Obtiene el numero de hormigueros del mapa (el del centro más los de las demás colonias).
+     *
+     * @return El numero de hormigueros.
+     */
+    public int getNumeroHormigueros() {
+        return 1 + otrosHormigueros.length;
+    }
+
+    /**
+     * Crea un campo de direcciones hacia una celda del mapa, que se mantiene al día cuando se
+     * ponen o quitan obstáculos.
+     * <p>
+     * Los demás hormigueros cuentan como obstáculos.
+     *
+     * @param x Coordenada horizontal del destino.
+     * @param y Coordenada vertical del destino.
+     * @return El campo creado.
+     * @throws IllegalArgumentException si el mapa tiene más de {@link CampoDirecciones#MAX_CELDAS} celdas.
+     */
+    // 0(ancho * alto)
+    public synchronized CampoDirecciones crearCampoDirecciones(int x, int y) {
+        CampoDirecciones campo = new CampoDirecciones(ancho, alto, x, y);
+        for (long obstaculo : obstaculos) {
+            campo.bloquear(Posicion.xDe(obstaculo), Posicion.yDe(obstaculo));
+        }
+        campo.bloquear(hormiguero.getX(), hormiguero.getY());
+        for (long otro : otrosHormigueros) {
+            campo.bloquear(Posicion.xDe(otro), Posicion.yDe(otro));
+        }
+        campos.add(campo);
+        return campo;
+    }
+
+    /**
+     * Obtiene el campo de direcciones hacia el hormiguero.
+     *
+     * @return El campo, o null si el mapa tiene más de {@link CampoDirecciones#MAX_CELDAS} celdas.
+     */
+    public CampoDirecciones getCampoHormiguero() {
+        return campoHormiguero;
+    }
+
+    /**
+     * Apunta un obstáculo en el mapa y corrige los campos de direcciones.
+     * <p>
+     * Lo llama el simulador después de reservar la celda en la rejilla de ocupación, que es lo que
+     * impide que las hormigas entren en ella.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     */
+    // 0(celdas afectadas en cada campo)
+    public synchronized void registrarObstaculo(int x, int y) {
+        if (obstaculos.add(Posicion.empaquetar(x, y))) {
+            celdasObstaculo.reservar(x, y).set(Trozos.indice(x, y), 1);
+            for (CampoDirecciones campo : campos) {
+                campo.bloquear(x, y);
+            }
+        }
+    }
+
+    /**
+     * Quita un obstáculo del mapa y corrige los campos de direcciones.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     */
+    // 0(celdas afectadas en cada campo)
+    public synchronized void retirarObstaculo(int x, int y) {
+        if (obstaculos.remove(Posicion.empaquetar(x, y))) {
+            celdasObstaculo.reservar(x, y).set(Trozos.indice(x, y), 0);
+            for (CampoDirecciones campo : campos) {
+                campo.desbloquear(x, y);
+            }
+        }
+    }
+
+    /**
+     * Comprueba si una celda tiene un obstáculo.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return `true` si hay un obstáculo.
+     */
+    // 0(1)
+    public boolean esObstaculo(int x, int y) {
+        if (obstaculos.isEmpty()) {
+            return false;
+        }
+        AtomicIntegerArray trozo = celdasObstaculo.buscar(x, y);
+        return trozo != null && trozo.get(Trozos.indice(x, y)) != 0;
+    }
+
+    /**
+     * Obtiene el numero de obstáculos del mapa.
+     *
+     * @return El numero de celdas con obstáculo.
+     */
+    public int getNumeroObstaculos() {
+        return obstaculos.size();
+    }
+
+    /**
+     * Copia las celdas con obstáculo.
+     *
+     * @return Las celdas, empaquetadas con {@link Posicion#empaquetar(int, int)}.
+     */
+    // 0(o) -> o = obstaculos
+    public synchronized long[] getObstaculos() {
+        long[] celdas = new long[obstaculos.size()];
+        int i = 0;
+        for (long celda : obstaculos) {
+            celdas[i++] = celda;
+        }
+        return celdas;
+    }
+
+    /**
+     * Obtiene la comida del mapa.
+     *
+     * @return La rejilla con la comida de cada celda.
+     */
+    public RejillaComida getComida() {
+        return comida;
+    }
+
+    /**
+     * Crea la capa de feromonas del mapa.
+     * <p>
+     * A diferencia de los símbolos, las feromonas se guardan en un arreglo denso con una celda
+     * por casilla del mapa, así que solo se puede activar en mapas de hasta
+     * {@link CampoFeromonas#MAX_CELDAS} celdas.
+     *
+     * @param paralelo  `true` para repartir cada paso del campo entre varios hilos.
+     * @param vectorial `true` para calcular cada paso con la Vector API si está disponible.
+     * @return La capa creada.
+     * @throws IllegalArgumentException si el mapa es demasiado grande para el campo.
+     */
+    // 0(ancho * alto)
+    public CampoFeromonas activarFeromonas(boolean paralelo, boolean vectorial) {
+        feromonas = new CampoFeromonas(ancho, alto, paralelo, vectorial);
+        return feromonas;
+    }
+
+    /**
+     * Obtiene la capa de feromonas del mapa.
+     *
+     * @return La capa de feromonas, o null si no está activada.
+     */
+    public CampoFeromonas getFeromonas() {
+        return feromonas;
+    }
+
+    /**
+     * Obtiene el símbolo de una celda tal y como quedó en el último prepararMapa().
+     * <p>
+     * Solo se preparan las celdas de la ventana; fuera de ella se devuelve el símbolo de fondo.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return El símbolo de la celda.
+     */
+    // 0(1)
+    public synchronized char getSimbolo(int x, int y) {
+        int columna = x - getVentanaX();
+        int fila = y - getVentanaY();
+        int columnas = getColumnasVentana();
+        if (columna < 0 || columna >= columnas || fila < 0 || fila >= getFilasVentana()) {
+            return getSimboloFondo(x, y);
+        }
+        return ventana[fila * columnas + columna];
+    }
+
+    /**
+     * Obtiene el símbolo de una celda cuando no hay ninguna hormiga en ella.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return El símbolo del hormiguero si es su celda, el de obstáculo si lo hay, el de comida si
+     * le queda comida, o el de terreno vacío.
+     */
+    // 0(1)
+    public char getSimboloFondo(int x, int y) {
+        if (esHormiguero(x, y)) {
+            return HORMIGUERO;
+        }
+        if (esObstaculo(x, y)) {
+            return OBSTACULO;
+        }
+        return comida.cantidad(x, y) > 0 ? COMIDA : VACIO;
+    }
+
+    /**
+     * Obtiene la primera columna de la ventana que se muestra en consola.
+     * <p>
+     * La ventana es de VENTANA_MAXIMA x VENTANA_MAXIMA como mucho y está centrada en el hormiguero.
+     *
+     * @return La coordenada x de la esquina superior izquierda de la ventana.
+     */
+    // 0(1)
+    public int getVentanaX() {
+        int columnas = getColumnasVentana();
+        return Math.max(0, Math.min(hormiguero.getX() - columnas / 2, ancho - columnas));
+    }
+
+    /**
+     * Obtiene la primera fila de la ventana que se muestra en consola.
+     *
+     * @return La coordenada y de la esquina superior izquierda de la ventana.
+     */
+    // 0(1)
+    public int getVentanaY() {
+        int filas = getFilasVentana();
+        return Math.max(0, Math.min(hormiguero.getY() - filas / 2, alto - filas));
+    }
+
+    /**
+     * Obtiene el numero de columnas de la ventana que se muestra en consola.
+     *
+     * @return El numero de columnas.
+     */
+    public int getColumnasVentana() {
+        return Math.min(ancho, VENTANA_MAXIMA);
+    }
+
+    /**
+     * Obtiene el numero de filas de la ventana que se muestra en consola.
+     *
+     * @return El numero de filas.
+     */
+    public int getFilasVentana() {
+        return Math.min(alto, VENTANA_MAXIMA);
+    }
 
     /**
      * Obtiene la posición del hormiguero.
@@ -78,57 +460,150 @@ public class Mapa {
     // verificamos que la posicion esta dentro de los limites del mapa
     // 0(1) -> compara directamente
     public boolean dentroLimites(Posicion posicion) {
-        return (posicion.getX() >= 0 && posicion.getX() < ANCHO && posicion.getY() >= 0 && posicion.getY() < ALTO);
+        return dentroLimites(posicion.getX(), posicion.getY());
+    }
+
+    /**
+     * Verifica si unas coordenadas están dentro de los límites del mapa.
+     * <p>
+     * Versión sin objetos que usan las hormigas al moverse.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return `true` si está dentro de los límites, `false` en caso contrario.
+     */
+    // 0(1) -> compara directamente
+    public boolean dentroLimites(int x, int y) {
+        return (x >= 0 && x < ancho && y >= 0 && y < alto);
+    }
+
+    /**
+     * Comprueba si unas coordenadas son las de un hormiguero (de cualquier colonia).
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return `true` si es la celda de un hormiguero.
+     */
+    // 0(h) -> h = hormigueros de las demás colonias (0(1) con una sola colonia)
+    public boolean esHormiguero(int x, int y) {
+        if (x == hormiguero.getX() && y == hormiguero.getY()) {
+            return true;
+        }
+        long[] otros = otrosHormigueros;
+        if (otros.length == 0) {
+            return false;
+        }
+        long celda = Posicion.empaquetar(x, y);
+        for (long otro : otros) {
+            if (otro == celda) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
      * Muestra el mapa en la consola de forma sincronizada.
      * <p>
-     * Imprime la matriz del mapa fila por fila con símbolos representativos.
+     * Compone el mapa en un {@link EscritorFrame} propio y lo vuelca con una sola escritura.
      */
     // Mostrar mapa en consola con synchronized
-    // 0(n^2)
+    // 0(n^2) -> n = lado de la ventana mostrada
     public synchronized void mostrarMapa() {
-        System.out.println("\n=== MAPA DE LA COLONIA ===\n");
+        if (escritor == null) {
+            escritor = new EscritorFrame();
+        }
+        componerMapa(escritor);
+        escritor.volcar();
+    }
+
+    /**
+     * Compone el mapa en un escritor de frames, sin volcarlo.
+     * <p>
+     * Escribe el mapa fila por fila con símbolos representativos. Si el mapa es más grande que
+     * VENTANA_MAXIMA solo se escribe una ventana de ese tamaño centrada en el hormiguero.
+     *
+     * @param salida Escritor donde se compone el frame.
+     */
+    // 0(n^2) -> n = lado de la ventana mostrada
+    public synchronized void componerMapa(EscritorFrame salida) {
+        salida.escribir("\n=== MAPA DE LA COLONIA ===\n\n");
+
+        // Calculamos la ventana a mostrar
+        int columnas = getColumnasVentana();
+        int filas = getFilasVentana();
+        int x0 = getVentanaX();
+        int y0 = getVentanaY();
 
         // Recorremos el mapa fila por fila
-        for (int y = 0; y < ALTO; y++) {
-            for (int x = 0; x < ANCHO; x++) {
-                System.out.print(mapa[y][x] + " ");
+        for (int y = y0; y < y0 + filas; y++) {
+            for (int x = x0; x < x0 + columnas; x++) {
+                salida.escribir(getSimbolo(x, y)).escribir(' ');
             }
-            System.out.println(); // Añadimos una linea nueva al terminar la fila
+            salida.nuevaLinea(); // Añadimos una linea nueva al terminar la fila
         }
 
-        System.out.println("\n==========================\n");
+        salida.escribir("\n==========================\n\n");
     }
 
     /**
      * Prepara el mapa colocando el hormiguero y las hormigas activas.
      * <p>
-     * Reinicia el mapa con terrenos vacíos, coloca el hormiguero y superpone los símbolos
-     * de las hormigas en sus posiciones si están dentro de los límites.
+     * Rellena la ventana que se muestra con el fondo de cada celda (hormigueros, obstáculos,
+     * comida o terreno vacío) y superpone los símbolos de las hormigas que caen dentro de ella.
+     * Solo se escribe en el arreglo de la ventana, que se reutiliza, así que un frame no crea
+     * objetos y no depende de cuánta comida u obstáculos haya en el resto del mapa.
+     * <p>
+     * Las hormigas se toman de una instantánea del registro, así que se dibujan sin tocar los
+     * objetos Hormiga y sin competir con las que se están moviendo.
      *
-     * @param hormigas HashMap con las hormigas activas a colocar en el mapa.
+     * @param hormigas Registro de las hormigas vivas a colocar en el mapa.
      */
     // preapara el mapa colocando hormiguero mas hormigas activas
-    // 0(n^2)
-    public void prepararMapa(HashMap<String, Hormiga> hormigas) {
-        // Rellenamos con VACIO
-        for (int y = 0; y < ALTO; y++) {
-            for (int x = 0; x < ANCHO; x++) {
-                mapa[y][x] = VACIO;
+    // 0(n + v) -> n = numero de hormigas, v = celdas de la ventana
+    public synchronized void prepararMapa(RegistroHormigas hormigas) {
+        prepararMapa(hormigas.instantanea(instantanea));
+    }
+
+    /**
+     * Prepara el mapa colocando el hormiguero y las hormigas de una instantánea ya hecha (por
+     * ejemplo, la de la última generación del {@link PlanificadorGeneraciones}).
+     *
+     * @param hormigas Instantánea de las hormigas a colocar en el mapa.
+     */
+    // 0(n + v) -> n = numero de hormigas, v = celdas de la ventana
+    public synchronized void prepararMapa(RegistroHormigas.Instantanea hormigas) {
+        // Fondo de la ventana: hormigueros, obstaculos y comida que queda
+        prepararFondo();
+
+        // Colocamos encima las hormigas que caen dentro de la ventana
+        int x0 = getVentanaX();
+        int y0 = getVentanaY();
+        int columnas = getColumnasVentana();
+        int filas = getFilasVentana();
+        for (int i = 0; i < hormigas.getTamano(); i++) {
+            long coordenadas = hormigas.getCoordenadas(i);
+            int columna = Posicion.xDe(coordenadas) - x0;
+            int fila = Posicion.yDe(coordenadas) - y0;
+            if (columna >= 0 && columna < columnas && fila >= 0 && fila < filas) {
+                ventana[fila * columnas + columna] = hormigas.getTipo(i).getSimbolo().charAt(0);
             }
         }
+    }
 
-        // Colocamos el hormiguero en el centro
-        mapa[hormiguero.getY()][hormiguero.getX()] = HORMIGUERO;
-
-        // Colocamos hormigas en el mapa
-        for (Hormiga hormiga : hormigas.values()) {
-            Posicion pos = hormiga.getPosicion();
-            if (dentroLimites(pos)) {
-                mapa[pos.getY()][pos.getX()] = hormiga.getTipo().getSimbolo().charAt(0);
+    /**
+     * Rellena la ventana con el símbolo de fondo de cada celda, sin hormigas.
+     */
+    // 0(v * h) -> v = celdas de la ventana, h = hormigueros
+    private void prepararFondo() {
+        int x0 = getVentanaX();
+        int y0 = getVentanaY();
+        int columnas = getColumnasVentana();
+        int filas = getFilasVentana();
+        for (int fila = 0; fila < filas; fila++) {
+            for (int columna = 0; columna < columnas; columna++) {
+                ventana[fila * columnas + columna] = getSimboloFondo(x0 + columna, y0 + fila);
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,145 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de la simulación en marcha: movimientos aceptados, rechazados por motivo y latencias.
+ * <p>
+ * Los contadores son {@link LongAdder} (repartidos entre celdas, así que miles de hilos pueden
+ * sumar a la vez sin pelearse por la misma línea de caché) y las latencias van a
+ * {@link HistogramaLatencias}. Las hormigas solo miden el tiempo de la comprobación de colisiones
+ * (reclamar la celda en la {@link RejillaOcupacion}) en uno de cada {@link #MUESTREO_COLISIONES}
+ * intentos, porque leer el reloj dos veces costaría tanto como el propio movimiento. Los frames se
+ * miden todos.
+ * <p>
+ * Los motivos de rechazo son los códigos de {@link BitacoraMovimientos}: {@link BitacoraMovimientos#FUERA},
+ * {@link BitacoraMovimientos#HORMIGUERO} y {@link BitacoraMovimientos#OCUPADA}.
+ */
+public class MetricasSimulacion {
+    /** Se mide la comprobación de colisiones de uno de cada MUESTREO_COLISIONES intentos (potencia de 2). */
+    public static final int MUESTREO_COLISIONES = 64;
+    /** Motivos de rechazo, en el orden en que se muestran. */
+    public static final byte[] MOTIVOS = {BitacoraMovimientos.FUERA, BitacoraMovimientos.HORMIGUERO,
+            BitacoraMovimientos.OCUPADA};
+
+    /** Movimientos aceptados. */
+    private final LongAdder aceptados;
+    /** Movimientos rechazados, por código de motivo. */
+    private final LongAdder[] rechazados;
+    /** Tiempo de la comprobación de colisiones (muestreado). */
+    private final HistogramaLatencias colisiones;
+    /** Tiempo de cada frame de la visualización. */
+    private final HistogramaLatencias frames;
+
+    /**
+     * Constructor de la clase MetricasSimulacion: empieza con todo a 0.
+     */
+    // 0(CUBETAS)
+    public MetricasSimulacion() {
+        this.aceptados = new LongAdder();
+        this.rechazados = new LongAdder[BitacoraMovimientos.OCUPADA + 1];
+        for (byte motivo : MOTIVOS) {
+            rechazados[motivo] = new LongAdder();
+        }
+        this.colisiones = new HistogramaLatencias();
+        this.frames = new HistogramaLatencias();
+    }
+
+    /**
+     * Cuenta un movimiento aceptado.
+     */
+    // 0(1)
+    public void movimientoAceptado() {
+        aceptados.increment();
+    }
+
+    /**
+     * Suma movimientos aceptados de golpe (por ejemplo los de un punto de control).
+     *
+     * @param movimientos Movimientos a sumar.
+     */
+    // 0(1)
+    public void sumarAceptados(long movimientos) {
+        aceptados.add(movimientos);
+    }
+
+    /**
+     * Cuenta un movimiento rechazado.
+     *
+     * @param motivo Código del motivo (ver {@link #MOTIVOS}).
+     */
+    // 0(1)
+    public void movimientoRechazado(byte motivo) {
+        rechazados[motivo].increment();
+    }
+
+    /**
+     * Registra lo que ha tardado una comprobación de colisiones muestreada.
+     *
+     * @param nanos Nanosegundos.
+     */
+    // 0(1)
+    public void colisionMedida(long nanos) {
+        colisiones.registrar(nanos);
+    }
+
+    /**
+     * Registra lo que ha tardado un frame de la visualización.
+     *
+     * @param nanos Nanosegundos.
+     */
+    // 0(1)
+    public void frameMedido(long nanos) {
+        frames.registrar(nanos);
+    }
+
+    /**
+     * Obtiene los movimientos aceptados.
+     *
+     * @return Los movimientos aceptados desde el principio.
+     */
+    // 0(celdas del LongAdder)
+    public long getAceptados() {
+        return aceptados.sum();
+    }
+
+    /**
+     * Obtiene los movimientos rechazados por un motivo.
+     *
+     * @param motivo Código del motivo (ver {@link #MOTIVOS}).
+     * @return Los rechazados por ese motivo desde el principio.
+     */
+    // 0(celdas del LongAdder)
+    public long getRechazados(byte motivo) {
+        return rechazados[motivo].sum();
+    }
+
+    /**
+     * Obtiene los movimientos rechazados por cualquier motivo.
+     *
+     * @return Los rechazados desde el principio.
+     */
+    public long getRechazados() {
+        long total = 0;
+        for (byte motivo : MOTIVOS) {
+            total += rechazados[motivo].sum();
+        }
+        return total;
+    }
+
+    /**
+     * Obtiene el histograma del tiempo de la comprobación de colisiones.
+     *
+     * @return El histograma (en nanosegundos).
+     */
+    public HistogramaLatencias getColisiones() {
+        return colisiones;
+    }
+
+    /**
+     * Obtiene el histograma del tiempo de cada frame.
+     *
+     * @return El histograma (en nanosegundos).
+     */
+    public HistogramaLatencias getFrames() {
+        return frames;
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Enumeración que define como se ejecutan las hormigas en el simulador.
+ * <p>
+ * Se elige al arrancar la simulación y lo usa el {@link LanzadorHormigas} para lanzar el
+ * run() de cada hormiga.
+ */
+public enum ModoEjecucion {
+    /**
+     * Un hilo de plataforma (del sistema operativo) por hormiga. Es el modo original.
+     */
+    PLATAFORMA("plataforma"),
+    /**
+     * Un hilo virtual por hormiga. Permite tener millones de hormigas durmiendo y moviendose
+     * en la misma JVM porque los hilos virtuales no reservan una pila del sistema.
+     */
+    VIRTUAL("virtual"),
+    /**
+     * Cada hormiga se envia como tarea a un ExecutorService configurable. El ejecutor debe poder
+     * tener todas las hormigas en marcha a la vez, porque cada una se queda en su bucle run().
+     */
+    EJECUTOR("ejecutor"),
+    /**
+     * El mapa se reparte en regiones y un hilo por región mueve todas sus hormigas (ver
+     * {@link PlanificadorRegiones}). Las hormigas no tienen hilo propio.
+     */
+    REGIONES("regiones"),
+    /**
+     * Una rueda de tiempos guarda cuándo le toca moverse a cada hormiga y un pool pequeño de
+     * trabajadores las mueve por lotes (ver {@link PlanificadorRueda}). Las hormigas no tienen
+     * hilo propio ni duermen.
+     */
+    RUEDA("rueda"),
+    /**
+     * Las hormigas se mueven por generaciones: unos pocos trabajadores mueven las que les toca y
+     * se esperan en un Phaser, y al final de cada generación se publica una instantánea de las
+     * posiciones que es la que se dibuja (ver {@link PlanificadorGeneraciones}).
+     */
+    GENERACIONES("generaciones");
+
+    /**
+     * Nombre del modo tal y como se escribe en la linea de comandos.
+     */
+    private final String nombre;
+
+    /**
+     * Constructor de la enumeración ModoEjecucion.
+     *
+     * @param nombre Nombre del modo en la linea de comandos.
+     */
+    ModoEjecucion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Obtiene el nombre del modo.
+     *
+     * @return El nombre usado en la linea de comandos.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Busca el modo que corresponde a un nombre de la linea de comandos.
+     *
+     * @param nombre Nombre del modo (no distingue mayusculas).
+     * @return El modo correspondiente.
+     * @throws IllegalArgumentException si el nombre no corresponde a ningun modo.
+     */
+    // 0(1) -> solo hay seis modos
+    public static ModoEjecucion desdeNombre(String nombre) {
+        for (ModoEjecucion modo : values()) {
+            if (modo.nombre.equalsIgnoreCase(nombre)) {
+                return modo;
+            }
+        }
+        throw new IllegalArgumentException("Modo de ejecucion desconocido: " + nombre);
+    }
+}
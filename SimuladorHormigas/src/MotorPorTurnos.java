@@ -0,0 +1,295 @@
+import java.util.Arrays;
+
+/**
+ * Motor de simulación por turnos, alternativa determinista a un hilo por hormiga.
+ * <p>
+ * En lugar de que cada hormiga duerma en su propio hilo, este motor avanza todas las hormigas un
+ * turno lógico en un bucle sin esperas. Las hormigas se guardan como estructura de arreglos
+ * ({@code int[] x}, {@code int[] y}, {@code byte[] tipo}) y la espera aleatoria de 0 a 5 segundos
+ * de {@link Hormiga#run()} se convierte en un contador por hormiga con el turno en el que le toca
+ * moverse. Con la misma semilla el resultado es idéntico bit a bit.
+ * <p>
+ * Como el motor usa un solo hilo, tampoco necesita la {@link RejillaOcupacion} con sus
+ * compareAndSet: guarda la ocupación en arreglos propios que se leen y escriben sin más. En mapas
+ * de hasta {@link #MAX_CELDAS_DENSAS} celdas es un {@code int[]} con una celda por casilla; en
+ * mapas mayores, una tabla hash de direccionamiento abierto con las celdas ocupadas (como mucho
+ * una por hormiga, así que nunca tiene que crecer).
+ */
+public class MotorPorTurnos {
+    /** Milisegundos de tiempo simulado que representa cada turno. */
+    public static final int MILISEGUNDOS_POR_TURNO = 100;
+    /** Espera maxima entre movimientos en turnos (equivale a los 5000 ms de Hormiga.run()). */
+    public static final int ESPERA_MAXIMA_TURNOS = 5000 / MILISEGUNDOS_POR_TURNO;
+    /** Celdas a partir de las que la ocupación se guarda en una tabla hash en lugar de un arreglo denso. */
+    public static final int MAX_CELDAS_DENSAS = 1 << 24;
+    /** Posición libre de la tabla de celdas ocupadas (las celdas empaquetadas nunca son negativas). */
+    private static final long LIBRE = -1L;
+
+    /**
+     * Mapa de la simulación (limites, hormigueros y obstáculos).
+     */
+    private final Mapa mapa;
+    /**
+     * Ocupación densa del mapa, fila por fila: la hormiga i se guarda con el numero i + 1 y una
+     * celda libre vale 0 (null si el mapa tiene más de MAX_CELDAS_DENSAS celdas).
+     */
+    private final int[] ocupantes;
+    /**
+     * Celdas ocupadas en mapas grandes, empaquetadas con {@link Posicion#empaquetar(int, int)}, o
+     * LIBRE (null si se usa la ocupación densa).
+     */
+    private final long[] ocupadas;
+    /**
+     * Generador aleatorio con semilla, unico para todo el motor.
+     */
+    private final GeneradorAleatorio random;
+
+    /** Coordenada x de cada hormiga. */
+    private final int[] x;
+    /** Coordenada y de cada hormiga. */
+    private final int[] y;
+    /** Tipo de cada hormiga (ordinal de {@link TipoHormiga}). */
+    private final byte[] tipo;
+    /** Turno en el que le toca moverse a cada hormiga. */
+    private final long[] siguienteTurno;
+    /** Numero de hormigas en el motor. */
+    private int numeroHormigas;
+
+    /** Turno actual. */
+    private long turno;
+    /** Movimientos aceptados desde el principio. */
+    private long movimientos;
+
+    /**
+     * Constructor de la clase MotorPorTurnos.
+     *
+     * @param mapa      Mapa de la simulación.
+     * @param capacidad Numero maximo de hormigas.
+     * @param semilla   Semilla del generador aleatorio.
+     */
+    // 0(n) -> reserva los arreglos (0(ancho * alto) con la ocupación densa)
+    public MotorPorTurnos(Mapa mapa, int capacidad, long semilla) {
+        this.mapa = mapa;
+        if (mapa.getNumeroCeldas() <= MAX_CELDAS_DENSAS) {
+            this.ocupantes = new int[(int) mapa.getNumeroCeldas()];
+            this.ocupadas = null;
+        } else {
+            // Al menos el doble de posiciones que hormigas, para que las búsquedas sean cortas
+            this.ocupantes = null;
+            this.ocupadas = new long[Integer.highestOneBit(Math.max(capacidad, 1) * 2 - 1) * 2];
+            Arrays.fill(ocupadas, LIBRE);
+        }
+        this.random = new GeneradorAleatorio(semilla);
+        this.x = new int[capacidad];
+        this.y = new int[capacidad];
+        this.tipo = new byte[capacidad];
+        this.siguienteTurno = new long[capacidad];
+        this.numeroHormigas = 0;
+        this.turno = 0;
+        this.movimientos = 0;
+    }
+
+    /**
+     * Genera hormigas en posiciones aleatorias libres, evitando los hormigueros y los obstáculos.
+     *
+     * @param cantidad Numero de hormigas a generar.
+     * @param tipoHormiga Tipo de las hormigas generadas.
+     */
+    // 0(n)
+    public void generarHormigas(int cantidad, TipoHormiga tipoHormiga) {
+        int capacidad = (int) Math.min(x.length, mapa.getNumeroCeldas() - mapa.getNumeroHormigueros() - mapa.getNumeroObstaculos());
+        if (numeroHormigas + cantidad > capacidad) {
+            System.err.println("Error: no caben " + (numeroHormigas + cantidad) + " hormigas, se generaran " + capacidad);
+            cantidad = capacidad - numeroHormigas;
+        }
+
+        for (int n = 0; n < cantidad; n++) {
+            int i = numeroHormigas;
+            int px;
+            int py;
+            do {
+                px = random.siguienteEntero(mapa.getAncho());
+                py = random.siguienteEntero(mapa.getAlto());
+            } while (mapa.esHormiguero(px, py) || mapa.esObstaculo(px, py) || ocupada(px, py));
+            ocupar(px, py, i + 1);
+
+            x[i] = px;
+            y[i] = py;
+            tipo[i] = (byte) tipoHormiga.ordinal();
+            siguienteTurno[i] = random.siguienteEntero(ESPERA_MAXIMA_TURNOS + 1);
+            numeroHormigas++;
+        }
+    }
+
+    /**
+     * Avanza la simulación un turno.
+     * <p>
+     * Mueve, en orden, cada hormiga a la que le toca en este turno y le asigna su siguiente turno.
+     */
+    // 0(n) (0(n * h) con varias colonias -> h = hormigueros)
+    public void avanzarTurno() {
+        int ancho = mapa.getAncho();
+        int alto = mapa.getAlto();
+
+        for (int i = 0; i < numeroHormigas; i++) {
+            if (siguienteTurno[i] > turno) {
+                continue; // todavia esta "durmiendo"
+            }
+
+            // 1. Elegir direccion aleatoria y calcular la nueva posicion
+            int[] direccion = Hormiga.DIRECCIONES[random.siguienteEntero(Hormiga.DIRECCIONES.length)];
+            int nx = x[i] + direccion[0];
+            int ny = y[i] + direccion[1];
+
+            // 2. Moverse si esta dentro de limites, no es hormiguero ni obstaculo y esta libre
+            if (nx >= 0 && nx < ancho && ny >= 0 && ny < alto
+                    && !mapa.esHormiguero(nx, ny)
+                    && !mapa.esObstaculo(nx, ny)
+                    && !ocupada(nx, ny)) {
+                ocupar(nx, ny, i + 1);
+                liberar(x[i], y[i]);
+                x[i] = nx;
+                y[i] = ny;
+                movimientos++;
+            }
+
+            // 3. Programar el siguiente movimiento (como el sleep de 0-5 s de Hormiga.run())
+            siguienteTurno[i] = turno + 1 + random.siguienteEntero(ESPERA_MAXIMA_TURNOS + 1);
+        }
+        turno++;
+    }
+
+    /**
+     * Comprueba si una celda está ocupada.
+     */
+    // 0(1) (de media con la tabla hash)
+    private boolean ocupada(int cx, int cy) {
+        if (ocupantes != null) {
+            return ocupantes[cy * mapa.getAncho() + cx] != 0;
+        }
+        return ocupadas[buscar(Posicion.empaquetar(cx, cy))] != LIBRE;
+    }
+
+    /**
+     * Ocupa una celda libre con una hormiga.
+     */
+    // 0(1) (de media con la tabla hash)
+    private void ocupar(int cx, int cy, int numero) {
+        if (ocupantes != null) {
+            ocupantes[cy * mapa.getAncho() + cx] = numero;
+        } else {
+            long celda = Posicion.empaquetar(cx, cy);
+            ocupadas[buscar(celda)] = celda;
+        }
+    }
+
+    /**
+     * Libera una celda ocupada.
+     * <p>
+     * En la tabla hash vuelve a colocar las celdas que siguen a la liberada en la misma secuencia
+     * de búsqueda, para que ninguna quede detrás de un hueco.
+     */
+    // 0(1) (de media con la tabla hash)
+    private void liberar(int cx, int cy) {
+        if (ocupantes != null) {
+            ocupantes[cy * mapa.getAncho() + cx] = 0;
+            return;
+        }
+        int mascara = ocupadas.length - 1;
+        int hueco = buscar(Posicion.empaquetar(cx, cy));
+        int i = hueco;
+        while (true) {
+            i = (i + 1) & mascara;
+            long celda = ocupadas[i];
+            if (celda == LIBRE) {
+                break;
+            }
+            // La celda puede ocupar el hueco si su posición ideal no está entre el hueco e i
+            int ideal = posicion(celda);
+            if (((i - ideal) & mascara) >= ((i - hueco) & mascara)) {
+                ocupadas[hueco] = celda;
+                hueco = i;
+            }
+        }
+        ocupadas[hueco] = LIBRE;
+    }
+
+    /**
+     * Busca una celda en la tabla hash.
+     *
+     * @return Su posición en la tabla, o la posición libre donde iría.
+     */
+    // 0(1) de media
+    private int buscar(long celda) {
+        int mascara = ocupadas.length - 1;
+        int i = posicion(celda);
+        while (ocupadas[i] != LIBRE && ocupadas[i] != celda) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    /**
+     * Posición ideal de una celda en la tabla hash.
+     */
+    // 0(1)
+    private int posicion(long celda) {
+        return (int) ((celda * 0x9E3779B97F4A7C15L) >>> 32) & (ocupadas.length - 1);
+    }
+
+    /**
+     * Avanza la simulación varios turnos seguidos.
+     *
+     * @param turnos Numero de turnos a avanzar.
+     */
+    // 0(turnos * n)
+    public void ejecutar(long turnos) {
+        for (long t = 0; t < turnos; t++) {
+            avanzarTurno();
+        }
+    }
+
+    /**
+     * Calcula una huella de las posiciones de todas las hormigas.
+     * <p>
+     * Sirve para comprobar que dos ejecuciones con la misma semilla dan el mismo resultado.
+     *
+     * @return Un hash de las posiciones.
+     */
+    // 0(n)
+    public long huella() {
+        long h = 1125899906842597L;
+        for (int i = 0; i < numeroHormigas; i++) {
+            h = 31 * h + x[i];
+            h = 31 * h + y[i];
+        }
+        return h;
+    }
+
+    /**
+     * Obtiene el turno actual.
+     *
+     * @return El turno actual.
+     */
+    public long getTurno() {
+        return turno;
+    }
+
+    /**
+     * Obtiene el numero de movimientos aceptados.
+     *
+     * @return Los movimientos aceptados desde el principio.
+     */
+    public long getMovimientos() {
+        return movimientos;
+    }
+
+    /**
+     * Obtiene el numero de hormigas en el motor.
+     *
+     * @return El numero de hormigas.
+     */
+    public int getNumeroHormigas() {
+        return numeroHormigas;
+    }
+}
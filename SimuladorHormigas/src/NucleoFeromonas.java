@@ -0,0 +1,63 @@
+/**
+ * Núcleo de cálculo de un paso del {@link CampoFeromonas}: difusión y evaporación de un rango de filas.
+ * <p>
+ * Hay dos implementaciones: {@link NucleoFeromonasEscalar}, en Java normal, y
+ * {@link NucleoFeromonasVectorial}, con la Vector API ({@code jdk.incubator.vector}). La vectorial
+ * solo se puede cargar si la máquina virtual se arrancó con
+ * {@code --add-modules jdk.incubator.vector}; si no, se usa la escalar.
+ */
+public interface NucleoFeromonas {
+    /** Nombre del módulo de la Vector API. */
+    String MODULO_VECTORIAL = "jdk.incubator.vector";
+
+    /**
+     * Calcula las filas [desde, hasta) del siguiente paso.
+     * <p>
+     * Solo lee de origen (incluidas la fila anterior a desde y la siguiente a hasta) y solo escribe
+     * en las filas [desde, hasta) de destino, así que varios hilos pueden calcular rangos de filas
+     * distintos a la vez.
+     *
+     * @param origen  Concentraciones del paso anterior.
+     * @param destino Buffer donde se escriben las nuevas concentraciones.
+     * @param ancho   Ancho del campo.
+     * @param alto    Alto del campo.
+     * @param desde   Primera fila a calcular.
+     * @param hasta   Fila siguiente a la última.
+     */
+    void actualizarFilas(float[] origen, float[] destino, int ancho, int alto, int desde, int hasta);
+
+    /**
+     * Obtiene el nombre del núcleo para las estadísticas.
+     *
+     * @return El nombre.
+     */
+    String getNombre();
+
+    /**
+     * Crea el núcleo a usar.
+     * <p>
+     * Si se pide el vectorial pero el módulo de la Vector API no está cargado, avisa por la salida
+     * de error y devuelve el escalar.
+     *
+     * @param vectorial `true` para usar la Vector API si está disponible.
+     * @return El núcleo.
+     */
+    // 0(1)
+    static NucleoFeromonas crear(boolean vectorial) {
+        if (!vectorial) {
+            return new NucleoFeromonasEscalar();
+        }
+        if (ModuleLayer.boot().findModule(MODULO_VECTORIAL).isEmpty()) {
+            System.err.println("Aviso: la Vector API no esta disponible (arranca con --add-modules "
+                    + MODULO_VECTORIAL + "), se usa el nucleo escalar");
+            return new NucleoFeromonasEscalar();
+        }
+        try {
+            // Se carga por nombre para que la clase escalar no dependa del módulo incubado
+            return (NucleoFeromonas) Class.forName("NucleoFeromonasVectorial").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("Aviso: no se pudo cargar el nucleo vectorial (" + e + "), se usa el escalar");
+            return new NucleoFeromonasEscalar();
+        }
+    }
+}
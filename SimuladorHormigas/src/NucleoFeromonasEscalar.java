@@ -0,0 +1,86 @@
+/**
+ * Núcleo escalar del campo de feromonas, en Java normal.
+ * <p>
+ * Cada celda se queda con (1 - DIFUSION) de su feromona más DIFUSION / 4 de la de cada vecina, y
+ * el resultado se multiplica por (1 - EVAPORACION). En los bordes la vecina que falta se sustituye
+ * por la propia celda, así que la difusión no pierde feromona por los bordes. Los valores por
+ * debajo de MINIMO se ponen a 0.
+ * <p>
+ * Es el núcleo de reserva cuando no está la Vector API, y el vectorial lo usa para los bordes y
+ * las columnas que no llenan un vector.
+ */
+public class NucleoFeromonasEscalar implements NucleoFeromonas {
+    /** Factor que multiplica la feromona de la propia celda. */
+    static final float PROPIA = (1f - CampoFeromonas.DIFUSION) * (1f - CampoFeromonas.EVAPORACION);
+    /** Factor que multiplica la feromona de cada vecina. */
+    static final float VECINA = CampoFeromonas.DIFUSION / 4f * (1f - CampoFeromonas.EVAPORACION);
+
+    @Override
+    // 0((hasta - desde) * ancho)
+    public void actualizarFilas(float[] origen, float[] destino, int ancho, int alto, int desde, int hasta) {
+        for (int y = desde; y < hasta; y++) {
+            int fila = y * ancho;
+            int arriba = (y > 0 ? y - 1 : y) * ancho;
+            int abajo = (y < alto - 1 ? y + 1 : y) * ancho;
+            actualizarBordes(origen, destino, ancho, fila, arriba, abajo);
+            actualizarInterior(origen, destino, fila, arriba, abajo, 1, ancho - 1);
+        }
+    }
+
+    /**
+     * Calcula la primera y la última columna de una fila.
+     *
+     * @param origen  Concentraciones del paso anterior.
+     * @param destino Buffer del nuevo paso.
+     * @param ancho   Ancho del campo.
+     * @param fila    Indice del principio de la fila.
+     * @param arriba  Indice del principio de la fila de arriba (la misma fila en el borde).
+     * @param abajo   Indice del principio de la fila de abajo (la misma fila en el borde).
+     */
+    // 0(1)
+    static void actualizarBordes(float[] origen, float[] destino, int ancho, int fila, int arriba, int abajo) {
+        // Primera columna: la vecina izquierda es la propia celda
+        float c = origen[fila];
+        float derecha = ancho > 1 ? origen[fila + 1] : c;
+        destino[fila] = limpiar(PROPIA * c + VECINA * (c + derecha + origen[arriba] + origen[abajo]));
+        if (ancho == 1) {
+            return;
+        }
+
+        // Ultima columna: la vecina derecha es la propia celda
+        int ultima = ancho - 1;
+        c = origen[fila + ultima];
+        destino[fila + ultima] = limpiar(PROPIA * c
+                + VECINA * (origen[fila + ultima - 1] + c + origen[arriba + ultima] + origen[abajo + ultima]));
+    }
+
+    /**
+     * Calcula las columnas [desde, hasta) de una fila, que deben tener vecina a los dos lados.
+     * <p>
+     * Bucle sin ramas sobre tres filas seguidas, que el compilador JIT puede vectorizar por su cuenta.
+     */
+    // 0(hasta - desde)
+    static void actualizarInterior(float[] origen, float[] destino, int fila, int arriba, int abajo, int desde, int hasta) {
+        for (int x = desde; x < hasta; x++) {
+            float valor = PROPIA * origen[fila + x]
+                    + VECINA * (origen[fila + x - 1] + origen[fila + x + 1] + origen[arriba + x] + origen[abajo + x]);
+            destino[fila + x] = valor < CampoFeromonas.MINIMO ? 0f : valor;
+        }
+    }
+
+    /**
+     * Pone a 0 las concentraciones por debajo de MINIMO (evita números subnormales, que son lentos).
+     *
+     * @param valor Concentración calculada.
+     * @return La concentración, o 0 si es despreciable.
+     */
+    // 0(1)
+    private static float limpiar(float valor) {
+        return valor < CampoFeromonas.MINIMO ? 0f : valor;
+    }
+
+    @Override
+    public String getNombre() {
+        return "escalar";
+    }
+}
@@ -0,0 +1,56 @@
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Núcleo del campo de feromonas con la Vector API (SIMD).
+ * <p>
+ * Hace la misma cuenta que {@link NucleoFeromonasEscalar}, pero las columnas interiores de cada
+ * fila se calculan de tantas en tantas como quepan en un registro vectorial de la máquina (por
+ * ejemplo 16 floats con AVX-512). Los bordes y las columnas que sobran al final de la fila se
+ * calculan con el núcleo escalar.
+ * <p>
+ * Necesita arrancar con {@code --add-modules jdk.incubator.vector}; se carga solo a través de
+ * {@link NucleoFeromonas#crear(boolean)}.
+ */
+public class NucleoFeromonasVectorial implements NucleoFeromonas {
+    /** Forma de vector preferida por la máquina. */
+    private static final VectorSpecies<Float> ESPECIE = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    // 0((hasta - desde) * ancho / ESPECIE.length())
+    public void actualizarFilas(float[] origen, float[] destino, int ancho, int alto, int desde, int hasta) {
+        final int paso = ESPECIE.length();
+        // Ultima columna interior desde la que cabe un vector entero
+        final int limite = 1 + ESPECIE.loopBound(Math.max(0, ancho - 2));
+
+        for (int y = desde; y < hasta; y++) {
+            int fila = y * ancho;
+            int arriba = (y > 0 ? y - 1 : y) * ancho;
+            int abajo = (y < alto - 1 ? y + 1 : y) * ancho;
+            NucleoFeromonasEscalar.actualizarBordes(origen, destino, ancho, fila, arriba, abajo);
+
+            int x = 1;
+            for (; x < limite; x += paso) {
+                FloatVector vecinas = FloatVector.fromArray(ESPECIE, origen, fila + x - 1)
+                        .add(FloatVector.fromArray(ESPECIE, origen, fila + x + 1))
+                        .add(FloatVector.fromArray(ESPECIE, origen, arriba + x))
+                        .add(FloatVector.fromArray(ESPECIE, origen, abajo + x));
+                // Mismo orden de operaciones que el escalar (sin fma) para dar exactamente los mismos valores
+                FloatVector valor = FloatVector.fromArray(ESPECIE, origen, fila + x).mul(NucleoFeromonasEscalar.PROPIA)
+                        .add(vecinas.mul(NucleoFeromonasEscalar.VECINA));
+                VectorMask<Float> despreciable = valor.compare(VectorOperators.LT, CampoFeromonas.MINIMO);
+                valor.blend(0f, despreciable).intoArray(destino, fila + x);
+            }
+
+            // Columnas que no llenan un vector
+            NucleoFeromonasEscalar.actualizarInterior(origen, destino, fila, arriba, abajo, x, ancho - 1);
+        }
+    }
+
+    @Override
+    public String getNombre() {
+        return "vectorial (" + ESPECIE.vectorBitSize() + " bits)";
+    }
+}
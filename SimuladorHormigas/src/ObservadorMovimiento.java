@@ -0,0 +1,39 @@
+/**
+ * Interfaz para recibir los movimientos de las hormigas.
+ * <p>
+ * La hormiga avisa justo después de mover su posición, desde su propio hilo, así que las
+ * implementaciones deben ser seguras para hilos y muy rápidas. También se avisa cuando una
+ * hormiga aparece en el mapa (nace) o deja su celda (muere).
+ */
+public interface ObservadorMovimiento {
+    /**
+     * Se llama cuando una hormiga se ha movido de una celda a otra.
+     *
+     * @param hormiga  La hormiga que se ha movido.
+     * @param xOrigen  Coordenada horizontal de la celda que ha dejado.
+     * @param yOrigen  Coordenada vertical de la celda que ha dejado.
+     * @param xDestino Coordenada horizontal de su nueva celda.
+     * @param yDestino Coordenada vertical de su nueva celda.
+     */
+    void hormigaMovida(Hormiga hormiga, int xOrigen, int yOrigen, int xDestino, int yDestino);
+
+    /**
+     * Se llama cuando una hormiga aparece en una celda sin venir de otra (por ejemplo al nacer).
+     *
+     * @param hormiga La hormiga.
+     * @param x       Coordenada horizontal de su celda.
+     * @param y       Coordenada vertical de su celda.
+     */
+    default void hormigaColocada(Hormiga hormiga, int x, int y) {
+    }
+
+    /**
+     * Se llama cuando una hormiga deja su celda sin ir a otra (por ejemplo al morir).
+     *
+     * @param hormiga La hormiga.
+     * @param x       Coordenada horizontal de la celda que ha dejado.
+     * @param y       Coordenada vertical de la celda que ha dejado.
+     */
+    default void hormigaRetirada(Hormiga hormiga, int x, int y) {
+    }
+}
@@ -0,0 +1,356 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Planificador que mueve las hormigas por generaciones sincronizadas con un {@link Phaser}.
+ * <p>
+ * Cuando cada hormiga se mueve cuando quiere, un frame copia las posiciones mientras otras
+ * hormigas se están moviendo: mezcla posiciones de momentos distintos y dos hormigas pueden salir
+ * en la misma celda. Aquí el tiempo avanza a saltos de {@link #MILISEGUNDOS_POR_GENERACION} ms. En
+ * cada generación unos pocos trabajadores mueven, cada uno las suyas, las hormigas a las que les
+ * toca y llegan al Phaser (las partes son los trabajadores, no las hormigas). El último en llegar,
+ * antes de soltar a los demás, copia el registro de hormigas en una instantánea: en ese momento
+ * nadie se mueve, así que es exactamente el estado del final de la generación.
+ * <p>
+ * Las instantáneas se publican con tres búferes que se intercambian con una referencia atómica:
+ * uno en el que se escribe la generación nueva, uno con la última publicada y uno que está
+ * leyendo el hilo que dibuja. Publicar y leer son un getAndSet, así que ni los trabajadores
+ * esperan a que se termine de dibujar un frame ni el frame espera a que acabe una generación, y
+ * una instantánea publicada no se vuelve a escribir mientras se está dibujando.
+ * <p>
+ * Los tiempos entre movimientos son los de {@link Hormiga#run()} redondeados a generaciones (al
+ * menos una).
+ * <p>
+ * Si a un trabajador le falla una hormiga, deja de ser una parte del Phaser (para que los demás no
+ * le esperen para siempre), termina sus hormigas y ya no recibe más.
+ */
+public class PlanificadorGeneraciones {
+    /** Milisegundos que dura cada generación (los mismos que un turno del {@link MotorPorTurnos}). */
+    public static final int MILISEGUNDOS_POR_GENERACION = MotorPorTurnos.MILISEGUNDOS_POR_TURNO;
+    /** Capacidad inicial de las hormigas de cada trabajador. */
+    private static final int CAPACIDAD_INICIAL = 256;
+
+    /** Registro de hormigas que se copia al final de cada generación. */
+    private final RegistroHormigas registro;
+    /** Trabajadores que mueven las hormigas (cada uno es una parte del Phaser). */
+    private final Trabajador[] trabajadores;
+    /** Sincroniza el final de cada generación y publica su instantánea. */
+    private final Phaser fases;
+    /** Búfer con la última instantánea publicada. */
+    private final AtomicReference<Bufer> publicada;
+    /** Búfer donde se copia la generación que acaba (solo lo toca quien avanza el Phaser). */
+    private Bufer escritura;
+    /** Búfer que está leyendo el hilo que dibuja (solo lo toca ese hilo). */
+    private Bufer lectura;
+
+    /** Momento (System.nanoTime()) del principio de la generación 0. */
+    private volatile long inicio;
+    /** Generaciones terminadas. */
+    private volatile long generaciones;
+    /** Trabajador al que se da la siguiente hormiga que llega. */
+    private int siguiente;
+    /** Se pone a false para que los trabajadores terminen al acabar la generación en curso. */
+    private volatile boolean activa;
+
+    /**
+     * Constructor de la clase PlanificadorGeneraciones.
+     *
+     * @param trabajadores Hilos que mueven las hormigas (mayor que 0 y como mucho 65535, el
+     *                     maximo de partes de un Phaser).
+     * @param registro     Registro de las hormigas vivas, que se copia al final de cada generación.
+     * @throws IllegalArgumentException si el numero de trabajadores no es valido.
+     */
+    // 0(t) -> t = trabajadores
+    public PlanificadorGeneraciones(int trabajadores, RegistroHormigas registro) {
+        if (trabajadores <= 0 || trabajadores > 65535) {
+            throw new IllegalArgumentException("El numero de trabajadores debe estar entre 1 y 65535");
+        }
+        this.registro = registro;
+        this.trabajadores = new Trabajador[trabajadores];
+        for (int i = 0; i < trabajadores; i++) {
+            this.trabajadores[i] = new Trabajador();
+        }
+        this.fases = new Phaser(trabajadores) {
+            @Override
+            protected boolean onAdvance(int fase, int partes) {
+                publicar();
+                return !activa || partes == 0;
+            }
+        };
+        this.publicada = new AtomicReference<>(new Bufer());
+        this.escritura = new Bufer();
+        this.lectura = new Bufer();
+        this.inicio = 0;
+        this.generaciones = 0;
+        this.siguiente = 0;
+        this.activa = true;
+    }
+
+    /**
+     * Obtiene los hilos que mueven las hormigas.
+     *
+     * @return Los trabajadores.
+     */
+    public int getTrabajadores() {
+        return trabajadores.length;
+    }
+
+    /**
+     * Obtiene las generaciones terminadas (y publicadas).
+     *
+     * @return Las generaciones desde el principio.
+     */
+    public long getGeneraciones() {
+        return generaciones;
+    }
+
+    /**
+     * Añade una hormiga al trabajador al que le toca (por turno, saltando los que han fallado); la
+     * primera vez arranca los trabajadores. Si han fallado todos, la termina.
+     *
+     * @param hormiga La hormiga.
+     */
+    // 0(1) (0(t) la primera vez o si han fallado trabajadores -> t = trabajadores)
+    public synchronized void agregar(Hormiga hormiga) {
+        if (trabajadores[0].hilo == null) {
+            inicio = System.nanoTime();
+            for (int i = 0; i < trabajadores.length; i++) {
+                trabajadores[i].hilo = Thread.ofPlatform().name("Generacion_" + i).start(trabajadores[i]);
+            }
+        }
+        hormiga.arrancar();
+        for (int i = 0; i < trabajadores.length; i++) {
+            Trabajador trabajador = trabajadores[siguiente];
+            siguiente = (siguiente + 1) % trabajadores.length;
+            if (!trabajador.caido) {
+                trabajador.entrada.offer(hormiga);
+                return;
+            }
+        }
+        terminar(hormiga);
+    }
+
+    /**
+     * Obtiene la instantánea de la última generación terminada.
+     * <p>
+     * Solo la debe llamar el hilo que dibuja. La instantánea no cambia hasta la siguiente llamada,
+     * aunque mientras tanto terminen más generaciones.
+     *
+     * @return Las hormigas vivas al final de la última generación (vacía si todavía no ha
+     *         terminado ninguna).
+     */
+    // 0(1)
+    public RegistroHormigas.Instantanea ultimaGeneracion() {
+        if (publicada.get().generacion > lectura.generacion) {
+            lectura = publicada.getAndSet(lectura);
+        }
+        return lectura.instantanea;
+    }
+
+    /**
+     * Detiene los trabajadores al acabar la generación en curso y espera a que terminen, como
+     * mucho hasta un momento dado.
+     * <p>
+     * Cada trabajador termina las hormigas que le quedan antes de acabar. Las hormigas ya deben
+     * estar detenidas.
+     *
+     * @param limite Momento (System.nanoTime()) hasta el que se espera.
+     * @return Los nombres de los trabajadores que no han terminado a tiempo (vacía si han terminado todos).
+     */
+    // 0(t) -> t = trabajadores (más lo que tarden en terminar las hormigas)
+    public synchronized List<String> detener(long limite) {
+        activa = false;
+        if (trabajadores[0].hilo == null) {
+            return List.of();
+        }
+        for (Trabajador trabajador : trabajadores) {
+            LockSupport.unpark(trabajador.hilo);
+        }
+        List<String> rezagados = new ArrayList<>();
+        for (Trabajador trabajador : trabajadores) {
+            if (!LanzadorHormigas.esperarHasta(trabajador.hilo, limite)) {
+                rezagados.add(trabajador.hilo.getName());
+            } else {
+                // Las que llegaron a un trabajador que había fallado después de que vaciase su cola
+                Hormiga hormiga;
+                while ((hormiga = trabajador.entrada.poll()) != null) {
+                    terminar(hormiga);
+                }
+            }
+        }
+        return rezagados;
+    }
+
+    /**
+     * Copia el registro en el búfer de escritura y lo publica. Lo llama el último trabajador en
+     * llegar al final de una generación, con los demás esperando.
+     */
+    // 0(n) -> n = hormigas vivas
+    private void publicar() {
+        registro.instantanea(escritura.instantanea);
+        escritura.generacion = generaciones;
+        escritura = publicada.getAndSet(escritura);
+        generaciones = generaciones + 1;
+    }
+
+    /**
+     * Momento (System.nanoTime()) en el que empieza una generación.
+     */
+    // 0(1)
+    private long principio(long generacion) {
+        return inicio + TimeUnit.MILLISECONDS.toNanos(generacion * MILISEGUNDOS_POR_GENERACION);
+    }
+
+    /**
+     * Generaciones que espera una hormiga hasta su siguiente movimiento (su pausa redondeada, al
+     * menos una).
+     */
+    // 0(1)
+    private static int espera(Hormiga hormiga) {
+        return Math.max(1, (hormiga.pausa() + MILISEGUNDOS_POR_GENERACION / 2) / MILISEGUNDOS_POR_GENERACION);
+    }
+
+    /**
+     * Detiene y termina una hormiga que se queda sin turno.
+     */
+    // 0(1)
+    private static void terminar(Hormiga hormiga) {
+        hormiga.detener();
+        hormiga.terminar();
+    }
+
+    /**
+     * Instantánea de una generación junto con su numero.
+     */
+    private static final class Bufer {
+        /** Hormigas vivas al final de la generación. */
+        private final RegistroHormigas.Instantanea instantanea = new RegistroHormigas.Instantanea();
+        /** Generación copiada (-1 si todavía no se ha copiado ninguna). */
+        private long generacion = -1;
+    }
+
+    /**
+     * Trabajador que mueve una parte de las hormigas en cada generación.
+     * <p>
+     * Sus hormigas y la generación en la que le toca moverse a cada una solo las toca su hilo; las
+     * que llegan las deja cualquier hilo en su cola de entrada.
+     */
+    private final class Trabajador implements Runnable {
+        /** Hormigas que empiezan. */
+        private final ConcurrentLinkedQueue<Hormiga> entrada = new ConcurrentLinkedQueue<>();
+        /** Hormigas del trabajador. */
+        private Hormiga[] hormigas = new Hormiga[CAPACIDAD_INICIAL];
+        /** Generación en la que le toca moverse a cada hormiga. */
+        private long[] turnos = new long[CAPACIDAD_INICIAL];
+        /** Hormigas del trabajador. */
+        private int tamano = 0;
+        /** Hilo del trabajador (null hasta que se lanza la primera hormiga). */
+        private Thread hilo;
+        /** Se pone a true si le ha fallado una hormiga y ya no es una parte del Phaser. */
+        private volatile boolean caido = false;
+
+        /**
+         * Bucle del trabajador: en cada generación recoge las hormigas que llegan, mueve aquellas a
+         * las que les toca, espera a los demás trabajadores y duerme hasta la siguiente.
+         * <p>
+         * Si falla una hormiga, sale del Phaser sin esperar a los demás, termina sus hormigas y deja
+         * que la excepción acabe con el hilo.
+         */
+        // 0(h) por generación -> h = hormigas del trabajador
+        @Override
+        public void run() {
+            long generacion = 0;
+            try {
+                while (!fases.isTerminated()) {
+                    boolean movidas = false;
+                    try {
+                        recogerEntrada(generacion);
+                        mover(generacion);
+                        movidas = true;
+                    } finally {
+                        if (!movidas) {
+                            // Sin llegar al Phaser los demás trabajadores se quedarían esperando
+                            caido = true;
+                            fases.arriveAndDeregister();
+                        }
+                    }
+                    fases.arriveAndAwaitAdvance();
+                    generacion++;
+                    // Dormir hasta que empiece la siguiente generación (si no vamos con retraso)
+                    long espera;
+                    while (activa && (espera = principio(generacion) - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(this, espera);
+                    }
+                }
+            } finally {
+                cerrar();
+            }
+        }
+
+        /**
+         * Añade las hormigas que han llegado, con su primera pausa.
+         */
+        // 0(e) -> e = hormigas en la cola
+        private void recogerEntrada(long generacion) {
+            Hormiga hormiga;
+            while ((hormiga = entrada.poll()) != null) {
+                if (tamano == hormigas.length) {
+                    hormigas = Arrays.copyOf(hormigas, tamano * 2);
+                    turnos = Arrays.copyOf(turnos, tamano * 2);
+                }
+                hormigas[tamano] = hormiga;
+                turnos[tamano] = generacion + espera(hormiga);
+                tamano++;
+            }
+        }
+
+        /**
+         * Mueve las hormigas a las que les toca en esta generación y quita las que ya no están
+         * activas (cambiándolas por la última).
+         */
+        // 0(h) -> h = hormigas del trabajador
+        private void mover(long generacion) {
+            int i = 0;
+            while (i < tamano) {
+                Hormiga hormiga = hormigas[i];
+                if (hormiga.isActiva() && turnos[i] <= generacion) {
+                    hormiga.moverAleatoriamente();
+                    turnos[i] = generacion + espera(hormiga);
+                }
+                if (hormiga.isActiva()) {
+                    i++;
+                } else {
+                    // Detenida o muerta (en su turno o por otra hormiga); se quita antes de
+                    // terminarla para que cerrar() no la vuelva a terminar si falla
+                    tamano--;
+                    hormigas[i] = hormigas[tamano];
+                    turnos[i] = turnos[tamano];
+                    hormigas[tamano] = null;
+                    hormiga.terminar();
+                }
+            }
+        }
+
+        /**
+         * Termina las hormigas que le quedan al trabajador y las de su cola de entrada.
+         */
+        // 0(h + e)
+        private void cerrar() {
+            for (int i = 0; i < tamano; i++) {
+                terminar(hormigas[i]);
+                hormigas[i] = null;
+            }
+            tamano = 0;
+            Hormiga hormiga;
+            while ((hormiga = entrada.poll()) != null) {
+                terminar(hormiga);
+            }
+        }
+    }
+}
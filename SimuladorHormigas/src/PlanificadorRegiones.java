@@ -0,0 +1,283 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Planificador que reparte el mapa en regiones rectangulares con un hilo por región.
+ * <p>
+ * En lugar de un hilo por hormiga, el hilo de cada región mueve todas las hormigas que están
+ * dentro de ella, cada una con su pausa aleatoria entre movimientos como en {@link Hormiga#run()}.
+ * La lista de hormigas de una región solo la toca su hilo, así que no necesita cerrojo.
+ * <p>
+ * Cuando una hormiga cruza el borde de su región, su hilo la deja, junto con el momento de su
+ * siguiente movimiento, en la cola de traspasos de la región nueva ({@link ConcurrentLinkedQueue},
+ * sin cerrojos) y el hilo de esa región la recoge en su siguiente vuelta sin cambiarle la pausa.
+ * Las celdas se siguen reclamando con compareAndSet en la {@link RejillaOcupacion}, que solo se
+ * disputan de verdad en los bordes: dentro de una región solo se mueven sus propias hormigas. Así
+ * el trabajo se reparte entre tantos núcleos como regiones y ningun hilo espera a otro salvo en las
+ * colas de los bordes.
+ */
+public class PlanificadorRegiones {
+    /** Espera máxima de un hilo de región entre vueltas, para recoger pronto las hormigas que llegan. */
+    private static final long ESPERA_MAXIMA = TimeUnit.MILLISECONDS.toNanos(20);
+    /** Capacidad inicial de la lista de hormigas de cada región. */
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    /** Columnas de regiones. */
+    private final int columnas;
+    /** Filas de regiones. */
+    private final int filas;
+    /** Ancho de cada región en celdas (la última columna puede ser más estrecha). */
+    private final int anchoRegion;
+    /** Alto de cada región en celdas (la última fila puede ser más baja). */
+    private final int altoRegion;
+    /** Regiones, por fila y columna. */
+    private final Region[] regiones;
+    /** Hilos de las regiones (null hasta que se lanza la primera hormiga). */
+    private Thread[] hilos;
+
+    /**
+     * Constructor de la clase PlanificadorRegiones.
+     *
+     * @param ancho            Ancho del mapa.
+     * @param alto             Alto del mapa.
+     * @param regionesPorLado  Regiones en cada dimensión (se reducen si el mapa es más pequeño).
+     */
+    // 0(r) -> r = numero de regiones
+    public PlanificadorRegiones(int ancho, int alto, int regionesPorLado) {
+        if (regionesPorLado <= 0) {
+            throw new IllegalArgumentException("El numero de regiones debe ser mayor que 0");
+        }
+        this.anchoRegion = (ancho + Math.min(regionesPorLado, ancho) - 1) / Math.min(regionesPorLado, ancho);
+        this.altoRegion = (alto + Math.min(regionesPorLado, alto) - 1) / Math.min(regionesPorLado, alto);
+        this.columnas = (ancho + anchoRegion - 1) / anchoRegion;
+        this.filas = (alto + altoRegion - 1) / altoRegion;
+        this.regiones = new Region[columnas * filas];
+        for (int i = 0; i < regiones.length; i++) {
+            regiones[i] = new Region(i);
+        }
+        this.hilos = null;
+    }
+
+    /**
+     * Obtiene el numero de regiones (y de hilos).
+     *
+     * @return Las regiones.
+     */
+    public int getNumeroRegiones() {
+        return regiones.length;
+    }
+
+    /**
+     * Obtiene la región que contiene una celda.
+     *
+     * @param coordenadas Coordenadas empaquetadas de la celda.
+     * @return El indice de la región.
+     */
+    // 0(1)
+    public int regionDe(long coordenadas) {
+        return (Posicion.yDe(coordenadas) / altoRegion) * columnas + Posicion.xDe(coordenadas) / anchoRegion;
+    }
+
+    /**
+     * Añade una hormiga a la región donde está; la primera vez arranca los hilos de las regiones.
+     *
+     * @param hormiga La hormiga.
+     */
+    // 0(1) (0(r) la primera vez)
+    public synchronized void agregar(Hormiga hormiga) {
+        if (hilos == null) {
+            hilos = new Thread[regiones.length];
+            for (int i = 0; i < regiones.length; i++) {
+                hilos[i] = Thread.ofPlatform().name("Region_" + (i % columnas) + "_" + (i / columnas)).start(regiones[i]);
+            }
+        }
+        hormiga.arrancar();
+        regiones[regionDe(hormiga.getCoordenadas())].entrada.offer(hormiga);
+    }
+
+    /**
+     * Detiene los hilos de las regiones y espera a que terminen, como mucho hasta un momento dado
+     * (el mismo para todos).
+     * <p>
+     * Cada hilo termina las hormigas que le quedan antes de acabar. Las hormigas ya deben estar
+     * detenidas.
+     *
+     * @param limite Momento (System.nanoTime()) hasta el que se espera.
+     * @return Los nombres de los hilos que no han terminado a tiempo.
+     */
+    // 0(r)
+    public synchronized List<String> detener(long limite) {
+        List<String> rezagados = new ArrayList<>();
+        if (hilos == null) {
+            return rezagados;
+        }
+        for (Region region : regiones) {
+            region.activa = false;
+        }
+        for (Thread hilo : hilos) {
+            hilo.interrupt();
+        }
+        for (Thread hilo : hilos) {
+            if (!LanzadorHormigas.esperarHasta(hilo, limite)) {
+                rezagados.add(hilo.getName());
+            }
+        }
+        return rezagados;
+    }
+
+    /**
+     * Región del mapa con las hormigas que mueve su hilo.
+     */
+    private final class Region implements Runnable {
+        /** Indice de la región. */
+        private final int indice;
+        /** Hormigas que empiezan (recién lanzadas o nacidas). */
+        private final ConcurrentLinkedQueue<Hormiga> entrada;
+        /** Hormigas que llegan de otras regiones, con su siguiente movimiento. */
+        private final ConcurrentLinkedQueue<Traspaso> traspasos;
+        /** Hormigas de la región, seguidas (solo las toca el hilo de la región). */
+        private Hormiga[] hormigas;
+        /** Momento (System.nanoTime()) del siguiente movimiento de cada hormiga. */
+        private long[] turnos;
+        /** Hormigas en la región. */
+        private int numeroHormigas;
+        /** Se pone a false para que el hilo termine. */
+        private volatile boolean activa;
+
+        /**
+         * Constructor de la clase Region.
+         *
+         * @param indice Indice de la región.
+         */
+        Region(int indice) {
+            this.indice = indice;
+            this.entrada = new ConcurrentLinkedQueue<>();
+            this.traspasos = new ConcurrentLinkedQueue<>();
+            this.hormigas = new Hormiga[CAPACIDAD_INICIAL];
+            this.turnos = new long[CAPACIDAD_INICIAL];
+            this.numeroHormigas = 0;
+            this.activa = true;
+        }
+
+        /**
+         * Bucle del hilo de la región: recoge las hormigas que llegan, mueve las que les toca y
+         * espera hasta el siguiente turno.
+         */
+        // 0(n) por vuelta -> n = hormigas de la región
+        @Override
+        public void run() {
+            while (activa) {
+                long ahora = System.nanoTime();
+                recogerEntrada(ahora);
+                long siguiente = ahora + ESPERA_MAXIMA;
+                int i = 0;
+                while (i < numeroHormigas) {
+                    Hormiga hormiga = hormigas[i];
+                    if (hormiga.isActiva() && turnos[i] - ahora <= 0) {
+                        hormiga.moverAleatoriamente();
+                        turnos[i] = ahora + TimeUnit.MILLISECONDS.toNanos(hormiga.pausa());
+                    }
+                    if (!hormiga.isActiva()) {
+                        // Detenida o muerta (en su turno o por otra hormiga)
+                        quitar(i);
+                        hormiga.terminar();
+                        continue;
+                    }
+                    int destino = regionDe(hormiga.getCoordenadas());
+                    if (destino != indice) {
+                        // Ha cruzado el borde: la pasa a la región vecina sin perder su turno
+                        regiones[destino].traspasos.offer(new Traspaso(hormiga, turnos[i]));
+                        quitar(i);
+                        continue;
+                    }
+                    if (turnos[i] - siguiente < 0) {
+                        siguiente = turnos[i];
+                    }
+                    i++;
+                }
+                LockSupport.parkNanos(siguiente - System.nanoTime());
+                if (Thread.interrupted()) {
+                    break;
+                }
+            }
+
+            // Terminar las hormigas que quedan en la región y en su cola
+            recogerEntrada(System.nanoTime());
+            for (int i = 0; i < numeroHormigas; i++) {
+                hormigas[i].detener();
+                hormigas[i].terminar();
+                hormigas[i] = null;
+            }
+            numeroHormigas = 0;
+        }
+
+        /**
+         * Pasa a la lista de la región las hormigas que empiezan, con su primera pausa, y las que
+         * llegan de otras regiones, con el turno que ya tenían.
+         */
+        // 0(e) -> e = hormigas en las colas
+        private void recogerEntrada(long ahora) {
+            Hormiga hormiga;
+            while ((hormiga = entrada.poll()) != null) {
+                anadir(hormiga, ahora + TimeUnit.MILLISECONDS.toNanos(hormiga.pausa()));
+            }
+            Traspaso traspaso;
+            while ((traspaso = traspasos.poll()) != null) {
+                anadir(traspaso.hormiga, traspaso.turno);
+            }
+        }
+
+        /**
+         * Añade una hormiga al final de la lista de la región.
+         */
+        // 0(1) amortizado
+        private void anadir(Hormiga hormiga, long turno) {
+            if (numeroHormigas == hormigas.length) {
+                Hormiga[] mayor = new Hormiga[hormigas.length * 2];
+                System.arraycopy(hormigas, 0, mayor, 0, numeroHormigas);
+                hormigas = mayor;
+                long[] mayores = new long[turnos.length * 2];
+                System.arraycopy(turnos, 0, mayores, 0, numeroHormigas);
+                turnos = mayores;
+            }
+            hormigas[numeroHormigas] = hormiga;
+            turnos[numeroHormigas] = turno;
+            numeroHormigas++;
+        }
+
+        /**
+         * Quita una hormiga de la lista moviendo la última a su sitio.
+         */
+        // 0(1)
+        private void quitar(int i) {
+            numeroHormigas--;
+            hormigas[i] = hormigas[numeroHormigas];
+            turnos[i] = turnos[numeroHormigas];
+            hormigas[numeroHormigas] = null;
+        }
+    }
+
+    /**
+     * Hormiga que pasa de una región a otra, con el momento de su siguiente movimiento.
+     */
+    private static final class Traspaso {
+        /** La hormiga. */
+        private final Hormiga hormiga;
+        /** Momento (System.nanoTime()) de su siguiente movimiento. */
+        private final long turno;
+
+        /**
+         * Constructor de la clase Traspaso.
+         *
+         * @param hormiga La hormiga.
+         * @param turno   Momento de su siguiente movimiento.
+         */
+        Traspaso(Hormiga hormiga, long turno) {
+            this.hormiga = hormiga;
+            this.turno = turno;
+        }
+    }
+}
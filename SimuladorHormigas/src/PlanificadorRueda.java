@@ -0,0 +1,518 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Planificador que mueve las hormigas con una rueda de tiempos jerárquica y un pool pequeño de hilos.
+ * <p>
+ * En lugar de que cada hormiga duerma su pausa en su propio hilo (miles de esperas con tiempo en
+ * la cola de temporizadores de la JVM), la rueda guarda el milisegundo en el que le toca moverse a
+ * cada hormiga. Tiene {@link #NIVELES} niveles de 64 ranuras: el primero tiene una ranura por
+ * milisegundo, el segundo una por cada 64 ms, y así; una hormiga va al nivel más bajo cuyo bloque
+ * comparte con el milisegundo actual y baja de nivel cuando el tiempo llega a su bloque. Programar
+ * un movimiento es calcular el nivel y la ranura con operaciones de bits y enlazar la hormiga al
+ * principio de la lista de su ranura: 0(1) y sin crear objetos, porque las listas son arreglos
+ * indexados por el numero de la hormiga.
+ * <p>
+ * Un solo hilo ("Rueda") es el dueño de la rueda: avanza milisegundo a milisegundo, junta las
+ * hormigas a las que les toca en lotes de {@link #TAMANO_LOTE} y los envía a un pool fijo de
+ * trabajadores. Cada trabajador mueve las hormigas de su lote, elige su siguiente pausa y devuelve
+ * el lote por una cola sin cerrojos; el hilo de la rueda las vuelve a programar y reutiliza el
+ * lote. Entre tanto duerme hasta el siguiente milisegundo con alguna hormiga (lo sabe por un mapa
+ * de bits de ranuras ocupadas por nivel) o hasta que le devuelven un lote. Los tiempos entre
+ * movimientos son los mismos que en {@link Hormiga#run()}: la pausa empieza al acabar el
+ * movimiento anterior. Ninguna pausa se acorta: si el milisegundo de una hormiga cae fuera del
+ * bloque de {@link #ALCANCE} ms en el que está la rueda (por ejemplo, una pausa normal justo antes
+ * del final del bloque), espera en una lista de desbordadas que se vuelve a repartir al empezar
+ * cada bloque.
+ */
+public class PlanificadorRueda {
+    /** Bits de ranura de cada nivel. */
+    private static final int BITS_NIVEL = 6;
+    /** Ranuras de cada nivel. */
+    private static final int RANURAS = 1 << BITS_NIVEL;
+    /** Niveles de la rueda. */
+    private static final int NIVELES = 4;
+    /**
+     * Milisegundos que abarca la rueda entera (unas 4,6 horas). Las hormigas cuyo milisegundo cae
+     * en otro bloque de ALCANCE ms esperan en una lista aparte hasta que empieza su bloque.
+     */
+    private static final long ALCANCE = 1L << (BITS_NIVEL * NIVELES);
+    /** Espera máxima del hilo de la rueda si no tiene ninguna hormiga (lo despiertan al llegar una). */
+    private static final long ESPERA_MAXIMA = 1000;
+    /** Hormigas de cada lote que se envía a los trabajadores. */
+    public static final int TAMANO_LOTE = 64;
+    /** Capacidad inicial de los arreglos por numero de hormiga. */
+    private static final int CAPACIDAD_INICIAL = 1024;
+    /** Final de una lista de ranura (los numeros de hormiga empiezan en 1). */
+    private static final int NINGUNA = 0;
+
+    /** Hilos del pool de trabajadores. */
+    private final int trabajadores;
+    /** Momento (System.nanoTime()) del milisegundo 0 de la rueda. */
+    private final long inicio;
+    /** Hormigas que empiezan (las deja cualquier hilo y las recoge el de la rueda). */
+    private final ConcurrentLinkedQueue<Hormiga> entrada;
+    /** Lotes que devuelven los trabajadores con las hormigas ya movidas. */
+    private final ConcurrentLinkedQueue<Lote> devueltos;
+
+    // Rueda: solo la toca su hilo
+    /** Primera hormiga de cada ranura, por nivel y ranura. */
+    private final int[] cabezas;
+    /** Ranuras con alguna hormiga, un bit por ranura en cada nivel. */
+    private final long[] ocupadas;
+    /** Hormiga de cada numero mientras está en la rueda. */
+    private Hormiga[] hormigas;
+    /** Siguiente hormiga de la misma ranura, por numero. */
+    private int[] siguientes;
+    /** Milisegundo en el que le toca moverse a cada hormiga, por numero. */
+    private long[] vencimientos;
+    /** Primera hormiga cuyo milisegundo cae fuera del bloque actual de la rueda, o NINGUNA. */
+    private int desbordadas;
+    /** Siguiente milisegundo que hay que procesar. */
+    private long actual;
+    /** Lotes devueltos listos para reutilizar. */
+    private final ArrayDeque<Lote> libres;
+    /** Lote que se está llenando (null si no hay ninguno). */
+    private Lote lote;
+
+    /** Lotes enviados a los trabajadores. */
+    private volatile long lotes;
+    /** Movimientos enviados a los trabajadores. */
+    private volatile long despachadas;
+    /** Pool de trabajadores (null hasta que se lanza la primera hormiga). */
+    private ExecutorService pool;
+    /** Hilo de la rueda (null hasta que se lanza la primera hormiga). */
+    private Thread hilo;
+    /** Se pone a false para que el hilo de la rueda termine. */
+    private volatile boolean activa;
+    /** Momento (System.nanoTime()) hasta el que se espera a los trabajadores al detener. */
+    private volatile long limite;
+
+    /**
+     * Constructor de la clase PlanificadorRueda.
+     *
+     * @param trabajadores Hilos del pool que mueven las hormigas (mayor que 0).
+     * @throws IllegalArgumentException si no hay ningun trabajador.
+     */
+    // 0(1)
+    public PlanificadorRueda(int trabajadores) {
+        if (trabajadores <= 0) {
+            throw new IllegalArgumentException("El numero de trabajadores debe ser mayor que 0");
+        }
+        this.trabajadores = trabajadores;
+        this.inicio = System.nanoTime();
+        this.entrada = new ConcurrentLinkedQueue<>();
+        this.devueltos = new ConcurrentLinkedQueue<>();
+        this.cabezas = new int[NIVELES * RANURAS];
+        this.ocupadas = new long[NIVELES];
+        this.hormigas = new Hormiga[CAPACIDAD_INICIAL];
+        this.siguientes = new int[CAPACIDAD_INICIAL];
+        this.vencimientos = new long[CAPACIDAD_INICIAL];
+        this.desbordadas = NINGUNA;
+        this.actual = 0;
+        this.libres = new ArrayDeque<>();
+        this.lote = null;
+        this.lotes = 0;
+        this.despachadas = 0;
+        this.activa = true;
+        this.limite = 0;
+    }
+
+    /**
+     * Obtiene los hilos del pool de trabajadores.
+     *
+     * @return Los trabajadores.
+     */
+    public int getTrabajadores() {
+        return trabajadores;
+    }
+
+    /**
+     * Obtiene los lotes enviados a los trabajadores.
+     *
+     * @return Los lotes desde el principio.
+     */
+    public long getLotes() {
+        return lotes;
+    }
+
+    /**
+     * Obtiene los movimientos enviados a los trabajadores.
+     *
+     * @return Las hormigas despachadas desde el principio (una por cada turno).
+     */
+    public long getDespachadas() {
+        return despachadas;
+    }
+
+    /**
+     * Añade una hormiga a la rueda con su primera pausa; la primera vez arranca el hilo de la
+     * rueda y el pool de trabajadores.
+     *
+     * @param hormiga La hormiga.
+     */
+    // 0(1) (0(t) la primera vez -> t = trabajadores)
+    public synchronized void agregar(Hormiga hormiga) {
+        if (hilo == null) {
+            pool = Executors.newFixedThreadPool(trabajadores, Thread.ofPlatform().name("Trabajador_", 0).factory());
+            hilo = Thread.ofPlatform().name("Rueda").start(this::girar);
+        }
+        hormiga.arrancar();
+        entrada.offer(hormiga);
+        LockSupport.unpark(hilo);
+    }
+
+    /**
+     * Detiene el hilo de la rueda y el pool y espera a que terminen, como mucho hasta un momento dado.
+     * <p>
+     * El hilo de la rueda espera el lote en curso de cada trabajador y termina las hormigas que
+     * le quedan antes de acabar. Las hormigas ya deben estar detenidas.
+     *
+     * @param limite Momento (System.nanoTime()) hasta el que se espera.
+     * @return El nombre del hilo de la rueda si no ha terminado a tiempo (vacía si ha terminado).
+     */
+    // 0(1) (más lo que tarde en terminar las hormigas)
+    public synchronized List<String> detener(long limite) {
+        if (hilo == null) {
+            return List.of();
+        }
+        this.limite = limite;
+        activa = false;
+        LockSupport.unpark(hilo);
+        return LanzadorHormigas.esperarHasta(hilo, limite) ? List.of() : List.of(hilo.getName());
+    }
+
+    /**
+     * Bucle del hilo de la rueda: recoge las hormigas que llegan, procesa los milisegundos que
+     * han pasado enviando los lotes y duerme hasta el siguiente milisegundo con alguna hormiga.
+     */
+    // 0(m + h) por vuelta -> m = milisegundos pasados, h = hormigas a las que les toca
+    private void girar() {
+        while (activa) {
+            recogerEntrada();
+            recogerDevueltos();
+            long ahora = milisegundo();
+            while (actual <= ahora) {
+                avanzar();
+            }
+            enviarLote();
+            long espera = inicio + TimeUnit.MILLISECONDS.toNanos(actual + distanciaSiguiente()) - System.nanoTime();
+            if (espera > 0 && devueltos.isEmpty() && entrada.isEmpty()) {
+                LockSupport.parkNanos(this, espera);
+            }
+        }
+        cerrar();
+    }
+
+    /**
+     * Milisegundos desde el actual hasta el principio de la siguiente ranura ocupada.
+     * <p>
+     * Las hormigas de un nivel siempre van antes que las de los niveles superiores y, dentro de un
+     * nivel, las ranuras anteriores a la actual están vacías, así que basta con buscar el primer
+     * bit a partir de la ranura actual en el nivel más bajo que tenga alguno.
+     */
+    // 0(NIVELES)
+    private long distanciaSiguiente() {
+        for (int nivel = 0; nivel < NIVELES; nivel++) {
+            if (ocupadas[nivel] != 0) {
+                int bits = BITS_NIVEL * nivel;
+                int ranura = (int) (actual >>> bits) & (RANURAS - 1);
+                long saltos = Long.numberOfTrailingZeros(Long.rotateRight(ocupadas[nivel], ranura));
+                return (((actual >>> bits) + saltos) << bits) - actual;
+            }
+        }
+        return ESPERA_MAXIMA;
+    }
+
+    /**
+     * Procesa el milisegundo actual: baja a los niveles inferiores las hormigas de los bloques
+     * que empiezan en él y envía a los trabajadores las de su ranura.
+     */
+    // 0(h) -> h = hormigas que bajan o a las que les toca
+    private void avanzar() {
+        long t = actual;
+        if ((t & (ALCANCE - 1)) == 0 && desbordadas != NINGUNA) {
+            // Empieza un bloque nuevo: repartir las que esperaban fuera de la rueda
+            int numero = desbordadas;
+            desbordadas = NINGUNA;
+            while (numero != NINGUNA) {
+                int siguiente = siguientes[numero];
+                insertar(numero, vencimientos[numero]);
+                numero = siguiente;
+            }
+        }
+        for (int nivel = NIVELES - 1; nivel > 0; nivel--) {
+            if ((t & ((1L << (BITS_NIVEL * nivel)) - 1)) == 0) {
+                int numero = quitarRanura(nivel, (int) (t >>> (BITS_NIVEL * nivel)) & (RANURAS - 1));
+                while (numero != NINGUNA) {
+                    int siguiente = siguientes[numero];
+                    insertar(numero, vencimientos[numero]);
+                    numero = siguiente;
+                }
+            }
+        }
+        int numero = quitarRanura(0, (int) t & (RANURAS - 1));
+        while (numero != NINGUNA) {
+            int siguiente = siguientes[numero];
+            Hormiga hormiga = hormigas[numero];
+            hormigas[numero] = null;
+            agregarLote(hormiga);
+            numero = siguiente;
+        }
+        actual = t + 1;
+    }
+
+    /**
+     * Programa una hormiga (que ya está en {@link #hormigas}) en el milisegundo indicado, o la
+     * deja en la lista de desbordadas si cae fuera del bloque actual de la rueda.
+     */
+    // 0(1)
+    private void insertar(int numero, long vencimiento) {
+        long t = Math.max(vencimiento, actual);
+        if ((t ^ actual) >= ALCANCE) {
+            // Otro bloque: ningún nivel tiene su ranura hasta que empiece
+            vencimientos[numero] = t;
+            siguientes[numero] = desbordadas;
+            desbordadas = numero;
+            return;
+        }
+        // El nivel es el del bit más alto en el que se diferencian t y el milisegundo actual
+        long diferencia = t ^ actual;
+        int nivel = diferencia < RANURAS ? 0 : (63 - Long.numberOfLeadingZeros(diferencia)) / BITS_NIVEL;
+        int ranura = (int) (t >>> (BITS_NIVEL * nivel)) & (RANURAS - 1);
+        int indice = nivel * RANURAS + ranura;
+        vencimientos[numero] = t;
+        siguientes[numero] = cabezas[indice];
+        cabezas[indice] = numero;
+        ocupadas[nivel] |= 1L << ranura;
+    }
+
+    /**
+     * Vacía una ranura.
+     *
+     * @return La primera hormiga de su lista, o {@link #NINGUNA}.
+     */
+    // 0(1)
+    private int quitarRanura(int nivel, int ranura) {
+        int indice = nivel * RANURAS + ranura;
+        int numero = cabezas[indice];
+        cabezas[indice] = NINGUNA;
+        ocupadas[nivel] &= ~(1L << ranura);
+        return numero;
+    }
+
+    /**
+     * Pone en la rueda las hormigas que empiezan, con su primera pausa.
+     */
+    // 0(e) -> e = hormigas en la cola
+    private void recogerEntrada() {
+        Hormiga hormiga;
+        while ((hormiga = entrada.poll()) != null) {
+            reservar(hormiga.getNumero());
+            hormigas[hormiga.getNumero()] = hormiga;
+            insertar(hormiga.getNumero(), milisegundo() + hormiga.pausa());
+        }
+    }
+
+    /**
+     * Vuelve a programar las hormigas de los lotes devueltos y guarda los lotes para reutilizarlos.
+     */
+    // 0(h) -> h = hormigas de los lotes devueltos
+    private void recogerDevueltos() {
+        Lote devuelto;
+        while ((devuelto = devueltos.poll()) != null) {
+            for (int i = 0; i < devuelto.tamano; i++) {
+                Hormiga hormiga = devuelto.hormigas[i];
+                devuelto.hormigas[i] = null;
+                if (devuelto.vencimientos[i] >= 0) {
+                    reservar(hormiga.getNumero());
+                    hormigas[hormiga.getNumero()] = hormiga;
+                    insertar(hormiga.getNumero(), devuelto.vencimientos[i]);
+                }
+            }
+            devuelto.tamano = 0;
+            libres.push(devuelto);
+        }
+    }
+
+    /**
+     * Añade una hormiga al lote que se está llenando y lo envía si está lleno.
+     */
+    // 0(1)
+    private void agregarLote(Hormiga hormiga) {
+        if (lote == null) {
+            lote = libres.isEmpty() ? new Lote() : libres.pop();
+        }
+        lote.hormigas[lote.tamano++] = hormiga;
+        if (lote.tamano == TAMANO_LOTE) {
+            enviarLote();
+        }
+    }
+
+    /**
+     * Envía a los trabajadores el lote que se está llenando, si tiene alguna hormiga.
+     */
+    // 0(1)
+    private void enviarLote() {
+        if (lote == null || lote.tamano == 0) {
+            return;
+        }
+        lotes = lotes + 1;
+        despachadas = despachadas + lote.tamano;
+        pool.execute(lote);
+        lote = null;
+    }
+
+    /**
+     * Agranda los arreglos por numero para que quepa un numero de hormiga.
+     */
+    // 0(n) solo si crece
+    private void reservar(int numero) {
+        if (numero >= hormigas.length) {
+            int capacidad = Math.max(hormigas.length * 2, numero + 1);
+            hormigas = Arrays.copyOf(hormigas, capacidad);
+            siguientes = Arrays.copyOf(siguientes, capacidad);
+            vencimientos = Arrays.copyOf(vencimientos, capacidad);
+        }
+    }
+
+    /**
+     * Milisegundo actual de la rueda.
+     */
+    // 0(1)
+    private long milisegundo() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+    }
+
+    /**
+     * Cierra el pool esperando a los lotes en curso y termina las hormigas que quedan en la rueda,
+     * en la lista de desbordadas, en los lotes devueltos y en la cola de entrada.
+     */
+    // 0(n) -> n = hormigas que quedan
+    private void cerrar() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(limite - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (lote != null) {
+            for (int i = 0; i < lote.tamano; i++) {
+                terminar(lote.hormigas[i]);
+            }
+            lote = null;
+        }
+        Lote devuelto;
+        while ((devuelto = devueltos.poll()) != null) {
+            for (int i = 0; i < devuelto.tamano; i++) {
+                if (devuelto.vencimientos[i] >= 0) {
+                    terminar(devuelto.hormigas[i]);
+                }
+            }
+        }
+        for (int indice = 0; indice < cabezas.length; indice++) {
+            int numero = cabezas[indice];
+            cabezas[indice] = NINGUNA;
+            while (numero != NINGUNA) {
+                terminar(hormigas[numero]);
+                hormigas[numero] = null;
+                numero = siguientes[numero];
+            }
+        }
+        Arrays.fill(ocupadas, 0);
+        int numero = desbordadas;
+        desbordadas = NINGUNA;
+        while (numero != NINGUNA) {
+            terminar(hormigas[numero]);
+            hormigas[numero] = null;
+            numero = siguientes[numero];
+        }
+        Hormiga hormiga;
+        while ((hormiga = entrada.poll()) != null) {
+            terminar(hormiga);
+        }
+    }
+
+    /**
+     * Detiene y termina una hormiga que se queda sin turno.
+     */
+    // 0(1)
+    private static void terminar(Hormiga hormiga) {
+        hormiga.detener();
+        hormiga.terminar();
+    }
+
+    /**
+     * Lote de hormigas que mueve un trabajador.
+     * <p>
+     * Lo llena el hilo de la rueda y, tras moverlas, el trabajador pone en cada una el
+     * milisegundo de su siguiente movimiento (o -1 si ya no está activa y la ha terminado).
+     */
+    private final class Lote implements Runnable {
+        /** Hormigas del lote. */
+        private final Hormiga[] hormigas;
+        /** Siguiente movimiento de cada hormiga, -1 si ha terminado. */
+        private final long[] vencimientos;
+        /** Hormigas en el lote. */
+        private int tamano;
+
+        /**
+         * Constructor de la clase Lote: crea un lote vacío.
+         */
+        Lote() {
+            this.hormigas = new Hormiga[TAMANO_LOTE];
+            this.vencimientos = new long[TAMANO_LOTE];
+            this.tamano = 0;
+        }
+
+        /**
+         * Mueve las hormigas del lote y lo devuelve al hilo de la rueda.
+         * <p>
+         * Si falla una hormiga, la termina, deja las que faltan para el milisegundo actual y
+         * devuelve el lote igualmente antes de que la excepción llegue al pool.
+         */
+        // 0(TAMANO_LOTE)
+        @Override
+        public void run() {
+            int i = 0;
+            boolean terminada = false;
+            try {
+                for (; i < tamano; i++) {
+                    Hormiga hormiga = hormigas[i];
+                    terminada = false;
+                    if (hormiga.isActiva()) {
+                        hormiga.moverAleatoriamente();
+                    }
+                    if (hormiga.isActiva()) {
+                        vencimientos[i] = milisegundo() + hormiga.pausa();
+                    } else {
+                        // Detenida o muerta (en su turno o por otra hormiga mientras esperaba)
+                        vencimientos[i] = -1;
+                        terminada = true;
+                        hormiga.terminar();
+                    }
+                }
+            } finally {
+                if (i < tamano) {
+                    // Ha fallado la hormiga i (no se vuelve a terminar si ha fallado al terminarla)
+                    if (!terminada) {
+                        terminar(hormigas[i]);
+                    }
+                    vencimientos[i] = -1;
+                    long ahora = milisegundo();
+                    for (int j = i + 1; j < tamano; j++) {
+                        vencimientos[j] = ahora;
+                    }
+                }
+                devueltos.offer(this);
+                LockSupport.unpark(hilo);
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pool de hormigas con identificadores enteros (manejadores) que se reciclan.
+ * <p>
+ * Cada hormiga tiene un manejador entre 1 y la capacidad, que es también su numero en la
+ * {@link RejillaOcupacion}. Cuando una hormiga muere y su hilo termina, su manejador vuelve a una
+ * lista de libres de su tipo ({@link TipoHormiga}) junto con el objeto Hormiga, y el siguiente
+ * nacimiento de ese tipo reutiliza los dos: nacer, morir y reciclar son 0(1) y, una vez el pool
+ * está caliente, no crean objetos ni Strings.
+ * <p>
+ * Las listas de libres son listas enlazadas dentro de un int[] (el siguiente libre de cada
+ * manejador), una por tipo, porque una hormiga no puede cambiar de tipo. Reservar y devolver son
+ * synchronized (nacimientos y muertes son raros); consultar una hormiga por su manejador no toma
+ * cerrojo, así que la pueden hacer las guerreras desde sus hilos en cada encuentro.
+ * <p>
+ * Recorrer el pool (también con {@link #iterator()}) es recorrer los manejadores en orden saltando
+ * los libres. Para recorrer solo las posiciones y tipos de las vivas sin tocar los objetos, por
+ * ejemplo al dibujar, está su {@link RegistroHormigas}.
+ */
+public class PoolHormigas implements Iterable<Hormiga> {
+    /** Manejador que no corresponde a ninguna hormiga (es LIBRE en la rejilla de ocupación). */
+    public static final int SIN_HORMIGA = RejillaOcupacion.LIBRE;
+
+    /**
+     * Hormiga de cada manejador; se queda aunque muera para poder reutilizarla.
+     */
+    private final AtomicReferenceArray<Hormiga> hormigas;
+    /**
+     * Siguiente manejador libre de cada manejador libre (SIN_HORMIGA al final de la lista).
+     */
+    private final int[] siguienteLibre;
+    /**
+     * Tipo (ordinal de TipoHormiga) con el que se estrenó cada manejador; nunca cambia.
+     */
+    private final byte[] tipos;
+    /**
+     * Primer manejador libre de cada tipo (ordinal de TipoHormiga).
+     */
+    private final int[] primerLibre;
+    /**
+     * Numero de manejadores estrenados (del 1 a este están en uso o en una lista de libres).
+     */
+    private volatile int estrenados;
+    /**
+     * Registro denso de las hormigas vivas, con su tipo y su posición.
+     */
+    private final RegistroHormigas registro;
+
+    /**
+     * Constructor de la clase PoolHormigas.
+     *
+     * @param capacidad Numero máximo de hormigas a la vez (vivas o con el hilo terminando).
+     */
+    // 0(capacidad)
+    public PoolHormigas(int capacidad) {
+        this.hormigas = new AtomicReferenceArray<>(capacidad + 1);
+        this.siguienteLibre = new int[capacidad + 1];
+        this.tipos = new byte[capacidad + 1];
+        this.primerLibre = new int[TipoHormiga.values().length];
+        this.estrenados = 0;
+        this.registro = new RegistroHormigas(capacidad);
+    }
+
+    /**
+     * Reserva un manejador para una hormiga de un tipo.
+     * <p>
+     * Reutiliza primero uno libre de ese tipo; si no hay, estrena uno.
+     *
+     * @param tipo Tipo de la hormiga.
+     * @return El manejador, o SIN_HORMIGA si el pool está lleno.
+     */
+    // 0(1)
+    public synchronized int reservar(TipoHormiga tipo) {
+        int t = tipo.ordinal();
+        int manejador = primerLibre[t];
+        if (manejador != SIN_HORMIGA) {
+            primerLibre[t] = siguienteLibre[manejador];
+            siguienteLibre[manejador] = SIN_HORMIGA;
+            return manejador;
+        }
+        if (estrenados + 1 >= hormigas.length()) {
+            return SIN_HORMIGA;
+        }
+        estrenados++;
+        tipos[estrenados] = (byte) t;
+        return estrenados;
+    }
+
+    /**
+     * Obtiene la hormiga que tuvo antes un manejador reservado, para reutilizarla.
+     *
+     * @param manejador Manejador devuelto por reservar().
+     * @return La hormiga muerta que tenía el manejador, o null si es la primera vez que se usa.
+     */
+    // 0(1)
+    public Hormiga reutilizable(int manejador) {
+        return hormigas.get(manejador);
+    }
+
+    /**
+     * Pone una hormiga viva en un manejador reservado.
+     *
+     * @param manejador Manejador devuelto por reservar() (igual al numero de la hormiga).
+     * @param hormiga   La hormiga.
+     */
+    // 0(1)
+    public synchronized void publicar(int manejador, Hormiga hormiga) {
+        hormigas.set(manejador, hormiga);
+        registro.agregar(manejador, hormiga.getTipo(), hormiga.getCoordenadas());
+    }
+
+    /**
+     * Apunta que la hormiga de un manejador ha muerto (su manejador sigue reservado hasta que se devuelva).
+     *
+     * @param manejador El manejador.
+     */
+    // 0(1)
+    public void retirar(int manejador) {
+        registro.quitar(manejador);
+    }
+
+    /**
+     * Apunta en el registro la nueva posición de la hormiga de un manejador.
+     *
+     * @param manejador   El manejador.
+     * @param coordenadas Sus nuevas coordenadas empaquetadas.
+     */
+    // 0(1)
+    public void mover(int manejador, long coordenadas) {
+        registro.mover(manejador, coordenadas);
+    }
+
+    /**
+     * Devuelve un manejador a la lista de libres de su tipo, con su hormiga (si tiene) para reutilizarla.
+     * <p>
+     * Solo se puede devolver cuando el hilo de la hormiga ya no la usa. También sirve para
+     * devolver un manejador reservado que al final no se ha usado.
+     *
+     * @param manejador El manejador.
+     * @param tipo      Tipo con el que se reservó.
+     */
+    // 0(1)
+    public synchronized void devolver(int manejador, TipoHormiga tipo) {
+        int t = tipo.ordinal();
+        siguienteLibre[manejador] = primerLibre[t];
+        primerLibre[t] = manejador;
+    }
+
+    /**
+     * Obtiene la hormiga viva de un manejador.
+     *
+     * @param manejador El manejador (el numero de la hormiga).
+     * @return La hormiga, o null si el manejador no tiene ninguna hormiga viva.
+     */
+    // 0(1)
+    public Hormiga get(int manejador) {
+        if (manejador <= SIN_HORMIGA || manejador >= hormigas.length()) {
+            return null;
+        }
+        Hormiga hormiga = hormigas.get(manejador);
+        return hormiga == null || hormiga.isMuerta() ? null : hormiga;
+    }
+
+    /**
+     * Obtiene el tipo de un manejador estrenado (esté en uso o libre).
+     *
+     * @param manejador El manejador (entre 1 y getEstrenados()).
+     * @return El tipo con el que se estrenó.
+     */
+    // 0(1)
+    public synchronized TipoHormiga getTipo(int manejador) {
+        return TipoHormiga.values()[tipos[manejador]];
+    }
+
+    /**
+     * Obtiene el numero de manejadores estrenados; los manejadores válidos van del 1 a este.
+     *
+     * @return Los manejadores estrenados.
+     */
+    public int getEstrenados() {
+        return estrenados;
+    }
+
+    /**
+     * Obtiene el numero de hormigas vivas.
+     *
+     * @return Las hormigas vivas.
+     */
+    public int getVivas() {
+        return registro.getNumeroVivas();
+    }
+
+    /**
+     * Obtiene el registro denso de las hormigas vivas.
+     *
+     * @return El registro.
+     */
+    public RegistroHormigas getRegistro() {
+        return registro;
+    }
+
+    /**
+     * Obtiene el numero máximo de hormigas del pool.
+     *
+     * @return La capacidad.
+     */
+    public int getCapacidad() {
+        return hormigas.length() - 1;
+    }
+
+    /**
+     * Recorre las hormigas vivas en orden de manejador.
+     * <p>
+     * Se puede usar mientras nacen y mueren hormigas: ve cada hormiga tal y como esté al pasar por
+     * su manejador.
+     *
+     * @return El iterador.
+     */
+    @Override
+    public Iterator<Hormiga> iterator() {
+        return new Iterator<>() {
+            private final int hasta = estrenados;
+            private int manejador = 0;
+            private Hormiga siguiente = avanzar();
+
+            private Hormiga avanzar() {
+                while (++manejador <= hasta) {
+                    Hormiga hormiga = get(manejador);
+                    if (hormiga != null) {
+                        return hormiga;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return siguiente != null;
+            }
+
+            @Override
+            public Hormiga next() {
+                if (siguiente == null) {
+                    throw new NoSuchElementException();
+                }
+                Hormiga actual = siguiente;
+                siguiente = avanzar();
+                return actual;
+            }
+        };
+    }
+}
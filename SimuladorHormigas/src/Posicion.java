@@ -89,4 +89,51 @@ public class Posicion {
     public Posicion mover(int deltaX, int deltaY) {
         return new Posicion(this.x + deltaX, this.y + deltaY);
     }
-}
\ No newline at end of file
+
+    /**
+     * Junta unas coordenadas en un solo long (x en los 32 bits altos, y en los bajos).
+     * <p>
+     * Es la forma en que las hormigas guardan su posición para moverse sin crear objetos.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return Las coordenadas empaquetadas.
+     */
+    // 0(1)
+    public static long empaquetar(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Obtiene la coordenada horizontal de unas coordenadas empaquetadas.
+     *
+     * @param coordenadas Coordenadas empaquetadas con {@link #empaquetar(int, int)}.
+     * @return La coordenada x.
+     */
+    // 0(1)
+    public static int xDe(long coordenadas) {
+        return (int) (coordenadas >> 32);
+    }
+
+    /**
+     * Obtiene la coordenada vertical de unas coordenadas empaquetadas.
+     *
+     * @param coordenadas Coordenadas empaquetadas con {@link #empaquetar(int, int)}.
+     * @return La coordenada y.
+     */
+    // 0(1)
+    public static int yDe(long coordenadas) {
+        return (int) coordenadas;
+    }
+
+    /**
+     * Crea una posición a partir de unas coordenadas empaquetadas.
+     *
+     * @param coordenadas Coordenadas empaquetadas con {@link #empaquetar(int, int)}.
+     * @return Una nueva posición con esas coordenadas.
+     */
+    // 0(1)
+    public static Posicion desempaquetar(long coordenadas) {
+        return new Posicion(xDe(coordenadas), yDe(coordenadas));
+    }
+}
@@ -0,0 +1,355 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Guarda y restaura el estado completo de una simulación en un fichero binario compacto.
+ * <p>
+ * El fichero tiene una cabecera de tamaño fijo y después, seguidos, las colonias, los obstáculos,
+ * la comida, el tipo de cada numero de hormiga estrenado, las hormigas vivas (un registro de
+ * {@link #BYTES_HORMIGA} bytes con su numero, tipo, colonia, posición, estado y estado del
+ * generador aleatorio) y, si las hay, las feromonas de todas las celdas. Todo en little endian.
+ * <p>
+ * Se escribe con un {@link FileChannel} a través de un buffer directo que se vuelca cada vez que
+ * se llena, y se lee mapeando el fichero en memoria ({@link MappedByteBuffer}): restaurar no copia
+ * el fichero a la pila, solo recorre los registros y crea las hormigas, así que un punto de
+ * control de millones de hormigas se carga en una fracción de segundo.
+ * <p>
+ * El contador de movimientos aceptados hace de reloj de la simulación y también se guarda. Solo
+ * se puede guardar con la simulación detenida, para que ninguna hormiga se mueva mientras se
+ * escribe.
+ */
+public final class PuntoControl {
+    /** Firma al principio del fichero ("HORM"). */
+    public static final int MAGIA = 0x4D524F48;
+    /** Versión del formato. */
+    public static final int VERSION = 1;
+    /** Bytes de la cabecera. */
+    public static final int BYTES_CABECERA = 64;
+    /** Bytes de cada colonia. */
+    public static final int BYTES_COLONIA = 32;
+    /** Bytes de cada celda con comida. */
+    public static final int BYTES_COMIDA = 12;
+    /** Bytes de cada hormiga. */
+    public static final int BYTES_HORMIGA = 32;
+    /** Tamaño del buffer de escritura. */
+    private static final int TAMANO_BUFFER = 1 << 20;
+    /** Tipos de hormiga, para pasar del ordinal al tipo. */
+    private static final TipoHormiga[] TIPOS = TipoHormiga.values();
+
+    /**
+     * Constructor privado: la clase solo tiene métodos estáticos.
+     */
+    private PuntoControl() {
+    }
+
+    /**
+     * Guarda el estado de una simulación detenida en un fichero (si existe se sobrescribe).
+     *
+     * @param simulador Simulador detenido.
+     * @param fichero   Fichero donde se guarda.
+     * @return El numero de hormigas guardadas.
+     * @throws IOException           si no se puede escribir el fichero.
+     * @throws IllegalStateException si la simulación está activa.
+     */
+    // 0(n + o + c + f) -> n = hormigas, o = obstaculos, c = celdas con comida, f = celdas con feromonas
+    public static int guardar(SimuladorColoniasHormigas simulador, Path fichero) throws IOException {
+        if (simulador.isSimulacionActiva()) {
+            throw new IllegalStateException("Hay que detener la simulacion antes de guardar un punto de control");
+        }
+        Mapa mapa = simulador.getMapa();
+        Configuracion configuracion = simulador.getConfiguracion();
+        Colonia[] colonias = simulador.getColonias();
+        PoolHormigas pool = simulador.getHormigas();
+        RejillaComida comida = mapa.getComida();
+        CampoFeromonas feromonas = mapa.getFeromonas();
+        long[] obstaculos = mapa.getObstaculos();
+        Arrays.sort(obstaculos); // en orden, para que el mismo estado dé siempre el mismo fichero
+        int numeroComida = comida.getNumeroCeldas();
+        int estrenados = pool.getEstrenados();
+        int vivas = pool.getVivas();
+
+        try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+
+            // 1. Cabecera
+            buffer.putInt(MAGIA).putInt(VERSION)
+                    .putInt(mapa.getAncho()).putInt(mapa.getAlto())
+                    .putInt(colonias.length).putInt(configuracion.getNumeroHormigas())
+                    .putInt(configuracion.getGuerreras()).putInt(configuracion.getCrias())
+                    .putInt(feromonas != null ? 1 : 0).putInt(obstaculos.length)
+                    .putInt(numeroComida).putInt(estrenados)
+                    .putInt(vivas).putInt(0)
+                    .putLong(simulador.getMovimientos());
+
+            // 2. Colonias
+            for (Colonia colonia : colonias) {
+                asegurar(canal, buffer, BYTES_COLONIA);
+                buffer.putLong(Posicion.empaquetar(colonia.getHormiguero().getX(), colonia.getHormiguero().getY()))
+                        .putLong(colonia.getComidaRecogida())
+                        .putLong(colonia.getComidaEntregada())
+                        .putLong(colonia.getBajas());
+            }
+
+            // 3. Obstáculos y comida
+            for (long obstaculo : obstaculos) {
+                asegurar(canal, buffer, Long.BYTES);
+                buffer.putLong(obstaculo);
+            }
+            for (int i = 0; i < numeroComida; i++) {
+                long celda = comida.getCelda(i);
+                asegurar(canal, buffer, BYTES_COMIDA);
+                buffer.putLong(celda).putInt(comida.cantidad(Posicion.xDe(celda), Posicion.yDe(celda)));
+            }
+
+            // 4. Tipo de cada numero estrenado (para rehacer las listas de libres del pool)
+            for (int numero = 1; numero <= estrenados; numero++) {
+                asegurar(canal, buffer, 1);
+                buffer.put((byte) pool.getTipo(numero).ordinal());
+            }
+
+            // 5. Hormigas vivas, en orden de numero
+            int guardadas = 0;
+            for (Hormiga hormiga : pool) {
+                Colonia colonia = hormiga.getColonia();
+                byte estado = colonia != null && hormiga.getTipo() == TipoHormiga.OBRERA
+                        ? colonia.getEstado(hormiga.getIndiceColonia()) : 0;
+                int crias = hormiga instanceof HormigaReina reina ? reina.getCrias() : 0;
+                asegurar(canal, buffer, BYTES_HORMIGA);
+                buffer.putInt(hormiga.getNumero())
+                        .putInt(colonia != null ? colonia.getNumero() : 0)
+                        .putLong(hormiga.getCoordenadas())
+                        .putLong(hormiga.getEstadoAleatorio())
+                        .putInt(crias)
+                        .put((byte) hormiga.getTipo().ordinal())
+                        .put(estado)
+                        .putShort((short) 0);
+                guardadas++;
+            }
+            if (guardadas != vivas) {
+                throw new IllegalStateException("Han cambiado las hormigas mientras se guardaba el punto de control");
+            }
+
+            // 6. Feromonas, a trozos del tamaño del buffer
+            if (feromonas != null) {
+                volcar(canal, buffer);
+                int celdas = feromonas.getNumeroCeldas();
+                int desde = 0;
+                while (desde < celdas) {
+                    FloatBuffer valores = buffer.asFloatBuffer();
+                    int copiadas = feromonas.exportar(desde, valores);
+                    buffer.position(copiadas * Float.BYTES);
+                    volcar(canal, buffer);
+                    desde += copiadas;
+                }
+            }
+            volcar(canal, buffer);
+            return guardadas;
+        }
+    }
+
+    /**
+     * Ajusta una configuración al mapa y las colonias de un punto de control.
+     * <p>
+     * Cambia el tamaño del mapa, el numero de colonias, las hormigas de cada tipo (de las que
+     * depende la capacidad de las colonias) y las feromonas. Hay que llamarlo antes de crear el
+     * simulador que se va a restaurar.
+     *
+     * @param fichero       Fichero del punto de control.
+     * @param configuracion Configuración a ajustar.
+     * @throws IOException              si no se puede leer el fichero.
+     * @throws IllegalArgumentException si el fichero no es un punto de control valido.
+     */
+    // 0(1)
+    public static void leerConfiguracion(Path fichero, Configuracion configuracion) throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(BYTES_CABECERA).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+            while (cabecera.hasRemaining() && canal.read(cabecera) >= 0) {
+                // leer hasta completar la cabecera o llegar al final
+            }
+        }
+        cabecera.flip();
+        comprobarCabecera(cabecera);
+        configuracion.setAncho(cabecera.getInt());
+        configuracion.setAlto(cabecera.getInt());
+        configuracion.setColonias(cabecera.getInt());
+        configuracion.setNumeroHormigas(cabecera.getInt());
+        configuracion.setGuerreras(cabecera.getInt());
+        configuracion.setCrias(cabecera.getInt());
+        if (cabecera.getInt() != 0) {
+            configuracion.setFeromonas(true);
+        }
+    }
+
+    /**
+     * Restaura un punto de control en un simulador recién creado con la configuración del fichero
+     * (ver {@link #leerConfiguracion(Path, Configuracion)}) y sin hormigas.
+     * <p>
+     * Coloca los obstáculos, la comida y las feromonas, restaura los contadores y crea y lanza
+     * cada hormiga con su numero, su posición, su estado y su generador aleatorio.
+     *
+     * @param simulador Simulador donde se restaura.
+     * @param fichero   Fichero del punto de control.
+     * @return El numero de hormigas restauradas.
+     * @throws IOException              si no se puede leer el fichero.
+     * @throws IllegalArgumentException si el fichero no es valido o no corresponde al simulador.
+     */
+    // 0(n + o + c + f)
+    public static int restaurar(SimuladorColoniasHormigas simulador, Path fichero) throws IOException {
+        MappedByteBuffer datos;
+        try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("El punto de control es demasiado grande para mapearlo: " + canal.size() + " bytes");
+            }
+            datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        datos.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            return restaurar(simulador, datos);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("El punto de control esta incompleto: " + fichero);
+        }
+    }
+
+    /**
+     * Restaura un punto de control ya mapeado en memoria.
+     */
+    // 0(n + o + c + f)
+    private static int restaurar(SimuladorColoniasHormigas simulador, ByteBuffer datos) {
+        Mapa mapa = simulador.getMapa();
+        Colonia[] colonias = simulador.getColonias();
+        PoolHormigas pool = simulador.getHormigas();
+
+        // 1. Cabecera
+        comprobarCabecera(datos);
+        int ancho = datos.getInt();
+        int alto = datos.getInt();
+        int numeroColonias = datos.getInt();
+        datos.getInt(); // obreras, guerreras y crias: ya están en la configuración
+        datos.getInt();
+        datos.getInt();
+        boolean conFeromonas = datos.getInt() != 0;
+        int numeroObstaculos = datos.getInt();
+        int numeroComida = datos.getInt();
+        int estrenados = datos.getInt();
+        int vivas = datos.getInt();
+        datos.getInt();
+        long movimientos = datos.getLong();
+        if (ancho != mapa.getAncho() || alto != mapa.getAlto() || numeroColonias != colonias.length) {
+            throw new IllegalArgumentException("El punto de control es de un mapa de " + ancho + " x " + alto
+                    + " con " + numeroColonias + " colonias y el simulador no");
+        }
+        if (pool.getEstrenados() != 0 || estrenados > pool.getCapacidad()) {
+            throw new IllegalArgumentException("El pool de hormigas no esta vacio o no tiene sitio para " + estrenados);
+        }
+
+        // 2. Colonias
+        for (Colonia colonia : colonias) {
+            long hormiguero = datos.getLong();
+            if (hormiguero != Posicion.empaquetar(colonia.getHormiguero().getX(), colonia.getHormiguero().getY())) {
+                throw new IllegalArgumentException("El hormiguero de la colonia " + colonia.getNumero() + " no coincide");
+            }
+            colonia.restaurarContadores(datos.getLong(), datos.getLong(), datos.getLong());
+        }
+        simulador.restaurarMovimientos(movimientos);
+
+        // 3. Obstáculos y comida
+        for (int i = 0; i < numeroObstaculos; i++) {
+            long obstaculo = datos.getLong();
+            simulador.colocarObstaculo(Posicion.xDe(obstaculo), Posicion.yDe(obstaculo));
+        }
+        RejillaComida comida = mapa.getComida();
+        for (int i = 0; i < numeroComida; i++) {
+            long celda = datos.getLong();
+            comida.colocar(Posicion.xDe(celda), Posicion.yDe(celda), datos.getInt());
+        }
+        simulador.apuntarComida();
+
+        // 4. Numeros: se estrenan todos en orden y al final se devuelven los que no tienen hormiga
+        byte[] tipos = new byte[estrenados + 1];
+        datos.get(tipos, 1, estrenados);
+        for (int numero = 1; numero <= estrenados; numero++) {
+            if (pool.reservar(TIPOS[tipos[numero]]) != numero) {
+                throw new IllegalArgumentException("El pool de hormigas no ha dado el numero " + numero);
+            }
+        }
+
+        // 5. Hormigas
+        boolean[] usados = new boolean[estrenados + 1];
+        for (int i = 0; i < vivas; i++) {
+            int numero = datos.getInt();
+            int colonia = datos.getInt();
+            long coordenadas = datos.getLong();
+            long aleatorio = datos.getLong();
+            int crias = datos.getInt();
+            TipoHormiga tipo = TIPOS[datos.get()];
+            byte estado = datos.get();
+            datos.getShort();
+            if (numero <= 0 || numero > estrenados || usados[numero] || tipos[numero] != tipo.ordinal()) {
+                throw new IllegalArgumentException("Numero de hormiga no valido en el punto de control: " + numero);
+            }
+            simulador.restaurarHormiga(numero, tipo, colonia, coordenadas, estado, crias, aleatorio);
+            usados[numero] = true;
+        }
+        for (int numero = 1; numero <= estrenados; numero++) {
+            if (!usados[numero]) {
+                pool.devolver(numero, TIPOS[tipos[numero]]);
+            }
+        }
+
+        // 6. Feromonas
+        CampoFeromonas feromonas = mapa.getFeromonas();
+        if (conFeromonas && feromonas != null) {
+            FloatBuffer valores = datos.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            if (valores.remaining() < feromonas.getNumeroCeldas()) {
+                throw new IllegalArgumentException("Faltan feromonas en el punto de control");
+            }
+            feromonas.importar(valores);
+        }
+        return vivas;
+    }
+
+    /**
+     * Lee y comprueba la firma y la versión del principio de un punto de control.
+     */
+    // 0(1)
+    private static void comprobarCabecera(ByteBuffer datos) {
+        if (datos.remaining() < BYTES_CABECERA || datos.getInt() != MAGIA) {
+            throw new IllegalArgumentException("El fichero no es un punto de control del simulador");
+        }
+        int version = datos.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Version de punto de control no soportada: " + version);
+        }
+    }
+
+    /**
+     * Vuelca el buffer si no le quedan los bytes indicados.
+     */
+    // 0(1) amortizado
+    private static void asegurar(FileChannel canal, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            volcar(canal, buffer);
+        }
+    }
+
+    /**
+     * Escribe en el canal todo lo que hay en el buffer y lo deja vacío.
+     */
+    // 0(bytes en el buffer)
+    private static void volcar(FileChannel canal, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+}
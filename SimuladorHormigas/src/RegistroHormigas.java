@@ -0,0 +1,282 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Registro de las hormigas vivas en arreglos de primitivos, pensado para recorrerlas.
+ * <p>
+ * Las hormigas vivas se guardan seguidas en un int[] con su numero (y un byte[] con su tipo), sin
+ * huecos: al quitar una se mueve la última a su sitio, así que recorrer un millón de hormigas es
+ * leer un arreglo seguido y no saltar de objeto en objeto. La posición de cada hormiga está en un
+ * {@link AtomicLongArray} por su numero, empaquetada con {@link Posicion#empaquetar(int, int)};
+ * los numeros los recicla el {@link PoolHormigas}, así que también este arreglo está casi lleno.
+ * <p>
+ * Añadir y quitar son synchronized y cambian la versión del registro. Mover solo escribe la
+ * posición de la hormiga, sin cerrojo. Quien dibuja no recorre el registro mientras las hormigas
+ * se mueven sino una {@link Instantanea}: copia con el cerrojo los numeros y tipos (así nunca ve a
+ * medias un cambio de sitio) y después, sin él, lee la posición de cada hormiga de una en una.
+ */
+public class RegistroHormigas {
+    /** Posición en vivas de un numero que no está en el registro. */
+    private static final int FUERA = -1;
+
+    /**
+     * Numero de cada hormiga viva, seguidos.
+     */
+    private final int[] vivas;
+    /**
+     * Tipo (ordinal de TipoHormiga) de cada hormiga de vivas, en el mismo orden.
+     */
+    private final byte[] tipos;
+    /**
+     * Posición en vivas de cada numero, o FUERA.
+     */
+    private final int[] indices;
+    /**
+     * Coordenadas empaquetadas de cada numero.
+     */
+    private final AtomicLongArray coordenadas;
+    /**
+     * Hormigas en vivas.
+     */
+    private volatile int numeroVivas;
+    /**
+     * Versión del registro: cambia cada vez que se añade o se quita una hormiga.
+     */
+    private volatile long version;
+
+    /**
+     * Constructor de la clase RegistroHormigas.
+     *
+     * @param capacidad Numero más alto de hormiga que se puede registrar.
+     */
+    // 0(capacidad)
+    public RegistroHormigas(int capacidad) {
+        this.vivas = new int[capacidad];
+        this.tipos = new byte[capacidad];
+        this.indices = new int[capacidad + 1];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = FUERA;
+        }
+        this.coordenadas = new AtomicLongArray(capacidad + 1);
+        this.numeroVivas = 0;
+        this.version = 0;
+    }
+
+    /**
+     * Añade una hormiga viva al final del registro.
+     *
+     * @param numero      Numero de la hormiga.
+     * @param tipo        Tipo de la hormiga.
+     * @param coordenadas Sus coordenadas empaquetadas.
+     */
+    // 0(1)
+    public synchronized void agregar(int numero, TipoHormiga tipo, long coordenadas) {
+        if (indices[numero] != FUERA) {
+            return;
+        }
+        this.coordenadas.set(numero, coordenadas);
+        int n = numeroVivas;
+        vivas[n] = numero;
+        tipos[n] = (byte) tipo.ordinal();
+        indices[numero] = n;
+        numeroVivas = n + 1;
+        version++;
+    }
+
+    /**
+     * Quita una hormiga del registro, moviendo la última a su sitio.
+     *
+     * @param numero Numero de la hormiga.
+     * @return `true` si estaba en el registro.
+     */
+    // 0(1)
+    public synchronized boolean quitar(int numero) {
+        int indice = indices[numero];
+        if (indice == FUERA) {
+            return false;
+        }
+        int ultima = numeroVivas - 1;
+        if (indice != ultima) {
+            int movida = vivas[ultima];
+            vivas[indice] = movida;
+            tipos[indice] = tipos[ultima];
+            indices[movida] = indice;
+        }
+        indices[numero] = FUERA;
+        numeroVivas = ultima;
+        version++;
+        return true;
+    }
+
+    /**
+     * Apunta la nueva posición de una hormiga.
+     * <p>
+     * Lo llama la hormiga desde su hilo en cada movimiento; no toma cerrojo.
+     *
+     * @param numero      Numero de la hormiga.
+     * @param coordenadas Sus nuevas coordenadas empaquetadas.
+     */
+    // 0(1)
+    public void mover(int numero, long coordenadas) {
+        this.coordenadas.set(numero, coordenadas);
+    }
+
+    /**
+     * Obtiene la última posición apuntada de una hormiga.
+     *
+     * @param numero Numero de la hormiga.
+     * @return Sus coordenadas empaquetadas.
+     */
+    // 0(1)
+    public long getCoordenadas(int numero) {
+        return coordenadas.get(numero);
+    }
+
+    /**
+     * Indica si una hormiga está en el registro.
+     *
+     * @param numero Numero de la hormiga.
+     * @return `true` si está viva en el registro.
+     */
+    // 0(1)
+    public synchronized boolean contiene(int numero) {
+        return numero > 0 && numero < indices.length && indices[numero] != FUERA;
+    }
+
+    /**
+     * Obtiene el numero de hormigas vivas en el registro.
+     *
+     * @return Las hormigas vivas.
+     */
+    public int getNumeroVivas() {
+        return numeroVivas;
+    }
+
+    /**
+     * Obtiene la versión del registro, que cambia con cada hormiga añadida o quitada.
+     *
+     * @return La versión.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Copia el registro en una instantánea, reutilizando sus arreglos.
+     * <p>
+     * Las hormigas que hay y sus tipos son exactamente los de la versión copiada; la posición de
+     * cada una es la que tenía al copiarla, así que dos hormigas pueden salir en la misma celda si
+     * una ha dejado la celda y la otra ha entrado mientras se copiaba (salvo que no se mueva
+     * ninguna mientras tanto, como entre dos generaciones del {@link PlanificadorGeneraciones}).
+     *
+     * @param destino Instantánea donde se copia.
+     * @return La misma instantánea.
+     */
+    // 0(n) -> n = hormigas vivas
+    public Instantanea instantanea(Instantanea destino) {
+        synchronized (this) {
+            int n = numeroVivas;
+            destino.reservar(n);
+            System.arraycopy(vivas, 0, destino.numeros, 0, n);
+            System.arraycopy(tipos, 0, destino.tipos, 0, n);
+            destino.tamano = n;
+            destino.version = version;
+        }
+        for (int i = 0; i < destino.tamano; i++) {
+            destino.coordenadas[i] = coordenadas.get(destino.numeros[i]);
+        }
+        return destino;
+    }
+
+    /**
+     * Copia de las hormigas vivas del registro en un momento dado.
+     * <p>
+     * La escribe el registro y la lee un solo hilo (el que dibuja), que la reutiliza frame a
+     * frame para no crear arreglos nuevos.
+     */
+    public static final class Instantanea {
+        /** Tipos de hormiga, para pasar del ordinal al tipo. */
+        private static final TipoHormiga[] TIPOS = TipoHormiga.values();
+
+        /** Numero de cada hormiga. */
+        private int[] numeros;
+        /** Tipo (ordinal de TipoHormiga) de cada hormiga. */
+        private byte[] tipos;
+        /** Coordenadas empaquetadas de cada hormiga. */
+        private long[] coordenadas;
+        /** Hormigas copiadas. */
+        private int tamano;
+        /** Versión del registro copiada. */
+        private long version;
+
+        /**
+         * Constructor de la clase Instantanea: crea una instantánea vacía.
+         */
+        public Instantanea() {
+            this.numeros = new int[0];
+            this.tipos = new byte[0];
+            this.coordenadas = new long[0];
+            this.tamano = 0;
+            this.version = -1;
+        }
+
+        /**
+         * Agranda los arreglos si no caben n hormigas.
+         */
+        // 0(n) solo si crece
+        private void reservar(int n) {
+            if (numeros.length < n) {
+                numeros = new int[n];
+                tipos = new byte[n];
+                coordenadas = new long[n];
+            }
+        }
+
+        /**
+         * Obtiene el numero de hormigas de la instantánea.
+         *
+         * @return El numero de hormigas.
+         */
+        public int getTamano() {
+            return tamano;
+        }
+
+        /**
+         * Obtiene la versión del registro que se copió.
+         *
+         * @return La versión, o -1 si todavía no se ha copiado nada.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Obtiene el numero de una hormiga de la instantánea.
+         *
+         * @param i Indice entre 0 y getTamano() - 1.
+         * @return Su numero.
+         */
+        public int getNumero(int i) {
+            return numeros[i];
+        }
+
+        /**
+         * Obtiene el tipo de una hormiga de la instantánea.
+         *
+         * @param i Indice entre 0 y getTamano() - 1.
+         * @return Su tipo.
+         */
+        public TipoHormiga getTipo(int i) {
+            return TIPOS[tipos[i]];
+        }
+
+        /**
+         * Obtiene las coordenadas de una hormiga de la instantánea.
+         *
+         * @param i Indice entre 0 y getTamano() - 1.
+         * @return Sus coordenadas empaquetadas.
+         */
+        public long getCoordenadas(int i) {
+            return coordenadas[i];
+        }
+    }
+}
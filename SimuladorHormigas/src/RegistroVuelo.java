@@ -0,0 +1,208 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+
+/**
+ * Grabación de Java Flight Recorder con eventos propios del simulador.
+ * <p>
+ * Sin estos eventos, en una grabación las hormigas solo aparecen como hilos anónimos que se
+ * aparcan. Con ellos se ve cuándo arranca y termina cada hormiga, cada intento de movimiento con
+ * su resultado y lo que ha tardado, la comprobación de colisiones (reclamar la celda en la
+ * {@link RejillaOcupacion}) y cada frame de la visualización, en el hilo donde pasa; así se pueden
+ * cruzar con los eventos de la máquina virtual (cerrojos, aparcamientos, recolector) del perfil
+ * "default", que también se graba.
+ * <p>
+ * Solo se crean eventos cuando se arranca con {@code --jfr=FICHERO}: quien los emite mira antes
+ * {@link SimuladorColoniasHormigas#isRegistroVuelo()}, que es un campo final, así que sin la
+ * opción no se crea ningún objeto ni se llama a JFR. Los eventos frecuentes no guardan la pila,
+ * que es lo que más cuesta al emitirlos.
+ */
+public class RegistroVuelo {
+    /** Categoría de los eventos en los visores de JFR. */
+    private static final String CATEGORIA = "Simulador de hormigas";
+
+    /**
+     * Una hormiga empieza a moverse (en su hilo o, en el modo por regiones, al entrar en su región).
+     */
+    @Name("simulador.HormigaArrancada")
+    @Label("Hormiga arrancada")
+    @Category(CATEGORIA)
+    static class HormigaArrancada extends Event {
+        @Label("Numero")
+        int numero;
+        @Label("Tipo")
+        String tipo;
+        @Label("X")
+        int x;
+        @Label("Y")
+        int y;
+    }
+
+    /**
+     * Una hormiga deja de moverse, porque la han detenido o porque ha muerto.
+     */
+    @Name("simulador.HormigaTerminada")
+    @Label("Hormiga terminada")
+    @Category(CATEGORIA)
+    static class HormigaTerminada extends Event {
+        @Label("Numero")
+        int numero;
+        @Label("Tipo")
+        String tipo;
+        @Label("Muerta")
+        @Description("true si ha muerto, false si se ha detenido")
+        boolean muerta;
+    }
+
+    /**
+     * Un intento de movimiento, desde que se elige la dirección hasta que se avisa del resultado.
+     */
+    @Name("simulador.IntentoMovimiento")
+    @Label("Intento de movimiento")
+    @Category(CATEGORIA)
+    @StackTrace(false)
+    static class IntentoMovimiento extends Event {
+        @Label("Numero")
+        int numero;
+        @Label("Tipo")
+        String tipo;
+        @Label("X de origen")
+        int x;
+        @Label("Y de origen")
+        int y;
+        @Label("Resultado")
+        @Description("movida, fuera, hormiguero u ocupada")
+        String resultado;
+    }
+
+    /**
+     * Reclamar la celda de destino en la rejilla de ocupación.
+     */
+    @Name("simulador.ComprobacionColision")
+    @Label("Comprobacion de colision")
+    @Category(CATEGORIA)
+    @StackTrace(false)
+    static class ComprobacionColision extends Event {
+        @Label("Numero")
+        int numero;
+        @Label("X de destino")
+        int x;
+        @Label("Y de destino")
+        int y;
+        @Label("Libre")
+        @Description("true si la hormiga se ha quedado con la celda")
+        boolean libre;
+    }
+
+    /**
+     * Un frame de la visualización.
+     */
+    @Name("simulador.Frame")
+    @Label("Frame")
+    @Category(CATEGORIA)
+    @StackTrace(false)
+    static class Frame extends Event {
+        @Label("Hormigas")
+        int hormigas;
+        @Label("Incremental")
+        @Description("true si solo se redibujan las celdas que cambian")
+        boolean incremental;
+    }
+
+    /** Eventos propios, que se graban todos sin umbral. */
+    private static final Class<?>[] EVENTOS = {HormigaArrancada.class, HormigaTerminada.class,
+            IntentoMovimiento.class, ComprobacionColision.class, Frame.class};
+
+    /** Fichero donde se escribe la grabación. */
+    private final Path fichero;
+    /** Grabación en marcha. */
+    private final Recording grabacion;
+
+    /**
+     * Constructor de la clase RegistroVuelo: empieza a grabar con el perfil "default" de JFR y los
+     * eventos propios del simulador.
+     *
+     * @param fichero Fichero donde se escribe la grabación al cerrarla.
+     * @throws IOException si no se puede leer el perfil o preparar el fichero.
+     */
+    // 0(1)
+    public RegistroVuelo(Path fichero) throws IOException {
+        this.fichero = fichero;
+        Configuration perfil;
+        try {
+            perfil = Configuration.getConfiguration("default");
+        } catch (ParseException e) {
+            throw new IOException("No se puede leer el perfil default de JFR", e);
+        }
+        this.grabacion = new Recording(perfil);
+        grabacion.setName("SimuladorHormigas");
+        grabacion.setToDisk(true);
+        grabacion.setDestination(fichero);
+        for (Class<?> evento : EVENTOS) {
+            grabacion.enable(evento.asSubclass(Event.class)).withThreshold(Duration.ZERO);
+        }
+        grabacion.start();
+    }
+
+    /**
+     * Obtiene el fichero de la grabación.
+     *
+     * @return El fichero.
+     */
+    public Path getFichero() {
+        return fichero;
+    }
+
+    /**
+     * Para la grabación y la escribe en su fichero (si ya estaba cerrada no hace nada).
+     */
+    // 0(eventos grabados)
+    public synchronized void cerrar() {
+        if (grabacion.getState() != RecordingState.RUNNING) {
+            return;
+        }
+        grabacion.stop();
+        grabacion.close();
+    }
+
+    /**
+     * Emite el arranque de una hormiga en el hilo actual.
+     *
+     * @param hormiga La hormiga.
+     */
+    // 0(1)
+    static void hormigaArrancada(Hormiga hormiga) {
+        HormigaArrancada evento = new HormigaArrancada();
+        long coordenadas = hormiga.getCoordenadas();
+        evento.numero = hormiga.getNumero();
+        evento.tipo = hormiga.getTipo().getNombre();
+        evento.x = Posicion.xDe(coordenadas);
+        evento.y = Posicion.yDe(coordenadas);
+        evento.commit();
+    }
+
+    /**
+     * Emite el final de una hormiga en el hilo actual.
+     *
+     * @param hormiga La hormiga.
+     */
+    // 0(1)
+    static void hormigaTerminada(Hormiga hormiga) {
+        HormigaTerminada evento = new HormigaTerminada();
+        evento.numero = hormiga.getNumero();
+        evento.tipo = hormiga.getTipo().getNombre();
+        evento.muerta = hormiga.isMuerta();
+        evento.commit();
+    }
+}
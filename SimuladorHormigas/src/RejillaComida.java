@@ -0,0 +1,139 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Clase que representa la comida que hay en el mapa.
+ * <p>
+ * Guarda las unidades de comida de cada celda (0 si no hay). Igual que la
+ * {@link RejillaOcupacion}, las celdas se agrupan en {@link Trozos} que solo se reservan donde
+ * se coloca comida, y cada trozo es un {@link AtomicIntegerArray} para que varias hormigas puedan
+ * tomar comida a la vez sin cerrojos (con compareAndSet nunca se toma más de la que hay). Los
+ * trozos se buscan en una {@link TablaTrozos}, sin crear objetos.
+ * <p>
+ * Además guarda la lista de celdas con comida, para poder dibujarlas sin recorrer todo el mapa.
+ */
+public class RejillaComida {
+    /** Ancho de la rejilla (igual que el del mapa). */
+    private final int ancho;
+    /** Alto de la rejilla (igual que el del mapa). */
+    private final int alto;
+    /** Trozos reservados, con las unidades de comida de cada celda. */
+    private final TablaTrozos trozos;
+    /** Celdas donde se ha colocado comida, empaquetadas con {@link Posicion#empaquetar(int, int)}. */
+    private long[] celdas;
+    /** Numero de celdas usadas en celdas. */
+    private int numeroCeldas;
+    /** Unidades de comida que quedan en todo el mapa. */
+    private final LongAdder restante;
+
+    /**
+     * Constructor de la clase RejillaComida.
+     * <p>
+     * Crea una rejilla sin comida (sin ningun trozo reservado).
+     *
+     * @param ancho Ancho del mapa.
+     * @param alto  Alto del mapa.
+     */
+    // 0(1)
+    public RejillaComida(int ancho, int alto) {
+        this.ancho = ancho;
+        this.alto = alto;
+        this.trozos = new TablaTrozos();
+        this.celdas = new long[16];
+        this.numeroCeldas = 0;
+        this.restante = new LongAdder();
+    }
+
+    /**
+     * Añade comida a una celda.
+     * <p>
+     * Se usa al preparar el mapa, antes de lanzar las hormigas.
+     *
+     * @param x        Coordenada horizontal.
+     * @param y        Coordenada vertical.
+     * @param cantidad Unidades de comida a añadir (mayor que 0).
+     */
+    // 0(1) amortizado
+    public synchronized void colocar(int x, int y, int cantidad) {
+        if (x < 0 || x >= ancho || y < 0 || y >= alto || cantidad <= 0) {
+            return;
+        }
+        AtomicIntegerArray trozo = trozos.reservar(x, y);
+        if (trozo.getAndAdd(Trozos.indice(x, y), cantidad) == 0) {
+            // Celda nueva: la apuntamos en la lista
+            if (numeroCeldas == celdas.length) {
+                long[] mayor = new long[celdas.length * 2];
+                System.arraycopy(celdas, 0, mayor, 0, numeroCeldas);
+                celdas = mayor;
+            }
+            celdas[numeroCeldas++] = Posicion.empaquetar(x, y);
+        }
+        restante.add(cantidad);
+    }
+
+    /**
+     * Obtiene las unidades de comida de una celda.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return Las unidades de comida, o 0 si no hay.
+     */
+    // 0(1)
+    public int cantidad(int x, int y) {
+        AtomicIntegerArray trozo = trozos.buscar(x, y);
+        return trozo == null ? 0 : trozo.get(Trozos.indice(x, y));
+    }
+
+    /**
+     * Toma una unidad de comida de una celda si queda alguna.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return `true` si se ha tomado una unidad.
+     */
+    // 0(1) -> reintenta solo si otra hormiga toma comida de la misma celda a la vez
+    public boolean tomar(int x, int y) {
+        AtomicIntegerArray trozo = trozos.buscar(x, y);
+        if (trozo == null) {
+            return false;
+        }
+        int indice = Trozos.indice(x, y);
+        int cantidad;
+        do {
+            cantidad = trozo.get(indice);
+            if (cantidad == 0) {
+                return false;
+            }
+        } while (!trozo.compareAndSet(indice, cantidad, cantidad - 1));
+        restante.decrement();
+        return true;
+    }
+
+    /**
+     * Obtiene el numero de celdas donde se ha colocado comida (tengan o no comida todavía).
+     *
+     * @return El numero de celdas.
+     */
+    public synchronized int getNumeroCeldas() {
+        return numeroCeldas;
+    }
+
+    /**
+     * Obtiene una de las celdas donde se ha colocado comida.
+     *
+     * @param i Indice de la celda (entre 0 y getNumeroCeldas() - 1).
+     * @return La celda empaquetada con {@link Posicion#empaquetar(int, int)}.
+     */
+    public synchronized long getCelda(int i) {
+        return celdas[i];
+    }
+
+    /**
+     * Obtiene las unidades de comida que quedan en todo el mapa.
+     *
+     * @return La comida restante.
+     */
+    public long getRestante() {
+        return restante.sum();
+    }
+}
@@ -0,0 +1,178 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Clase que representa la rejilla de ocupacion del mapa.
+ * <p>
+ * Guarda el numero de la hormiga que ocupa cada celda (0 si la celda esta libre). De esta forma
+ * comprobar si una posicion esta ocupada o mover una hormiga cuesta 0(1), sin recorrer todas las
+ * hormigas. Las celdas se agrupan en {@link Trozos} que solo se reservan cuando una hormiga entra
+ * en ellos, asi que la memoria depende del area recorrida y no del tamaño del mapa. Los trozos se
+ * buscan en una {@link TablaTrozos}, que no crea objetos al consultarla.
+ * <p>
+ * No usa ningun cerrojo: cada trozo es un {@link AtomicIntegerArray} y las hormigas reclaman las
+ * celdas con compareAndSet, asi que varias hormigas pueden moverse a la vez sin esperar unas a otras.
+ */
+public class RejillaOcupacion {
+    /** Valor que indica que una celda esta libre. */
+    public static final int LIBRE = 0;
+    /**
+     * Valor de una celda con obstaculo: queda ocupada para siempre, asi que el compareAndSet con
+     * el que las hormigas reclaman las celdas falla y ninguna puede entrar, sin comprobar nada mas.
+     */
+    public static final int OBSTACULO = -1;
+
+    /** Ancho de la rejilla (igual que el del mapa). */
+    private final int ancho;
+    /** Alto de la rejilla (igual que el del mapa). */
+    private final int alto;
+    /** Trozos reservados, con el numero de la hormiga que ocupa cada celda o LIBRE. */
+    private final TablaTrozos trozos;
+
+    /**
+     * Constructor de la clase RejillaOcupacion.
+     * <p>
+     * Crea una rejilla con todas las celdas libres (sin ningun trozo reservado).
+     *
+     * @param ancho Ancho del mapa.
+     * @param alto  Alto del mapa.
+     */
+    // 0(1) -> los trozos se reservan cuando hacen falta
+    public RejillaOcupacion(int ancho, int alto) {
+        this.ancho = ancho;
+        this.alto = alto;
+        this.trozos = new TablaTrozos();
+    }
+
+    /**
+     * Obtiene el trozo que contiene una celda, o null si todavia no se ha reservado.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return El trozo o null.
+     */
+    // 0(1)
+    private AtomicIntegerArray trozo(int x, int y) {
+        return trozos.buscar(x, y);
+    }
+
+    /**
+     * Obtiene el trozo que contiene una celda, reservandolo si no existe.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return El trozo.
+     */
+    // 0(1)
+    private AtomicIntegerArray trozoReservado(int x, int y) {
+        return trozos.reservar(x, y);
+    }
+
+    /**
+     * Obtiene el numero de la hormiga que ocupa una celda.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return El numero de la hormiga, o LIBRE si no hay ninguna.
+     */
+    // 0(1)
+    public int propietario(int x, int y) {
+        AtomicIntegerArray trozo = trozo(x, y);
+        return trozo == null ? LIBRE : trozo.get(Trozos.indice(x, y));
+    }
+
+    /**
+     * Verifica si una celda esta ocupada por una hormiga distinta a la indicada.
+     *
+     * @param x            Coordenada horizontal.
+     * @param y            Coordenada vertical.
+     * @param numeroActual Numero de la hormiga que pregunta (no cuenta como ocupante).
+     * @return `true` si otra hormiga ocupa la celda.
+     */
+    // 0(1)
+    public boolean ocupadaPorOtra(int x, int y, int numeroActual) {
+        int ocupante = propietario(x, y);
+        return ocupante != LIBRE && ocupante != numeroActual;
+    }
+
+    /**
+     * Ocupa una celda si esta libre.
+     * <p>
+     * Se usa al colocar una hormiga en el mapa por primera vez.
+     *
+     * @param x      Coordenada horizontal.
+     * @param y      Coordenada vertical.
+     * @param numero Numero de la hormiga.
+     * @return `true` si la celda estaba libre y ahora es de la hormiga.
+     */
+    // 0(1)
+    public boolean ocupar(int x, int y, int numero) {
+        return trozoReservado(x, y).compareAndSet(Trozos.indice(x, y), LIBRE, numero);
+    }
+
+    /**
+     * Libera una celda si pertenece a la hormiga indicada.
+     *
+     * @param x      Coordenada horizontal.
+     * @param y      Coordenada vertical.
+     * @param numero Numero de la hormiga que la libera.
+     */
+    // 0(1)
+    public void liberar(int x, int y, int numero) {
+        AtomicIntegerArray trozo = trozo(x, y);
+        if (trozo != null) {
+            trozo.compareAndSet(Trozos.indice(x, y), numero, LIBRE);
+        }
+    }
+
+    /**
+     * Mueve una hormiga de una celda a otra de forma atomica.
+     * <p>
+     * Primero reclama el destino con compareAndSet (solo gana una hormiga si varias lo intentan
+     * a la vez) y despues libera su celda de origen. Durante un instante la hormiga tiene las dos
+     * celdas, pero nunca hay dos hormigas en la misma celda.
+     *
+     * @param xOrigen  Coordenada horizontal de origen.
+     * @param yOrigen  Coordenada vertical de origen.
+     * @param xDestino Coordenada horizontal de destino.
+     * @param yDestino Coordenada vertical de destino.
+     * @param numero   Numero de la hormiga que se mueve.
+     * @return `true` si la hormiga se ha movido, `false` si el destino estaba ocupado.
+     */
+    // 0(1)
+    public boolean mover(int xOrigen, int yOrigen, int xDestino, int yDestino, int numero) {
+        // 1. Reclamar el destino: falla si otra hormiga ya lo tiene
+        if (!ocupar(xDestino, yDestino, numero)) {
+            return false;
+        }
+        // 2. Liberar el origen (solo si sigue siendo nuestro)
+        liberar(xOrigen, yOrigen, numero);
+        return true;
+    }
+
+    /**
+     * Obtiene el ancho de la rejilla.
+     *
+     * @return El ancho.
+     */
+    public int getAncho() {
+        return ancho;
+    }
+
+    /**
+     * Obtiene el alto de la rejilla.
+     *
+     * @return El alto.
+     */
+    public int getAlto() {
+        return alto;
+    }
+
+    /**
+     * Obtiene el numero de trozos reservados.
+     *
+     * @return El numero de trozos.
+     */
+    public int getTrozosReservados() {
+        return trozos.getReservados();
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * Renderizador que solo redibuja las celdas que han cambiado desde el último frame.
+ * <p>
+ * Recibe los movimientos de las hormigas como {@link ObservadorMovimiento} y apunta las celdas que
+ * han cambiado. En cada frame escribe solo esas celdas con secuencias ANSI de posición del cursor
+ * en un {@link EscritorFrame}, que se vuelca con una sola escritura. Así el coste de dibujar
+ * depende de cuántas hormigas se han movido y no del tamaño del mapa. El primer frame se dibuja
+ * completo.
+ * <p>
+ * Como los avisos llegan desde los hilos de las hormigas y pueden llegar desordenados, el
+ * símbolo final de cada celda se decide mirando la rejilla de ocupación al dibujar.
+ */
+public class RenderizadorIncremental implements ObservadorMovimiento {
+    /** Secuencia ANSI que borra la pantalla y lleva el cursor arriba a la izquierda. */
+    private static final String BORRAR_PANTALLA = "\u001b[H\u001b[2J";
+    /** Secuencia ANSI que borra desde el cursor hasta el final de la pantalla. */
+    private static final String BORRAR_HASTA_FINAL = "\u001b[J";
+    /** Fila de la pantalla (empezando en 1) donde se dibuja la primera fila del mapa. */
+    private static final int FILA_MAPA = 3;
+    /** Capacidad inicial del buffer de cambios pendientes (en cambios). */
+    private static final int CAPACIDAD_INICIAL = 256;
+
+    /**
+     * Mapa que se dibuja (ventana visible y símbolos de fondo).
+     */
+    private final Mapa mapa;
+    /**
+     * Rejilla de ocupación, para saber quién está en una celda al dibujarla.
+     */
+    private final RejillaOcupacion ocupacion;
+    /**
+     * Escritor del frame que se está dibujando.
+     */
+    private EscritorFrame salida;
+
+    /**
+     * Cambios pendientes de dibujar: por cada cambio, la celda (x e y juntas) y la información
+     * (numero de la hormiga y su símbolo, o 0 si la celda se ha quedado libre).
+     */
+    private long[] pendientes;
+    /** Numero de longs usados en pendientes. */
+    private int numeroPendientes;
+    /** Buffer que se está dibujando; se intercambia con pendientes en cada frame. */
+    private long[] enDibujo;
+    /** Indica si el siguiente frame debe dibujarse completo. */
+    private boolean primerFrame;
+
+    /**
+     * Constructor de la clase RenderizadorIncremental.
+     *
+     * @param mapa      Mapa que se dibuja.
+     * @param ocupacion Rejilla de ocupación de las hormigas.
+     */
+    // 0(1)
+    public RenderizadorIncremental(Mapa mapa, RejillaOcupacion ocupacion) {
+        this.mapa = mapa;
+        this.ocupacion = ocupacion;
+        this.salida = null;
+        this.pendientes = new long[CAPACIDAD_INICIAL * 2];
+        this.enDibujo = new long[CAPACIDAD_INICIAL * 2];
+        this.numeroPendientes = 0;
+        this.primerFrame = true;
+    }
+
+    /**
+     * Apunta las dos celdas que cambian con el movimiento de una hormiga.
+     * <p>
+     * Se llama desde el hilo de la hormiga.
+     */
+    // 0(1) amortizado
+    @Override
+    public void hormigaMovida(Hormiga hormiga, int xOrigen, int yOrigen, int xDestino, int yDestino) {
+        long entrada = ((long) hormiga.getNumero() << 16) | hormiga.getTipo().getSimbolo().charAt(0);
+        synchronized (this) {
+            apuntar(Posicion.empaquetar(xOrigen, yOrigen), 0);
+            apuntar(Posicion.empaquetar(xDestino, yDestino), entrada);
+        }
+    }
+
+    /**
+     * Apunta la celda donde ha aparecido una hormiga.
+     */
+    // 0(1) amortizado
+    @Override
+    public void hormigaColocada(Hormiga hormiga, int x, int y) {
+        long entrada = ((long) hormiga.getNumero() << 16) | hormiga.getTipo().getSimbolo().charAt(0);
+        synchronized (this) {
+            apuntar(Posicion.empaquetar(x, y), entrada);
+        }
+    }
+
+    /**
+     * Apunta la celda que ha dejado una hormiga al morir.
+     */
+    // 0(1) amortizado
+    @Override
+    public void hormigaRetirada(Hormiga hormiga, int x, int y) {
+        synchronized (this) {
+            apuntar(Posicion.empaquetar(x, y), 0);
+        }
+    }
+
+    /**
+     * Añade un cambio al buffer de pendientes, agrandandolo si hace falta.
+     *
+     * @param celda       Celda empaquetada.
+     * @param informacion Numero y símbolo de la hormiga que entra, o 0 si la celda queda libre.
+     */
+    // 0(1) amortizado, se llama con el cerrojo tomado
+    private void apuntar(long celda, long informacion) {
+        if (numeroPendientes + 2 > pendientes.length) {
+            long[] mayor = new long[pendientes.length * 2];
+            System.arraycopy(pendientes, 0, mayor, 0, numeroPendientes);
+            pendientes = mayor;
+        }
+        pendientes[numeroPendientes++] = celda;
+        pendientes[numeroPendientes++] = informacion;
+    }
+
+    /**
+     * Dibuja un frame: completo la primera vez y después solo las celdas que han cambiado.
+     * <p>
+     * Deja el cursor debajo del mapa para que las estadísticas se escriban a continuación. No
+     * vuelca el escritor: lo hace quien compone el resto del frame.
+     *
+     * @param hormigas Registro de las hormigas del simulador (solo se usan para dibujar el primer frame).
+     * @param escritor Escritor donde se compone el frame.
+     */
+    // 0(n) -> n = celdas cambiadas desde el último frame (el primer frame es 0(ventana))
+    public void dibujarFrame(RegistroHormigas hormigas, EscritorFrame escritor) {
+        salida = escritor;
+        int x0 = mapa.getVentanaX();
+        int y0 = mapa.getVentanaY();
+        int columnas = mapa.getColumnasVentana();
+        int filas = mapa.getFilasVentana();
+
+        if (primerFrame) {
+            // Los cambios anteriores ya quedan incluidos en el dibujo completo
+            synchronized (this) {
+                numeroPendientes = 0;
+            }
+            dibujarCompleto(hormigas, x0, y0, columnas, filas);
+            primerFrame = false;
+        } else {
+            dibujarCambios(x0, y0, columnas, filas);
+        }
+
+        // Dejamos el cursor debajo del mapa y borramos lo que hubiera
+        moverCursor(FILA_MAPA + filas + 1, 1);
+        salida.escribir(BORRAR_HASTA_FINAL);
+    }
+
+    /**
+     * Compone el frame completo a partir del mapa.
+     */
+    // 0(ventana)
+    private void dibujarCompleto(RegistroHormigas hormigas, int x0, int y0, int columnas, int filas) {
+        mapa.prepararMapa(hormigas);
+        salida.escribir(BORRAR_PANTALLA);
+        salida.escribir("=== MAPA DE LA COLONIA ===\n\n");
+        for (int y = y0; y < y0 + filas; y++) {
+            for (int x = x0; x < x0 + columnas; x++) {
+                salida.escribir(mapa.getSimbolo(x, y)).escribir(' ');
+            }
+            salida.nuevaLinea();
+        }
+    }
+
+    /**
+     * Compone solo las celdas que han cambiado dentro de la ventana visible.
+     */
+    // 0(n) -> n = cambios pendientes
+    private void dibujarCambios(int x0, int y0, int columnas, int filas) {
+        // Intercambiamos los buffers para no bloquear a las hormigas mientras dibujamos
+        long[] cambios;
+        int numeroCambios;
+        synchronized (this) {
+            cambios = pendientes;
+            numeroCambios = numeroPendientes;
+            pendientes = enDibujo;
+            numeroPendientes = 0;
+            enDibujo = cambios;
+        }
+
+        for (int i = 0; i < numeroCambios; i += 2) {
+            int x = Posicion.xDe(cambios[i]);
+            int y = Posicion.yDe(cambios[i]);
+            if (x < x0 || x >= x0 + columnas || y < y0 || y >= y0 + filas) {
+                continue; // fuera de la ventana visible
+            }
+
+            long informacion = cambios[i + 1];
+            int ocupante = ocupacion.propietario(x, y);
+            char simbolo;
+            if (informacion == 0) {
+                // La celda se quedó libre: si ya hay otra hormiga, su propio aviso la dibuja
+                if (ocupante != RejillaOcupacion.LIBRE) {
+                    continue;
+                }
+                simbolo = mapa.getSimboloFondo(x, y);
+            } else {
+                // Entró una hormiga: si ya se ha ido, su aviso de salida dibuja la celda
+                if (ocupante != (int) (informacion >>> 16)) {
+                    continue;
+                }
+                simbolo = (char) (informacion & 0xFFFF);
+            }
+
+            moverCursor(FILA_MAPA + (y - y0), 1 + 2 * (x - x0));
+            salida.escribir(simbolo);
+        }
+    }
+
+    /**
+     * Añade la secuencia ANSI que mueve el cursor a una fila y columna (empezando en 1).
+     *
+     * @param fila    Fila de la pantalla.
+     * @param columna Columna de la pantalla.
+     */
+    private void moverCursor(int fila, int columna) {
+        salida.escribir("\u001b[").escribir(fila).escribir(';').escribir(columna).escribir('H');
+    }
+}
@@ -0,0 +1,284 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reconstruye el mapa de una simulación en cualquier tick a partir de su bitácora
+ * ({@link BitacoraMovimientos}).
+ * <p>
+ * Recorre los segmentos mapeándolos en memoria, uno detrás de otro y sin copiarlos, y aplica los
+ * eventos con tick menor o igual que el pedido. En el fichero los eventos de una misma hormiga
+ * están en orden, pero los de hormigas distintas no (cada grupo de hormigas tiene su anillo), así
+ * que no se puede parar en el primer tick mayor: se leen todos los segmentos. De cada hormiga se
+ * guarda solo su último estado (viva o no, tipo y posición), en arreglos por numero; los
+ * obstáculos y los hormigueros salen en orden porque van todos al mismo anillo, y la comida se
+ * suma y se resta por celda, así que no importa el orden.
+ * <p>
+ * Al final se crea un {@link Mapa} del tamaño de la bitácora con los hormigueros, los obstáculos
+ * y la comida, y un {@link RegistroHormigas} con las hormigas vivas, que es lo que necesita
+ * {@link Mapa#prepararMapa(RegistroHormigas)} para dibujarlo.
+ */
+public class ReproductorBitacora {
+    /** Tipos de hormiga, para pasar del ordinal al tipo. */
+    private static final TipoHormiga[] TIPOS = TipoHormiga.values();
+    /** Capacidad inicial de los arreglos por numero de hormiga. */
+    private static final int CAPACIDAD_INICIAL = 1024;
+    /** Eventos distintos (códigos de 0 a COLONIA). */
+    private static final int EVENTOS = BitacoraMovimientos.COLONIA + 1;
+
+    /** Base de los ficheros de la bitácora. */
+    private final Path base;
+    /** Mapa reconstruido (null hasta reproducir). */
+    private Mapa mapa;
+    /** Hormigas vivas reconstruidas (null hasta reproducir). */
+    private RegistroHormigas registro;
+    /** Eventos aplicados de cada tipo. */
+    private final long[] eventos;
+    /** Segmentos leidos. */
+    private int segmentos;
+    /** Tick más alto de toda la bitácora. */
+    private long ultimoTick;
+
+    /** Coordenadas de cada numero de hormiga. */
+    private long[] coordenadas;
+    /** Tipo + 1 de cada numero de hormiga viva, 0 si no está viva. */
+    private byte[] estados;
+    /** Numero de hormiga más alto visto. */
+    private int mayorNumero;
+
+    /**
+     * Constructor de la clase ReproductorBitacora.
+     *
+     * @param base Base de los ficheros de la bitácora (sin el ".0").
+     */
+    public ReproductorBitacora(Path base) {
+        this.base = base;
+        this.eventos = new long[EVENTOS];
+        this.ultimoTick = -1;
+    }
+
+    /**
+     * Reconstruye el estado de la simulación en un tick.
+     *
+     * @param tick Milisegundo de la bitácora (Long.MAX_VALUE para reproducirla entera).
+     * @return El numero de hormigas vivas en ese tick.
+     * @throws IOException              si no se puede leer algún segmento.
+     * @throws IllegalArgumentException si algún fichero no es un segmento de bitácora o no
+     *                                  cuadra con los demás.
+     */
+    // 0(e + n + o + c) -> e = eventos, n = hormigas, o = obstaculos, c = celdas con comida
+    public int reproducir(long tick) throws IOException {
+        coordenadas = new long[CAPACIDAD_INICIAL];
+        estados = new byte[CAPACIDAD_INICIAL];
+        mayorNumero = 0;
+        Arrays.fill(eventos, 0);
+        segmentos = 0;
+        ultimoTick = -1;
+        Set<Long> obstaculos = new HashSet<>();
+        Map<Long, Integer> comida = new HashMap<>();
+        List<Long> hormigueros = new ArrayList<>();
+        int ancho = -1;
+        int alto = -1;
+
+        Path fichero;
+        while (Files.exists(fichero = BitacoraMovimientos.segmento(base, segmentos))) {
+            MappedByteBuffer datos;
+            try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+                datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            }
+            datos.order(ByteOrder.LITTLE_ENDIAN);
+            if (datos.remaining() < BitacoraMovimientos.BYTES_CABECERA || datos.getInt() != BitacoraMovimientos.MAGIA) {
+                throw new IllegalArgumentException("El fichero no es un segmento de bitacora: " + fichero);
+            }
+            int version = datos.getInt();
+            if (version != BitacoraMovimientos.VERSION) {
+                throw new IllegalArgumentException("Version de bitacora no soportada: " + version);
+            }
+            int anchoSegmento = datos.getInt();
+            int altoSegmento = datos.getInt();
+            int numero = datos.getInt();
+            int registros = datos.getInt();
+            if (numero != segmentos || (ancho >= 0 && (anchoSegmento != ancho || altoSegmento != alto))) {
+                throw new IllegalArgumentException("El segmento no cuadra con los anteriores: " + fichero);
+            }
+            ancho = anchoSegmento;
+            alto = altoSegmento;
+            long disponibles = (datos.capacity() - BitacoraMovimientos.BYTES_CABECERA) / BitacoraMovimientos.BYTES_REGISTRO;
+            if (registros < 0 || registros > disponibles) {
+                throw new IllegalArgumentException("El segmento esta incompleto: " + fichero);
+            }
+            datos.position(BitacoraMovimientos.BYTES_CABECERA);
+            leerSegmento(datos, registros, tick, obstaculos, comida, hormigueros);
+            segmentos++;
+        }
+        if (segmentos == 0) {
+            throw new IllegalArgumentException("No hay ningun segmento de bitacora: " + BitacoraMovimientos.segmento(base, 0));
+        }
+
+        // Mapa: hormigueros (el primero es el del centro, que ya pone el mapa), obstáculos y comida
+        mapa = new Mapa(ancho, alto);
+        for (int i = 1; i < hormigueros.size(); i++) {
+            mapa.agregarHormiguero(Posicion.xDe(hormigueros.get(i)), Posicion.yDe(hormigueros.get(i)));
+        }
+        for (long obstaculo : obstaculos) {
+            mapa.registrarObstaculo(Posicion.xDe(obstaculo), Posicion.yDe(obstaculo));
+        }
+        for (Map.Entry<Long, Integer> celda : comida.entrySet()) {
+            mapa.getComida().colocar(Posicion.xDe(celda.getKey()), Posicion.yDe(celda.getKey()), celda.getValue());
+        }
+
+        // Hormigas vivas
+        registro = new RegistroHormigas(mayorNumero);
+        for (int numero = 1; numero <= mayorNumero; numero++) {
+            if (estados[numero] != 0) {
+                registro.agregar(numero, TIPOS[estados[numero] - 1], coordenadas[numero]);
+            }
+        }
+        return registro.getNumeroVivas();
+    }
+
+    /**
+     * Aplica los eventos de un segmento con tick menor o igual que el pedido.
+     */
+    // 0(r) -> r = registros del segmento
+    private void leerSegmento(ByteBuffer datos, int registros, long tick, Set<Long> obstaculos,
+                              Map<Long, Integer> comida, List<Long> hormigueros) {
+        for (int i = 0; i < registros; i++) {
+            long tickEvento = datos.getLong();
+            int numero = datos.getInt();
+            int x = datos.getInt();
+            int y = datos.getInt();
+            byte evento = datos.get();
+            byte tipo = datos.get();
+            datos.getShort();
+            if (tickEvento > ultimoTick) {
+                ultimoTick = tickEvento;
+            }
+            if (tickEvento > tick || evento <= 0 || evento >= EVENTOS) {
+                continue;
+            }
+            eventos[evento]++;
+            long celda = Posicion.empaquetar(x, y);
+            switch (evento) {
+                case BitacoraMovimientos.NACIDA:
+                    reservar(numero);
+                    estados[numero] = (byte) (tipo + 1);
+                    coordenadas[numero] = celda;
+                    break;
+                case BitacoraMovimientos.MOVIDA:
+                    // Una hormiga puede acabar un movimiento justo después de que la maten
+                    if (numero <= mayorNumero && estados[numero] != 0) {
+                        coordenadas[numero] = celda;
+                    }
+                    break;
+                case BitacoraMovimientos.MUERTA:
+                    if (numero <= mayorNumero) {
+                        estados[numero] = 0;
+                    }
+                    break;
+                case BitacoraMovimientos.COMIDA_TOMADA:
+                    comida.merge(celda, -1, Integer::sum);
+                    break;
+                case BitacoraMovimientos.COMIDA_PUESTA:
+                    comida.merge(celda, numero, Integer::sum);
+                    break;
+                case BitacoraMovimientos.OBSTACULO_PUESTO:
+                    obstaculos.add(celda);
+                    break;
+                case BitacoraMovimientos.OBSTACULO_QUITADO:
+                    obstaculos.remove(celda);
+                    break;
+                case BitacoraMovimientos.COLONIA:
+                    hormigueros.add(celda);
+                    break;
+                default:
+                    // Movimientos rechazados: no cambian el estado, solo se cuentan
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Agranda los arreglos por numero para que quepa un numero de hormiga.
+     */
+    // 0(n) solo si crece
+    private void reservar(int numero) {
+        if (numero >= estados.length) {
+            int capacidad = Math.max(estados.length * 2, numero + 1);
+            coordenadas = Arrays.copyOf(coordenadas, capacidad);
+            estados = Arrays.copyOf(estados, capacidad);
+        }
+        if (numero > mayorNumero) {
+            mayorNumero = numero;
+        }
+    }
+
+    /**
+     * Dibuja el mapa reconstruido y un resumen de los eventos aplicados.
+     *
+     * @param tick Tick pedido (para el resumen).
+     */
+    // 0(n + v^2) -> n = hormigas, v = lado de la ventana mostrada
+    public void mostrar(long tick) {
+        mapa.prepararMapa(registro);
+        mapa.mostrarMapa();
+        System.out.println("Bitacora " + base + ": " + segmentos + " segmento(s), ultimo tick " + ultimoTick + " ms");
+        System.out.println("Estado en el tick " + (tick == Long.MAX_VALUE ? ultimoTick : tick) + " ms: "
+                + registro.getNumeroVivas() + " hormigas vivas, " + mapa.getNumeroObstaculos() + " obstaculos, "
+                + mapa.getComida().getRestante() + " unidades de comida");
+        StringBuilder resumen = new StringBuilder("Eventos:");
+        for (int evento = 1; evento < EVENTOS; evento++) {
+            resumen.append(' ').append(BitacoraMovimientos.nombreEvento(evento)).append('=').append(eventos[evento]);
+        }
+        System.out.println(resumen);
+    }
+
+    /**
+     * Obtiene el mapa reconstruido.
+     *
+     * @return El mapa, o null si todavía no se ha reproducido.
+     */
+    public Mapa getMapa() {
+        return mapa;
+    }
+
+    /**
+     * Obtiene las hormigas vivas reconstruidas.
+     *
+     * @return El registro, o null si todavía no se ha reproducido.
+     */
+    public RegistroHormigas getRegistro() {
+        return registro;
+    }
+
+    /**
+     * Obtiene los eventos aplicados de un tipo.
+     *
+     * @param evento Código del evento (ver {@link BitacoraMovimientos}).
+     * @return Los eventos con tick menor o igual que el reproducido.
+     */
+    public long getEventos(byte evento) {
+        return evento > 0 && evento < EVENTOS ? eventos[evento] : 0;
+    }
+
+    /**
+     * Obtiene el tick más alto de la bitácora.
+     *
+     * @return El tick, o -1 si no tiene eventos.
+     */
+    public long getUltimoTick() {
+        return ultimoTick;
+    }
+}
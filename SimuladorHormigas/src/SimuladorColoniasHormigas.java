@@ -1,27 +1,53 @@
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Clase principal del simulador de colonias de hormigas.
  * Proporciona la lógica central para gestionar la simulación de hormigas.
  * <p>
  * Esta clase controla:
- * - Gestión del HashMap de hormigas.
+ * - Gestión de las colonias y del mapa de hormigas (nacimientos y muertes incluidos).
  * - Control de movimiento con verificación de límites.
- * - Actualización de la visualización.
+ * - Actualización de la visualización (opcional, a través de un {@link Visualizador}).
  * - Manejo de hilos y sincronización.
  */
 public class SimuladorColoniasHormigas {
 
     // Constantes de configuración
     /**
-     * Número total de hormigueros en la simulación.
+     * Número máximo de hormigas que se listan una a una al generarlas.
      */
-    private static final int NUMERO_HORMIGUERO = 5;
+    private static final int MAX_HORMIGAS_LISTADAS = 20;
     /**
-     * Intervalo de actualización en milisegundos.
+     * Intervalo en milisegundos entre informes de progreso en el modo sin interfaz.
      */
-    private static final int INTERVALO_ACTUALIZACION = 1000;
+    private static final int INTERVALO_SIN_INTERFAZ = 100;
+    /**
+     * Milisegundos entre dos pasos del campo de feromonas (un turno, como en el motor por turnos).
+     */
+    private static final int PERIODO_FEROMONAS = MotorPorTurnos.MILISEGUNDOS_POR_TURNO;
+    /**
+     * Numero de celdas de cada muro de obstáculos.
+     */
+    private static final int LONGITUD_MURO = 5;
+    /**
+     * Distancia máxima al hormiguero de la celda donde nace una obrera.
+     */
+    private static final int RADIO_PUESTA = 2;
+    /**
+     * Celdas al azar que se prueban para poner una obrera antes de dejarlo para otro turno.
+     */
+    private static final int INTENTOS_PUESTA = 8;
+    /**
+     * Valor que indica que no se ha encontrado celda (no es ninguna celda del mapa).
+     */
+    private static final long SIN_CELDA = -1L;
     /**
      * Arreglo de direcciones posibles para el movimiento de hormigas: {derecha, abajo, arriba, izquierda}.
      */
@@ -38,9 +64,64 @@ public class SimuladorColoniasHormigas {
      */
     private Mapa mapa;
     /**
-     * HashMap que almacena todas las hormigas activas con su ID como clave.
+     * Pool con todas las hormigas, por su numero (manejador); las muertas se reciclan en los nacimientos.
+     */
+    private final PoolHormigas hormigas;
+    /**
+     * Indice secundario de las hormigas vivas por su ID (null si la configuración no lo pide).
+     * <p>
+     * Es concurrente porque las reinas añaden hormigas y las guerreras las quitan desde sus hilos.
+     */
+    private final ConcurrentHashMap<String, Hormiga> indicePorId;
+    /**
+     * Colonias de la simulación; la primera tiene el hormiguero del centro del mapa.
+     */
+    private final Colonia[] colonias;
+    /**
+     * Rejilla con el numero de la hormiga que ocupa cada celda, para comprobar colisiones en 0(1).
+     */
+    private final RejillaOcupacion ocupacion;
+    /**
+     * Configuración de arranque (numero de hormigas y modo de ejecución).
+     */
+    private final Configuracion configuracion;
+    /**
+     * Lanzador que ejecuta las hormigas según el modo de ejecución elegido.
+     */
+    private final LanzadorHormigas lanzador;
+    /**
+     * Visualizador que muestra cada frame (null en el modo sin interfaz).
+     */
+    private Visualizador visualizador;
+    /**
+     * Milisegundos entre dos frames de la visualización.
      */
-    private HashMap<String, Hormiga> hormigas;
+    private final int periodoVisualizacion;
+    /**
+     * Observador que recibe los movimientos de las hormigas (null si no hay ninguno).
+     */
+    private volatile ObservadorMovimiento observador;
+    /**
+     * Métricas de la simulación: movimientos aceptados y rechazados por motivo (contadores
+     * repartidos para no frenar a las hormigas) y latencias de colisiones y frames.
+     */
+    private final MetricasSimulacion metricas;
+    /**
+     * Exportador periódico de las métricas a un fichero (null si la configuración no lo pide o no ha empezado).
+     */
+    private ExportadorMetricas exportador;
+    /**
+     * Bitácora binaria de los eventos de las hormigas y del mapa (null si la configuración no la pide).
+     */
+    private final BitacoraMovimientos bitacora;
+    /**
+     * Grabación de Java Flight Recorder con los eventos del simulador (null si la configuración no la pide).
+     */
+    private final RegistroVuelo registroVuelo;
+    /**
+     * Hilo que aplica los pasos de evaporación y difusión de las feromonas (null si no hay feromonas o no ha empezado).
+     */
+    private ScheduledExecutorService relojFeromonas;
     /**
      * Estado de la simulación, controlado con modificadores volátiles para hilos.
      */
@@ -50,92 +131,989 @@ public class SimuladorColoniasHormigas {
      */
     private final Random random;
 
+    /**
+     * Constructor de la clase SimuladorColoniasHormigas con la configuración por defecto.
+     */
+    // 0(1)
+    public SimuladorColoniasHormigas() {
+        this(new Configuracion());
+    }
+
     /**
      * Constructor de la clase SimuladorColoniasHormigas.
      * <p>
-     * Inicializa el mapa, el HashMap de hormigas, el estado de la simulación y el generador aleatorio.
+     * Inicializa el mapa, la rejilla de ocupacion, las colonias con sus hormigueros, el pool de
+     * hormigas, el lanzador de hormigas (con sus regiones en el modo por regiones o el registro del
+     * pool en el modo por generaciones), el estado de la simulación y el generador aleatorio, y
+     * coloca las fuentes de comida y los obstáculos. No crea el visualizador: para eso está
+     * {@link #crear(Configuracion)}.
+     * <p>
+     * Si la configuración pide restaurar un punto de control, antes la ajusta al mapa y las
+     * colonias guardadas y no coloca comida ni obstáculos: los pondrá generarHormigas() al
+     * restaurar el punto de control.
+     * <p>
+     * Si la configuración pide una bitácora, la abre antes de crear las colonias para apuntar
+     * desde el principio los hormigueros, la comida y los obstáculos.
+     *
+     * @param configuracion Configuración de arranque del simulador.
+     * @throws UncheckedIOException si no se puede leer el punto de control a restaurar o crear la bitácora.
      */
     // creamos el constructor
-    // 0(1) -> no recorre ninguna estructura solo inicializa los atributos
-    public SimuladorColoniasHormigas() {
-        this.mapa = new Mapa();
-        this.hormigas = new HashMap<>();
+    // 0((c + 1) * ancho * alto + n + f + m * LONGITUD_MURO) -> c = colonias (un campo de
+    // direcciones por colonia, más el de feromonas), n = capacidad del pool, f = fuentes de comida,
+    // m = muros (más lo que cueste corregir los campos de direcciones)
+    public SimuladorColoniasHormigas(Configuracion configuracion) {
+        this.configuracion = ajustarAlPuntoControl(configuracion);
+        this.mapa = new Mapa(configuracion.getAncho(), configuracion.getAlto());
+        if (configuracion.isFeromonas()) {
+            mapa.activarFeromonas(configuracion.isFeromonasParalelo(), configuracion.isFeromonasVectorial());
+        }
+        this.ocupacion = new RejillaOcupacion(mapa.getAncho(), mapa.getAlto());
+        this.bitacora = abrirBitacora();
+        this.registroVuelo = abrirRegistroVuelo();
+        this.colonias = crearColonias();
+        this.hormigas = new PoolHormigas(capacidadTotal(colonias));
+        this.lanzador = new LanzadorHormigas(configuracion.getModo(), configuracion.getEjecutor(),
+                configuracion.getModo() == ModoEjecucion.REGIONES
+                        ? new PlanificadorRegiones(mapa.getAncho(), mapa.getAlto(), configuracion.getRegiones()) : null,
+                configuracion.getModo() == ModoEjecucion.RUEDA ? new PlanificadorRueda(configuracion.getTrabajadores()) : null,
+                configuracion.getModo() == ModoEjecucion.GENERACIONES
+                        ? new PlanificadorGeneraciones(configuracion.getTrabajadores(), hormigas.getRegistro()) : null);
+        this.indicePorId = configuracion.isIndicePorId() ? new ConcurrentHashMap<>() : null;
+        this.observador = null;
+        this.metricas = new MetricasSimulacion();
+        this.periodoVisualizacion = 1000 / configuracion.getFps();
         this.simulacionActiva = false;
         this.random = new Random();
+        if (configuracion.getFicheroRestaurar() == null) {
+            generarComida();
+            generarObstaculos();
+        }
+        this.visualizador = null;
+    }
+
+    /**
+     * Crea un simulador y, si la configuración tiene interfaz, le pone un {@link VisualizadorConsola}.
+     * <p>
+     * El visualizador se crea con el simulador ya construido, porque se registra en él como
+     * observador de movimientos.
+     *
+     * @param configuracion Configuración de arranque del simulador.
+     * @return El simulador.
+     * @throws UncheckedIOException si no se puede leer el punto de control a restaurar o crear la bitácora.
+     */
+    // 0(1)
+    public static SimuladorColoniasHormigas crear(Configuracion configuracion) {
+        SimuladorColoniasHormigas simulador = new SimuladorColoniasHormigas(configuracion);
+        if (simulador.configuracion.isConInterfaz()) {
+            simulador.setVisualizador(new VisualizadorConsola(simulador, simulador.configuracion.isRenderIncremental()));
+        }
+        return simulador;
     }
 
 
     /**
      * Verificamos si una posicion esta ocupada por otra hormiga
      * <p>
-     * Este metodo es sincronizado para evitar que multiples hormigas intenten moverse simultaneamente
-     * @param posicion
-     * @param idHormigaActual
-     * @return
+     * Consulta directamente la rejilla de ocupacion, sin recorrer las hormigas.
+     * @param posicion Posicion a comprobar
+     * @param numeroHormigaActual Numero de la hormiga que pregunta (no cuenta como ocupante)
+     * @return `true` si otra hormiga esta en esa posicion
+     */
+    // 0(1) -> una lectura en la rejilla
+    public boolean posicionOcupada(Posicion posicion, int numeroHormigaActual){
+        if (!mapa.dentroLimites(posicion)){
+            return false;
+        }
+        return ocupacion.ocupadaPorOtra(posicion.getX(), posicion.getY(), numeroHormigaActual);
+    }
+
+    /**
+     * Crea las colonias de la configuración con sus hormigueros.
+     * <p>
+     * La primera usa el hormiguero del centro del mapa y las demás se reparten en un círculo
+     * alrededor, cada una con su propio campo de direcciones para volver a casa.
+     *
+     * @return Las colonias.
+     * @throws IllegalArgumentException si los hormigueros no caben en el mapa.
+     */
+    // 0(c * ancho * alto) -> c = colonias (un campo de direcciones por colonia)
+    private Colonia[] crearColonias() {
+        int numero = configuracion.getColonias();
+        long libres = mapa.getNumeroCeldas() - numero;
+        int crias = configuracion.getCrias();
+        int[] capacidades = new int[TipoHormiga.values().length];
+        capacidades[TipoHormiga.OBRERA.ordinal()] = (int) Math.max(0, Math.min((long) configuracion.getNumeroHormigas() + crias, libres));
+        capacidades[TipoHormiga.GUERRERA.ordinal()] = (int) Math.max(0, Math.min(configuracion.getGuerreras(), libres));
+        capacidades[TipoHormiga.REINA.ordinal()] = crias > 0 ? 1 : 0;
+
+        Colonia[] creadas = new Colonia[numero];
+        Posicion centro = mapa.getHormiguero();
+        int radio = Math.min(mapa.getAncho(), mapa.getAlto()) / 3;
+        for (int i = 0; i < numero; i++) {
+            Posicion hormiguero;
+            CampoDirecciones campo;
+            if (i == 0) {
+                hormiguero = centro;
+                campo = mapa.getCampoHormiguero();
+            } else {
+                double angulo = 2 * Math.PI * (i - 1) / (numero - 1);
+                int x = centro.getX() + (int) Math.round(radio * Math.cos(angulo));
+                int y = centro.getY() + (int) Math.round(radio * Math.sin(angulo));
+                if (!mapa.dentroLimites(x, y) || mapa.esHormiguero(x, y)) {
+                    throw new IllegalArgumentException("No caben " + numero + " colonias en un mapa de "
+                            + mapa.getAncho() + " x " + mapa.getAlto());
+                }
+                hormiguero = mapa.agregarHormiguero(x, y);
+                campo = mapa.getCampoHormiguero() == null ? null : mapa.crearCampoDirecciones(x, y);
+            }
+            creadas[i] = new Colonia(i + 1, hormiguero, campo, capacidades);
+            if (bitacora != null) {
+                bitacora.apuntarMapa(hormiguero.getX(), hormiguero.getY(), BitacoraMovimientos.COLONIA, i + 1);
+            }
+        }
+        return creadas;
+    }
+
+    /**
+     * Abre la bitácora de la configuración, si pide una.
+     *
+     * @return La bitácora, o null.
+     * @throws UncheckedIOException si no se puede crear.
+     */
+    // 0(1)
+    private BitacoraMovimientos abrirBitacora() {
+        if (configuracion.getFicheroBitacora() == null) {
+            return null;
+        }
+        Path base = Path.of(configuracion.getFicheroBitacora());
+        try {
+            return new BitacoraMovimientos(base, mapa.getAncho(), mapa.getAlto());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede crear la bitacora " + base, e);
+        }
+    }
+
+    /**
+     * Empieza la grabación de Java Flight Recorder si la configuración la pide.
+     *
+     * @return La grabación, o null.
+     * @throws UncheckedIOException si no se puede empezar.
      */
-    public synchronized boolean posicionOcupada(Posicion posicion, String idHormigaActual){
-        for (Hormiga hormiga : hormigas.values()){
-            //No comparar con la misma hormiga
-            if(hormiga.getIdHormiga().equals(idHormigaActual)){
-                continue;
+    // 0(1)
+    private RegistroVuelo abrirRegistroVuelo() {
+        if (configuracion.getFicheroJfr() == null) {
+            return null;
+        }
+        Path fichero = Path.of(configuracion.getFicheroJfr());
+        try {
+            return new RegistroVuelo(fichero);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede empezar la grabacion JFR " + fichero, e);
+        }
+    }
+
+    /**
+     * Suma la capacidad de todos los tipos de todas las colonias.
+     *
+     * @param colonias Las colonias.
+     * @return El numero máximo de hormigas que se pueden crear.
+     * @throws IllegalArgumentException si no caben en un int.
+     */
+    // 0(c) -> c = colonias
+    private static int capacidadTotal(Colonia[] colonias) {
+        long total = 0;
+        for (Colonia colonia : colonias) {
+            for (TipoHormiga tipo : TipoHormiga.values()) {
+                total += colonia.getCapacidad(tipo);
             }
+        }
+        if (total >= Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Demasiadas hormigas: " + total);
+        }
+        return (int) total;
+    }
 
-            //Verificar si la otra hormiga esta en esa posicion
-            Posicion posHormiga = hormiga.getPosicion();
-            if (posHormiga.getX() == posicion.getX() && posHormiga.getY() == posicion.getY()){
-                return true; //Posicion ocupada
+    /**
+     * Ajusta la configuración al punto de control que hay que restaurar, si hay alguno.
+     *
+     * @param configuracion Configuración de arranque.
+     * @return La misma configuración.
+     * @throws UncheckedIOException si no se puede leer el punto de control.
+     */
+    // 0(1)
+    private static Configuracion ajustarAlPuntoControl(Configuracion configuracion) {
+        if (configuracion.getFicheroRestaurar() != null) {
+            try {
+                PuntoControl.leerConfiguracion(Path.of(configuracion.getFicheroRestaurar()), configuracion);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se puede leer el punto de control " + configuracion.getFicheroRestaurar(), e);
             }
         }
-        return false; //Posicion libre
+        return configuracion;
+    }
+
+    /**
+     * Coloca al azar las fuentes de comida de la configuración.
+     */
+    // 0(f) -> f = numero de fuentes
+    private void generarComida() {
+        for (int i = 0; i < configuracion.getFuentesComida(); i++) {
+            mapa.colocarFuenteComida(random.nextInt(mapa.getAncho()), random.nextInt(mapa.getAlto()));
+        }
+        apuntarComida();
     }
 
     /**
-     * Genera hormigas obreras y LAS INICIA COMO HILOS.
+     * Apunta en la bitácora (si hay) la comida de cada celda.
      * <p>
-     * IMPORTANTE: Aquí se llama a start() que lanza el run() de cada hormiga.
+     * Se llama una vez, al colocar la comida inicial o al restaurarla de un punto de control;
+     * después la bitácora solo apunta las unidades que toman las obreras.
      */
-    // Creamos los metodos
-    // metodo generar hormigas obreras y las iniciamos con hilos
-    public void generarHormigaObrera() {
-        System.out.println("\n---- Generando " + NUMERO_HORMIGUERO + " Hormigas obreras ----\n");
+    // 0(c) -> c = celdas con comida
+    final void apuntarComida() {
+        if (bitacora == null) {
+            return;
+        }
+        RejillaComida comida = mapa.getComida();
+        for (int i = 0; i < comida.getNumeroCeldas(); i++) {
+            long celda = comida.getCelda(i);
+            int x = Posicion.xDe(celda);
+            int y = Posicion.yDe(celda);
+            bitacora.apuntarMapa(x, y, BitacoraMovimientos.COMIDA_PUESTA, comida.cantidad(x, y));
+        }
+    }
+
+    /**
+     * Coloca al azar los muros de la configuración, en horizontal o en vertical.
+     * <p>
+     * Se colocan antes que las hormigas; las celdas de un muro que caen en el hormiguero, en la
+     * comida o fuera del mapa se saltan.
+     */
+    // 0(m * LONGITUD_MURO) -> m = numero de muros (más lo que cueste corregir el campo de direcciones)
+    private void generarObstaculos() {
+        for (int i = 0; i < configuracion.getMuros(); i++) {
+            int x = random.nextInt(mapa.getAncho());
+            int y = random.nextInt(mapa.getAlto());
+            boolean horizontal = random.nextBoolean();
+            for (int j = 0; j < LONGITUD_MURO; j++) {
+                ponerObstaculo(horizontal ? x + j : x, horizontal ? y : y + j);
+            }
+        }
+    }
 
-        // Creamos el bucle para generar las hormigas una a una
-        for (int i = 0; i < NUMERO_HORMIGUERO; i++) {
+    /**
+     * Coloca un obstáculo en una celda libre.
+     * <p>
+     * Reserva la celda en la rejilla de ocupación para siempre (así ninguna hormiga puede entrar)
+     * y la apunta en el mapa, que corrige los campos de direcciones.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return `true` si se ha colocado, `false` si la celda está fuera del mapa, es el hormiguero,
+     * tiene comida o está ocupada.
+     */
+    // 0(1) más lo que cueste corregir los campos de direcciones
+    public boolean colocarObstaculo(int x, int y) {
+        return ponerObstaculo(x, y);
+    }
 
-            //Generar posicion aleatoria evitando el hormiguero
-            Posicion posicionInicial;
-            do{
-                int x = random.nextInt(Mapa.ANCHO);
-                int y = random.nextInt(Mapa.ALTO);
-                posicionInicial = new Posicion(x, y);
-            }while (posicionInicial.getX() == mapa.getHormiguero().getX() && posicionInicial.getY() == mapa.getHormiguero().getY());
+    /**
+     * Hace el trabajo de {@link #colocarObstaculo(int, int)} (también desde el constructor).
+     */
+    // 0(1) más lo que cueste corregir los campos de direcciones
+    private boolean ponerObstaculo(int x, int y) {
+        if (!mapa.dentroLimites(x, y) || mapa.esHormiguero(x, y) || mapa.getComida().cantidad(x, y) > 0) {
+            return false;
+        }
+        if (!ocupacion.ocupar(x, y, RejillaOcupacion.OBSTACULO)) {
+            return false;
+        }
+        mapa.registrarObstaculo(x, y);
+        if (bitacora != null) {
+            bitacora.apuntarMapa(x, y, BitacoraMovimientos.OBSTACULO_PUESTO, 0);
+        }
+        return true;
+    }
 
-            // Creamos el identificador unico para cada hormiga
-            String id = "OBRERA_" + (i + 1);
+    /**
+     * Quita el obstáculo de una celda.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return `true` si había un obstáculo y se ha quitado.
+     */
+    // 0(1) más lo que cueste corregir los campos de direcciones
+    public boolean quitarObstaculo(int x, int y) {
+        if (!mapa.dentroLimites(x, y) || ocupacion.propietario(x, y) != RejillaOcupacion.OBSTACULO) {
+            return false;
+        }
+        mapa.retirarObstaculo(x, y);
+        ocupacion.liberar(x, y, RejillaOcupacion.OBSTACULO);
+        if (bitacora != null) {
+            bitacora.apuntarMapa(x, y, BitacoraMovimientos.OBSTACULO_QUITADO, 0);
+        }
+        return true;
+    }
 
-            // creamos nueva hormiga obrera con su ID y su posicion inical
-            Hormiga obrera = new HormigaObrera(id, posicionInicial);
+    /**
+     * Obtiene la primera colonia (la del hormiguero del centro del mapa).
+     *
+     * @return La colonia.
+     */
+    public Colonia getColonia(){
+        return colonias[0];
+    }
 
-            //Asignamos referencia al mapa
-            obrera.setMapa(mapa);
+    /**
+     * Obtiene todas las colonias de la simulación.
+     *
+     * @return Las colonias (el arreglo es el del simulador, no se debe modificar).
+     */
+    public Colonia[] getColonias(){
+        return colonias;
+    }
 
-            //asignamos referencia al simulador
-            obrera.setSimulador(this);
+    /**
+     * Obtiene las unidades de comida entregadas por todas las colonias.
+     *
+     * @return La comida entregada.
+     */
+    // 0(c) -> c = colonias
+    public long getComidaEntregada(){
+        long total = 0;
+        for (Colonia colonia : colonias) {
+            total += colonia.getComidaEntregada();
+        }
+        return total;
+    }
 
-            // La agregamos al hasmap
-            hormigas.put(id, obrera);
+    /**
+     * Obtiene las unidades de comida recogidas por todas las colonias.
+     *
+     * @return La comida recogida.
+     */
+    // 0(c) -> c = colonias
+    public long getComidaRecogida(){
+        long total = 0;
+        for (Colonia colonia : colonias) {
+            total += colonia.getComidaRecogida();
+        }
+        return total;
+    }
 
-            //Iniciar el hilo (llamamos con esto al run())
-            obrera.start();
+    /**
+     * Obtiene la hormiga que tiene un numero.
+     *
+     * @param numero Numero de la hormiga (el que guarda la rejilla de ocupación).
+     * @return La hormiga, o null si no hay ninguna viva con ese numero.
+     */
+    // 0(1)
+    public Hormiga getHormiga(int numero){
+        return hormigas.get(numero);
+    }
 
-            // que nos muestre la informacion de las hormigas creadas
-            System.out.println("Hormiga creada: " + obrera.toString());
+    /**
+     * Obtiene una hormiga viva por su ID.
+     * <p>
+     * Con el indice por ID de la configuración es 0(1); sin él recorre el pool.
+     *
+     * @param id ID de la hormiga (por ejemplo "OBRERA_7").
+     * @return La hormiga, o null si no hay ninguna viva con ese ID.
+     */
+    // 0(1) con indice, 0(n) sin él
+    public Hormiga getHormigaPorId(String id){
+        if (indicePorId != null) {
+            return indicePorId.get(id);
         }
-        // Mostramos el resumen final de las hormigas mostradas
-        System.out.println("\nSe han generado " + hormigas.size() + " hormigas obreras.\n");
+        for (Hormiga hormiga : hormigas) {
+            if (hormiga.getIdHormiga().equals(id)) {
+                return hormiga;
+            }
+        }
+        return null;
+    }
 
-        // llamamos actualizarVisualizacion para refrescar el mapa
-        actualizarVisualizacion();
+    /**
+     * Mata una hormiga: la detiene, la quita de su colonia y del pool y libera su celda.
+     * <p>
+     * Su numero, su ranura en la colonia y el propio objeto no se reciclan hasta que termina su
+     * hilo (ver {@link #reciclar(Hormiga)}).
+     * <p>
+     * Se puede llamar desde cualquier hilo; si varias hormigas matan a la misma a la vez solo
+     * cuenta la primera.
+     *
+     * @param hormiga La hormiga.
+     * @return `true` si estaba viva y ahora está muerta.
+     */
+    // 0(1)
+    public boolean matarHormiga(Hormiga hormiga){
+        if (!hormiga.morir()) {
+            return false;
+        }
+        hormigas.retirar(hormiga.getNumero());
+        if (indicePorId != null) {
+            indicePorId.remove(hormiga.getIdHormiga(), hormiga);
+        }
+        if (bitacora != null) {
+            long coordenadas = hormiga.getCoordenadas();
+            bitacora.apuntar(hormiga.getNumero(), Posicion.xDe(coordenadas), Posicion.yDe(coordenadas),
+                    BitacoraMovimientos.MUERTA, hormiga.getTipo());
+        }
+        Colonia suya = hormiga.getColonia();
+        if (suya != null) {
+            suya.quitar(hormiga.getTipo(), hormiga.getIndiceColonia());
+        }
+        retirarCuerpo(hormiga);
+        return true;
+    }
+
+    /**
+     * Libera la celda de una hormiga muerta, si todavía es suya.
+     * <p>
+     * Lo llama quien la mata y también la propia hormiga al terminar su hilo, por si se movió
+     * mientras la mataban: la rejilla solo libera la celda si sigue siendo de esa hormiga.
+     *
+     * @param hormiga La hormiga muerta.
+     */
+    // 0(1)
+    public void retirarCuerpo(Hormiga hormiga){
+        long coordenadas = hormiga.getCoordenadas();
+        int x = Posicion.xDe(coordenadas);
+        int y = Posicion.yDe(coordenadas);
+        ocupacion.liberar(x, y, hormiga.getNumero());
+        ObservadorMovimiento actual = observador;
+        if (actual != null){
+            actual.hormigaRetirada(hormiga, x, y);
+        }
+    }
+
+    /**
+     * Devuelve al pool una hormiga muerta cuyo hilo ha terminado, junto con su ranura en la colonia.
+     * <p>
+     * Lo llama la propia hormiga como último paso de su hilo; a partir de aquí el siguiente
+     * nacimiento de su tipo puede reutilizar el objeto, su numero y su ranura.
+     *
+     * @param hormiga La hormiga muerta.
+     */
+    // 0(1)
+    public void reciclar(Hormiga hormiga){
+        Colonia suya = hormiga.getColonia();
+        if (suya != null) {
+            suya.liberarRanura(hormiga.getTipo(), hormiga.getIndiceColonia());
+        }
+        hormigas.devolver(hormiga.getNumero(), hormiga.getTipo());
+    }
+
+    /**
+     * Hace nacer una obrera de una colonia en una celda libre cerca de su hormiguero.
+     * <p>
+     * Lo llaman las reinas desde su hilo. Solo nacen obreras mientras la simulación está activa,
+     * para que no se lance ninguna después de detener a las demás.
+     *
+     * @param colonia La colonia.
+     * @return La obrera nacida, o null si no hay sitio cerca del hormiguero, la colonia está llena
+     * o la simulación no está activa.
+     */
+    // 0(1) -> como mucho INTENTOS_PUESTA celdas
+    public synchronized HormigaObrera nacerObrera(Colonia colonia){
+        if (!simulacionActiva) {
+            return null;
+        }
+        return (HormigaObrera) crearHormiga(colonia, TipoHormiga.OBRERA, colonia.getHormiguero(), false, 0);
+    }
+
+    /**
+     * Crea una hormiga de una colonia en una celda libre, la registra y la lanza.
+     * <p>
+     * Si el pool tiene una hormiga muerta del mismo tipo la reutiliza con su numero, así que un
+     * nacimiento no crea ningun objeto (aparte del hilo que la ejecuta).
+     *
+     * @param colonia     Colonia de la hormiga.
+     * @param tipo        Tipo de la hormiga.
+     * @param cerca       Si no es null, la hormiga se pone a RADIO_PUESTA celdas como mucho de aquí.
+     * @param obligatoria Si es `true` y no hay sitio cerca, se pone en cualquier celda libre del mapa.
+     * @param crias       Obreras que pondrá (solo para las reinas).
+     * @return La hormiga creada, o null si no hay sitio o la colonia no admite más de ese tipo.
+     */
+    // 0(1) esperado mientras queden celdas libres
+    private synchronized Hormiga crearHormiga(Colonia colonia, TipoHormiga tipo, Posicion cerca, boolean obligatoria, int crias){
+        int numero = hormigas.reservar(tipo);
+        if (numero == PoolHormigas.SIN_HORMIGA) {
+            return null;
+        }
+
+        // 1. Reservar la celda con el numero de la nueva hormiga
+        long celda = cerca == null ? SIN_CELDA : celdaCerca(cerca, numero);
+        if (celda == SIN_CELDA && obligatoria) {
+            celda = celdaAlAzar(numero);
+        }
+        if (celda == SIN_CELDA) {
+            hormigas.devolver(numero, tipo);
+            return null;
+        }
+        int x = Posicion.xDe(celda);
+        int y = Posicion.yDe(celda);
+
+        // 2. Reservar su ranura en la colonia
+        int ranura = colonia.agregar(tipo, numero);
+        if (ranura < 0) {
+            ocupacion.liberar(x, y, numero);
+            hormigas.devolver(numero, tipo);
+            return null;
+        }
+
+        // 3. Reutilizar la hormiga muerta del numero o crear una de su tipo, y registrarla
+        Hormiga hormiga = hormigas.reutilizable(numero);
+        if (hormiga != null) {
+            hormiga.renacer(x, y);
+            if (hormiga instanceof HormigaReina reina) {
+                reina.setCrias(crias);
+            }
+        } else {
+            hormiga = nuevaHormiga(tipo, numero, x, y, crias);
+        }
+        hormiga.setColonia(colonia, ranura);
+
+        // 4. Publicarla, avisar al observador y lanzar su hilo
+        publicarHormiga(hormiga, x, y);
+        return hormiga;
+    }
+
+    /**
+     * Restaura una hormiga de un punto de control con su numero, ya reservado en el pool.
+     *
+     * @param numero           Numero de la hormiga.
+     * @param tipo             Tipo de la hormiga.
+     * @param numeroColonia    Numero de su colonia (0 si no tiene).
+     * @param coordenadas      Sus coordenadas empaquetadas.
+     * @param estado           Su estado si es una obrera de una colonia.
+     * @param crias            Obreras que le quedan por poner si es una reina.
+     * @param estadoAleatorio  Estado de su generador aleatorio.
+     * @return La hormiga restaurada.
+     * @throws IllegalArgumentException si su celda o su colonia no son validas.
+     */
+    // 0(1)
+    Hormiga restaurarHormiga(int numero, TipoHormiga tipo, int numeroColonia, long coordenadas, byte estado,
+                             int crias, long estadoAleatorio) {
+        int x = Posicion.xDe(coordenadas);
+        int y = Posicion.yDe(coordenadas);
+        if (numeroColonia < 0 || numeroColonia > colonias.length) {
+            throw new IllegalArgumentException("La hormiga " + numero + " es de una colonia que no existe: " + numeroColonia);
+        }
+        if (!mapa.dentroLimites(x, y) || !ocupacion.ocupar(x, y, numero)) {
+            throw new IllegalArgumentException("La celda (" + x + ", " + y + ") de la hormiga " + numero + " no esta libre");
+        }
+        Hormiga hormiga = nuevaHormiga(tipo, numero, x, y, crias);
+        if (numeroColonia > 0) {
+            Colonia colonia = colonias[numeroColonia - 1];
+            int ranura = colonia.agregar(tipo, numero);
+            if (ranura < 0) {
+                throw new IllegalArgumentException("No cabe la hormiga " + numero + " en la colonia " + numeroColonia);
+            }
+            hormiga.setColonia(colonia, ranura);
+            if (tipo == TipoHormiga.OBRERA) {
+                colonia.setEstado(ranura, estado);
+            }
+        }
+        hormiga.setEstadoAleatorio(estadoAleatorio);
+        publicarHormiga(hormiga, x, y);
+        return hormiga;
+    }
+
+    /**
+     * Crea una hormiga nueva de un tipo, con el mapa y el simulador ya puestos.
+     */
+    // 0(1)
+    private Hormiga nuevaHormiga(TipoHormiga tipo, int numero, int x, int y, int crias) {
+        String id = tipo.name() + "_" + numero;
+        Posicion posicion = new Posicion(x, y);
+        Hormiga hormiga;
+        switch (tipo) {
+            case GUERRERA:
+                hormiga = new HormigaGuerrera(id, numero, posicion);
+                break;
+            case REINA:
+                hormiga = new HormigaReina(id, numero, posicion, crias);
+                break;
+            default:
+                hormiga = new HormigaObrera(id, numero, posicion);
+                break;
+        }
+        hormiga.setMapa(mapa);
+        hormiga.setSimulador(this);
+        return hormiga;
+    }
+
+    /**
+     * Pone en el pool (y en el indice por ID) una hormiga que ya ocupa su celda, apunta su
+     * nacimiento en la bitácora, avisa al observador y la lanza.
+     */
+    // 0(1)
+    private void publicarHormiga(Hormiga hormiga, int x, int y) {
+        hormigas.publicar(hormiga.getNumero(), hormiga);
+        if (indicePorId != null) {
+            indicePorId.put(hormiga.getIdHormiga(), hormiga);
+        }
+        if (bitacora != null) {
+            bitacora.apuntar(hormiga.getNumero(), x, y, BitacoraMovimientos.NACIDA, hormiga.getTipo());
+        }
+        ObservadorMovimiento actual = observador;
+        if (actual != null){
+            actual.hormigaColocada(hormiga, x, y);
+        }
+        lanzador.lanzar(hormiga);
+    }
+
+    /**
+     * Busca y reserva una celda libre al azar cerca de una posición.
+     *
+     * @param centro Posición de referencia.
+     * @param numero Numero con el que se reserva la celda.
+     * @return La celda empaquetada, o SIN_CELDA si ninguna de las probadas estaba libre.
+     */
+    // 0(INTENTOS_PUESTA)
+    private long celdaCerca(Posicion centro, int numero){
+        for (int i = 0; i < INTENTOS_PUESTA; i++) {
+            int x = centro.getX() + random.nextInt(2 * RADIO_PUESTA + 1) - RADIO_PUESTA;
+            int y = centro.getY() + random.nextInt(2 * RADIO_PUESTA + 1) - RADIO_PUESTA;
+            if (mapa.dentroLimites(x, y) && !mapa.esHormiguero(x, y) && ocupacion.ocupar(x, y, numero)) {
+                return Posicion.empaquetar(x, y);
+            }
+        }
+        return SIN_CELDA;
+    }
+
+    /**
+     * Busca y reserva una celda libre al azar en todo el mapa, evitando los hormigueros.
+     * <p>
+     * Hay que comprobar antes que quedan celdas libres, porque reintenta hasta encontrar una.
+     *
+     * @param numero Numero con el que se reserva la celda.
+     * @return La celda empaquetada.
+     */
+    // 0(1) esperado mientras el mapa no esté casi lleno
+    private long celdaAlAzar(int numero){
+        int x;
+        int y;
+        do{
+            x = random.nextInt(mapa.getAncho());
+            y = random.nextInt(mapa.getAlto());
+        }while (mapa.esHormiguero(x, y) || !ocupacion.ocupar(x, y, numero));
+        return Posicion.empaquetar(x, y);
+    }
+
+    /**
+     * Obtiene la rejilla de ocupacion del simulador.
+     * <p>
+     * Las hormigas la usan para ocupar su nueva celda y liberar la anterior en un solo paso.
+     *
+     * @return La rejilla de ocupacion.
+     */
+    public RejillaOcupacion getOcupacion(){
+        return ocupacion;
+    }
+
+    /**
+     * Avisa al observador de movimientos (si hay) de que una hormiga se ha movido.
+     * <p>
+     * Lo llaman las hormigas desde su hilo después de actualizar su posición, que también se
+     * apunta en el registro de hormigas y en la bitácora.
+     *
+     * @param hormiga  La hormiga que se ha movido.
+     * @param xOrigen  Coordenada horizontal de la celda que ha dejado.
+     * @param yOrigen  Coordenada vertical de la celda que ha dejado.
+     * @param xDestino Coordenada horizontal de su nueva celda.
+     * @param yDestino Coordenada vertical de su nueva celda.
+     */
+    // 0(1)
+    public void movimientoRealizado(Hormiga hormiga, int xOrigen, int yOrigen, int xDestino, int yDestino){
+        metricas.movimientoAceptado();
+        hormigas.mover(hormiga.getNumero(), Posicion.empaquetar(xDestino, yDestino));
+        if (bitacora != null) {
+            bitacora.apuntar(hormiga.getNumero(), xDestino, yDestino, BitacoraMovimientos.MOVIDA, hormiga.getTipo());
+        }
+        ObservadorMovimiento actual = observador;
+        if (actual != null){
+            actual.hormigaMovida(hormiga, xOrigen, yOrigen, xDestino, yDestino);
+        }
+    }
+
+    /**
+     * Cuenta un intento de movimiento rechazado y lo apunta en la bitácora (si hay).
+     * <p>
+     * Lo llaman las hormigas desde su hilo cuando no pueden entrar en la celda elegida.
+     *
+     * @param hormiga  La hormiga que no se ha movido.
+     * @param xDestino Coordenada horizontal de la celda a la que intentaba ir.
+     * @param yDestino Coordenada vertical de la celda a la que intentaba ir.
+     * @param motivo   {@link BitacoraMovimientos#FUERA}, {@link BitacoraMovimientos#HORMIGUERO} u
+     *                 {@link BitacoraMovimientos#OCUPADA}.
+     */
+    // 0(1)
+    public void movimientoRechazado(Hormiga hormiga, int xDestino, int yDestino, byte motivo){
+        metricas.movimientoRechazado(motivo);
+        if (bitacora != null) {
+            bitacora.apuntar(hormiga.getNumero(), xDestino, yDestino, motivo, hormiga.getTipo());
+        }
+    }
+
+    /**
+     * Apunta en la bitácora (si hay) que una obrera ha tomado una unidad de comida.
+     *
+     * @param hormiga La obrera.
+     * @param x       Coordenada horizontal de la celda.
+     * @param y       Coordenada vertical de la celda.
+     */
+    // 0(1)
+    public void comidaTomada(Hormiga hormiga, int x, int y){
+        if (bitacora != null) {
+            bitacora.apuntar(hormiga.getNumero(), x, y, BitacoraMovimientos.COMIDA_TOMADA, hormiga.getTipo());
+        }
+    }
+
+    /**
+     * Obtiene las métricas de la simulación.
+     *
+     * @return Las métricas.
+     */
+    public MetricasSimulacion getMetricas(){
+        return metricas;
+    }
+
+    /**
+     * Obtiene la bitácora de la simulación.
+     *
+     * @return La bitácora, o null si la configuración no la pide.
+     */
+    public BitacoraMovimientos getBitacora(){
+        return bitacora;
+    }
+
+    /**
+     * Indica si se están grabando los eventos del simulador con Java Flight Recorder.
+     * <p>
+     * Las hormigas y la visualización lo miran antes de crear cada evento (ver {@link RegistroVuelo}).
+     *
+     * @return `true` si se arrancó con {@code --jfr}.
+     */
+    // 0(1)
+    public boolean isRegistroVuelo(){
+        return registroVuelo != null;
+    }
+
+    /**
+     * Establece el observador que recibe los movimientos de las hormigas.
+     *
+     * @param observador El observador, o null para no avisar a nadie.
+     */
+    public void setObservador(ObservadorMovimiento observador){
+        this.observador = observador;
+    }
+
+    /**
+     * Establece el visualizador que muestra cada frame.
+     *
+     * @param visualizador El visualizador, o null para no mostrar nada (modo sin interfaz).
+     */
+    public void setVisualizador(Visualizador visualizador){
+        this.visualizador = visualizador;
+    }
+
+    /**
+     * Indica si la simulación tiene visualización.
+     * <p>
+     * Sin interfaz solo se informa de las estadísticas finales, así que no se escriben los
+     * mensajes de cada hormiga.
+     *
+     * @return `true` si hay un visualizador.
+     */
+    public boolean isConInterfaz(){
+        return visualizador != null;
+    }
+
+    /**
+     * Obtiene el mapa de la simulación.
+     *
+     * @return El mapa.
+     */
+    public Mapa getMapa(){
+        return mapa;
+    }
+
+    /**
+     * Obtiene el pool con las hormigas de la simulación.
+     * <p>
+     * Recorrerlo da las hormigas vivas en orden de numero.
+     *
+     * @return El pool de hormigas.
+     */
+    public PoolHormigas getHormigas(){
+        return hormigas;
+    }
+
+    /**
+     * Obtiene el lanzador que ejecuta las hormigas según el modo de ejecución.
+     *
+     * @return El lanzador.
+     */
+    public LanzadorHormigas getLanzador(){
+        return lanzador;
+    }
+
+    /**
+     * Obtiene los milisegundos entre dos frames de la visualización.
+     *
+     * @return El periodo de visualización.
+     */
+    public int getPeriodoVisualizacion(){
+        return periodoVisualizacion;
+    }
+
+    /**
+     * Obtiene el numero de movimientos aceptados desde el principio.
+     *
+     * @return Los movimientos aceptados.
+     */
+    public long getMovimientos(){
+        return metricas.getAceptados();
+    }
+
+    /**
+     * Suma al contador de movimientos los de un punto de control.
+     *
+     * @param guardados Movimientos aceptados guardados en el punto de control.
+     */
+    // 0(1)
+    void restaurarMovimientos(long guardados){
+        metricas.sumarAceptados(guardados);
+    }
+
+    /**
+     * Obtiene la configuración de arranque del simulador.
+     *
+     * @return La configuración.
+     */
+    public Configuracion getConfiguracion(){
+        return configuracion;
+    }
+
+    /**
+     * Indica si la simulación está activa.
+     *
+     * @return `true` si está activa.
+     */
+    public boolean isSimulacionActiva(){
+        return simulacionActiva;
+    }
+
+    /**
+     * Genera las hormigas de todas las colonias y LAS INICIA COMO HILOS.
+     * <p>
+     * Cada colonia recibe sus obreras y sus guerreras en celdas al azar y, si la configuración
+     * tiene crías, una reina al lado de su hormiguero que irá poniendo más obreras.
+     * <p>
+     * IMPORTANTE: Aquí se llama al lanzador, que ejecuta el run() de cada hormiga en el tipo de
+     * hilo elegido en la configuración.
+     */
+    // Creamos los metodos
+    // metodo generar hormigas de las colonias y las iniciamos con hilos
+    // 0(n) -> n = hormigas generadas
+    public void generarHormigas() {
+        // Con un punto de control se restauran sus hormigas en lugar de generar otras
+        if (configuracion.getFicheroRestaurar() != null) {
+            restaurarPuntoControl();
+            iniciarFeromonas();
+            iniciarMetricas();
+            return;
+        }
+
+        // No caben mas hormigas que celdas libres (todas menos los hormigueros y los obstaculos)
+        int[] porTipo = new int[TipoHormiga.values().length];
+        porTipo[TipoHormiga.REINA.ordinal()] = configuracion.getCrias() > 0 ? 1 : 0;
+        porTipo[TipoHormiga.OBRERA.ordinal()] = configuracion.getNumeroHormigas();
+        porTipo[TipoHormiga.GUERRERA.ordinal()] = configuracion.getGuerreras();
+        long pedidas = 0;
+        for (int cantidad : porTipo) {
+            pedidas += (long) cantidad * colonias.length;
+        }
+        long libres = mapa.getNumeroCeldas() - mapa.getNumeroHormigueros() - mapa.getNumeroObstaculos();
+        if (pedidas > libres) {
+            System.err.println("Error: no caben " + pedidas + " hormigas en el mapa, se generaran " + libres);
+        }
+        long restantes = Math.min(pedidas, libres);
+
+        boolean conInterfaz = isConInterfaz();
+        if (conInterfaz) {
+            System.out.println("\n---- Generando " + restantes + " Hormigas en " + colonias.length + " colonia(s) ("
+                    + lanzador.getModo().getNombre() + ") ----\n");
+        }
+
+        // Creamos el bucle para generar las hormigas una a una: la reina primero, al lado de su hormiguero
+        int generadas = 0;
+        TipoHormiga[] orden = {TipoHormiga.REINA, TipoHormiga.OBRERA, TipoHormiga.GUERRERA};
+        for (Colonia colonia : colonias) {
+            for (TipoHormiga tipo : orden) {
+                Posicion cerca = tipo == TipoHormiga.REINA ? colonia.getHormiguero() : null;
+                for (int i = 0; i < porTipo[tipo.ordinal()] && generadas < restantes; i++) {
+                    Hormiga hormiga = crearHormiga(colonia, tipo, cerca, true, configuracion.getCrias());
+                    if (hormiga == null) {
+                        break; // la colonia no admite mas de este tipo
+                    }
+                    // que nos muestre la informacion de las hormigas creadas (solo las primeras)
+                    if (conInterfaz && generadas < MAX_HORMIGAS_LISTADAS) {
+                        System.out.println("Hormiga creada: " + hormiga.toString());
+                    }
+                    generadas++;
+                }
+            }
+        }
+        // Las feromonas se evaporan y difunden a ritmo fijo mientras las hormigas se mueven
+        iniciarFeromonas();
+        iniciarMetricas();
+
+        // Mostramos el resumen final de las hormigas mostradas y refrescamos el mapa
+        if (conInterfaz) {
+            System.out.println("\nSe han generado " + generadas + " hormigas.\n");
+            actualizarVisualizacion();
+        }
+    }
+
+    /**
+     * Arranca el hilo que aplica un paso al campo de feromonas cada PERIODO_FEROMONAS milisegundos.
+     * <p>
+     * No hace nada si el mapa no tiene feromonas o si ya está arrancado.
+     */
+    // 0(1)
+    private void iniciarFeromonas() {
+        CampoFeromonas feromonas = mapa.getFeromonas();
+        if (feromonas == null || relojFeromonas != null) {
+            return;
+        }
+        relojFeromonas = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "feromonas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        relojFeromonas.scheduleAtFixedRate(feromonas::paso, PERIODO_FEROMONAS, PERIODO_FEROMONAS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Empieza a escribir las métricas en el fichero de la configuración, si pide uno.
+     * <p>
+     * No hace nada si ya está escribiendo; si no se puede crear el fichero avisa y sigue sin él.
+     */
+    // 0(1)
+    private void iniciarMetricas() {
+        if (configuracion.getFicheroMetricas() == null || exportador != null) {
+            return;
+        }
+        Path fichero = Path.of(configuracion.getFicheroMetricas());
+        try {
+            exportador = new ExportadorMetricas(this, fichero, configuracion.getPeriodoMetricas());
+        } catch (IOException e) {
+            System.err.println("Error al crear el fichero de metricas " + fichero + ": " + e.getMessage());
+        }
     }
 
     /**
@@ -147,8 +1125,8 @@ public class SimuladorColoniasHormigas {
     public void ejecutar() {
         System.out.println("||||| INICIO DE SIMULACION |||||");
 
-        //generar las hormigas obreras
-        generarHormigaObrera();
+        //generar las hormigas de las colonias
+        generarHormigas();
 
         //Mostramos el estado inicial
         System.out.println("---Estado inicial---");
@@ -181,7 +1159,7 @@ public class SimuladorColoniasHormigas {
                 System.out.println("Iteracion: " + (iteracion + 1) + " de " + iteracionesMinimas + "\n");
 
                 //Esperamos antes de la siguiente actualizacion
-                Thread.sleep(INTERVALO_ACTUALIZACION);
+                Thread.sleep(periodoVisualizacion);
 
                 iteracion++;
 
@@ -198,6 +1176,114 @@ public class SimuladorColoniasHormigas {
 
     }
 
+    /**
+     * Ejecuta la simulación con el motor por turnos, sin hilos ni esperas.
+     * <p>
+     * Genera las hormigas, avanza el numero de turnos de la configuración y muestra el
+     * resultado. Con la misma semilla la huella final es siempre la misma.
+     */
+    // 0(turnos * n)
+    public void ejecutarPorTurnos() {
+        System.out.println("||||| INICIO DE SIMULACION POR TURNOS |||||");
+        System.out.println("Semilla: " + configuracion.getSemilla());
+
+        MotorPorTurnos motor = new MotorPorTurnos(mapa, configuracion.getNumeroHormigas(), configuracion.getSemilla());
+        motor.generarHormigas(configuracion.getNumeroHormigas(), TipoHormiga.OBRERA);
+
+        long inicio = System.nanoTime();
+        motor.ejecutar(configuracion.getTurnos());
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.println("Hormigas: " + motor.getNumeroHormigas());
+        System.out.println("Turnos simulados: " + motor.getTurno());
+        System.out.println("Movimientos aceptados: " + motor.getMovimientos());
+        System.out.printf("Tiempo: %.3f s (%.0f turnos/s)%n", segundos, motor.getTurno() / segundos);
+        System.out.println("Huella de posiciones: " + Long.toHexString(motor.huella()));
+    }
+
+    /**
+     * Ejecuta la simulación sin interfaz, pensada para lotes.
+     * <p>
+     * Genera las hormigas, las deja moverse durante la duración de la configuración sin dibujar
+     * nada ni hacer preguntas, las detiene y muestra solo las estadísticas finales y el
+     * rendimiento (movimientos por segundo).
+     */
+    public void ejecutarSinInterfaz() {
+        generarHormigas();
+        simulacionActiva = true;
+
+        long inicio = System.nanoTime();
+        long fin = inicio + configuracion.getDuracion() * 1_000_000L;
+        try {
+            long ahora;
+            while (simulacionActiva && (ahora = System.nanoTime()) < fin) {
+                Thread.sleep(Math.max(1, Math.min(INTERVALO_SIN_INTERFAZ, (fin - ahora) / 1_000_000L)));
+            }
+        } catch (InterruptedException e) {
+            System.err.println("Error en la simulacion: " + e.getMessage());
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        long total = getMovimientos();
+
+        detenerSimulacion();
+
+        System.out.println("Hormigas: " + hormigas.getVivas());
+        System.out.println("Tamaño del mapa: " + mapa.getAncho() + " x " + mapa.getAlto()
+                + (mapa.getNumeroObstaculos() > 0 ? " (" + mapa.getNumeroObstaculos() + " obstaculos)" : ""));
+        String detalleModo = "";
+        if (lanzador.getModo() == ModoEjecucion.REGIONES) {
+            detalleModo = " (" + configuracion.getRegiones() + " por lado)";
+        } else if (lanzador.getModo() == ModoEjecucion.RUEDA) {
+            PlanificadorRueda rueda = lanzador.getRueda();
+            detalleModo = String.format(" (%d trabajadores, %d lotes de %.1f hormigas de media)", rueda.getTrabajadores(),
+                    rueda.getLotes(), rueda.getLotes() > 0 ? (double) rueda.getDespachadas() / rueda.getLotes() : 0.0);
+        } else if (lanzador.getModo() == ModoEjecucion.GENERACIONES) {
+            PlanificadorGeneraciones generaciones = lanzador.getGeneraciones();
+            detalleModo = " (" + generaciones.getTrabajadores() + " trabajadores, " + generaciones.getGeneraciones()
+                    + " generaciones de " + PlanificadorGeneraciones.MILISEGUNDOS_POR_GENERACION + " ms)";
+        }
+        System.out.println("Modo de ejecucion: " + lanzador.getModo().getNombre() + detalleModo);
+        System.out.printf("Duracion: %.3f s%n", segundos);
+        System.out.println("Movimientos aceptados: " + total);
+        System.out.printf("Rendimiento: %.0f movimientos/s%n", total / segundos);
+        System.out.println("Movimientos rechazados: " + metricas.getRechazados() + " (fuera "
+                + metricas.getRechazados(BitacoraMovimientos.FUERA) + ", hormiguero "
+                + metricas.getRechazados(BitacoraMovimientos.HORMIGUERO) + ", ocupada "
+                + metricas.getRechazados(BitacoraMovimientos.OCUPADA) + ")");
+        long[] colisiones = metricas.getColisiones().copiar(null);
+        long maximo = metricas.getColisiones().getMaximo();
+        System.out.println("Comprobacion de colisiones (1 de cada " + MetricasSimulacion.MUESTREO_COLISIONES + "): p50 "
+                + HistogramaLatencias.percentil(colisiones, 50, maximo) + " ns, p99 "
+                + HistogramaLatencias.percentil(colisiones, 99, maximo) + " ns, max " + maximo + " ns");
+        long entregada = getComidaEntregada();
+        System.out.printf("Comida entregada: %d (%.1f/s), recogida: %d, quedan: %d%n", entregada,
+                entregada / segundos, getComidaRecogida(), mapa.getComida().getRestante());
+        int[] porEstado = new int[3];
+        for (Colonia colonia : colonias) {
+            porEstado[HormigaObrera.BUSCANDO] += colonia.contarEstado(HormigaObrera.BUSCANDO);
+            porEstado[HormigaObrera.CARGANDO] += colonia.contarEstado(HormigaObrera.CARGANDO);
+            porEstado[HormigaObrera.VOLVIENDO] += colonia.contarEstado(HormigaObrera.VOLVIENDO);
+        }
+        System.out.println("Obreras " + HormigaObrera.nombreEstado(HormigaObrera.BUSCANDO) + ": " + porEstado[HormigaObrera.BUSCANDO]
+                + ", " + HormigaObrera.nombreEstado(HormigaObrera.CARGANDO) + ": " + porEstado[HormigaObrera.CARGANDO]
+                + ", " + HormigaObrera.nombreEstado(HormigaObrera.VOLVIENDO) + ": " + porEstado[HormigaObrera.VOLVIENDO]);
+        if (colonias.length > 1 || configuracion.getGuerreras() > 0 || configuracion.getCrias() > 0) {
+            for (Colonia colonia : colonias) {
+                System.out.println("Colonia " + colonia.getNumero() + " en (" + colonia.getHormiguero().getX() + ", "
+                        + colonia.getHormiguero().getY() + "): obreras " + colonia.getVivos(TipoHormiga.OBRERA)
+                        + ", guerreras " + colonia.getVivos(TipoHormiga.GUERRERA)
+                        + ", reina " + (colonia.getVivos(TipoHormiga.REINA) > 0 ? "si" : "no")
+                        + ", comida entregada " + colonia.getComidaEntregada() + ", bajas " + colonia.getBajas());
+            }
+        }
+        CampoFeromonas feromonas = mapa.getFeromonas();
+        if (feromonas != null) {
+            System.out.println("Pasos de feromonas: " + feromonas.getPasos() + " (nucleo " + feromonas.getNucleo().getNombre()
+                    + (feromonas.isParalelo() ? ", paralelo)" : ")"));
+            System.out.printf("Feromona total: %.1f%n", feromonas.total());
+        }
+    }
+
     /**
      * Metodo publico para continuar iteraciones adicionales usado desde el main cuando el usuario quiera continuar
      */
@@ -208,7 +1294,7 @@ public class SimuladorColoniasHormigas {
             try{
                 actualizarVisualizacion();
                 System.out.println("Iteracion: " + (i + 1) + " de " + numIteraciones + "\n");
-                Thread.sleep(INTERVALO_ACTUALIZACION);
+                Thread.sleep(periodoVisualizacion);
             }catch (InterruptedException e){
                 System.err.println("Error durante iteraciones extra: " + e.getMessage());
                 break;
@@ -224,62 +1310,126 @@ public class SimuladorColoniasHormigas {
     // metodo detener la simulacion
     public void detenerSimulacion() {
         System.out.println("\n--- Simulacion detenida ---");
-        simulacionActiva = false;
-
-        // Detener todas las hormigas
-        for (Hormiga hormiga : hormigas.values()){
-            hormiga.detener();
+        // Con el cerrojo, para que ninguna reina lance una obrera despues de detener a las demas
+        synchronized (this) {
+            simulacionActiva = false;
         }
 
-        //Esperar a que terminen
-        for(Hormiga hormiga : hormigas.values()){
-            try{
-                hormiga.join(1000); // Esperar maximo 1 segundo por cada hormmiga
-            }catch (InterruptedException e){
-                System.err.println("Error al esperar hormiga: " + e.getMessage());
+        // Detener todas las hormigas y esperar a que terminen (con un plazo para todas)
+        long inicioDetencion = System.nanoTime();
+        int rezagadas = lanzador.detenerTodas(hormigas, configuracion.getPlazoDetencion());
+        long msDetencion = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioDetencion);
+
+        // Parar los pasos de las feromonas y esperar al que esté en curso
+        if (relojFeromonas != null) {
+            relojFeromonas.shutdownNow();
+            try {
+                relojFeromonas.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
+            relojFeromonas = null;
         }
 
-        System.out.println("Simulacion detenida todos los hilos finalizados\n");
+        if (rezagadas == 0) {
+            System.out.println("Simulacion detenida todos los hilos finalizados en " + msDetencion + " ms\n");
+        } else {
+            System.out.println("Simulacion detenida en " + msDetencion + " ms, " + rezagadas + " sin finalizar\n");
+        }
+
+        // Ultima linea de metricas con todo parado
+        if (exportador != null) {
+            exportador.cerrar();
+            System.out.println("Metricas en " + exportador.getFichero() + ": " + exportador.getLineas() + " lineas");
+            exportador = null;
+        }
+
+        // Sin hormigas moviendose ya se puede vaciar y cerrar la bitacora
+        if (bitacora != null) {
+            bitacora.cerrar();
+            System.out.println("Bitacora " + configuracion.getFicheroBitacora() + ": " + bitacora.getEscritos()
+                    + " eventos en " + bitacora.getSegmentos() + " segmento(s)");
+        }
+
+        // La grabacion JFR, con los finales de todas las hormigas
+        if (registroVuelo != null) {
+            registroVuelo.cerrar();
+            System.out.println("Grabacion JFR en " + registroVuelo.getFichero());
+        }
+
+        // Con todo parado se puede guardar el punto de control; si quedan hormigas sin finalizar
+        // todavia se pueden mover mientras se escribe, y el fichero mezclaria estados distintos
+        if (configuracion.getFicheroGuardar() != null) {
+            if (rezagadas == 0) {
+                guardarPuntoControl(Path.of(configuracion.getFicheroGuardar()));
+            } else {
+                System.err.println("Aviso: no se guarda el punto de control en " + configuracion.getFicheroGuardar()
+                        + " porque " + rezagadas + " hormigas no han finalizado");
+            }
+        }
     }
 
     /**
-     * Actualiza la visualización del mapa de forma periódica.
-     * <p>
-     * Limpia la consola, prepara el mapa con las posiciones de las hormigas y muestra las estadísticas.
+     * Guarda el estado de la simulación detenida en un punto de control (ver {@link PuntoControl}).
+     *
+     * @param fichero Fichero donde se guarda.
+     * @return `true` si se ha guardado.
      */
-    // metodo que actualiza la visualizacion del mapa periodicamente
-    private void actualizarVisualizacion() {
-        limpiarConsola();
-        mapa.prepararMapa(hormigas);
-        mapa.mostrarMapa();
-        mostrarEstadisticas();
+    // 0(n) -> n = hormigas (más obstaculos, comida y feromonas)
+    public boolean guardarPuntoControl(Path fichero) {
+        long inicio = System.nanoTime();
+        try {
+            int guardadas = PuntoControl.guardar(this, fichero);
+            System.out.printf("Punto de control guardado en %s: %d hormigas en %.1f ms%n", fichero, guardadas,
+                    (System.nanoTime() - inicio) / 1e6);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Error al guardar el punto de control: " + e.getMessage());
+            return false;
+        }
     }
 
-
     /**
-     * Limpia la consola para actualizar la visualización.
-     * <p>
-     * Imprime varias líneas en blanco para simular un borrado de pantalla.
+     * Restaura las hormigas, el mapa y los contadores del punto de control de la configuración.
+     *
+     * @throws UncheckedIOException si no se puede leer el punto de control.
      */
-    // metodo para limpiar consola
-    private void limpiarConsola() {
-        for (int i = 0; i < 10; i++){
-            System.out.println();
+    // 0(n) -> n = hormigas (más obstaculos, comida y feromonas)
+    private void restaurarPuntoControl() {
+        Path fichero = Path.of(configuracion.getFicheroRestaurar());
+        long inicio = System.nanoTime();
+        try {
+            int restauradas = PuntoControl.restaurar(this, fichero);
+            System.out.printf("Punto de control restaurado de %s: %d hormigas en %.1f ms%n", fichero, restauradas,
+                    (System.nanoTime() - inicio) / 1e6);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede leer el punto de control " + fichero, e);
         }
     }
 
     /**
-     * Muestra las estadísticas de la simulación.
+     * Actualiza la visualización del mapa de forma periódica.
      * <p>
-     * Incluye el número de hormigas activas, el intervalo de actualizaciones y la posición del hormiguero.
+     * Delega en el visualizador y apunta lo que ha tardado el frame en las métricas (y en la
+     * grabación JFR si la hay); en el modo sin interfaz no hace nada.
      */
-    // metodo para mostrar las estadisticas de la simulacion
-    // 0(1)
-    private void mostrarEstadisticas() {
-        System.out.println("Hormigas activas: " + hormigas.size());
-        System.out.println("Intervalo de actualizaciones: " + INTERVALO_ACTUALIZACION);
-        System.out.println("Hormiguero en: X = " + mapa.getHormiguero().getX() + " Y = " + mapa.getHormiguero().getY());
-        System.out.println("Estado: " + (simulacionActiva ? "ACTIVA" : "INACTIVA"));
+    // metodo que actualiza la visualizacion del mapa periodicamente
+    private void actualizarVisualizacion() {
+        if (visualizador != null) {
+            RegistroVuelo.Frame evento = null;
+            if (registroVuelo != null) {
+                evento = new RegistroVuelo.Frame();
+                evento.begin();
+            }
+            long inicio = System.nanoTime();
+            visualizador.mostrarFrame();
+            metricas.frameMedido(System.nanoTime() - inicio);
+            if (evento != null) {
+                evento.end();
+                evento.hormigas = hormigas.getVivas();
+                evento.incremental = configuracion.isRenderIncremental();
+                evento.commit();
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,163 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tabla con los {@link Trozos} reservados de una rejilla, indexada por la clave de
+ * {@link Trozos#clave(int, int)} sin crear objetos Long.
+ * <p>
+ * Es una tabla hash de direccionamiento abierto con sondeo lineal: las claves van en un
+ * {@link AtomicLongArray} y los trozos en un arreglo paralelo. Buscar un trozo no usa cerrojos
+ * ni crea objetos, que es lo que hacen las hormigas en cada movimiento. Reservar un trozo nuevo
+ * (solo la primera vez que se entra en esa zona del mapa) usa un cerrojo; el trozo se escribe
+ * antes que su clave, así que quien lee la clave ve el trozo. Cuando la tabla se llena en sus
+ * tres cuartas partes se copia en una del doble de tamaño y se publica la nueva; los trozos no se
+ * quitan nunca, así que una búsqueda en la tabla anterior sigue siendo correcta.
+ */
+public final class TablaTrozos {
+    /** Clave de una posición libre (las claves de los trozos nunca son negativas). */
+    private static final long VACIA = -1L;
+    /** Capacidad inicial de la tabla (potencia de 2). */
+    private static final int CAPACIDAD_INICIAL = 64;
+
+    /** Tabla actual. */
+    private volatile Tabla tabla;
+    /** Trozos reservados. */
+    private volatile int reservados;
+
+    /**
+     * Constructor de la clase TablaTrozos: crea una tabla sin ningún trozo.
+     */
+    // 0(1)
+    public TablaTrozos() {
+        this.tabla = new Tabla(CAPACIDAD_INICIAL);
+        this.reservados = 0;
+    }
+
+    /**
+     * Obtiene el trozo que contiene una celda, o null si todavía no se ha reservado.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return El trozo o null.
+     */
+    // 0(1) de media
+    public AtomicIntegerArray buscar(int x, int y) {
+        return tabla.buscar(Trozos.clave(x, y));
+    }
+
+    /**
+     * Obtiene el trozo que contiene una celda, reservándolo (con todas sus celdas a 0) si no existe.
+     *
+     * @param x Coordenada horizontal.
+     * @param y Coordenada vertical.
+     * @return El trozo.
+     */
+    // 0(1) de media (0(t) si la tabla crece -> t = trozos reservados)
+    public AtomicIntegerArray reservar(int x, int y) {
+        long clave = Trozos.clave(x, y);
+        AtomicIntegerArray trozo = tabla.buscar(clave);
+        return trozo != null ? trozo : reservarConCerrojo(clave);
+    }
+
+    /**
+     * Reserva un trozo con el cerrojo de la tabla, si otro hilo no lo ha reservado antes.
+     */
+    // 0(1) de media (0(t) si la tabla crece)
+    private synchronized AtomicIntegerArray reservarConCerrojo(long clave) {
+        Tabla actual = tabla;
+        AtomicIntegerArray trozo = actual.buscar(clave);
+        if (trozo != null) {
+            return trozo;
+        }
+        if ((reservados + 1) * 4L > actual.claves.length() * 3L) {
+            // Crecer: copiar en una tabla del doble de tamaño y publicarla
+            Tabla mayor = new Tabla(actual.claves.length() * 2);
+            for (int i = 0; i < actual.claves.length(); i++) {
+                long otra = actual.claves.get(i);
+                if (otra != VACIA) {
+                    mayor.insertar(otra, actual.trozos[i]);
+                }
+            }
+            tabla = mayor;
+            actual = mayor;
+        }
+        trozo = new AtomicIntegerArray(Trozos.CELDAS);
+        actual.insertar(clave, trozo);
+        reservados = reservados + 1;
+        return trozo;
+    }
+
+    /**
+     * Obtiene el numero de trozos reservados.
+     *
+     * @return Los trozos.
+     */
+    public int getReservados() {
+        return reservados;
+    }
+
+    /**
+     * Arreglos de una tabla de un tamaño dado.
+     */
+    private static final class Tabla {
+        /** Clave de cada posición, o VACIA. */
+        private final AtomicLongArray claves;
+        /** Trozo de cada posición (se escribe antes que su clave). */
+        private final AtomicIntegerArray[] trozos;
+        /** Mascara para pasar de hash a posición (capacidad - 1). */
+        private final int mascara;
+
+        /**
+         * Constructor de la clase Tabla: crea una tabla vacía.
+         *
+         * @param capacidad Posiciones de la tabla (potencia de 2).
+         */
+        Tabla(int capacidad) {
+            this.claves = new AtomicLongArray(capacidad);
+            for (int i = 0; i < capacidad; i++) {
+                claves.set(i, VACIA);
+            }
+            this.trozos = new AtomicIntegerArray[capacidad];
+            this.mascara = capacidad - 1;
+        }
+
+        /**
+         * Primera posición donde se busca una clave.
+         */
+        // 0(1)
+        private int posicion(long clave) {
+            return (int) ((clave * 0x9E3779B97F4A7C15L) >>> 32) & mascara;
+        }
+
+        /**
+         * Busca el trozo de una clave.
+         */
+        // 0(1) de media
+        AtomicIntegerArray buscar(long clave) {
+            int i = posicion(clave);
+            while (true) {
+                long otra = claves.get(i);
+                if (otra == clave) {
+                    return trozos[i];
+                }
+                if (otra == VACIA) {
+                    return null;
+                }
+                i = (i + 1) & mascara;
+            }
+        }
+
+        /**
+         * Inserta un trozo que no está en la tabla (con el cerrojo de la TablaTrozos).
+         */
+        // 0(1) de media
+        void insertar(long clave, AtomicIntegerArray trozo) {
+            int i = posicion(clave);
+            while (claves.get(i) != VACIA) {
+                i = (i + 1) & mascara;
+            }
+            trozos[i] = trozo;
+            claves.set(i, clave);
+        }
+    }
+}
@@ -12,9 +12,9 @@ public enum TipoHormiga {
      */
     OBRERA("O", "Obrera"),
     /**
-     * Tipo de hormiga guerrera, representada por 'G' y el nombre "Guerra".
+     * Tipo de hormiga guerrera, representada por 'G' y el nombre "Guerrera".
      */
-    GUERRERA("G", "Guerra"),
+    GUERRERA("G", "Guerrera"),
     /**
      * Tipo de hormiga reina, representada por 'R' y el nombre "Reina".
      */
@@ -0,0 +1,52 @@
+/**
+ * Utilidades para dividir el mapa en trozos cuadrados.
+ * <p>
+ * Los mapas grandes no se guardan como una matriz densa: se dividen en trozos de
+ * {@link #LADO} x {@link #LADO} celdas y solo se reservan los trozos donde hay algo (hormigas,
+ * el hormiguero...). Así la memoria depende del area ocupada y no de ancho x alto.
+ */
+public final class Trozos {
+    /**
+     * Bits del lado de un trozo (16 celdas). Un trozo pequeño gasta poca memoria cuando las
+     * hormigas estan muy repartidas por un mapa enorme (cada una puede caer en su propio trozo).
+     */
+    public static final int BITS = 4;
+    /** Lado de un trozo en celdas. */
+    public static final int LADO = 1 << BITS;
+    /** Mascara para obtener la posición dentro de un trozo. */
+    public static final int MASCARA = LADO - 1;
+    /** Numero de celdas de un trozo. */
+    public static final int CELDAS = LADO * LADO;
+
+    /**
+     * Constructor privado: clase de utilidades.
+     */
+    private Trozos() {
+    }
+
+    /**
+     * Calcula la clave del trozo que contiene una celda.
+     * <p>
+     * La clave junta la fila y la columna del trozo en un solo long.
+     *
+     * @param x Coordenada horizontal de la celda.
+     * @param y Coordenada vertical de la celda.
+     * @return La clave del trozo.
+     */
+    // 0(1)
+    public static long clave(int x, int y) {
+        return ((long) (y >>> BITS) << 32) | (x >>> BITS);
+    }
+
+    /**
+     * Calcula el indice de una celda dentro de su trozo.
+     *
+     * @param x Coordenada horizontal de la celda.
+     * @param y Coordenada vertical de la celda.
+     * @return El indice de la celda dentro del trozo (entre 0 y CELDAS - 1).
+     */
+    // 0(1)
+    public static int indice(int x, int y) {
+        return ((y & MASCARA) << BITS) | (x & MASCARA);
+    }
+}
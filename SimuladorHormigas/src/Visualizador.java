@@ -0,0 +1,14 @@
+/**
+ * Interfaz para mostrar el estado de la simulación.
+ * <p>
+ * La visualización es opcional: el simulador llama a {@link #mostrarFrame()} una vez por
+ * periodo de visualización si tiene un visualizador, y en el modo sin interfaz no tiene ninguno.
+ */
+public interface Visualizador {
+    /**
+     * Muestra un frame con el estado actual de la simulación.
+     * <p>
+     * Se llama siempre desde el mismo hilo (el del bucle principal de la simulación).
+     */
+    void mostrarFrame();
+}
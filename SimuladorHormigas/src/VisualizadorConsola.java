@@ -0,0 +1,150 @@
+/**
+ * Visualizador que dibuja el mapa y las estadísticas en la consola.
+ * <p>
+ * Compone cada frame en un {@link EscritorFrame} y lo vuelca de una vez. Puede redibujar el mapa
+ * completo en cada frame o, con el {@link RenderizadorIncremental}, solo las celdas que cambian.
+ * En el modo por generaciones dibuja la instantánea de la última generación terminada.
+ */
+public class VisualizadorConsola implements Visualizador {
+    /**
+     * Simulador que se visualiza.
+     */
+    private final SimuladorColoniasHormigas simulador;
+    /**
+     * Renderizador incremental (null si se redibuja el mapa completo en cada frame).
+     */
+    private final RenderizadorIncremental renderizador;
+    /**
+     * Escritor donde se compone cada frame de la consola antes de volcarlo de una vez.
+     */
+    private final EscritorFrame escritor;
+    /**
+     * Copia de las cuentas de los histogramas de latencias (se reutiliza en cada frame).
+     */
+    private long[] cuentas;
+    /**
+     * Movimientos aceptados en el frame anterior, para calcular los movimientos por segundo.
+     */
+    private long movimientosAnteriores;
+    /**
+     * Momento (System.nanoTime()) del frame anterior.
+     */
+    private long frameAnterior;
+
+    /**
+     * Constructor de la clase VisualizadorConsola.
+     * <p>
+     * Con el modo incremental registra el renderizador como observador de movimientos del simulador.
+     *
+     * @param simulador   Simulador que se visualiza.
+     * @param incremental `true` para redibujar solo las celdas que cambian.
+     */
+    // 0(1)
+    public VisualizadorConsola(SimuladorColoniasHormigas simulador, boolean incremental) {
+        this.simulador = simulador;
+        this.escritor = new EscritorFrame();
+        this.cuentas = null;
+        this.movimientosAnteriores = 0;
+        this.frameAnterior = System.nanoTime();
+        if (incremental) {
+            this.renderizador = new RenderizadorIncremental(simulador.getMapa(), simulador.getOcupacion());
+            simulador.setObservador(renderizador);
+        } else {
+            this.renderizador = null;
+        }
+    }
+
+    /**
+     * Actualiza la visualización del mapa.
+     * <p>
+     * Limpia la consola, prepara el mapa con las posiciones de las hormigas y muestra las estadísticas.
+     * Con el renderizador incremental solo se redibujan las celdas que han cambiado. Todo el frame
+     * se compone en el escritor y se vuelca con una sola escritura.
+     */
+    @Override
+    public void mostrarFrame() {
+        Mapa mapa = simulador.getMapa();
+        if (renderizador != null) {
+            renderizador.dibujarFrame(simulador.getHormigas().getRegistro(), escritor);
+        } else {
+            limpiarConsola();
+            PlanificadorGeneraciones generaciones = simulador.getLanzador().getGeneraciones();
+            if (generaciones != null) {
+                // Posiciones del final de la última generación, sin esperar a la que está en curso
+                mapa.prepararMapa(generaciones.ultimaGeneracion());
+            } else {
+                mapa.prepararMapa(simulador.getHormigas().getRegistro());
+            }
+            mapa.componerMapa(escritor);
+        }
+        mostrarEstadisticas(mapa);
+        escritor.volcar();
+    }
+
+    /**
+     * Limpia la consola para actualizar la visualización.
+     * <p>
+     * Escribe varias líneas en blanco en el frame para simular un borrado de pantalla.
+     */
+    // metodo para limpiar consola
+    private void limpiarConsola() {
+        for (int i = 0; i < 10; i++){
+            escritor.nuevaLinea();
+        }
+    }
+
+    /**
+     * Muestra las estadísticas de la simulación.
+     * <p>
+     * Incluye el número de hormigas activas, el intervalo de actualizaciones, la posición del
+     * hormiguero y las métricas: movimientos por segundo desde el frame anterior, rechazos por
+     * motivo y percentiles de la comprobación de colisiones y de los frames. Se escriben en el
+     * frame actual, sin crear Strings.
+     *
+     * @param mapa Mapa del simulador.
+     */
+    // metodo para mostrar las estadisticas de la simulacion
+    // 0(CUBETAS) -> copia los histogramas de latencias
+    private void mostrarEstadisticas(Mapa mapa) {
+        escritor.escribir("Hormigas activas: ").escribir(simulador.getHormigas().getVivas()).nuevaLinea();
+        escritor.escribir("Tamaño del mapa: ").escribir(mapa.getAncho()).escribir(" x ").escribir(mapa.getAlto()).nuevaLinea();
+        escritor.escribir("Intervalo de actualizaciones: ").escribir(simulador.getPeriodoVisualizacion()).nuevaLinea();
+        escritor.escribir("Hormiguero en: X = ").escribir(mapa.getHormiguero().getX())
+                .escribir(" Y = ").escribir(mapa.getHormiguero().getY()).nuevaLinea();
+        MetricasSimulacion metricas = simulador.getMetricas();
+        long movimientos = metricas.getAceptados();
+        long ahora = System.nanoTime();
+        long porSegundo = ahora > frameAnterior ? (movimientos - movimientosAnteriores) * 1_000_000_000L / (ahora - frameAnterior) : 0;
+        movimientosAnteriores = movimientos;
+        frameAnterior = ahora;
+        escritor.escribir("Movimientos: ").escribir(movimientos)
+                .escribir(" (").escribir(porSegundo).escribir("/s)").nuevaLinea();
+        escritor.escribir("Rechazados: fuera ").escribir(metricas.getRechazados(BitacoraMovimientos.FUERA))
+                .escribir(", hormiguero ").escribir(metricas.getRechazados(BitacoraMovimientos.HORMIGUERO))
+                .escribir(", ocupada ").escribir(metricas.getRechazados(BitacoraMovimientos.OCUPADA)).nuevaLinea();
+        cuentas = metricas.getColisiones().copiar(cuentas);
+        long maximo = metricas.getColisiones().getMaximo();
+        escritor.escribir("Colisiones: p50 ").escribir(HistogramaLatencias.percentil(cuentas, 50, maximo))
+                .escribir(" ns, p99 ").escribir(HistogramaLatencias.percentil(cuentas, 99, maximo)).escribir(" ns").nuevaLinea();
+        cuentas = metricas.getFrames().copiar(cuentas);
+        maximo = metricas.getFrames().getMaximo();
+        escritor.escribir("Frames: p50 ").escribir(HistogramaLatencias.percentil(cuentas, 50, maximo) / 1000)
+                .escribir(" us, p99 ").escribir(HistogramaLatencias.percentil(cuentas, 99, maximo) / 1000).escribir(" us").nuevaLinea();
+        escritor.escribir("Comida entregada: ").escribir(simulador.getComidaEntregada())
+                .escribir(" (quedan ").escribir(mapa.getComida().getRestante()).escribir(')').nuevaLinea();
+        Colonia[] colonias = simulador.getColonias();
+        if (colonias.length > 1) {
+            for (Colonia colonia : colonias) {
+                escritor.escribir("Colonia ").escribir(colonia.getNumero())
+                        .escribir(": obreras ").escribir(colonia.getVivos(TipoHormiga.OBRERA))
+                        .escribir(", guerreras ").escribir(colonia.getVivos(TipoHormiga.GUERRERA))
+                        .escribir(", bajas ").escribir(colonia.getBajas()).nuevaLinea();
+            }
+        }
+        CampoFeromonas feromonas = mapa.getFeromonas();
+        if (feromonas != null) {
+            escritor.escribir("Pasos de feromonas: ").escribir(feromonas.getPasos()).nuevaLinea();
+        }
+        escritor.escribir("Estado: ").escribir(simulador.isSimulacionActiva() ? "ACTIVA" : "INACTIVA").nuevaLinea();
+    }
+}
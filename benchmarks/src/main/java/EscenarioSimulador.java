@@ -0,0 +1,145 @@
+import benchmarks.Escenario;
+
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+/**
+ * Escenario de benchmark que trabaja directamente con las clases del simulador.
+ * <p>
+ * Está en el paquete por defecto para poder usar el simulador (ver {@link Escenario}). Las
+ * hormigas se crean y se colocan igual que en {@link SimuladorColoniasHormigas#generarHormigas()},
+ * pero sin lanzar sus hilos: cada benchmark las mueve desde su propio hilo.
+ */
+public class EscenarioSimulador implements Escenario {
+    /** Numero de posiciones aleatorias precalculadas para comprobar colisiones. */
+    private static final int POSICIONES = 1 << 16;
+
+    /** Simulador del escenario. */
+    private SimuladorColoniasHormigas simulador;
+    /** Hormigas del simulador, en un arreglo para recorrerlas en turno rotatorio. */
+    private Hormiga[] hormigas;
+    /** Posiciones aleatorias para comprobar colisiones. */
+    private Posicion[] posiciones;
+    /** Escritor que descarta lo que se vuelca. */
+    private EscritorFrame escritor;
+    /** Siguiente hormiga a mover. */
+    private int siguienteHormiga;
+    /** Siguiente posición a comprobar. */
+    private int siguientePosicion;
+    /** Campo de feromonas del benchmark de feromonas. */
+    private CampoFeromonas feromonas;
+
+    @Override
+    public void preparar(int numeroHormigas, int lado, long semilla) {
+        preparar(numeroHormigas, lado, semilla, null);
+    }
+
+    @Override
+    public void prepararConBitacora(int numeroHormigas, int lado, long semilla, String bitacora) {
+        preparar(numeroHormigas, lado, semilla, bitacora);
+    }
+
+    @Override
+    public long cerrarBitacora() {
+        BitacoraMovimientos bitacora = simulador.getBitacora();
+        if (bitacora == null) {
+            return 0;
+        }
+        bitacora.cerrar();
+        return bitacora.getEscritos();
+    }
+
+    /**
+     * Crea el simulador (con bitácora si se indica) y coloca sus hormigas.
+     */
+    private void preparar(int numeroHormigas, int lado, long semilla, String bitacora) {
+        Configuracion configuracion = new Configuracion();
+        configuracion.setAncho(lado);
+        configuracion.setAlto(lado);
+        configuracion.setConInterfaz(false);
+        configuracion.setNumeroHormigas(numeroHormigas);
+        configuracion.setFicheroBitacora(bitacora);
+        simulador = new SimuladorColoniasHormigas(configuracion);
+
+        Mapa mapa = simulador.getMapa();
+        RejillaOcupacion ocupacion = simulador.getOcupacion();
+        Random random = new Random(semilla);
+        numeroHormigas = (int) Math.min(numeroHormigas, mapa.getNumeroCeldas() - 1);
+        hormigas = new Hormiga[numeroHormigas];
+
+        PoolHormigas pool = simulador.getHormigas();
+        for (int i = 0; i < numeroHormigas; i++) {
+            int numero = pool.reservar(TipoHormiga.OBRERA);
+            int x;
+            int y;
+            do {
+                x = random.nextInt(lado);
+                y = random.nextInt(lado);
+            } while ((x == mapa.getHormiguero().getX() && y == mapa.getHormiguero().getY()) || !ocupacion.ocupar(x, y, numero));
+
+            Hormiga obrera = new HormigaObrera("OBRERA_" + numero, numero, new Posicion(x, y));
+            obrera.setMapa(mapa);
+            obrera.setSimulador(simulador);
+            pool.publicar(numero, obrera);
+            hormigas[i] = obrera;
+        }
+
+        posiciones = new Posicion[POSICIONES];
+        for (int i = 0; i < POSICIONES; i++) {
+            posiciones[i] = new Posicion(random.nextInt(lado), random.nextInt(lado));
+        }
+
+        escritor = new EscritorFrame(Channels.newChannel(OutputStream.nullOutputStream()));
+        siguienteHormiga = 0;
+        siguientePosicion = 0;
+    }
+
+    @Override
+    public int moverSiguiente() {
+        Hormiga hormiga = hormigas[siguienteHormiga];
+        if (++siguienteHormiga == hormigas.length) {
+            siguienteHormiga = 0;
+        }
+        hormiga.moverAleatoriamente();
+        return hormiga.getNumero();
+    }
+
+    @Override
+    public boolean comprobarSiguientePosicion() {
+        Posicion posicion = posiciones[siguientePosicion];
+        siguientePosicion = (siguientePosicion + 1) & (POSICIONES - 1);
+        return simulador.posicionOcupada(posicion, 0);
+    }
+
+    @Override
+    public void prepararMapa() {
+        simulador.getMapa().prepararMapa(simulador.getHormigas().getRegistro());
+    }
+
+    @Override
+    public int mostrarMapa() {
+        simulador.getMapa().componerMapa(escritor);
+        int bytes = escritor.getLongitud();
+        escritor.volcar();
+        return bytes;
+    }
+
+    @Override
+    public String prepararFeromonas(int lado, boolean paralelo, boolean vectorial, long semilla) {
+        feromonas = new CampoFeromonas(lado, lado, paralelo, vectorial);
+        // Unas cuantas celdas con feromona para que el campo no se quede a 0 durante la medida
+        Random random = new Random(semilla);
+        int depositos = Math.max(1, lado * lado / 64);
+        for (int i = 0; i < depositos; i++) {
+            feromonas.depositar(random.nextInt(lado), random.nextInt(lado), 1000f);
+        }
+        return feromonas.getNucleo().getNombre();
+    }
+
+    @Override
+    public long pasoFeromonas() {
+        feromonas.paso();
+        return feromonas.getPasos();
+    }
+}
@@ -0,0 +1,99 @@
+package benchmarks;
+
+/**
+ * Escenario de benchmark sobre el simulador.
+ * <p>
+ * Las clases del simulador están en el paquete por defecto y JMH exige que los benchmarks estén
+ * en un paquete con nombre, desde el que no se puede importar el paquete por defecto. Por eso
+ * cada benchmark trabaja a través de esta interfaz, implementada por {@code EscenarioSimulador}
+ * (en el paquete por defecto, junto al simulador) y cargada una sola vez por nombre. La llamada
+ * es monomórfica, así que el JIT la incorpora y no añade coste a la medida.
+ */
+public interface Escenario {
+    /** Nombre de la clase que implementa el escenario. */
+    String IMPLEMENTACION = "EscenarioSimulador";
+
+    /**
+     * Crea un simulador con las hormigas indicadas colocadas en el mapa, sin lanzar sus hilos.
+     *
+     * @param hormigas Numero de hormigas obreras.
+     * @param lado     Ancho y alto del mapa.
+     * @param semilla  Semilla de las posiciones.
+     */
+    void preparar(int hormigas, int lado, long semilla);
+
+    /**
+     * Como {@link #preparar(int, int, long)}, pero con el simulador apuntando sus eventos en una
+     * bitácora de movimientos.
+     *
+     * @param hormigas Numero de hormigas obreras.
+     * @param lado     Ancho y alto del mapa.
+     * @param semilla  Semilla de las posiciones.
+     * @param bitacora Base de los ficheros de la bitácora.
+     */
+    void prepararConBitacora(int hormigas, int lado, long semilla, String bitacora);
+
+    /**
+     * Cierra la bitácora del simulador, si tiene.
+     *
+     * @return Los eventos escritos en la bitácora (0 si no tiene).
+     */
+    long cerrarBitacora();
+
+    /**
+     * Intenta mover una hormiga (la siguiente de la lista, en turno rotatorio).
+     *
+     * @return El numero de la hormiga movida, para que JMH no descarte el trabajo.
+     */
+    int moverSiguiente();
+
+    /**
+     * Comprueba si una posición del mapa está ocupada (la siguiente de una lista aleatoria).
+     *
+     * @return `true` si está ocupada.
+     */
+    boolean comprobarSiguientePosicion();
+
+    /**
+     * Prepara el mapa con las posiciones de todas las hormigas.
+     */
+    void prepararMapa();
+
+    /**
+     * Muestra el mapa en un escritor que descarta la salida (sin coste de terminal).
+     *
+     * @return Los bytes del frame, para que JMH no descarte el trabajo.
+     */
+    int mostrarMapa();
+
+    /**
+     * Crea un campo de feromonas de lado x lado con algo de feromona repartida al azar.
+     *
+     * @param lado      Ancho y alto del campo.
+     * @param paralelo  `true` para repartir cada paso en franjas entre varios hilos.
+     * @param vectorial `true` para usar el núcleo de la Vector API.
+     * @param semilla   Semilla de los depósitos iniciales.
+     * @return El nombre del núcleo que se usa (por si no está disponible el vectorial).
+     */
+    String prepararFeromonas(int lado, boolean paralelo, boolean vectorial, long semilla);
+
+    /**
+     * Aplica un paso de difusión y evaporación al campo de feromonas.
+     *
+     * @return Los pasos aplicados, para que JMH no descarte el trabajo.
+     */
+    long pasoFeromonas();
+
+    /**
+     * Crea el escenario del simulador.
+     *
+     * @return El escenario.
+     */
+    static Escenario crear() {
+        try {
+            return (Escenario) Class.forName(IMPLEMENTACION).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo crear el escenario " + IMPLEMENTACION, e);
+        }
+    }
+}
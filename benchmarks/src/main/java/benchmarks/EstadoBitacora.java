@@ -0,0 +1,65 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Estado de los benchmarks con bitácora: un simulador como el de {@link EstadoSimulador} que
+ * apunta cada intento de movimiento en una bitácora en un directorio temporal.
+ * <p>
+ * Se compara con {@link MovimientoBenchmark#moverAleatoriamente(EstadoSimulador)} con los mismos
+ * parámetros para ver lo que cuesta la bitácora.
+ */
+@State(Scope.Thread)
+public class EstadoBitacora {
+    /** Numero de hormigas (se limita a las celdas libres del mapa). */
+    @Param({"1000", "100000"})
+    public int hormigas;
+
+    /** Ancho y alto del mapa. */
+    @Param({"1000"})
+    public int lado;
+
+    /** Escenario con el simulador preparado. */
+    public Escenario escenario;
+
+    /** Directorio temporal de la bitácora. */
+    private Path directorio;
+
+    /**
+     * Prepara el simulador con su bitácora antes de cada ejecución.
+     *
+     * @throws IOException si no se puede crear el directorio temporal.
+     */
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        directorio = Files.createTempDirectory("bitacora");
+        escenario = Escenario.crear();
+        escenario.prepararConBitacora(hormigas, lado, 42L, directorio.resolve("movimientos").toString());
+    }
+
+    /**
+     * Cierra la bitácora y borra sus ficheros.
+     *
+     * @throws IOException si no se pueden borrar.
+     */
+    @TearDown(Level.Trial)
+    public void cerrar() throws IOException {
+        escenario.cerrarBitacora();
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            for (Path fichero : (Iterable<Path>) ficheros::iterator) {
+                Files.delete(fichero);
+            }
+        }
+        Files.delete(directorio);
+    }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Estado del benchmark de feromonas: un campo de lado x lado con el núcleo y el reparto indicados.
+ * <p>
+ * Es de ámbito Benchmark porque el modo paralelo ya reparte cada paso entre los hilos del
+ * ForkJoinPool común; el benchmark se ejecuta desde un solo hilo.
+ */
+@State(Scope.Benchmark)
+public class EstadoFeromonas {
+    /** Ancho y alto del campo. */
+    @Param({"1000", "4000"})
+    public int lado;
+
+    /** Núcleo: "escalar" o "vectorial" (Vector API). */
+    @Param({"escalar", "vectorial"})
+    public String nucleo;
+
+    /** Si cada paso se reparte en franjas entre varios hilos. */
+    @Param({"false", "true"})
+    public boolean paralelo;
+
+    /** Escenario con el campo preparado. */
+    public Escenario escenario;
+
+    /**
+     * Prepara el campo antes de cada ejecución.
+     */
+    @Setup(Level.Trial)
+    public void preparar() {
+        escenario = Escenario.crear();
+        String usado = escenario.prepararFeromonas(lado, paralelo, nucleo.equals("vectorial"), 42L);
+        if (!usado.startsWith(nucleo)) {
+            throw new IllegalStateException("Se pidio el nucleo " + nucleo + " y se usa " + usado);
+        }
+    }
+}
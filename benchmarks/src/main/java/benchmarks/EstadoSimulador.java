@@ -0,0 +1,35 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Estado compartido por los benchmarks: un simulador con N hormigas en un mapa de lado x lado.
+ * <p>
+ * Cada combinación de parámetros se prepara una vez por ejecución (fork) con la misma semilla.
+ */
+@State(Scope.Thread)
+public class EstadoSimulador {
+    /** Numero de hormigas (se limita a las celdas libres del mapa). */
+    @Param({"10", "1000", "100000"})
+    public int hormigas;
+
+    /** Ancho y alto del mapa. */
+    @Param({"1000", "10000"})
+    public int lado;
+
+    /** Escenario con el simulador preparado. */
+    public Escenario escenario;
+
+    /**
+     * Prepara el simulador antes de cada ejecución.
+     */
+    @Setup(Level.Trial)
+    public void preparar() {
+        escenario = Escenario.crear();
+        escenario.preparar(hormigas, lado, 42L);
+    }
+}
@@ -0,0 +1,37 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de un paso de difusión y evaporación del campo de feromonas.
+ * <p>
+ * Compara el núcleo escalar con el de la Vector API, en un hilo o repartido en franjas por el
+ * ForkJoinPool común. El fork arranca con el módulo de la Vector API para poder cargar el núcleo
+ * vectorial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class FeromonasBenchmark {
+
+    /**
+     * Un paso del campo de feromonas.
+     *
+     * @param estado Campo preparado.
+     * @return Los pasos aplicados.
+     */
+    @Benchmark
+    public long paso(EstadoFeromonas estado) {
+        return estado.escenario.pasoFeromonas();
+    }
+}
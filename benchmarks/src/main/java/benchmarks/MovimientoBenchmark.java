@@ -0,0 +1,60 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks del movimiento y de la comprobación de colisiones.
+ * <p>
+ * Miden el coste de un solo intento de movimiento ({@code Hormiga.moverAleatoriamente}) y de
+ * una sola consulta de {@code SimuladorColoniasHormigas.posicionOcupada}. Con la rejilla de
+ * ocupación ambos deben ser 0(1): el tiempo no debe crecer con el número de hormigas.
+ * {@code moverConBitacora} repite el primero apuntando cada intento en la bitácora de movimientos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovimientoBenchmark {
+
+    /**
+     * Un intento de movimiento de una hormiga.
+     *
+     * @param estado Simulador preparado.
+     * @return El numero de la hormiga movida.
+     */
+    @Benchmark
+    public int moverAleatoriamente(EstadoSimulador estado) {
+        return estado.escenario.moverSiguiente();
+    }
+
+    /**
+     * Un intento de movimiento de una hormiga, apuntado en la bitácora de movimientos.
+     *
+     * @param estado Simulador preparado con bitácora.
+     * @return El numero de la hormiga movida.
+     */
+    @Benchmark
+    public int moverConBitacora(EstadoBitacora estado) {
+        return estado.escenario.moverSiguiente();
+    }
+
+    /**
+     * Una comprobación de si una posición está ocupada.
+     *
+     * @param estado Simulador preparado.
+     * @return `true` si la posición está ocupada.
+     */
+    @Benchmark
+    public boolean posicionOcupada(EstadoSimulador estado) {
+        return estado.escenario.comprobarSiguientePosicion();
+    }
+}
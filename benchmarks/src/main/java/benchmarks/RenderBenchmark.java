@@ -0,0 +1,47 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de la visualización del mapa.
+ * <p>
+ * {@code Mapa.prepararMapa} coloca todas las hormigas en el mapa y {@code Mapa.mostrarMapa}
+ * compone la ventana visible. La salida se vuelca a un canal que la descarta, para medir el
+ * trabajo del simulador y no el del terminal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+    /**
+     * Preparar el mapa con todas las hormigas.
+     *
+     * @param estado Simulador preparado.
+     */
+    @Benchmark
+    public void prepararMapa(EstadoSimulador estado) {
+        estado.escenario.prepararMapa();
+    }
+
+    /**
+     * Componer y volcar el frame del mapa.
+     *
+     * @param estado Simulador preparado.
+     * @return Los bytes del frame.
+     */
+    @Benchmark
+    public int mostrarMapa(EstadoSimulador estado) {
+        return estado.escenario.mostrarMapa();
+    }
+}